@@ -1,14 +1,21 @@
 package org.project.karto.application.controller;
 
+import io.netty.buffer.Unpooled;
+import io.vertx.core.buffer.Buffer;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
+import jakarta.ws.rs.core.UriInfo;
 import org.project.karto.application.dto.auth.CompanyRegistrationForm;
 import org.project.karto.application.dto.user.ProfilePicture;
 import org.project.karto.application.service.AdminService;
-import org.project.karto.domain.companies.value_objects.PictureOfCards;
 
 import java.io.InputStream;
 
@@ -20,6 +27,8 @@ public class AdminResource {
 
     private final AdminService adminService;
 
+    private static final String IMMUTABLE_CACHE_CONTROL = "private, max-age=31536000, immutable";
+
     AdminResource(AdminService adminService) {
         this.adminService = adminService;
     }
@@ -45,11 +54,55 @@ public class AdminResource {
         return Response.accepted().build();
     }
 
+    /**
+     * Always revalidated, the response points to the content-hashed URL in {@code Content-Location}.
+     * {@code size} selects a rendition: thumbnail, list or full, the default.
+     */
     @GET
     @Path("/partner/cards/picture")
-    public ProfilePicture loadPicture(@QueryParam("companyName") String companyName) {
-        PictureOfCards pictureOfCards = adminService.loadProfilePicture(companyName);
-        return new ProfilePicture(pictureOfCards.profilePicture(), pictureOfCards.imageType());
+    @Produces({"image/png", "image/jpeg"})
+    public Response loadPicture(
+            @QueryParam("companyName") String companyName,
+            @QueryParam("size") String size,
+            @Context Request request,
+            @Context UriInfo uriInfo) {
+
+        ProfilePicture picture = adminService.loadProfilePicture(companyName, size);
+
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+
+        return picture(picture, request)
+                .cacheControl(cacheControl)
+                .contentLocation(uriInfo.getBaseUriBuilder()
+                        .path(AdminResource.class)
+                        .path(AdminResource.class, "loadPictureVersion")
+                        .queryParam("companyName", companyName)
+                        .queryParam("size", size == null ? "full" : size)
+                        .build(picture.etag()))
+                .build();
+    }
+
+    /**
+     * Content-hashed URL: its content never changes, so it may be cached forever.
+     */
+    @GET
+    @Path("/partner/cards/picture/{version}")
+    @Produces({"image/png", "image/jpeg"})
+    public Response loadPictureVersion(
+            @PathParam("version") String version,
+            @QueryParam("companyName") String companyName,
+            @QueryParam("size") String size,
+            @Context Request request) {
+
+        ProfilePicture picture = adminService.loadProfilePicture(companyName, size);
+        if (!picture.etag().equals(version))
+            throw responseException(Status.NOT_FOUND, "Picture version not found.");
+
+        return picture(picture, request)
+                .header(HttpHeaders.CACHE_CONTROL, IMMUTABLE_CACHE_CONTROL)
+                .build();
     }
 
     @PATCH
@@ -58,4 +111,23 @@ public class AdminResource {
         adminService.banUser(phone);
         return Response.ok().build();
     }
+
+    /**
+     * Neither way passes the picture through the heap: a cached picture is written from its direct buffer,
+     * otherwise the file itself is the entity and is transferred with sendfile.
+     */
+    private static Response.ResponseBuilder picture(ProfilePicture picture, Request request) {
+        EntityTag etag = new EntityTag(picture.etag());
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null)
+            return notModified;
+
+        Object entity = picture.content() != null
+                ? Buffer.buffer(Unpooled.wrappedBuffer(picture.content()))
+                : picture.file();
+
+        return Response.ok(entity, "image/" + picture.imageType())
+                .tag(etag);
+    }
 }
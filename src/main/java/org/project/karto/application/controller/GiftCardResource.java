@@ -1,14 +1,23 @@
 package org.project.karto.application.controller;
 
 import jakarta.annotation.security.RolesAllowed;
+import jakarta.enterprise.inject.Instance;
 import jakarta.ws.rs.GET;
+import jakarta.ws.rs.POST;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.QueryParam;
-import org.project.karto.application.dto.gift_card.CardDTO;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.project.karto.application.dto.common.Versioned;
+import org.project.karto.application.dto.gift_card.SpendRequest;
+import org.project.karto.application.pagination.CursorPageRequest;
 import org.project.karto.application.pagination.PageRequest;
 import org.project.karto.application.service.GiftCardsService;
-
-import java.util.List;
+import org.project.karto.domain.common.value_objects.Email;
 
 @Path("/gift-card")
 @RolesAllowed("CUSTOMER")
@@ -16,13 +25,53 @@ public class GiftCardResource {
 
     private final GiftCardsService giftCardsService;
 
-    GiftCardResource(GiftCardsService giftCardsService) {
+    private final JsonWebToken jwt;
+
+    GiftCardResource(GiftCardsService giftCardsService, Instance<JsonWebToken> jwt) {
         this.giftCardsService = giftCardsService;
+        this.jwt = jwt.get();
+    }
+
+    @POST
+    @Path("/spend")
+    public Response spend(SpendRequest spendRequest) {
+        giftCardsService.spend(spendRequest, new Email(jwt.getName()));
+        return Response.ok().build();
     }
 
+    /**
+     * Keyset paged by partner id unless the deprecated {@code offset} is passed without a {@code cursor},
+     * in which case the plain list of the requested page is returned in popularity order as before.
+     * The entity tag is the catalog version, so clients revalidate with {@code If-None-Match}.
+     */
     @GET
     @Path("/available/gift_cards")
-    public List<CardDTO> availableGiftCards(@QueryParam("limit") int limit, @QueryParam("offset") int offset) {
-        return giftCardsService.availableGiftCards(new PageRequest(offset, limit));
+    public Response availableGiftCards(
+            @QueryParam("limit") int limit,
+            @QueryParam("offset") Integer offset,
+            @QueryParam("cursor") String cursor,
+            @Context Request request) {
+
+        if (offset != null && cursor == null)
+            return catalog(giftCardsService.availableGiftCards(new PageRequest(limit, offset)), request);
+
+        return catalog(giftCardsService.availableGiftCards(CursorPageRequest.of(limit, cursor)), request);
+    }
+
+    private static Response catalog(Versioned<?> page, Request request) {
+        EntityTag etag = new EntityTag(page.etag());
+
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setNoCache(true);
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null)
+            return notModified.cacheControl(cacheControl).build();
+
+        return Response.ok(page.content())
+                .tag(etag)
+                .cacheControl(cacheControl)
+                .build();
     }
 }
@@ -3,11 +3,21 @@ package org.project.karto.application.controller;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.enterprise.inject.Instance;
 import jakarta.ws.rs.*;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.Request;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.jwt.JsonWebToken;
 import org.project.karto.application.dto.auth.LoginForm;
 import org.project.karto.application.dto.auth.Token;
+import org.project.karto.application.dto.common.QRImage;
+import org.project.karto.application.dto.gift_card.ScannedCardDTO;
 import org.project.karto.application.service.CompanyService;
+import org.project.karto.application.service.GiftCardsService;
+
+import java.io.InputStream;
+import java.math.BigDecimal;
 
 @Path("/partner")
 public class PartnerResource {
@@ -16,9 +26,14 @@ public class PartnerResource {
 
     private final CompanyService companyService;
 
-    PartnerResource(Instance<JsonWebToken> jwt, CompanyService companyService) {
+    private final GiftCardsService giftCardsService;
+
+    static final int QR_MAX_AGE_SECONDS = 3600;
+
+    PartnerResource(Instance<JsonWebToken> jwt, CompanyService companyService, GiftCardsService giftCardsService) {
         this.jwt = jwt.get();
         this.companyService = companyService;
+        this.giftCardsService = giftCardsService;
     }
 
     @GET
@@ -57,4 +72,34 @@ public class PartnerResource {
         companyService.changeCardLimitations(days, maxUsageCount, jwt.getName());
         return Response.accepted().build();
     }
+
+    @GET
+    @Path("/payment-qr")
+    @Produces("image/png")
+    @RolesAllowed("PARTNER")
+    public Response paymentQR(@QueryParam("amount") BigDecimal amount, @Context Request request) {
+        QRImage image = companyService.paymentQRImage(amount, jwt.getName());
+        EntityTag etag = new EntityTag(image.etag());
+
+        CacheControl cacheControl = new CacheControl();
+        cacheControl.setPrivate(true);
+        cacheControl.setMaxAge(QR_MAX_AGE_SECONDS);
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(etag);
+        if (notModified != null)
+            return notModified.cacheControl(cacheControl).build();
+
+        return Response.ok(image.png())
+                .tag(etag)
+                .cacheControl(cacheControl)
+                .build();
+    }
+
+    @POST
+    @Path("/card/scan")
+    @Consumes({"image/png", "image/jpeg", "application/octet-stream"})
+    @RolesAllowed("PARTNER")
+    public ScannedCardDTO scanCard(InputStream image) {
+        return giftCardsService.scanCard(image, jwt.getName());
+    }
 }
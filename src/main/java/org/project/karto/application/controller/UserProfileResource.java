@@ -5,11 +5,15 @@ import jakarta.enterprise.inject.Instance;
 import jakarta.ws.rs.GET;
 import jakarta.ws.rs.Path;
 import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
 import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.project.karto.application.dto.common.Page;
 import org.project.karto.application.dto.gift_card.GiftCardDTO;
 import org.project.karto.application.dto.user.UserDTO;
+import org.project.karto.application.pagination.CursorPageRequest;
 import org.project.karto.application.pagination.PageRequest;
+import org.project.karto.domain.common.containers.Slice;
 import org.project.karto.domain.common.value_objects.Email;
 import org.project.karto.domain.user.entities.User;
 import org.project.karto.domain.user.repository.UserRepository;
@@ -18,7 +22,6 @@ import org.project.karto.domain.user.values_objects.PersonalData;
 import java.util.List;
 
 import static org.project.karto.application.util.RestUtil.responseException;
-import static org.project.karto.domain.common.util.Utils.required;
 
 @Authenticated
 @Path("/user/profile")
@@ -51,13 +54,26 @@ public class UserProfileResource {
         user.cashbackStorage().amount());
   }
 
+  /**
+   * Keyset paged unless the deprecated {@code pageNumber} is passed without a {@code cursor},
+   * in which case the plain list of the requested page is returned as before.
+   */
   @GET
   @Path("/gift_cards")
-  public List<GiftCardDTO> userCards(@QueryParam("pageSize") int limit, @QueryParam("pageNumber") int offset) {
-    required("pageSize", limit);
-    required("pageNumber", offset);
+  public Response userCards(
+      @QueryParam("pageSize") int limit,
+      @QueryParam("pageNumber") Integer pageNumber,
+      @QueryParam("cursor") String cursor) {
 
-    return repo.userCards(new PageRequest(limit, offset), new Email(jwt.getName()))
-            .orElseThrow(() -> responseException(Status.BAD_REQUEST, "No user gift card found for this page."));
+    Email email = new Email(jwt.getName());
+    if (pageNumber != null && cursor == null) {
+      List<GiftCardDTO> cards = repo.userCards(new PageRequest(limit, pageNumber), email)
+          .orElseThrow(() -> responseException(Status.BAD_REQUEST, "No user gift card found for this page."));
+      return Response.ok(cards).build();
+    }
+
+    Slice<GiftCardDTO> slice = repo.userCards(CursorPageRequest.of(limit, cursor), email)
+        .orElseThrow(() -> responseException(Status.BAD_REQUEST, "No user gift card found for this page."));
+    return Response.ok(new Page<>(slice.items(), CursorPageRequest.nextCursor(slice))).build();
   }
 }
@@ -1,3 +1,42 @@
 package org.project.karto.application.dto.common;
 
-public record ErrorMessage(String errorMessage) {}
\ No newline at end of file
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public record ErrorMessage(String errorMessage) {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final int MAX_CACHED_BODIES = 1024;
+
+    private static final Map<String, String> BODIES = new ConcurrentHashMap<>();
+
+    /**
+     * Serialized body for the message. Error messages are mostly constants, so each one is serialized once;
+     * once the cache is full, messages built from input are serialized on every call instead of growing it.
+     */
+    public static String json(String message) {
+        if (message == null)
+            return serialize(null);
+
+        String cached = BODIES.get(message);
+        if (cached != null)
+            return cached;
+
+        String body = serialize(message);
+        if (BODIES.size() < MAX_CACHED_BODIES)
+            BODIES.putIfAbsent(message, body);
+        return body;
+    }
+
+    private static String serialize(String message) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(new ErrorMessage(message));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unexpected exception, error message can`t be serialized.", e);
+        }
+    }
+}
@@ -0,0 +1,8 @@
+package org.project.karto.application.dto.common;
+
+import java.util.List;
+
+import org.project.karto.domain.common.annotations.Nullable;
+
+public record Page<T>(List<T> items, @Nullable String nextCursor) {
+}
@@ -0,0 +1,4 @@
+package org.project.karto.application.dto.common;
+
+public record QRImage(byte[] png, String etag) {
+}
@@ -0,0 +1,14 @@
+package org.project.karto.application.dto.gift_card;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+public record ScannedCardDTO(
+    UUID cardID,
+    String status,
+    BigDecimal balance,
+    int countOfUses,
+    int maxCountOfUses,
+    LocalDateTime expirationDate) {
+}
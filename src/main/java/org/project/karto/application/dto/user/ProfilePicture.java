@@ -1,3 +1,8 @@
 package org.project.karto.application.dto.user;
 
-public record ProfilePicture(byte[] profilePicture, String imageType) {}
\ No newline at end of file
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import org.project.karto.domain.common.annotations.Nullable;
+
+public record ProfilePicture(Path file, long size, String imageType, String etag, @Nullable ByteBuffer content) {}
\ No newline at end of file
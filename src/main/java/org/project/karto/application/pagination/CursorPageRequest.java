@@ -0,0 +1,51 @@
+package org.project.karto.application.pagination;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.project.karto.domain.common.annotations.Nullable;
+import org.project.karto.domain.common.containers.Slice;
+import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
+import org.project.karto.domain.common.interfaces.CursorPageable;
+
+/**
+ * Keyset pagination request. The cursor is opaque for clients: the base64url encoded sort key and id
+ * of the last row they received.
+ */
+public record CursorPageRequest(int limit, @Nullable String afterKey, @Nullable String afterID) implements CursorPageable {
+
+    private static final char SEPARATOR = '|';
+
+    public CursorPageRequest {
+        if (limit < 0)
+            throw new IllegalDomainArgumentException("Limit cannot be negative");
+
+        limit = PageRequest.buildLimit(limit);
+    }
+
+    public static CursorPageRequest of(int limit, @Nullable String cursor) {
+        if (cursor == null || cursor.isBlank())
+            return new CursorPageRequest(limit, null, null);
+
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalDomainArgumentException("Invalid cursor.");
+        }
+
+        int separator = decoded.lastIndexOf(SEPARATOR);
+        if (separator <= 0 || separator == decoded.length() - 1)
+            throw new IllegalDomainArgumentException("Invalid cursor.");
+
+        return new CursorPageRequest(limit, decoded.substring(0, separator), decoded.substring(separator + 1));
+    }
+
+    public static @Nullable String nextCursor(Slice<?> slice) {
+        if (!slice.hasNext())
+            return null;
+
+        String raw = slice.nextKey() + SEPARATOR + slice.nextID();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
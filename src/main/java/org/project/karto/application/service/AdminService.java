@@ -1,13 +1,18 @@
 package org.project.karto.application.service;
 
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.project.karto.application.dto.auth.CompanyRegistrationForm;
 import org.project.karto.application.dto.auth.Token;
+import org.project.karto.application.dto.user.ProfilePicture;
+import org.project.karto.domain.common.containers.Result;
+import org.project.karto.domain.common.exceptions.DomainException;
 import org.project.karto.domain.common.value_objects.CardUsageLimitations;
 import org.project.karto.domain.common.value_objects.Email;
 import org.project.karto.domain.common.value_objects.Password;
@@ -23,7 +28,10 @@ import org.project.karto.domain.user.repository.UserRepository;
 import org.project.karto.domain.companies.value_objects.PictureOfCards;
 import org.project.karto.infrastructure.communication.PhoneInteractionService;
 import org.project.karto.infrastructure.files.CardPicturesRepository;
-import org.project.karto.infrastructure.files.StreamUtils;
+import org.project.karto.infrastructure.files.InvalidPictureException;
+import org.project.karto.infrastructure.files.PictureRendition;
+import org.project.karto.infrastructure.files.PictureTooLargeException;
+import org.project.karto.infrastructure.files.StoredPicture;
 import org.project.karto.infrastructure.security.HOTPGenerator;
 import org.project.karto.infrastructure.security.JWTUtility;
 import org.project.karto.infrastructure.security.PasswordEncoder;
@@ -75,6 +83,7 @@ public class AdminService {
         this.otpRepository = otpRepository;
     }
 
+    @WithSpan
     public Token auth(String verificationKey) {
         if (!secureEquals(this.verificationKey, verificationKey))
             throw responseException(Response.Status.FORBIDDEN, "Invalid administrator verification key.");
@@ -86,6 +95,7 @@ public class AdminService {
         return MessageDigest.isEqual(a.getBytes(StandardCharsets.UTF_8), b.getBytes(StandardCharsets.UTF_8));
     }
 
+    @WithSpan
     public void registerPartner(CompanyRegistrationForm registrationForm) {
         if (registrationForm == null)
             throw responseException(Response.Status.BAD_REQUEST, "Company registration form must be filled.");
@@ -127,27 +137,42 @@ public class AdminService {
         generateAndResendPartnerOTP(company);
     }
 
+    @WithSpan
     public void putPartnerCardPicture(InputStream inputStream, String companyName) {
         Company company = companyRepository.findBy(new CompanyName(companyName))
                 .orElseThrow(() -> responseException(Status.NOT_FOUND, "This partner is not found."));
 
-        final byte[] pictureBytes = StreamUtils.toByteArray(inputStream)
-                .orElseThrow(() -> responseException(Status.BAD_REQUEST, "Invalid picture."));
+        Result<StoredPicture, Throwable> upload = picturesRepository.upload(inputStream);
+        final StoredPicture staged = upload.orElseThrow(() -> pictureRejected(upload.throwable()));
 
-        final PictureOfCards picture = PictureOfCards.of(pictureBytes, company);
-        company.changePicture(picture);
+        try {
+            final PictureOfCards picture = PictureOfCards.of(company, staged.imageType(), staged.size());
+            company.changePicture(picture);
 
-        picturesRepository.put(company);
+            Result<StoredPicture, Throwable> stored = picturesRepository.put(company, staged);
+            stored.orElseThrow(() -> pictureNotSaved(stored.throwable()));
+        } finally {
+            picturesRepository.discard(staged);
+        }
     }
 
-    public PictureOfCards loadProfilePicture(String companyName) {
+    @WithSpan
+    public ProfilePicture loadProfilePicture(String companyName, String size) {
+        PictureRendition rendition = size == null ? PictureRendition.FULL : PictureRendition.of(size)
+                .orElseThrow(() -> responseException(Status.BAD_REQUEST, "Unknown picture size."));
+
         Company company = companyRepository.findBy(new CompanyName(companyName))
                 .orElseThrow(() -> responseException(Status.NOT_FOUND, "This partner is not found."));
 
-        return picturesRepository.load(PictureOfCards.profilePicturePath(company.id().toString()))
+        StoredPicture picture = picturesRepository
+                .open(PictureOfCards.profilePicturePath(company.id().toString()), rendition)
                 .orElseThrow(() -> responseException(Status.NOT_FOUND, "Picture not found."));
+
+        return new ProfilePicture(picture.file(), picture.size(), picture.imageType(), picture.etag(),
+                picture.content());
     }
 
+    @WithSpan
     public void banUser(String receivedPhone) {
         Phone phone = new Phone(receivedPhone);
         User user = userRepository.findBy(phone).orElseThrow();
@@ -157,14 +182,32 @@ public class AdminService {
                 .orElseThrow(() -> responseException(Response.Status.INTERNAL_SERVER_ERROR, "Please try again later."));
     }
 
+    @WithSpan
     public Object statisticAll() {
         return null; // TODO
     }
 
+    @WithSpan
     public Object statisticOfCommonCards() {
         return null; // TODO
     }
 
+    private static WebApplicationException pictureNotSaved(Throwable throwable) {
+        if (throwable instanceof PictureTooLargeException || throwable instanceof InvalidPictureException)
+            return pictureRejected(throwable);
+        return responseException(Status.INTERNAL_SERVER_ERROR, "Unable to save picture. Please try again later.");
+    }
+
+    private static WebApplicationException pictureRejected(Throwable throwable) {
+        if (throwable instanceof PictureTooLargeException)
+            return responseException(Status.REQUEST_ENTITY_TOO_LARGE, throwable.getMessage());
+        if (throwable instanceof InvalidPictureException)
+            return responseException(Status.BAD_REQUEST, throwable.getMessage());
+        if (throwable instanceof DomainException)
+            return responseException(Status.BAD_REQUEST, throwable.getMessage());
+        return responseException(Status.BAD_REQUEST, "Invalid picture.");
+    }
+
     private void generateAndResendPartnerOTP(Company company) {
         PartnerVerificationOTP otp = PartnerVerificationOTP
                 .of(company,
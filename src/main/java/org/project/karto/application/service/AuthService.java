@@ -1,9 +1,12 @@
 package org.project.karto.application.service;
 
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.eclipse.microprofile.jwt.JsonWebToken;
 import org.project.karto.application.dto.auth.*;
 import org.project.karto.domain.common.exceptions.IllegalDomainStateException;
@@ -23,8 +26,6 @@ import org.project.karto.infrastructure.security.JWTUtility;
 import org.project.karto.infrastructure.security.PasswordEncoder;
 
 import java.time.LocalDate;
-import java.time.LocalDateTime;
-import java.time.ZoneOffset;
 import java.time.format.DateTimeParseException;
 import java.util.Objects;
 
@@ -33,6 +34,9 @@ import static org.project.karto.application.util.RestUtil.responseException;
 @ApplicationScoped
 public class AuthService {
 
+    @ConfigProperty(name = "refresh-token.purge.batch-size", defaultValue = "1000")
+    int purgeBatchSize;
+
     private final JWTUtility jwtUtility;
 
     private final HOTPGenerator hotpGenerator;
@@ -64,6 +68,7 @@ public class AuthService {
         this.hotpGenerator = new HOTPGenerator();
     }
 
+    @WithSpan
     public void registration(RegistrationForm registrationForm) {
         if (registrationForm == null)
             throw responseException(Response.Status.BAD_REQUEST, "Registration form is null");
@@ -103,6 +108,7 @@ public class AuthService {
         emailInteractionService.sendSoftVerificationMessage(email);
     }
 
+    @WithSpan
     public void resendOTP(String phoneNumber) {
         Phone phone = new Phone(phoneNumber);
         User user = userRepository.findBy(phone).orElseThrow();
@@ -114,6 +120,7 @@ public class AuthService {
         generateAndSendOTP(user);
     }
 
+    @WithSpan
     public void lateVerification(LateVerificationForm lvForm) {
         Email email = new Email(lvForm.email());
         Phone phone = new Phone(lvForm.phone());
@@ -132,6 +139,7 @@ public class AuthService {
         emailInteractionService.sendSoftVerificationMessage(email);
     }
 
+    @WithSpan
     public void verification(String receivedOTP) {
         try {
             OTP.validate(receivedOTP);
@@ -159,6 +167,7 @@ public class AuthService {
         }
     }
 
+    @WithSpan
     public LoginResponse login(LoginForm loginForm) {
         if (loginForm == null)
             throw responseException(Status.BAD_REQUEST, "Login form is required.");
@@ -170,23 +179,26 @@ public class AuthService {
         if (!user.canLogin())
             throw responseException(Response.Status.FORBIDDEN, "You can`t login with unverified or banned account.");
 
-        final boolean isValidPasswordProvided = passwordEncoder.verify(loginForm.password(),
-                user.personalData().password().orElseThrow());
+        final String hashedPassword = user.personalData().password().orElseThrow();
+        final boolean isValidPasswordProvided = passwordEncoder.verify(loginForm.password(), hashedPassword);
         if (!isValidPasswordProvided)
             throw responseException(Response.Status.BAD_REQUEST, "Password do not match.");
 
+        passwordEncoder.rehashIfNeeded(loginForm.password(), hashedPassword, rehashed -> rehashPassword(user, hashedPassword, rehashed));
+
         if (user.is2FAEnabled()) {
             generateAndSendOTP(user);
             return TwoFAMessage.defaultMessage();
         }
 
         Tokens tokens = generateTokens(user);
-        userRepository.saveRefreshToken(new RefreshToken(user.id(), tokens.refreshToken()))
+        userRepository.saveRefreshToken(RefreshToken.of(user.id(), tokens.refreshToken()))
                 .orElseThrow(() -> responseException(Response.Status.INTERNAL_SERVER_ERROR,
                         "Unable to authenticate your account at the moment. Please try again later."));
         return tokens;
     }
 
+    @WithSpan
     public void enable2FA(LoginForm loginForm) {
         if (loginForm == null)
             throw responseException(Response.Status.BAD_REQUEST, "Please fill the login form.");
@@ -209,6 +221,7 @@ public class AuthService {
         generateAndSendOTP(user);
     }
 
+    @WithSpan
     public Tokens twoFactorAuth(String receivedOTP) {
         try {
             OTP.validate(receivedOTP);
@@ -229,7 +242,7 @@ public class AuthService {
             }
 
             Tokens tokens = generateTokens(user);
-            userRepository.saveRefreshToken(new RefreshToken(user.id(), tokens.refreshToken()))
+            userRepository.saveRefreshToken(RefreshToken.of(user.id(), tokens.refreshToken()))
                     .orElseThrow(() -> responseException(Response.Status.INTERNAL_SERVER_ERROR,
                             "Unable to authenticate your account at the moment. Please try again later."));
             return tokens;
@@ -238,6 +251,7 @@ public class AuthService {
         }
     }
 
+    @WithSpan
     public Tokens oidcAuth(String idToken) {
         try {
             JsonWebToken claims = jwtUtility.verifyAndParse(idToken)
@@ -249,7 +263,7 @@ public class AuthService {
             if (!userRepository.isEmailExists(email)) {
                 User user = registerNonExistedUser(claims, email);
                 Tokens tokens = generateTokens(user);
-                userRepository.saveRefreshToken(new RefreshToken(user.id(), tokens.refreshToken()))
+                userRepository.saveRefreshToken(RefreshToken.of(user.id(), tokens.refreshToken()))
                         .orElseThrow(() -> responseException(Response.Status.INTERNAL_SERVER_ERROR,
                                 "Unable to authenticate your account at the moment. Please try again later."));
                 return tokens;
@@ -257,7 +271,7 @@ public class AuthService {
 
             User user = userRepository.findBy(email).orElseThrow();
             Tokens tokens = generateTokens(user);
-            userRepository.saveRefreshToken(new RefreshToken(user.id(), tokens.refreshToken()))
+            userRepository.saveRefreshToken(RefreshToken.of(user.id(), tokens.refreshToken()))
                     .orElseThrow(() -> responseException(Response.Status.INTERNAL_SERVER_ERROR,
                             "Unable to authenticate your account at the moment. Please try again later."));
             return tokens;
@@ -266,6 +280,7 @@ public class AuthService {
         }
     }
 
+    @WithSpan
     public Token refreshToken(String refreshToken) {
         if (refreshToken == null)
             throw responseException(Response.Status.BAD_REQUEST, "Refresh token can`t be null");
@@ -273,14 +288,7 @@ public class AuthService {
         RefreshToken foundedPairResult = userRepository.findRefreshToken(refreshToken)
                 .orElseThrow(() -> responseException(Response.Status.NOT_FOUND, "This refresh token is not found."));
 
-        long tokenExpirationDate = jwtUtility.parse(foundedPairResult.refreshToken())
-                .orElseThrow(
-                        () -> responseException(Response.Status.BAD_REQUEST, "Something went wrong, try again later."))
-                .getExpirationTime();
-
-        var tokenExpiration = LocalDateTime.ofEpochSecond(tokenExpirationDate, 0, ZoneOffset.UTC);
-
-        if (LocalDateTime.now(ZoneOffset.UTC).isAfter(tokenExpiration))
+        if (foundedPairResult.isExpired())
             throw responseException(Response.Status.BAD_REQUEST, "Refresh token is expired, you need to login.");
 
         final User user = userRepository
@@ -291,6 +299,18 @@ public class AuthService {
         return new Token(token);
     }
 
+    @Scheduled(every = "{refresh-token.purge.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void purgeExpiredRefreshTokens() {
+        int removed;
+        do {
+            removed = userRepository.removeExpiredRefreshTokens(purgeBatchSize)
+                    .orElseGet(() -> {
+                        Log.error("Can`t remove expired refresh tokens.");
+                        return 0;
+                    });
+        } while (removed == purgeBatchSize);
+    }
+
     private User registerNonExistedUser(JsonWebToken claims, Email email) {
         String firstname = claims.getClaim("firstname");
         String surname = claims.getClaim("lastname");
@@ -325,6 +345,15 @@ public class AuthService {
         return new Tokens(token, refreshToken);
     }
 
+    private void rehashPassword(User user, String verifiedPassword, String rehashedPassword) {
+        userRepository.rehashPassword(user.id(), verifiedPassword, rehashedPassword)
+                .handle(rows -> {
+                            if (rows == 0)
+                                Log.debug("Password changed before its rehash was stored, rehash skipped.");
+                        },
+                        throwable -> Log.error("Can`t save rehashed password.", throwable));
+    }
+
     private void generateAndSendOTP(User user) {
         OTP otp = OTP.of(user, hotpGenerator.generateHOTP(user.keyAndCounter().key(), user.keyAndCounter().counter()));
 
@@ -1,5 +1,6 @@
 package org.project.karto.application.service;
 
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.core.Response;
@@ -7,6 +8,7 @@ import jakarta.ws.rs.core.Response.Status;
 import org.project.karto.application.dto.auth.LoginForm;
 import org.project.karto.application.dto.auth.Token;
 import org.project.karto.application.dto.common.QR;
+import org.project.karto.application.dto.common.QRImage;
 import org.project.karto.application.dto.gift_card.PaymentQRDTO;
 import org.project.karto.domain.common.exceptions.IllegalDomainStateException;
 import org.project.karto.domain.common.value_objects.*;
@@ -16,11 +18,15 @@ import org.project.karto.domain.companies.repository.CompanyRepository;
 import org.project.karto.domain.companies.repository.PartnerVerificationOTPRepository;
 import org.project.karto.domain.companies.value_objects.CompanyName;
 import org.project.karto.infrastructure.communication.PhoneInteractionService;
-import org.project.karto.infrastructure.qr.QRGenerator;
+import org.project.karto.infrastructure.qr.QRCache;
+import org.project.karto.infrastructure.qr.QRCache.RenderedQR;
 import org.project.karto.infrastructure.security.HOTPGenerator;
 import org.project.karto.infrastructure.security.JWTUtility;
 import org.project.karto.infrastructure.security.PasswordEncoder;
 
+import java.math.BigDecimal;
+import java.util.Base64;
+
 import static org.project.karto.application.util.RestUtil.responseException;
 
 @ApplicationScoped
@@ -38,12 +44,15 @@ public class CompanyService {
 
     private final PartnerVerificationOTPRepository otpRepository;
 
+    private final QRCache qrCache;
+
     CompanyService(
             JWTUtility jwtUtility,
             PasswordEncoder passwordEncoder,
             CompanyRepository companyRepository,
             PhoneInteractionService phoneInteractionService,
-            PartnerVerificationOTPRepository otpRepository) {
+            PartnerVerificationOTPRepository otpRepository,
+            QRCache qrCache) {
 
         this.jwtUtility = jwtUtility;
         this.passwordEncoder = passwordEncoder;
@@ -51,8 +60,10 @@ public class CompanyService {
         this.hotpGenerator = new HOTPGenerator();
         this.companyRepository = companyRepository;
         this.otpRepository = otpRepository;
+        this.qrCache = qrCache;
     }
 
+    @WithSpan
     public void resendPartnerOTP(String phoneNumber) {
         Phone phone = new Phone(phoneNumber);
         Company company = companyRepository.findBy(phone)
@@ -65,6 +76,7 @@ public class CompanyService {
         generateAndResendPartnerOTP(company);
     }
 
+    @WithSpan
     public void verifyPartnerAccount(String receivedOTP) {
         try {
             PartnerVerificationOTP.validate(receivedOTP);
@@ -93,6 +105,7 @@ public class CompanyService {
         }
     }
 
+    @WithSpan
     public Token login(LoginForm loginForm) {
         Password.validate(loginForm.password());
         Phone phone = new Phone(loginForm.phone());
@@ -103,14 +116,18 @@ public class CompanyService {
         if (!company.isActive())
             throw responseException(Response.Status.FORBIDDEN, "You can`t login with unverified account.");
 
-        final boolean isValidPasswordProvided = passwordEncoder.verify(loginForm.password(),
-                company.password().password());
+        final String hashedPassword = company.password().password();
+        final boolean isValidPasswordProvided = passwordEncoder.verify(loginForm.password(), hashedPassword);
         if (!isValidPasswordProvided)
             throw responseException(Response.Status.BAD_REQUEST, "Password do not match.");
 
+        passwordEncoder.rehashIfNeeded(loginForm.password(), hashedPassword,
+                rehashed -> rehashPassword(company, hashedPassword, rehashed));
+
         return new Token(jwtUtility.generateToken(company));
     }
 
+    @WithSpan
     public void changePassword(String rawPassword, String receivedCompanyName) {
         Password.validate(rawPassword);
         CompanyName companyName = new CompanyName(receivedCompanyName);
@@ -125,19 +142,39 @@ public class CompanyService {
                         "Unable to change password. Please try again later."));
     }
 
+    @WithSpan
     public Object statisticOf(CompanyName companyName) {
         return null; // TODO
     }
 
+    @WithSpan
     public QR paymentQR(Amount amount, Email email) {
         Company company = companyRepository.findBy(email)
                 .orElseThrow(() -> responseException(Status.NOT_FOUND, "This partner not found."));
 
-        return QRGenerator.generate(new PaymentQRDTO(company.companyName().companyName(), amount.value()))
+        QRImage image = renderPaymentQR(company, amount);
+        return new QR(Base64.getEncoder().encodeToString(image.png()));
+    }
+
+    @WithSpan
+    public QRImage paymentQRImage(BigDecimal receivedAmount, String receivedCompanyName) {
+        Amount amount = new Amount(receivedAmount);
+        CompanyName companyName = new CompanyName(receivedCompanyName);
+
+        Company company = companyRepository.findBy(companyName)
+                .orElseThrow(() -> responseException(Status.NOT_FOUND, "This partner not found."));
+
+        return renderPaymentQR(company, amount);
+    }
+
+    private QRImage renderPaymentQR(Company company, Amount amount) {
+        RenderedQR rendered = qrCache.png(new PaymentQRDTO(company.companyName().companyName(), amount.value()))
                 .orElseThrow(() -> responseException(Status.INTERNAL_SERVER_ERROR,
                         "Unable to generate QR at the moment. Please try again later or process manual transaction."));
+        return new QRImage(rendered.png(), rendered.etag());
     }
 
+    @WithSpan
     public void changeCardLimitations(int days, int maxUsageCount, String receivedCompanyName) {
         CardUsageLimitations limitations = CardUsageLimitations.of(days, maxUsageCount);
         CompanyName companyName = new CompanyName(receivedCompanyName);
@@ -152,6 +189,15 @@ public class CompanyService {
                         "Unable to change card limitations. Please try again later."));
     }
 
+    private void rehashPassword(Company company, String verifiedPassword, String rehashedPassword) {
+        companyRepository.rehashPassword(company.id(), verifiedPassword, rehashedPassword)
+                .handle(rows -> {
+                            if (rows == 0)
+                                Log.debug("Password changed before its rehash was stored, rehash skipped.");
+                        },
+                        throwable -> Log.error("Can`t save rehashed password.", throwable));
+    }
+
     private void generateAndResendPartnerOTP(Company company) {
         PartnerVerificationOTP otp = PartnerVerificationOTP
                 .of(company,
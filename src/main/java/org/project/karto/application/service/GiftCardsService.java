@@ -1,18 +1,56 @@
 package org.project.karto.application.service;
 
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.ws.rs.core.Response.Status;
 import org.project.karto.application.dto.gift_card.CardDTO;
 import org.project.karto.application.dto.gift_card.CardForm;
+import org.project.karto.application.dto.gift_card.ScannedCardDTO;
 import org.project.karto.application.dto.gift_card.SpendRequest;
+import org.project.karto.application.dto.common.Page;
+import org.project.karto.application.dto.common.Versioned;
+import org.project.karto.application.pagination.CursorPageRequest;
 import org.project.karto.application.pagination.PageRequest;
+import org.project.karto.application.publisher.EventPublisher;
+import org.project.karto.domain.card.entities.Check;
+import org.project.karto.domain.card.entities.PaymentIntent;
+import org.project.karto.domain.card.enumerations.PaymentType;
+import org.project.karto.domain.card.events.CashbackEvent;
+import org.project.karto.domain.card.exceptions.CardBusyException;
 import org.project.karto.domain.card.repositories.CardVerificationOTPRepository;
+import org.project.karto.domain.card.entities.GiftCard;
 import org.project.karto.domain.card.repositories.GiftCardRepository;
+import org.project.karto.domain.card.repositories.OrderIDRepository;
+import org.project.karto.domain.card.value_objects.BankName;
+import org.project.karto.domain.card.value_objects.CardID;
+import org.project.karto.domain.card.value_objects.Currency;
+import org.project.karto.domain.card.value_objects.PayeeDescription;
+import org.project.karto.domain.card.value_objects.PaymentSystem;
+import org.project.karto.domain.card.value_objects.StoreID;
+import org.project.karto.domain.card.value_objects.UserActivitySnapshot;
+import org.project.karto.domain.common.containers.Result;
+import org.project.karto.domain.common.containers.Slice;
+import org.project.karto.domain.common.exceptions.DomainException;
+import org.project.karto.domain.common.interfaces.KartoDomainEvent;
+import org.project.karto.domain.common.tuples.Pair;
+import org.project.karto.domain.common.value_objects.Amount;
 import org.project.karto.domain.common.value_objects.Email;
+import org.project.karto.domain.companies.entities.Company;
+import org.project.karto.domain.companies.repository.CompanyRepository;
+import org.project.karto.domain.companies.value_objects.CompanyName;
+import org.project.karto.domain.user.entities.User;
 import org.project.karto.domain.user.repository.UserRepository;
 import org.project.karto.infrastructure.client.UPPaymentProcessor;
+import org.project.karto.infrastructure.qr.QRScanner;
+import org.project.karto.infrastructure.repository.CatalogCache;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
 
 import static org.project.karto.application.util.RestUtil.responseException;
 import static org.project.karto.domain.common.util.Utils.required;
@@ -28,33 +66,201 @@ public class GiftCardsService {
 
     private final CardVerificationOTPRepository cardVerificationRepository;
 
+    private final CompanyRepository companyRepository;
+
+    private final QRScanner qrScanner;
+
+    private final CatalogCache catalogCache;
+
+    private final OrderIDRepository orderIDRepository;
+
+    private final EventPublisher eventPublisher;
+
+    static final int MAX_SCAN_IMAGE_SIZE = 4 * 1024 * 1024;
+
+    static final Currency SPEND_CURRENCY = Currency.getInstance("USD");
+
+    static final PaymentSystem KARTO_PAYMENT_SYSTEM = new PaymentSystem("Karto");
+
+    static final BankName KARTO_BANK = new BankName("Karto");
+
     GiftCardsService(
             UserRepository userRepository,
             UPPaymentProcessor paymentProcessor,
             GiftCardRepository giftCardRepository,
-            CardVerificationOTPRepository cardVerificationRepository) {
+            CardVerificationOTPRepository cardVerificationRepository,
+            CompanyRepository companyRepository,
+            QRScanner qrScanner,
+            CatalogCache catalogCache,
+            OrderIDRepository orderIDRepository,
+            EventPublisher eventPublisher) {
 
         this.userRepository = userRepository;
         this.paymentProcessor = paymentProcessor;
         this.giftCardRepository = giftCardRepository;
         this.cardVerificationRepository = cardVerificationRepository;
+        this.companyRepository = companyRepository;
+        this.qrScanner = qrScanner;
+        this.catalogCache = catalogCache;
+        this.orderIDRepository = orderIDRepository;
+        this.eventPublisher = eventPublisher;
     }
 
+    @WithSpan
     public void create(CardForm cardForm, Email email) {
         // TODO
     }
 
+    @WithSpan
     public void verify(String otp, Email email) {
         // TODO
     }
 
+    /**
+     * Pays in the store from the card balance. Ownership is checked on a plain read, the balance itself is checked
+     * and debited on the card row locked by {@link GiftCardRepository#spend}, so concurrent spends of one card are
+     * applied one after another and none of them is lost. A card still locked after the lock timeout is answered
+     * with 409, the client may retry.
+     */
+    @WithSpan
     public void spend(SpendRequest spendRequest, Email email) {
-        // TODO
+        required("spendRequest", spendRequest);
+        required("email", email);
+        if (spendRequest.fromCard() == null || spendRequest.storeID() == null || spendRequest.amount() == null)
+            throw responseException(Status.BAD_REQUEST, "Card, store and amount are required.");
+
+        CardID cardID = new CardID(spendRequest.fromCard());
+        StoreID storeID = new StoreID(spendRequest.storeID());
+        Amount amount = new Amount(spendRequest.amount());
+
+        User user = userRepository.findBy(email)
+                .orElseThrow(() -> responseException(Status.NOT_FOUND, "User not found."));
+        GiftCard card = giftCardRepository.findBy(cardID)
+                .orElseThrow(() -> responseException(Status.NOT_FOUND, "Card not found."));
+        if (card.ownerID().isEmpty() || !card.ownerID().get().value().equals(user.id()))
+            throw responseException(Status.FORBIDDEN, "This card does not belong to you.");
+
+        long orderID = orderIDRepository.next()
+                .orElseThrow(() -> responseException(Status.INTERNAL_SERVER_ERROR,
+                        "Unable to process your request at the moment. Please try again."));
+        UserActivitySnapshot activitySnapshot = UserActivitySnapshot.defaultSnapshot(user.id());
+        List<KartoDomainEvent> events = new ArrayList<>();
+
+        Result<Pair<PaymentIntent, Check>, Throwable> result = giftCardRepository.spend(cardID, locked -> {
+            PaymentIntent intent = locked.initializeTransaction(amount, orderID, storeID);
+            intent.markAsSuccess(new PayeeDescription("Payment #" + orderID));
+            Check check = locked.applyTransaction(intent, activitySnapshot, SPEND_CURRENCY,
+                    PaymentType.KARTO_PAYMENT, KARTO_PAYMENT_SYSTEM, KARTO_BANK);
+            events.addAll(locked.pullEvents());
+            return Pair.of(intent, check);
+        });
+
+        if (result.success()) {
+            publish(events);
+            return;
+        }
+        if (result.throwable() instanceof CardBusyException e)
+            throw responseException(Status.CONFLICT, e.getMessage());
+        if (result.throwable() instanceof DomainException e)
+            throw e;
+        throw responseException(Status.INTERNAL_SERVER_ERROR,
+                "Unable to process your request at the moment. Please try again.");
+    }
+
+    // only after the spend is committed, a rolled back spend earns no cashback
+    private void publish(List<KartoDomainEvent> events) {
+        for (KartoDomainEvent event : events)
+            if (event instanceof CashbackEvent cashback)
+                eventPublisher.publish(cashback).subscribe().with(
+                        ignored -> {},
+                        throwable -> Log.error("Can`t credit cashback of card " + cashback.cardID().value(), throwable));
     }
 
-    public List<CardDTO> availableGiftCards(PageRequest pageRequest) {
+    /**
+     * Catalog pages are served from {@link CatalogCache} until a partner registers or changes its card limitations,
+     * at most for {@code catalog.cache.ttl}.
+     */
+    @WithSpan
+    public Versioned<List<CardDTO>> availableGiftCards(PageRequest pageRequest) {
         required("pageRequest", pageRequest);
-        return giftCardRepository.availableGiftCards(pageRequest)
+        long version = catalogCache.version();
+        String page = "offset:%d:%d".formatted(pageRequest.limit(), pageRequest.offset());
+
+        List<CardDTO> cards = catalogCache
+                .page(version, page, () -> giftCardRepository.availableGiftCards(pageRequest))
                 .orElseThrow(() -> responseException(Status.BAD_REQUEST, "No available gift cards on this page."));
+        return new Versioned<>(cards, CatalogCache.etag(version));
+    }
+
+    @WithSpan
+    public Versioned<Page<CardDTO>> availableGiftCards(CursorPageRequest pageRequest) {
+        required("pageRequest", pageRequest);
+        long version = catalogCache.version();
+        String page = "cursor:%d:%s|%s".formatted(pageRequest.limit(), pageRequest.afterKey(), pageRequest.afterID());
+
+        Slice<CardDTO> slice = catalogCache
+                .page(version, page, () -> giftCardRepository.availableGiftCards(pageRequest))
+                .orElseThrow(() -> responseException(Status.BAD_REQUEST, "No available gift cards on this page."));
+        return new Versioned<>(new Page<>(slice.items(), CursorPageRequest.nextCursor(slice)), CatalogCache.etag(version));
+    }
+
+    @WithSpan
+    public ScannedCardDTO scanCard(InputStream upload, String receivedCompanyName) {
+        CompanyName companyName = new CompanyName(receivedCompanyName);
+        byte[] image = readScanImage(upload);
+        if (image.length == 0)
+            throw responseException(Status.BAD_REQUEST, "Image is required.");
+        if (image.length > MAX_SCAN_IMAGE_SIZE)
+            throw responseException(Status.REQUEST_ENTITY_TOO_LARGE, "Image is too large.");
+
+        List<String> messages = qrScanner.scan(image)
+                .orElseThrow(() -> responseException(Status.BAD_REQUEST, "Unable to read the image."));
+
+        CardID cardID = messages.stream()
+                .map(GiftCardsService::cardID)
+                .flatMap(Optional::stream)
+                .findFirst()
+                .orElseThrow(() -> responseException(Status.BAD_REQUEST, "No card QR code found on the image."));
+
+        Company company = companyRepository.findBy(companyName)
+                .orElseThrow(() -> responseException(Status.NOT_FOUND, "This partner not found."));
+        GiftCard card = giftCardRepository.findBy(cardID)
+                .orElseThrow(() -> responseException(Status.NOT_FOUND, "Card not found."));
+
+        if (card.storeID().isPresent() && !card.storeID().get().value().equals(company.id()))
+            throw responseException(Status.FORBIDDEN, "This card can`t be used in your store.");
+
+        return new ScannedCardDTO(
+                card.id().value(),
+                card.giftCardStatus().name(),
+                card.balance().value(),
+                card.countOfUses(),
+                card.maxCountOfUses(),
+                card.expirationDate());
+    }
+
+    /**
+     * Reads at most one byte past {@link #MAX_SCAN_IMAGE_SIZE}, so an oversized upload is never buffered whole.
+     */
+    private static byte[] readScanImage(InputStream upload) {
+        if (upload == null)
+            return new byte[0];
+
+        try (upload) {
+            return upload.readNBytes(MAX_SCAN_IMAGE_SIZE + 1);
+        } catch (IOException e) {
+            Log.error("Can`t read scanned image.", e);
+            throw responseException(Status.BAD_REQUEST, "Unable to read the image.");
+        }
+    }
+
+    private static Optional<CardID> cardID(String message) {
+        if (message == null)
+            return Optional.empty();
+        try {
+            return Optional.of(new CardID(UUID.fromString(message.strip())));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
     }
 }
@@ -1,7 +1,5 @@
 package org.project.karto.application.util;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.ws.rs.WebApplicationException;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
@@ -9,22 +7,28 @@ import org.project.karto.application.dto.common.ErrorMessage;
 
 public class RestUtil {
 
-    private static final ObjectMapper objectMapper = new ObjectMapper();
-
     private RestUtil() {}
 
     public static WebApplicationException responseException(Response.Status status, String message) {
-        String entity;
-        try {
-            entity = objectMapper.writeValueAsString(new ErrorMessage(message));
-        } catch (JsonProcessingException e) {
-            throw new IllegalStateException("Unexpected exception, error message can`t be serialized.");
-        }
-
-        return new WebApplicationException(Response
+        return new ResponseException(Response
                 .status(status)
-                .entity(entity)
+                .entity(ErrorMessage.json(message))
                 .type(MediaType.APPLICATION_JSON_TYPE)
                 .build());
     }
-}
\ No newline at end of file
+
+    /**
+     * Carries a prepared response, the stack trace is never looked at and is not captured.
+     */
+    private static final class ResponseException extends WebApplicationException {
+
+        ResponseException(Response response) {
+            super(response);
+        }
+
+        @Override
+        public synchronized Throwable fillInStackTrace() {
+            return this;
+        }
+    }
+}
@@ -8,8 +8,8 @@ import org.project.karto.domain.common.annotations.Nullable;
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
 import org.project.karto.domain.common.exceptions.IllegalDomainStateException;
 import org.project.karto.domain.common.value_objects.Amount;
+import org.project.karto.domain.common.value_objects.Money;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.Optional;
@@ -133,14 +133,14 @@ public class CardPurchaseIntent {
         isPendingCard();
 
         Amount feeAmount = removedFee.calculateFee(totalPayedAmount);
-        if (feeAmount.value().compareTo(totalPayedAmount.value()) > 0)
+        if (feeAmount.money().compareTo(totalPayedAmount.money()) > 0)
             throw new IllegalDomainArgumentException("The commission cannot be greater than the total amount paid.");
 
         this.resultDate = LocalDateTime.now();
         this.status = PurchaseStatus.SUCCESS;
         this.removedFee = removedFee;
         return Check.cardPurchaseCheck(orderID, buyerID, storeID, totalPayedAmount, currency, paymentType,
-                new InternalFeeAmount(BigDecimal.ZERO), new ExternalFeeAmount(feeAmount.value()),
+                new InternalFeeAmount(Money.ZERO), new ExternalFeeAmount(feeAmount.money()),
                 paymentSystem, description, bankName);
     }
 
@@ -149,7 +149,7 @@ public class CardPurchaseIntent {
             throw new IllegalDomainStateException("Cannot calculate net amount: status is not SUCCESS");
 
         Amount feeAmount = removedFee.calculateFee(totalPayedAmount);
-        return new Amount(totalPayedAmount.value().subtract(feeAmount.value()));
+        return new Amount(totalPayedAmount.money().minus(feeAmount.money()));
     }
 
     public void markAsCancel() {
@@ -6,10 +6,10 @@ import org.project.karto.domain.card.value_objects.*;
 import org.project.karto.domain.common.annotations.Nullable;
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
 import org.project.karto.domain.common.value_objects.Amount;
+import org.project.karto.domain.common.value_objects.Money;
 
 import static org.project.karto.domain.common.util.Utils.required;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.Optional;
@@ -99,7 +99,7 @@ public class Check {
             PayeeDescription description,
             BankName bankName) {
 
-        ExternalFeeAmount zeroedFee = new ExternalFeeAmount(BigDecimal.ZERO);
+        ExternalFeeAmount zeroedFee = new ExternalFeeAmount(Money.ZERO);
 
         required("storeID", storeID);
         required("cardID", cardID);
@@ -13,8 +13,11 @@ import org.project.karto.domain.common.tuples.Pair;
 import org.project.karto.domain.common.value_objects.Amount;
 import org.project.karto.domain.common.value_objects.CardUsageLimitations;
 import org.project.karto.domain.common.value_objects.KeyAndCounter;
+import org.project.karto.domain.common.value_objects.Money;
+import org.project.karto.domain.common.value_objects.Rate;
 
 import java.math.BigDecimal;
+import java.math.RoundingMode;
 import java.time.LocalDateTime;
 import java.util.*;
 
@@ -37,10 +40,10 @@ public class GiftCard {
     private long version;
     private final Deque<KartoDomainEvent> events;
 
-    public static final BigDecimal KARTO_COMMON_CARD_FEE_RATE = BigDecimal.valueOf(0.02);
-    public static final BigDecimal DEFAULT_CASHBACK = BigDecimal.valueOf(0.01); // 1%
-    public static final BigDecimal MAX_CASHBACK_RATE = BigDecimal.valueOf(0.035); // 3.5%
-    public static final BigDecimal ACTIVITY_MULTIPLIER = BigDecimal.valueOf(0.001); // 0.01% for every consecutive usage day
+    public static final Rate KARTO_COMMON_CARD_FEE_RATE = Rate.of(BigDecimal.valueOf(0.02));
+    public static final Rate DEFAULT_CASHBACK = Rate.of(BigDecimal.valueOf(0.01)); // 1%
+    public static final Rate MAX_CASHBACK_RATE = Rate.of(BigDecimal.valueOf(0.035)); // 3.5%
+    public static final Rate ACTIVITY_MULTIPLIER = Rate.of(BigDecimal.valueOf(0.001)); // 0.01% for every consecutive usage day
 
     private GiftCard(
             CardID id,
@@ -293,7 +296,11 @@ public class GiftCard {
         incrementVersion();
     }
 
-    public synchronized PaymentIntent initializeTransaction(Amount amount, long orderID, StoreID storeID) {
+    /**
+     * Not synchronized: each request works on its own copy of the card, concurrent spends of one card are
+     * serialized by the row lock of {@link org.project.karto.domain.card.repositories.GiftCardRepository#spend}.
+     */
+    public PaymentIntent initializeTransaction(Amount amount, long orderID, StoreID storeID) {
         if (amount == null)
             throw new IllegalDomainArgumentException("Amount can`t be null");
         if (markExpiredIfNeeded())
@@ -306,8 +313,8 @@ public class GiftCard {
         if (this.storeID != null && !this.storeID.equals(storeID))
             throw new IllegalDomainArgumentException("StoreID specified wrong.");
 
-        BigDecimal fee = calculateInternalFee(amount);
-        Amount totalAmount = new Amount(amount.value().add(fee));
+        Money fee = calculateInternalFee(amount);
+        Amount totalAmount = new Amount(amount.money().plus(fee));
 
         if (!hasSufficientBalance(totalAmount))
             throw new IllegalDomainArgumentException("There is not enough money on the balance");
@@ -317,7 +324,7 @@ public class GiftCard {
         return PaymentIntent.of(buyerID, id, storeID, orderID, totalAmount, new InternalFeeAmount(fee));
     }
 
-    public synchronized Check applyTransaction(PaymentIntent intent, UserActivitySnapshot activitySnapshot,
+    public Check applyTransaction(PaymentIntent intent, UserActivitySnapshot activitySnapshot,
             Currency currency,
             PaymentType paymentType, PaymentSystem paymentSystem, BankName bankName) {
 
@@ -345,7 +352,7 @@ public class GiftCard {
         balance = calculateBalance(intent.totalAmount());
         lastUsage = LocalDateTime.now();
 
-        Pair<BigDecimal, Boolean> cashback = calculateCashback(intent.totalAmount().value(), activitySnapshot);
+        Pair<Money, Boolean> cashback = calculateCashback(intent.totalAmount().money(), activitySnapshot);
         events.addFirst(new CashbackEvent(id, ownerID, cashback.getFirst(), cashback.getSecond()));
         incrementVersion();
 
@@ -360,35 +367,37 @@ public class GiftCard {
     private boolean hasSufficientBalance(Amount amount) {
         if (amount == null)
             throw new IllegalDomainArgumentException("Amount can`t be null");
-        return balance.value().compareTo(amount.value()) >= 0;
+        return balance.money().compareTo(amount.money()) >= 0;
     }
 
     private Balance calculateBalance(Amount totalAmount) {
-        return new Balance(balance.value().subtract(totalAmount.value()));
+        return new Balance(balance.money().minus(totalAmount.money()));
     }
 
-    private BigDecimal calculateInternalFee(Amount amount) {
+    // rounded up to the cent, the card owner pays the fraction
+    private Money calculateInternalFee(Amount amount) {
         if (giftCardType() == GiftCardType.COMMON)
-            return BigDecimal.ZERO;
-        return amount.value().multiply(KARTO_COMMON_CARD_FEE_RATE);
+            return Money.ZERO;
+        return amount.money().times(KARTO_COMMON_CARD_FEE_RATE, RoundingMode.UP);
     }
 
-    private Pair<BigDecimal, Boolean> calculateCashback(BigDecimal spentAmount, UserActivitySnapshot snapshot) {
+    // rounded down to the cent, cashback never exceeds the earned rate
+    private Pair<Money, Boolean> calculateCashback(Money spentAmount, UserActivitySnapshot snapshot) {
         if (snapshot.lastUsageReachedMaximumCashbackRate())
-            return Pair.of(DEFAULT_CASHBACK, false);
+            return Pair.of(spentAmount.times(DEFAULT_CASHBACK, RoundingMode.DOWN), false);
 
         LoyaltyLevel level = LoyaltyLevel.determineLevel(snapshot);
-        BigDecimal loyaltyBonus = level.cashbackBonus();
-        BigDecimal activityBonus = BigDecimal.valueOf(snapshot.consecutiveActiveDays()).multiply(ACTIVITY_MULTIPLIER);
+        Rate loyaltyBonus = level.cashbackBonus();
+        Rate activityBonus = ACTIVITY_MULTIPLIER.times(snapshot.consecutiveActiveDays());
 
         boolean reachedMaxCashbackRate = false;
-        BigDecimal totalRate = DEFAULT_CASHBACK.add(loyaltyBonus).add(activityBonus);
+        Rate totalRate = DEFAULT_CASHBACK.plus(loyaltyBonus).plus(activityBonus);
         if (totalRate.compareTo(MAX_CASHBACK_RATE) > 0) {
             totalRate = MAX_CASHBACK_RATE;
             reachedMaxCashbackRate = true;
         }
 
-        return Pair.of(spentAmount.multiply(totalRate), reachedMaxCashbackRate);
+        return Pair.of(spentAmount.times(totalRate, RoundingMode.DOWN), reachedMaxCashbackRate);
     }
 
     @Override
@@ -1,6 +1,8 @@
 package org.project.karto.domain.card.enumerations;
 
 import org.project.karto.domain.card.value_objects.UserActivitySnapshot;
+import org.project.karto.domain.common.value_objects.Money;
+import org.project.karto.domain.common.value_objects.Rate;
 
 import java.math.BigDecimal;
 
@@ -13,17 +15,17 @@ public enum LoyaltyLevel {
     DIAMOND(BigDecimal.valueOf(2000), BigDecimal.valueOf(0.025), "Diamond Member");             // 0.25%
 
     private static final LoyaltyLevel[] LEVELS = values();
-    private final BigDecimal minDecaySpent;
-    private final BigDecimal cashbackBonus;
+    private final Money minDecaySpent;
+    private final Rate cashbackBonus;
     private final String displayName;
 
     LoyaltyLevel(BigDecimal minDecaySpent, BigDecimal cashbackBonus, String displayName) {
-        this.minDecaySpent = minDecaySpent;
-        this.cashbackBonus = cashbackBonus;
+        this.minDecaySpent = Money.of(minDecaySpent);
+        this.cashbackBonus = Rate.of(cashbackBonus);
         this.displayName = displayName;
     }
 
-    public BigDecimal cashbackBonus() {
+    public Rate cashbackBonus() {
         return cashbackBonus;
     }
 
@@ -32,7 +34,7 @@ public enum LoyaltyLevel {
     }
 
     public static LoyaltyLevel determineLevel(UserActivitySnapshot snapshot) {
-        for (int i = values().length - 1; i >= 0; i--) {
+        for (int i = LEVELS.length - 1; i >= 0; i--) {
             LoyaltyLevel level = LEVELS[i];
 
             boolean reachedLevel = snapshot.decaySpent().compareTo(level.minDecaySpent) >= 0;
@@ -40,4 +42,4 @@ public enum LoyaltyLevel {
         }
         return NONE;
     }
-}
\ No newline at end of file
+}
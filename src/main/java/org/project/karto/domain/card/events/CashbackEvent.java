@@ -4,13 +4,12 @@ import org.project.karto.domain.card.value_objects.CardID;
 import org.project.karto.domain.card.value_objects.OwnerID;
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
 import org.project.karto.domain.common.interfaces.KartoDomainEvent;
-
-import java.math.BigDecimal;
+import org.project.karto.domain.common.value_objects.Money;
 
 public record CashbackEvent(
         CardID cardID,
         OwnerID ownerID,
-        BigDecimal amount,
+        Money amount,
         boolean reachMaxCashbackRate) implements KartoDomainEvent {
 
     public CashbackEvent {
@@ -20,6 +19,6 @@ public record CashbackEvent(
             throw new IllegalDomainArgumentException("Do not match");
 
         if (amount == null) throw new IllegalDomainArgumentException("Amount cannot be null");
-        if (amount.compareTo(BigDecimal.ZERO) < 0) throw new IllegalDomainArgumentException("Amount cannot be negative");
+        if (amount.isNegative()) throw new IllegalDomainArgumentException("Amount cannot be negative");
     }
 }
@@ -0,0 +1,12 @@
+package org.project.karto.domain.card.exceptions;
+
+import org.project.karto.domain.common.exceptions.DomainException;
+
+/**
+ * The card stayed locked by another spend for longer than the caller agreed to wait; the spend may be retried.
+ */
+public class CardBusyException extends DomainException {
+    public CardBusyException(String message) {
+        super(message);
+    }
+}
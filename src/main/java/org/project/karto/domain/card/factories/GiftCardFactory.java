@@ -68,7 +68,7 @@ public class GiftCardFactory {
             throw new IllegalDomainArgumentException("Cannot create gift card from unsuccessful purchase intent");
 
         Amount netAmount = purchaseIntent.calculateNetAmount();
-        Balance balance = new Balance(netAmount.value());
+        Balance balance = netAmount.toBalance();
 
         StoreID storeID = purchaseIntent.storeID().orElse(null);
 
@@ -1,15 +1,21 @@
 package org.project.karto.domain.card.repositories;
 
 import org.project.karto.application.dto.gift_card.CardDTO;
+import org.project.karto.domain.card.entities.Check;
 import org.project.karto.domain.card.entities.GiftCard;
+import org.project.karto.domain.card.entities.PaymentIntent;
 import org.project.karto.domain.card.value_objects.BuyerID;
 import org.project.karto.domain.card.value_objects.CardID;
 import org.project.karto.domain.card.value_objects.OwnerID;
 import org.project.karto.domain.card.value_objects.StoreID;
 import org.project.karto.domain.common.containers.Result;
+import org.project.karto.domain.common.containers.Slice;
+import org.project.karto.domain.common.interfaces.CursorPageable;
 import org.project.karto.domain.common.interfaces.Pageable;
+import org.project.karto.domain.common.tuples.Pair;
 
 import java.util.List;
+import java.util.function.Function;
 
 public interface GiftCardRepository {
 
@@ -19,6 +25,17 @@ public interface GiftCardRepository {
 
     Result<GiftCard, Throwable> findBy(CardID cardID);
 
+    /**
+     * Locks the card row, applies {@code spending} to the locked card and stores the card together with the
+     * payment intent and the check it returns, all in one transaction. Concurrent spends of one card, from any
+     * instance, queue on the lock instead of debiting copies of the same balance.
+     * <p>
+     * Fails with {@link org.project.karto.domain.card.exceptions.CardBusyException} when the lock is not granted
+     * in time, and with whatever {@code spending} throws, in both cases leaving the card untouched.
+     */
+    Result<Pair<PaymentIntent, Check>, Throwable> spend(CardID cardID,
+                                                        Function<GiftCard, Pair<PaymentIntent, Check>> spending);
+
     Result<List<GiftCard>, Throwable> findBy(BuyerID buyerID);
 
     Result<List<GiftCard>, Throwable> findBy(OwnerID ownerID);
@@ -26,4 +43,6 @@ public interface GiftCardRepository {
     Result<List<GiftCard>, Throwable> findBy(StoreID storeID);
 
     Result<List<CardDTO>, Throwable> availableGiftCards(Pageable page);
+
+    Result<Slice<CardDTO>, Throwable> availableGiftCards(CursorPageable page);
 }
@@ -1,12 +1,26 @@
 package org.project.karto.domain.card.value_objects;
 
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
+import org.project.karto.domain.common.value_objects.Money;
 
 import java.math.BigDecimal;
 
-public record Balance(BigDecimal value) {
+public record Balance(Money money) {
     public Balance {
+        if (money == null) throw new IllegalDomainArgumentException("Value can`t be null");
+        if (money.isNegative()) throw new IllegalDomainArgumentException("Value can`t be negative");
+    }
+
+    public Balance(BigDecimal value) {
+        this(money(value));
+    }
+
+    private static Money money(BigDecimal value) {
         if (value == null) throw new IllegalDomainArgumentException("Value can`t be null");
-        if (value.compareTo(BigDecimal.ZERO) < 0) throw new IllegalDomainArgumentException("Value can`t be negative");
+        return Money.of(value);
+    }
+
+    public BigDecimal value() {
+        return money.toBigDecimal();
     }
 }
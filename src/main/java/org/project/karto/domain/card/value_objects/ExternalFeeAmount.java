@@ -1,18 +1,35 @@
 package org.project.karto.domain.card.value_objects;
 
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
+import org.project.karto.domain.common.value_objects.Money;
 
 import java.math.BigDecimal;
 
-public record ExternalFeeAmount(BigDecimal value) {
+public record ExternalFeeAmount(Money money) {
 
     public ExternalFeeAmount {
-        if (value == null) {
+        if (money == null) {
             throw new IllegalDomainArgumentException("value must not be null");
         }
 
-        if (value.compareTo(BigDecimal.ZERO) < 0) {
+        if (money.isNegative()) {
             throw new IllegalDomainArgumentException("value must be greater than zero");
         }
     }
+
+    public ExternalFeeAmount(BigDecimal value) {
+        this(money(value));
+    }
+
+    private static Money money(BigDecimal value) {
+        if (value == null) {
+            throw new IllegalDomainArgumentException("value must not be null");
+        }
+
+        return Money.of(value);
+    }
+
+    public BigDecimal value() {
+        return money.toBigDecimal();
+    }
 }
@@ -3,21 +3,31 @@ package org.project.karto.domain.card.value_objects;
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
 import org.project.karto.domain.common.exceptions.IllegalDomainStateException;
 import org.project.karto.domain.common.value_objects.Amount;
+import org.project.karto.domain.common.value_objects.Rate;
 
 import java.math.BigDecimal;
 import java.math.RoundingMode;
+import java.util.Objects;
 
-public record Fee(BigDecimal rate) {
+public final class Fee {
+    private final BigDecimal rate;
+    private final Rate fraction;
 
-    public Fee {
+    public Fee(BigDecimal rate) {
         if (rate == null) throw new IllegalDomainArgumentException("Fee rate cannot be null");
         if (rate.compareTo(BigDecimal.ZERO) < 0) throw new IllegalDomainArgumentException("Fee rate cannot be negative");
+        this.rate = rate;
+        this.fraction = Rate.of(rate);
     }
 
     public static Fee defaultFee() {
         return new Fee(BigDecimal.ZERO);
     }
 
+    public BigDecimal rate() {
+        return rate;
+    }
+
     /**
      * Calculates the fee amount based on the given amount and the fee rate.
      *
@@ -31,11 +41,7 @@ public record Fee(BigDecimal rate) {
     public Amount calculateFee(Amount amount) {
         if (amount == null) throw new IllegalDomainArgumentException("Amount cannot be null");
 
-        BigDecimal feeValue = amount.value()
-                .multiply(rate)
-                .setScale(2, RoundingMode.UP);
-
-        return new Amount(feeValue);
+        return new Amount(amount.money().times(fraction, RoundingMode.UP));
     }
 
     /**
@@ -54,13 +60,26 @@ public record Fee(BigDecimal rate) {
     public Amount grossAmountForNet(Amount targetAmount) {
         if (targetAmount == null) throw new IllegalDomainArgumentException("Target amount cannot be null");
 
-        BigDecimal divisor = BigDecimal.ONE.subtract(rate);
-        if (divisor.compareTo(BigDecimal.ZERO) <= 0)
+        if (fraction.compareTo(Rate.ONE) >= 0)
             throw new IllegalDomainStateException("Fee rate is too high for calculation (divisor <= 0)");
 
-        BigDecimal gross = targetAmount.value()
-                .divide(divisor, 2, RoundingMode.UP);
+        return new Amount(targetAmount.money().dividedBy(fraction.complement(), RoundingMode.UP));
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == null || getClass() != o.getClass()) return false;
+        Fee fee = (Fee) o;
+        return Objects.equals(rate, fee.rate);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hashCode(rate);
+    }
 
-        return new Amount(gross);
+    @Override
+    public String toString() {
+        return "Fee[rate=" + rate + "]";
     }
 }
@@ -1,6 +1,7 @@
 package org.project.karto.domain.card.value_objects;
 
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
+import org.project.karto.domain.common.value_objects.Money;
 
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
@@ -9,7 +10,7 @@ import java.util.UUID;
 
 public record UserActivitySnapshot(
         UUID userID,
-        BigDecimal decaySpent,
+        Money decaySpent,
         long decayGiftCardsBought,
         LocalDateTime lastTransactionDate,
         int consecutiveActiveDays,
@@ -21,7 +22,7 @@ public record UserActivitySnapshot(
         if (userID == null) throw new IllegalDomainArgumentException("User id cannot be null");
         if (decaySpent == null) throw new IllegalDomainArgumentException("decaySpent must not be null");
         if (lastTransactionDate == null) throw new IllegalDomainArgumentException("lastTransactionDate must not be null");
-        if (decaySpent.compareTo(BigDecimal.ZERO) < 0)
+        if (decaySpent.isNegative())
             throw new IllegalDomainArgumentException("decaySpent must be non-negative");
         if (decayGiftCardsBought < 0) throw new IllegalDomainArgumentException("decayGiftCardsBought must be non-negative");
         if (consecutiveActiveDays < 0) throw new IllegalDomainArgumentException("consecutiveActiveDays must be non-negative");
@@ -29,7 +30,19 @@ public record UserActivitySnapshot(
         if (consecutiveActiveDays > DECAY.getDays()) consecutiveActiveDays = DECAY.getDays();
     }
 
+    public UserActivitySnapshot(
+            UUID userID,
+            BigDecimal decaySpent,
+            long decayGiftCardsBought,
+            LocalDateTime lastTransactionDate,
+            int consecutiveActiveDays,
+            boolean lastUsageReachedMaximumCashbackRate) {
+
+        this(userID, decaySpent == null ? null : Money.of(decaySpent), decayGiftCardsBought, lastTransactionDate,
+                consecutiveActiveDays, lastUsageReachedMaximumCashbackRate);
+    }
+
     public static UserActivitySnapshot defaultSnapshot(UUID userID) {
-        return new UserActivitySnapshot(userID, BigDecimal.ZERO, 0, LocalDateTime.now(), 0, false);
+        return new UserActivitySnapshot(userID, Money.ZERO, 0, LocalDateTime.now(), 0, false);
     }
 }
\ No newline at end of file
@@ -0,0 +1,37 @@
+package org.project.karto.domain.common.containers;
+
+import java.util.List;
+import java.util.function.Function;
+
+import org.project.karto.domain.common.annotations.Nullable;
+
+/**
+ * One keyset page of rows. {@code nextKey} and {@code nextID} identify its last row
+ * and are {@code null} when there are no more rows.
+ */
+public record Slice<T>(List<T> items, @Nullable String nextKey, @Nullable String nextID) {
+
+  public Slice {
+    items = List.copyOf(items);
+  }
+
+  public boolean hasNext() {
+    return nextKey != null && nextID != null;
+  }
+
+  /**
+   * Builds a page from a query that fetched {@code limit + 1} rows, the extra row only tells that there is a next page.
+   */
+  public static <R, T> Slice<T> of(List<R> rows, int limit,
+                                    Function<R, T> item, Function<R, String> key, Function<R, String> id) {
+    boolean hasNext = rows.size() > limit;
+    List<R> page = hasNext ? rows.subList(0, limit) : rows;
+    List<T> items = page.stream().map(item).toList();
+
+    if (!hasNext)
+      return new Slice<>(items, null, null);
+
+    R last = page.getLast();
+    return new Slice<>(items, key.apply(last), id.apply(last));
+  }
+}
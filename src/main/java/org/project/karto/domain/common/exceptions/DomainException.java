@@ -1,16 +1,27 @@
 package org.project.karto.domain.common.exceptions;
 
+/**
+ * Expected rejection of invalid input or state, answered with 4xx.
+ * <p>
+ * Thrown on routine bad requests, so no stack trace is captured by default: walking the stack costs more than
+ * the validation itself and the trace only points at the validating line. Subclasses signalling real failures
+ * can opt in with {@link #DomainException(String, Throwable, boolean)}.
+ */
 public class DomainException extends RuntimeException {
 
     public DomainException(String message) {
-        super(message);
+        super(message, null, false, false);
     }
 
     public DomainException(String message, Throwable cause) {
-        super(message, cause);
+        super(message, cause, false, false);
     }
 
     public DomainException(Throwable cause) {
-        super(cause);
+        super(cause == null ? null : cause.toString(), cause, false, false);
     }
-}
\ No newline at end of file
+
+    protected DomainException(String message, Throwable cause, boolean writableStackTrace) {
+        super(message, cause, false, writableStackTrace);
+    }
+}
@@ -0,0 +1,20 @@
+package org.project.karto.domain.common.interfaces;
+
+import org.project.karto.domain.common.annotations.Nullable;
+
+/**
+ * Keyset page: rows strictly after ({@code afterKey}, {@code afterID}) in the query's order.
+ * Both are {@code null} for the first page.
+ */
+public interface CursorPageable {
+
+  int limit();
+
+  @Nullable String afterKey();
+
+  @Nullable String afterID();
+
+  default boolean isFirstPage() {
+    return afterKey() == null || afterID() == null;
+  }
+}
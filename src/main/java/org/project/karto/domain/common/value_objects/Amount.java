@@ -5,13 +5,26 @@ import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException
 
 import java.math.BigDecimal;
 
-public record Amount(BigDecimal value) {
+public record Amount(Money money) {
     public Amount {
+        if (money == null) throw new IllegalDomainArgumentException("Amount can`t be null");
+        if (money.isNegative()) throw new IllegalDomainArgumentException("Amount can`t be bellow zero");
+    }
+
+    public Amount(BigDecimal value) {
+        this(money(value));
+    }
+
+    private static Money money(BigDecimal value) {
         if (value == null) throw new IllegalDomainArgumentException("Amount can`t be null");
-        if (value.compareTo(BigDecimal.ZERO) < 0) throw new IllegalDomainArgumentException("Amount can`t be bellow zero");
+        return Money.of(value);
+    }
+
+    public BigDecimal value() {
+        return money.toBigDecimal();
     }
 
     public Balance toBalance() {
-        return new Balance(value);
+        return new Balance(money);
     }
 }
@@ -3,16 +3,22 @@ package org.project.karto.domain.common.value_objects;
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
 
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
+/**
+ * Validated in a single pass without backtracking. Accepts exactly what the former RFC 5322 regex accepted:
+ * lowercase dot-atom or quoted local part, lowercase host name with at least two labels or an address literal.
+ */
 public record Email(String email) {
 
-    private static final String emailRegex = "(?:[a-z0-9!#$%&'*+/=?^_`{|}~-]+(?:\\.[a-z0-9!#$%&'*+/=?^_`{|}~-]+)*|\"(?:[\\x01-\\x08\\x0b\\x0c\\x0e-\\x1f\\x21\\x23-\\x5b\\x5d-\\x7f]|\\\\[\\x01-\\x09\\x0b\\x0c\\x0e-\\x7f])*\")@(?:(?:[a-z0-9](?:[a-z0-9-]*[a-z0-9])?\\.)+[a-z0-9](?:[a-z0-9-]*[a-z0-9])?|\\[(?:(?:25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\.){3}(?:25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?|[a-z0-9-]*[a-z0-9]:(?:[\\x01-\\x08\\x0b\\x0c\\x0e-\\x1f\\x21-\\x5a\\x53-\\x7f]|\\\\[\\x01-\\x09\\x0b\\x0c\\x0e-\\x7f])+)\\])";
+    public static final int MAX_SIZE = 256;
 
-    private static final Pattern pattern = Pattern.compile(emailRegex);
+    private static final int MAX_LOCAL_PART_SIZE = 64;
 
-    public static final int MAX_SIZE = 256;
+    private static final int MIN_DOMAIN_SIZE = 3;
+
+    private static final int MAX_DOMAIN_SIZE = 252;
+
+    private static final String ATOM_SPECIALS = "!#$%&'*+/=?^_`{|}~-";
 
     public Email {
         validate(email);
@@ -23,20 +29,170 @@ public record Email(String email) {
         if (email.isBlank()) throw new IllegalDomainArgumentException("Email can`t be blank");
         if (email.length() > MAX_SIZE) throw new IllegalDomainArgumentException("Email is too long");
 
-        String[] splitEmail = email.split("@");
+        // trailing '@' are ignored when splitting into local part and domain, but never match the grammar
+        int end = email.length();
+        while (end > 0 && email.charAt(end - 1) == '@')
+            end--;
+
+        int at = email.indexOf('@');
+        if (at < 0 || at >= end) throw new IllegalDomainArgumentException("Invalid email format.");
+
+        int next = email.indexOf('@', at + 1);
+        if (next >= 0 && next < end) throw new IllegalDomainArgumentException("Invalid email format.");
 
-        if (splitEmail.length != 2) throw new IllegalDomainArgumentException("Invalid email format.");
-        if (splitEmail[0].isEmpty() || splitEmail[0].length() > 64)
+        if (at == 0 || at > MAX_LOCAL_PART_SIZE)
             throw new IllegalDomainArgumentException("Invalid email format.");
 
-        if (splitEmail[1].isEmpty() || (splitEmail[1].length() < 3 || splitEmail[1].length() > 252))
+        int domainSize = end - at - 1;
+        if (domainSize < MIN_DOMAIN_SIZE || domainSize > MAX_DOMAIN_SIZE)
             throw new IllegalDomainArgumentException("Invalid email format.");
 
-        Matcher matcher = pattern.matcher(email);
-        if (!matcher.matches())
+        if (end != email.length() || !isLocalPart(email, 0, at) || !isDomain(email, at + 1, end))
             throw new IllegalDomainArgumentException("Email format error");
     }
 
+    private static boolean isLocalPart(String s, int from, int to) {
+        return s.charAt(from) == '"' ? isQuotedString(s, from, to) : isDotAtom(s, from, to);
+    }
+
+    private static boolean isDotAtom(String s, int from, int to) {
+        boolean afterAtom = false;
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (c == '.') {
+                if (!afterAtom) return false;
+                afterAtom = false;
+            } else if (isLowerAlphanumeric(c) || ATOM_SPECIALS.indexOf(c) >= 0) {
+                afterAtom = true;
+            } else {
+                return false;
+            }
+        }
+        return afterAtom;
+    }
+
+    private static boolean isQuotedString(String s, int from, int to) {
+        int close = to - 1;
+        if (close <= from || s.charAt(close) != '"') return false;
+
+        int i = from + 1;
+        while (i < close) {
+            char c = s.charAt(i);
+            if (c == '\\') {
+                if (i + 1 >= close || !isQuotedPair(s.charAt(i + 1))) return false;
+                i += 2;
+            } else if (isQuotedText(c)) {
+                i++;
+            } else {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isDomain(String s, int from, int to) {
+        return s.charAt(from) == '[' ? isAddressLiteral(s, from, to) : isHostName(s, from, to);
+    }
+
+    private static boolean isHostName(String s, int from, int to) {
+        int labels = 0;
+        int labelStart = from;
+        for (int i = from; i <= to; i++) {
+            if (i < to && s.charAt(i) != '.') continue;
+            if (!isLabel(s, labelStart, i)) return false;
+            labels++;
+            labelStart = i + 1;
+        }
+        return labels >= 2;
+    }
+
+    private static boolean isLabel(String s, int from, int to) {
+        if (from >= to) return false;
+        if (!isLowerAlphanumeric(s.charAt(from)) || !isLowerAlphanumeric(s.charAt(to - 1))) return false;
+
+        for (int i = from + 1; i < to - 1; i++) {
+            char c = s.charAt(i);
+            if (!isLowerAlphanumeric(c) && c != '-') return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@code [1.2.3.4]} or {@code [1.2.3.tag:content]}.
+     */
+    private static boolean isAddressLiteral(String s, int from, int to) {
+        int close = to - 1;
+        if (close <= from || s.charAt(close) != ']') return false;
+
+        int i = from + 1;
+        for (int octet = 0; octet < 3; octet++) {
+            int digitsEnd = digitsEnd(s, i, close);
+            if (!isOctet(s, i, digitsEnd) || digitsEnd >= close || s.charAt(digitsEnd) != '.') return false;
+            i = digitsEnd + 1;
+        }
+
+        if (digitsEnd(s, i, close) == close)
+            return isOctet(s, i, close);
+
+        int colon = s.indexOf(':', i);
+        if (colon < 0 || colon >= close) return false;
+        return isTag(s, i, colon) && isLiteralContent(s, colon + 1, close);
+    }
+
+    private static int digitsEnd(String s, int from, int to) {
+        int i = from;
+        while (i < to && isDigit(s.charAt(i)))
+            i++;
+        return i;
+    }
+
+    private static boolean isOctet(String s, int from, int to) {
+        int length = to - from;
+        if (length < 1 || length > 3) return false;
+        return Integer.parseInt(s, from, to, 10) <= 255;
+    }
+
+    private static boolean isTag(String s, int from, int to) {
+        if (from >= to || !isLowerAlphanumeric(s.charAt(to - 1))) return false;
+
+        for (int i = from; i < to - 1; i++) {
+            char c = s.charAt(i);
+            if (!isLowerAlphanumeric(c) && c != '-') return false;
+        }
+        return true;
+    }
+
+    /**
+     * Any ASCII but NUL, CR and LF; tab and space only right after a backslash, which then escapes them.
+     * A backslash is a valid character by itself, so no other escape sequence changes the outcome.
+     */
+    private static boolean isLiteralContent(String s, int from, int to) {
+        if (from >= to) return false;
+
+        for (int i = from; i < to; i++) {
+            char c = s.charAt(i);
+            if (!isQuotedPair(c)) return false;
+            if ((c == ' ' || c == '\t') && (i == from || s.charAt(i - 1) != '\\')) return false;
+        }
+        return true;
+    }
+
+    private static boolean isQuotedText(char c) {
+        return isQuotedPair(c) && c != '\t' && c != ' ' && c != '"' && c != '\\';
+    }
+
+    private static boolean isQuotedPair(char c) {
+        return c >= 0x01 && c <= 0x7f && c != '\n' && c != '\r';
+    }
+
+    private static boolean isLowerAlphanumeric(char c) {
+        return (c >= 'a' && c <= 'z') || isDigit(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
     @Override
     public String toString() {
         return email;
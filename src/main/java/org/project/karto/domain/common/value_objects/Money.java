@@ -0,0 +1,141 @@
+package org.project.karto.domain.common.value_objects;
+
+import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+/**
+ * Amount of money as a count of minor units (cents), always at scale 2. Arithmetic is done on {@code long}
+ * and falls back to {@link BigDecimal} only when an intermediate product overflows.
+ * <p>
+ * Conversion from {@link BigDecimal} is exact: values with more than two fraction digits are rejected, since
+ * they can only come from a client or from a calculation that forgot to round. Every multiplication or division
+ * by a {@link Rate} takes an explicit {@link RoundingMode}.
+ * <p>
+ * Money is not restricted to be non-negative, the wrapping value objects are.
+ */
+public record Money(long minorUnits) implements Comparable<Money> {
+
+    public static final int SCALE = 2;
+
+    public static final Money ZERO = new Money(0);
+
+    static final long[] POWERS_OF_TEN = {
+            1L, 10L, 100L, 1_000L, 10_000L, 100_000L, 1_000_000L, 10_000_000L, 100_000_000L, 1_000_000_000L,
+            10_000_000_000L, 100_000_000_000L, 1_000_000_000_000L, 10_000_000_000_000L, 100_000_000_000_000L,
+            1_000_000_000_000_000L, 10_000_000_000_000_000L, 100_000_000_000_000_000L, 1_000_000_000_000_000_000L
+    };
+
+    public static Money of(BigDecimal value) {
+        if (value == null) throw new IllegalDomainArgumentException("Money value can`t be null");
+
+        BigDecimal scaled;
+        try {
+            scaled = value.setScale(SCALE, RoundingMode.UNNECESSARY);
+        } catch (ArithmeticException e) {
+            throw new IllegalDomainArgumentException("Money can`t have more than 2 decimal places");
+        }
+
+        try {
+            return new Money(scaled.unscaledValue().longValueExact());
+        } catch (ArithmeticException e) {
+            throw new IllegalDomainArgumentException("Money value is out of range");
+        }
+    }
+
+    public static Money of(BigDecimal value, RoundingMode rounding) {
+        if (value == null) throw new IllegalDomainArgumentException("Money value can`t be null");
+        return of(value.setScale(SCALE, rounding));
+    }
+
+    public Money plus(Money other) {
+        try {
+            return new Money(Math.addExact(minorUnits, other.minorUnits));
+        } catch (ArithmeticException e) {
+            throw new IllegalDomainArgumentException("Money value is out of range");
+        }
+    }
+
+    public Money minus(Money other) {
+        try {
+            return new Money(Math.subtractExact(minorUnits, other.minorUnits));
+        } catch (ArithmeticException e) {
+            throw new IllegalDomainArgumentException("Money value is out of range");
+        }
+    }
+
+    public Money times(Rate rate, RoundingMode rounding) {
+        long product;
+        try {
+            product = Math.multiplyExact(minorUnits, rate.unscaled());
+        } catch (ArithmeticException e) {
+            return of(toBigDecimal().multiply(rate.toBigDecimal()), rounding);
+        }
+        return new Money(divide(product, POWERS_OF_TEN[rate.scale()], rounding));
+    }
+
+    /**
+     * @throws ArithmeticException if the rate is zero
+     */
+    public Money dividedBy(Rate rate, RoundingMode rounding) {
+        if (rate.unscaled() == 0) throw new ArithmeticException("Division by zero rate");
+
+        long dividend;
+        try {
+            dividend = Math.multiplyExact(minorUnits, POWERS_OF_TEN[rate.scale()]);
+        } catch (ArithmeticException e) {
+            return of(toBigDecimal().divide(rate.toBigDecimal(), SCALE, rounding));
+        }
+        return new Money(divide(dividend, rate.unscaled(), rounding));
+    }
+
+    public boolean isNegative() {
+        return minorUnits < 0;
+    }
+
+    public boolean isZero() {
+        return minorUnits == 0;
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(minorUnits, other.minorUnits);
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(minorUnits, SCALE);
+    }
+
+    /**
+     * {@code dividend / divisor} rounded the same way {@link BigDecimal#divide(BigDecimal, RoundingMode)} would.
+     */
+    static long divide(long dividend, long divisor, RoundingMode rounding) {
+        long quotient = dividend / divisor;
+        long remainder = dividend % divisor;
+        if (remainder == 0)
+            return quotient;
+
+        int sign = Long.signum(dividend) * Long.signum(divisor);
+        boolean increment = switch (rounding) {
+            case UNNECESSARY -> throw new ArithmeticException("Rounding necessary");
+            case DOWN -> false;
+            case UP -> true;
+            case FLOOR -> sign < 0;
+            case CEILING -> sign > 0;
+            case HALF_UP, HALF_DOWN, HALF_EVEN -> {
+                long absRemainder = Math.abs(remainder);
+                int toHalf = Long.compare(absRemainder, Math.abs(divisor) - absRemainder);
+                if (toHalf != 0)
+                    yield toHalf > 0;
+                yield rounding == RoundingMode.HALF_UP || (rounding == RoundingMode.HALF_EVEN && (quotient & 1) != 0);
+            }
+        };
+        return increment ? quotient + sign : quotient;
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
@@ -2,15 +2,49 @@ package org.project.karto.domain.common.value_objects;
 
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
 
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
-
+/**
+ * Accepts {@code [+CCC[ ]](AAA)|AAA[sep]XXX[X][sep]XXXX}, with 1 to 3 digit country and area codes and
+ * {@code -}, {@code .} or space as separator.
+ * <p>
+ * Digits aren't delimited by separators, so a digit may belong to several groups at once. Instead of trying
+ * the groupings one by one, validation tracks every position of the format the prefix may be at, in one pass.
+ */
 public record Phone(String phoneNumber) {
 
-    public static final String PHONE_NUMBER_REGEX = "^(\\+\\d{1,3}( )?)?((\\(\\d{1,3}\\))|\\d{1,3})[- .]?\\d{3,4}[- .]?\\d{4}$";
-    public static final Pattern PHONE_NUMBER_PATTERN = Pattern.compile(PHONE_NUMBER_REGEX);
     public static final int MAX_SIZE = 22;
 
+    private static final int START = 1;
+    private static final int PLUS = 1 << 1;
+    private static final int COUNTRY_1 = 1 << 2;
+    private static final int COUNTRY_2 = 1 << 3;
+    private static final int COUNTRY_3 = 1 << 4;
+    private static final int COUNTRY_SPACE = 1 << 5;
+    private static final int OPEN_PARENTHESIS = 1 << 6;
+    private static final int PARENTHESIZED_AREA_1 = 1 << 7;
+    private static final int PARENTHESIZED_AREA_2 = 1 << 8;
+    private static final int PARENTHESIZED_AREA_3 = 1 << 9;
+    private static final int CLOSE_PARENTHESIS = 1 << 10;
+    private static final int AREA_1 = 1 << 11;
+    private static final int AREA_2 = 1 << 12;
+    private static final int AREA_3 = 1 << 13;
+    private static final int AREA_SEPARATOR = 1 << 14;
+    private static final int PREFIX_1 = 1 << 15;
+    private static final int PREFIX_2 = 1 << 16;
+    private static final int PREFIX_3 = 1 << 17;
+    private static final int PREFIX_4 = 1 << 18;
+    private static final int PREFIX_SEPARATOR = 1 << 19;
+    private static final int LINE_1 = 1 << 20;
+    private static final int LINE_2 = 1 << 21;
+    private static final int LINE_3 = 1 << 22;
+    private static final int LINE_4 = 1 << 23;
+
+    private static final int COUNTRY = COUNTRY_1 | COUNTRY_2 | COUNTRY_3;
+    private static final int AREA_START = START | COUNTRY | COUNTRY_SPACE;
+    private static final int AREA_END = CLOSE_PARENTHESIS | AREA_1 | AREA_2 | AREA_3;
+    private static final int PREFIX_START = AREA_END | AREA_SEPARATOR;
+    private static final int PREFIX_END = PREFIX_3 | PREFIX_4;
+    private static final int LINE_START = PREFIX_END | PREFIX_SEPARATOR;
+
     public Phone {
         validate(phoneNumber);
     }
@@ -20,12 +54,56 @@ public record Phone(String phoneNumber) {
         if (phoneNumber.isBlank()) throw new IllegalDomainArgumentException("Phone number should`t be blank.");
         if (phoneNumber.length() > MAX_SIZE) throw new IllegalDomainArgumentException("Phone number is too long");
 
-        Matcher matcher = PHONE_NUMBER_PATTERN.matcher(phoneNumber);
-        if (!matcher.matches()) throw new IllegalDomainArgumentException("Invalid phone number.");
+        int states = START;
+        for (int i = 0; i < phoneNumber.length() && states != 0; i++)
+            states = next(states, phoneNumber.charAt(i));
+
+        if ((states & LINE_4) == 0) throw new IllegalDomainArgumentException("Invalid phone number.");
+    }
+
+    private static int next(int states, char c) {
+        int next = 0;
+        switch (c) {
+            case '+' -> next |= on(states, START, PLUS);
+            case '(' -> next |= on(states, AREA_START, OPEN_PARENTHESIS);
+            case ')' -> next |= on(states, PARENTHESIZED_AREA_1 | PARENTHESIZED_AREA_2 | PARENTHESIZED_AREA_3,
+                    CLOSE_PARENTHESIS);
+            case ' ' -> next |= on(states, COUNTRY, COUNTRY_SPACE)
+                    | on(states, AREA_END, AREA_SEPARATOR)
+                    | on(states, PREFIX_END, PREFIX_SEPARATOR);
+            case '-', '.' -> next |= on(states, AREA_END, AREA_SEPARATOR)
+                    | on(states, PREFIX_END, PREFIX_SEPARATOR);
+            default -> {
+                if (c < '0' || c > '9') return 0;
+
+                next |= on(states, PLUS, COUNTRY_1)
+                        | on(states, COUNTRY_1, COUNTRY_2)
+                        | on(states, COUNTRY_2, COUNTRY_3)
+                        | on(states, OPEN_PARENTHESIS, PARENTHESIZED_AREA_1)
+                        | on(states, PARENTHESIZED_AREA_1, PARENTHESIZED_AREA_2)
+                        | on(states, PARENTHESIZED_AREA_2, PARENTHESIZED_AREA_3)
+                        | on(states, AREA_START, AREA_1)
+                        | on(states, AREA_1, AREA_2)
+                        | on(states, AREA_2, AREA_3)
+                        | on(states, PREFIX_START, PREFIX_1)
+                        | on(states, PREFIX_1, PREFIX_2)
+                        | on(states, PREFIX_2, PREFIX_3)
+                        | on(states, PREFIX_3, PREFIX_4)
+                        | on(states, LINE_START, LINE_1)
+                        | on(states, LINE_1, LINE_2)
+                        | on(states, LINE_2, LINE_3)
+                        | on(states, LINE_3, LINE_4);
+            }
+        }
+        return next;
+    }
+
+    private static int on(int states, int from, int to) {
+        return (states & from) != 0 ? to : 0;
     }
 
     @Override
     public String toString() {
         return phoneNumber;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,92 @@
+package org.project.karto.domain.common.value_objects;
+
+import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
+
+import java.math.BigDecimal;
+
+/**
+ * Non-negative decimal fraction, such as a fee or cashback rate, stored as {@code unscaled * 10^-scale}.
+ * Trailing zeros are stripped, so equal rates are equal records.
+ */
+public record Rate(long unscaled, int scale) implements Comparable<Rate> {
+
+    public static final int MAX_SCALE = 18;
+
+    public static final Rate ZERO = new Rate(0, 0);
+
+    public static final Rate ONE = new Rate(1, 0);
+
+    public Rate {
+        if (unscaled < 0) throw new IllegalDomainArgumentException("Rate cannot be negative");
+        if (scale < 0 || scale > MAX_SCALE)
+            throw new IllegalDomainArgumentException("Rate scale must be between 0 and " + MAX_SCALE);
+
+        while (scale > 0 && unscaled % 10 == 0) {
+            unscaled /= 10;
+            scale--;
+        }
+    }
+
+    public static Rate of(BigDecimal value) {
+        if (value == null) throw new IllegalDomainArgumentException("Rate cannot be null");
+
+        BigDecimal stripped = value.stripTrailingZeros();
+        if (stripped.scale() < 0) stripped = stripped.setScale(0);
+        if (stripped.scale() > MAX_SCALE)
+            throw new IllegalDomainArgumentException("Rate can`t have more than " + MAX_SCALE + " decimal places");
+
+        try {
+            return new Rate(stripped.unscaledValue().longValueExact(), stripped.scale());
+        } catch (ArithmeticException e) {
+            throw new IllegalDomainArgumentException("Rate is out of range");
+        }
+    }
+
+    public Rate plus(Rate other) {
+        int commonScale = Math.max(scale, other.scale);
+        try {
+            return new Rate(Math.addExact(rescale(commonScale), other.rescale(commonScale)), commonScale);
+        } catch (ArithmeticException e) {
+            throw new IllegalDomainArgumentException("Rate is out of range");
+        }
+    }
+
+    /**
+     * {@code 1 - this}, only defined for rates below one.
+     */
+    public Rate complement() {
+        if (compareTo(ONE) >= 0) throw new IllegalDomainArgumentException("Rate must be below one");
+        return new Rate(Money.POWERS_OF_TEN[scale] - unscaled, scale);
+    }
+
+    public Rate times(long factor) {
+        try {
+            return new Rate(Math.multiplyExact(unscaled, factor), scale);
+        } catch (ArithmeticException e) {
+            throw new IllegalDomainArgumentException("Rate is out of range");
+        }
+    }
+
+    @Override
+    public int compareTo(Rate other) {
+        int commonScale = Math.max(scale, other.scale);
+        try {
+            return Long.compare(rescale(commonScale), other.rescale(commonScale));
+        } catch (ArithmeticException e) {
+            return toBigDecimal().compareTo(other.toBigDecimal());
+        }
+    }
+
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(unscaled, scale);
+    }
+
+    private long rescale(int newScale) {
+        return Math.multiplyExact(unscaled, Money.POWERS_OF_TEN[newScale - scale]);
+    }
+
+    @Override
+    public String toString() {
+        return toBigDecimal().toPlainString();
+    }
+}
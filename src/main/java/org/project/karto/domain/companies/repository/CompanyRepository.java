@@ -17,6 +17,12 @@ public interface CompanyRepository {
 
     Result<Integer, Throwable> updatePassword(Company company);
 
+    /**
+     * Stores {@code rehashedPassword} only while the stored hash is still {@code verifiedPassword}.
+     * Updates no row when the password was changed in the meantime.
+     */
+    Result<Integer, Throwable> rehashPassword(UUID companyID, String verifiedPassword, String rehashedPassword);
+
     Result<Integer, Throwable> updateCounter(Company company);
 
     Result<Integer, Throwable> updateVerification(Company company);
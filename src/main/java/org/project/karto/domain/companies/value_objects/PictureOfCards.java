@@ -2,20 +2,25 @@ package org.project.karto.domain.companies.value_objects;
 
 import static org.project.karto.domain.common.util.Utils.required;
 
-import java.util.Arrays;
 import java.util.Objects;
 import java.util.Optional;
 
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
 import org.project.karto.domain.companies.entities.Company;
 
+/**
+ * Describes a stored picture of cards. The bytes themselves never enter the domain, they are streamed
+ * straight to storage; the type is detected from the first {@link #SIGNATURE_LENGTH} bytes.
+ */
 public final class PictureOfCards {
   private final String path;
   private final String imageType;
-  private final byte[] profilePicture;
+  private final long size;
 
-  private static final int MAX_SIZE = 2_097_152;
-  private static final String PATH_FORMAT = "src/main/resources/static/profile/photos/%s";
+  public static final int MAX_SIZE = 2_097_152;
+  public static final int SIGNATURE_LENGTH = 4;
+
+  private static final String PATH_FORMAT = "profile/photos/%s";
 
   private static final byte[][] IMAGE_SIGNATURES = {
       // JPEG (starts with FF D8)
@@ -26,27 +31,26 @@ public final class PictureOfCards {
 
   private static final String[] IMAGE_EXTENSIONS = { "jpeg", "png" };
 
-  private PictureOfCards(String path, byte[] profilePicture, String imageType) {
+  private PictureOfCards(String path, String imageType, long size) {
     this.path = path;
-    this.profilePicture = profilePicture.clone();
     this.imageType = imageType;
+    this.size = size;
   }
 
-  public static PictureOfCards of(byte[] profilePicture, Company company) {
-    required("profilePicture", profilePicture);
+  public static PictureOfCards of(Company company, String imageType, long size) {
     required("company", company);
+    required("imageType", imageType);
 
-    String path = profilePicturePath(company.id().toString());
-    String typeOfImage = validate(profilePicture)
-        .orElseThrow(() -> new IllegalDomainArgumentException("Invalid profile picture type."));
+    if (!isSupported(imageType))
+      throw new IllegalDomainArgumentException("Invalid profile picture type.");
+    if (size <= 0 || size > MAX_SIZE)
+      throw new IllegalDomainArgumentException("Invalid profile picture size.");
 
-    return new PictureOfCards(path, profilePicture, typeOfImage);
+    return new PictureOfCards(profilePicturePath(company.id().toString()), imageType, size);
   }
 
-  public static PictureOfCards fromRepository(String path, byte[] profilePicture) {
-    return new PictureOfCards(path, profilePicture,
-        checkImageExtension(profilePicture).orElseThrow(
-            () -> new IllegalDomainArgumentException("Invalid profile picture type.")));
+  public static PictureOfCards fromRepository(String path, String imageType, long size) {
+    return new PictureOfCards(path, imageType, size);
   }
 
   public static String profilePicturePath(String id) {
@@ -57,29 +61,34 @@ public final class PictureOfCards {
     return path;
   }
 
-  public byte[] profilePicture() {
-    return profilePicture.clone();
-  }
-
   public String imageType() {
     return imageType;
   }
 
-  private static Optional<String> validate(byte[] profilePicture) {
-    if (profilePicture.length > MAX_SIZE)
-      return Optional.empty();
-    return checkImageExtension(profilePicture);
+  public long size() {
+    return size;
   }
 
-  private static Optional<String> checkImageExtension(byte[] profilePicture) {
+  /**
+   * Detects the image type by its leading bytes, at most {@link #SIGNATURE_LENGTH} of them are inspected.
+   */
+  public static Optional<String> imageTypeOf(byte[] header) {
     for (int i = 0; i < IMAGE_SIGNATURES.length; i++) {
       byte[] imageSignature = IMAGE_SIGNATURES[i];
-      if (matchesSignature(profilePicture, imageSignature))
+      if (matchesSignature(header, imageSignature))
         return Optional.of(IMAGE_EXTENSIONS[i]);
     }
     return Optional.empty();
   }
 
+  private static boolean isSupported(String imageType) {
+    for (String extension : IMAGE_EXTENSIONS) {
+      if (extension.equals(imageType))
+        return true;
+    }
+    return false;
+  }
+
   private static boolean matchesSignature(byte[] file, byte[] signature) {
     if (file.length < signature.length)
       return false;
@@ -94,15 +103,13 @@ public final class PictureOfCards {
   public boolean equals(Object o) {
     if (!(o instanceof PictureOfCards that))
       return false;
-    return Objects.equals(path, that.path) &&
-        Objects.equals(imageType, that.imageType) &&
-        Arrays.equals(profilePicture, that.profilePicture);
+    return size == that.size &&
+        Objects.equals(path, that.path) &&
+        Objects.equals(imageType, that.imageType);
   }
 
   @Override
   public int hashCode() {
-    int result = Objects.hash(path, imageType);
-    result = 31 * result + Arrays.hashCode(profilePicture);
-    return result;
+    return Objects.hash(path, imageType, size);
   }
 }
@@ -4,13 +4,13 @@ import org.project.karto.domain.common.enumerations.Role;
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
 import org.project.karto.domain.common.exceptions.IllegalDomainStateException;
 import org.project.karto.domain.common.value_objects.Amount;
+import org.project.karto.domain.common.value_objects.Money;
 import org.project.karto.domain.common.value_objects.KeyAndCounter;
 import org.project.karto.domain.common.value_objects.Phone;
 import org.project.karto.domain.user.exceptions.BannedUserException;
 import org.project.karto.domain.user.values_objects.CashbackStorage;
 import org.project.karto.domain.user.values_objects.PersonalData;
 
-import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.util.Objects;
 import java.util.UUID;
@@ -67,7 +67,7 @@ public class User {
                 false,
                 false,
                 new KeyAndCounter(key, 0),
-                new CashbackStorage(BigDecimal.ZERO),
+                new CashbackStorage(Money.ZERO),
                 false,
                 LocalDateTime.now(),
                 LocalDateTime.now());
@@ -204,7 +204,7 @@ public class User {
         if (!isVerified)
             throw new IllegalDomainArgumentException("Account is not verified");
 
-        cashbackStorage = new CashbackStorage(cashbackStorage.amount().add(amount.value()));
+        cashbackStorage = new CashbackStorage(cashbackStorage.money().plus(amount.money()));
         this.reachedMaxCashbackRate = reachedMaxCashbackRate;
     }
 
@@ -215,8 +215,8 @@ public class User {
         if (!isVerified)
             throw new IllegalDomainArgumentException("Account is not verified");
 
-        BigDecimal remainingSum = cashbackStorage.amount().subtract(amount.value());
-        if (remainingSum.compareTo(BigDecimal.ZERO) < 0)
+        Money remainingSum = cashbackStorage.money().minus(amount.money());
+        if (remainingSum.isNegative())
             throw new IllegalDomainArgumentException("Insufficient funds in cashback storage");
 
         cashbackStorage = new CashbackStorage(remainingSum);
@@ -2,6 +2,8 @@ package org.project.karto.domain.user.repository;
 
 import org.project.karto.application.dto.gift_card.GiftCardDTO;
 import org.project.karto.domain.common.containers.Result;
+import org.project.karto.domain.common.containers.Slice;
+import org.project.karto.domain.common.interfaces.CursorPageable;
 import org.project.karto.domain.common.interfaces.Pageable;
 import org.project.karto.domain.common.value_objects.Email;
 import org.project.karto.domain.common.value_objects.Phone;
@@ -19,6 +21,12 @@ public interface UserRepository {
 
     Result<Integer, Throwable> updatePhone(User user);
 
+    /**
+     * Stores {@code rehashedPassword} only while the stored hash is still {@code verifiedPassword}.
+     * Updates no row when the password was changed in the meantime.
+     */
+    Result<Integer, Throwable> rehashPassword(UUID userID, String verifiedPassword, String rehashedPassword);
+
     Result<Integer, Throwable> updateCounter(User user);
 
     Result<Integer, Throwable> update2FA(User user);
@@ -41,5 +49,9 @@ public interface UserRepository {
 
     Result<RefreshToken, Throwable> findRefreshToken(String refreshToken);
 
+    Result<Integer, Throwable> removeExpiredRefreshTokens(int batchSize);
+
     Result<List<GiftCardDTO>, Throwable> userCards(Pageable page, Email email);
+
+    Result<Slice<GiftCardDTO>, Throwable> userCards(CursorPageable page, Email email);
 }
@@ -1,14 +1,29 @@
 package org.project.karto.domain.user.values_objects;
 
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
+import org.project.karto.domain.common.value_objects.Money;
 
 import java.math.BigDecimal;
 
-public record CashbackStorage(BigDecimal amount) {
+public record CashbackStorage(Money money) {
     public CashbackStorage {
-        if (amount == null)
+        if (money == null)
             throw new IllegalDomainArgumentException("Amount can`t be null");
-        if (amount.compareTo(BigDecimal.ZERO) < 0)
+        if (money.isNegative())
             throw new IllegalDomainArgumentException("Amount can`t be bellow zero");
     }
+
+    public CashbackStorage(BigDecimal amount) {
+        this(money(amount));
+    }
+
+    private static Money money(BigDecimal amount) {
+        if (amount == null)
+            throw new IllegalDomainArgumentException("Amount can`t be null");
+        return Money.of(amount);
+    }
+
+    public BigDecimal amount() {
+        return money.toBigDecimal();
+    }
 }
@@ -2,12 +2,27 @@ package org.project.karto.domain.user.values_objects;
 
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
 import java.util.UUID;
 
-public record RefreshToken(UUID userID, String refreshToken) {
+public record RefreshToken(UUID userID, String refreshToken, LocalDateTime expirationDate) {
+
+    public static final Duration LIFETIME = Duration.ofDays(365);
 
     public RefreshToken {
         if (userID == null || refreshToken == null)
             throw new IllegalDomainArgumentException("User id or refresh token is null");
+        if (expirationDate == null)
+            throw new IllegalDomainArgumentException("Refresh token expiration date is null");
+    }
+
+    public static RefreshToken of(UUID userID, String refreshToken) {
+        return new RefreshToken(userID, refreshToken, LocalDateTime.now(ZoneOffset.UTC).plus(LIFETIME));
+    }
+
+    public boolean isExpired() {
+        return LocalDateTime.now(ZoneOffset.UTC).isAfter(expirationDate);
     }
 }
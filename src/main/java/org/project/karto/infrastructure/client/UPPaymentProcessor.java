@@ -3,6 +3,8 @@ package org.project.karto.infrastructure.client;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import io.smallrye.mutiny.Uni;
 import io.vertx.core.json.JsonObject;
 import io.vertx.mutiny.core.Vertx;
@@ -48,6 +50,7 @@ public class UPPaymentProcessor {
                 .indefinitely();
     }
 
+    @WithSpan(kind = SpanKind.CLIENT)
     public Result<URI, Throwable> initiatePayment(TransactionDTO dto) {
         try {
             var response = webClient.postAbs(checkoutURL)
@@ -67,6 +70,7 @@ public class UPPaymentProcessor {
         }
     }
 
+    @WithSpan(kind = SpanKind.CLIENT)
     public Result<String, Throwable> statusByOrderIdDetailed(UUID id) {
         try {
             var response = webClient.postAbs(detailedStatusURL)
@@ -1,39 +1,225 @@
 package org.project.karto.infrastructure.communication;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.SpanContext;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.quarkus.logging.Log;
 import io.quarkus.mailer.Mail;
-import io.quarkus.mailer.Mailer;
+import io.quarkus.mailer.reactive.ReactiveMailer;
+import io.quarkus.runtime.Startup;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
-import jakarta.enterprise.inject.Instance;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.project.karto.domain.common.value_objects.Email;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Sends emails without blocking the caller.
+ * <p>
+ * Messages are put into a bounded in-memory queue and drained by a single dispatcher thread. Every drained batch
+ * is grouped by template and recipient domain: messages of the same template to the same domain are sent as one
+ * mail with all recipients in BCC, so the receiving server gets a single SMTP transaction. The number of mails in
+ * flight is capped by the mailer connection pool size.
+ * <p>
+ * When the queue is full the message is dropped and counted: a lost notification must not fail a registration.
+ * <p>
+ * Every mail sent is a client span of its own trace, linked to the spans of the requests that queued its
+ * recipients.
+ */
+@Startup
 @ApplicationScoped
 public class EmailInteractionService {
 
-    private final Mailer mailer;
+    private final ReactiveMailer mailer;
+
+    private final Tracer tracer;
+
+    private final BlockingQueue<QueuedEmail> queue;
+
+    private final Semaphore inFlight;
+
+    private final int maxRecipientsPerMail;
+
+    private final Counter sent;
+
+    private final Counter failed;
+
+    private final Counter dropped;
+
+    private Thread dispatcher;
 
-    public static final String SOFT_VERIFICATION_SUBJECT = "You’ve been signed up on Karto";
+    private volatile boolean running = true;
 
-    public static final String SOFT_VERIFICATION_BODY = """
-            Hello,
-            
-            This email address was used to sign up for an account on Karto.
-            If this was you, no further action is required.
-            
-            If you did not create this account, please contact our support team immediately so we can investigate and secure your information.
-            
-            Thank you,
-            The Karto Team
-            """;
+    private static final int MAX_RETRIES = 2;
+
+    private static final Duration RETRY_BACKOFF = Duration.ofSeconds(1);
+
+    EmailInteractionService(
+            ReactiveMailer mailer,
+            MeterRegistry meterRegistry,
+            Tracer tracer,
+            @ConfigProperty(name = "email.queue.capacity", defaultValue = "10000") int queueCapacity,
+            @ConfigProperty(name = "email.batch.max-recipients", defaultValue = "50") int maxRecipientsPerMail,
+            @ConfigProperty(name = "quarkus.mailer.max-pool-size", defaultValue = "10") int maxPoolSize) {
+
+        if (maxRecipientsPerMail <= 0)
+            throw new IllegalArgumentException("Max recipients per mail must be positive");
+
+        this.mailer = mailer;
+        this.tracer = tracer;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.inFlight = new Semaphore(maxPoolSize);
+        this.maxRecipientsPerMail = maxRecipientsPerMail;
+
+        this.sent = Counter.builder("karto.email.sent").register(meterRegistry);
+        this.failed = Counter.builder("karto.email.failed").register(meterRegistry);
+        this.dropped = Counter.builder("karto.email.dropped")
+                .description("Emails dropped because the delivery queue was full")
+                .register(meterRegistry);
+        Gauge.builder("karto.email.queue.depth", queue, BlockingQueue::size)
+                .description("Emails waiting for delivery")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    void start() {
+        dispatcher = Thread.ofPlatform()
+                .name("email-dispatcher")
+                .daemon()
+                .start(this::dispatch);
+    }
 
-    EmailInteractionService(Instance<Mailer> mailer) {
-        this.mailer = mailer.get();
+    @PreDestroy
+    void stop() {
+        running = false;
+        dispatcher.interrupt();
     }
 
     public void sendSoftVerificationMessage(Email email) {
-        mailer.send(Mail.withText(email.email(), SOFT_VERIFICATION_SUBJECT, SOFT_VERIFICATION_BODY));
+        enqueue(email, EmailTemplate.SOFT_VERIFICATION);
     }
 
     public void sendMessage(Email email, String subject, String body) {
-        mailer.send(Mail.withText(email.email(), subject, body));
+        enqueue(email, new EmailTemplate(subject, body));
     }
+
+    private void enqueue(Email email, EmailTemplate template) {
+        if (!queue.offer(new QueuedEmail(email.email(), template, Span.current().getSpanContext()))) {
+            dropped.increment();
+            Log.warnf("Email queue is full, message '%s' was dropped.", template.subject());
+        }
+    }
+
+    private void dispatch() {
+        List<QueuedEmail> batch = new ArrayList<>();
+        while (running) {
+            try {
+                batch.add(queue.take());
+                queue.drainTo(batch);
+                for (OutgoingMail mail : group(batch, maxRecipientsPerMail))
+                    send(mail);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                Log.error("Email dispatch failed.", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * Groups a drained batch by template and recipient domain, at most {@code maxRecipientsPerMail} recipients in
+     * BCC per mail. A single recipient is addressed directly.
+     */
+    static List<OutgoingMail> group(List<QueuedEmail> batch, int maxRecipientsPerMail) {
+        Map<BatchKey, List<QueuedEmail>> recipients = new LinkedHashMap<>();
+        for (QueuedEmail email : batch)
+            recipients.computeIfAbsent(new BatchKey(email.template(), domain(email.to())), key -> new ArrayList<>())
+                    .add(email);
+
+        List<OutgoingMail> mails = new ArrayList<>(recipients.size());
+        recipients.forEach((key, emails) -> {
+            if (emails.size() == 1) {
+                QueuedEmail email = emails.getFirst();
+                mails.add(new OutgoingMail(
+                        Mail.withText(email.to(), key.template().subject(), key.template().text()),
+                        List.of(email.origin())));
+                return;
+            }
+
+            for (int from = 0; from < emails.size(); from += maxRecipientsPerMail) {
+                List<QueuedEmail> chunk = emails.subList(from, Math.min(from + maxRecipientsPerMail, emails.size()));
+                mails.add(new OutgoingMail(
+                        new Mail()
+                                .setSubject(key.template().subject())
+                                .setText(key.template().text())
+                                .setBcc(new ArrayList<>(chunk.stream().map(QueuedEmail::to).toList())),
+                        chunk.stream().map(QueuedEmail::origin).toList()));
+            }
+        });
+        return mails;
+    }
+
+    private void send(OutgoingMail outgoing) throws InterruptedException {
+        inFlight.acquire();
+        Mail mail = outgoing.mail();
+        int recipients = mail.getTo().size() + mail.getBcc().size();
+        Span span = span(outgoing, recipients);
+        mailer.send(mail)
+                .onFailure().retry().withBackOff(RETRY_BACKOFF).atMost(MAX_RETRIES)
+                .subscribe().with(
+                        ignored -> {
+                            inFlight.release();
+                            sent.increment(recipients);
+                            span.end();
+                        },
+                        throwable -> {
+                            inFlight.release();
+                            failed.increment(recipients);
+                            span.setStatus(StatusCode.ERROR);
+                            span.recordException(throwable);
+                            span.end();
+                            Log.errorf("Can`t send email '%s': %s", mail.getSubject(), throwable.getMessage());
+                        });
+    }
+
+    private Span span(OutgoingMail outgoing, int recipients) {
+        SpanBuilder builder = tracer.spanBuilder("smtp.send")
+                .setSpanKind(SpanKind.CLIENT)
+                .setNoParent()
+                .setAttribute("karto.email.subject", outgoing.mail().getSubject())
+                .setAttribute("karto.email.recipients", recipients);
+        for (SpanContext origin : outgoing.origins())
+            if (origin.isValid())
+                builder.addLink(origin);
+        return builder.startSpan();
+    }
+
+    private static String domain(String address) {
+        return address.substring(address.lastIndexOf('@') + 1).toLowerCase(Locale.ROOT);
+    }
+
+    record QueuedEmail(String to, EmailTemplate template, SpanContext origin) {}
+
+    record OutgoingMail(Mail mail, List<SpanContext> origins) {}
+
+    private record BatchKey(EmailTemplate template, String domain) {}
 }
@@ -0,0 +1,22 @@
+package org.project.karto.infrastructure.communication;
+
+/**
+ * Email content rendered once, at class load, instead of on every send.
+ * Messages built from the same template can share a single SMTP transaction.
+ */
+public record EmailTemplate(String subject, String text) {
+
+    public static final EmailTemplate SOFT_VERIFICATION = new EmailTemplate(
+            "You’ve been signed up on Karto",
+            """
+            Hello,
+            
+            This email address was used to sign up for an account on Karto.
+            If this was you, no further action is required.
+            
+            If you did not create this account, please contact our support team immediately so we can investigate and secure your information.
+            
+            Thank you,
+            The Karto Team
+            """);
+}
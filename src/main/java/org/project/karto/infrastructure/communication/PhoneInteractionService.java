@@ -1,26 +1,75 @@
 package org.project.karto.infrastructure.communication;
 
-import com.twilio.rest.api.v2010.account.Message;
-import com.twilio.type.PhoneNumber;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.project.karto.domain.companies.entities.PartnerVerificationOTP;
 import org.project.karto.domain.user.entities.OTP;
 import org.project.karto.domain.common.value_objects.Phone;
 
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Queues SMS for delivery and returns immediately, the actual provider call is made by {@link SMSDispatcher}.
+ */
 @ApplicationScoped
 public class PhoneInteractionService {
 
-    private static final String KARTO_PHONE = "+15005550006";
+    private final SMSOutbox outbox;
+
+    private final SMSDispatcher dispatcher;
+
+    private final Duration coalescingWindow;
 
+    private final Counter coalesced;
+
+    PhoneInteractionService(
+            SMSOutbox outbox,
+            SMSDispatcher dispatcher,
+            MeterRegistry meterRegistry,
+            @ConfigProperty(name = "sms.coalescing.window", defaultValue = "30S") Duration coalescingWindow) {
+
+        this.outbox = outbox;
+        this.dispatcher = dispatcher;
+        this.coalescingWindow = coalescingWindow;
+        this.coalesced = Counter.builder("karto.sms.coalesced")
+                .description("SMS dropped because the same text was just delivered to the same phone")
+                .register(meterRegistry);
+    }
+
+    @WithSpan
     public void sendOTP(Phone phone, OTP otp) {
-        Message.creator(new PhoneNumber(phone.phoneNumber()), new PhoneNumber(KARTO_PHONE), otp.otp()).create();
+        enqueue(phone, otp.otp());
     }
 
+    @WithSpan
     public void sendOTP(Phone phone, PartnerVerificationOTP otp) {
-        Message.creator(new PhoneNumber(phone.phoneNumber()), new PhoneNumber(KARTO_PHONE), otp.otp()).create();
+        enqueue(phone, otp.otp());
     }
 
+    @WithSpan
     public void sendMessage(Phone phone, String message) {
-        Message.creator(new PhoneNumber(phone.phoneNumber()), new PhoneNumber(KARTO_PHONE), message).create();
+        enqueue(phone, message);
+    }
+
+    private void enqueue(Phone phone, String message) {
+        if (dispatcher.isSaturated())
+            throw new RejectedExecutionException("SMS delivery is overloaded. Please try again later.");
+
+        LocalDateTime now = dispatcher.now();
+        SMSOutbox.Enqueued queued = outbox.enqueue(phone.phoneNumber(), message, now, now.minus(coalescingWindow))
+                .orElseThrow(() -> new IllegalStateException("Can`t queue SMS for delivery."));
+
+        switch (queued) {
+            case INSERTED -> dispatcher.enqueued();
+            case DEDUPLICATED -> coalesced.increment();
+            case REPLACED -> {
+                // took the place of the pending message, the queue did not grow
+            }
+        }
     }
 }
@@ -0,0 +1,280 @@
+package org.project.karto.infrastructure.communication;
+
+import com.twilio.rest.api.v2010.account.Message;
+import com.twilio.type.PhoneNumber;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.project.karto.infrastructure.communication.SMSOutbox.SMS;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Drains {@link SMSOutbox} in the background so that request threads never wait for Twilio.
+ * <p>
+ * Every tick claims a batch of due messages and sends them on a fixed sender pool, throttled to
+ * {@code sms.rate-limit.per-second}. Failed sends are retried with exponential backoff and jitter,
+ * after {@code sms.retry.max-attempts} the message is marked as failed.
+ * <p>
+ * Every provider call is a client span of its own trace: delivery happens long after the request that queued the
+ * message has finished.
+ */
+@ApplicationScoped
+public class SMSDispatcher {
+
+    private final Clock clock;
+
+    private final SMSOutbox outbox;
+
+    private final String senderPhone;
+
+    private final int batchSize;
+
+    private final int maxAttempts;
+
+    private final long queueCapacity;
+
+    private final Duration lease;
+
+    private final Duration initialBackoff;
+
+    private final Duration maxBackoff;
+
+    private final Duration retention;
+
+    private final ExecutorService senders;
+
+    private final RateLimiter rateLimiter;
+
+    private final Tracer tracer;
+
+    private final AtomicLong depth = new AtomicLong();
+
+    private final Timer deliveryLatency;
+
+    private final Counter sent;
+
+    private final Counter retried;
+
+    private final Counter failed;
+
+    private static final int PURGE_BATCH_SIZE = 1000;
+
+    SMSDispatcher(
+            SMSOutbox outbox,
+            MeterRegistry meterRegistry,
+            Tracer tracer,
+            @ConfigProperty(name = "sms.sender.phone", defaultValue = "+15005550006") String senderPhone,
+            @ConfigProperty(name = "sms.sender.pool-size", defaultValue = "4") int poolSize,
+            @ConfigProperty(name = "sms.dispatch.batch-size", defaultValue = "50") int batchSize,
+            @ConfigProperty(name = "sms.queue.capacity", defaultValue = "10000") long queueCapacity,
+            @ConfigProperty(name = "sms.rate-limit.per-second", defaultValue = "10") int permitsPerSecond,
+            @ConfigProperty(name = "sms.retry.max-attempts", defaultValue = "5") int maxAttempts,
+            @ConfigProperty(name = "sms.retry.initial-backoff", defaultValue = "2S") Duration initialBackoff,
+            @ConfigProperty(name = "sms.retry.max-backoff", defaultValue = "5M") Duration maxBackoff,
+            @ConfigProperty(name = "sms.dispatch.lease", defaultValue = "1M") Duration lease,
+            @ConfigProperty(name = "sms.outbox.retention", defaultValue = "7D") Duration retention) {
+
+        this.clock = Clock.systemUTC();
+        this.outbox = outbox;
+        this.tracer = tracer;
+        this.senderPhone = senderPhone;
+        this.batchSize = batchSize;
+        this.maxAttempts = maxAttempts;
+        this.queueCapacity = queueCapacity;
+        this.lease = lease;
+        this.initialBackoff = initialBackoff;
+        this.maxBackoff = maxBackoff;
+        this.retention = retention;
+        this.rateLimiter = new RateLimiter(permitsPerSecond);
+        this.senders = Executors.newFixedThreadPool(poolSize, senderThreads());
+
+        this.deliveryLatency = Timer.builder("karto.sms.delivery.latency")
+                .description("Time from enqueueing an SMS until the provider accepted it")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.sent = Counter.builder("karto.sms.sent").register(meterRegistry);
+        this.retried = Counter.builder("karto.sms.retried").register(meterRegistry);
+        this.failed = Counter.builder("karto.sms.failed").register(meterRegistry);
+        Gauge.builder("karto.sms.queue.depth", depth, AtomicLong::get)
+                .description("SMS waiting for delivery")
+                .register(meterRegistry);
+    }
+
+    public boolean isSaturated() {
+        return depth.get() >= queueCapacity;
+    }
+
+    void enqueued() {
+        depth.incrementAndGet();
+    }
+
+    LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    @Scheduled(every = "{sms.dispatch.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void dispatch() {
+        LocalDateTime now = now();
+        outbox.releaseExpiredLeases(now)
+                .ifFailure(throwable -> Log.error("Can`t release expired SMS leases.", throwable));
+
+        List<SMS> batch = outbox.claim(batchSize, now, now.plus(lease))
+                .orElseGet(() -> {
+                    Log.error("Can`t claim SMS for delivery.");
+                    return List.of();
+                });
+
+        List<? extends Future<?>> deliveries = batch.stream()
+                .map(sms -> senders.submit(() -> deliver(sms)))
+                .toList();
+
+        for (Future<?> delivery : deliveries) {
+            try {
+                delivery.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                Log.error("SMS delivery task failed.", e);
+            }
+        }
+
+        outbox.depth().ifSuccess(depth::set);
+    }
+
+    @Scheduled(every = "1h", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void purgeProcessed() {
+        LocalDateTime before = now().minus(retention);
+        int removed;
+        do {
+            removed = outbox.removeProcessed(before, PURGE_BATCH_SIZE).orElse(0);
+        } while (removed == PURGE_BATCH_SIZE);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        senders.shutdown();
+    }
+
+    private void deliver(SMS sms) {
+        try {
+            rateLimiter.acquire();
+            send(sms);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        } catch (RuntimeException e) {
+            retryOrFail(sms, e);
+            return;
+        }
+
+        LocalDateTime now = now();
+        deliveryLatency.record(Duration.between(sms.createdAt(), now));
+        sent.increment();
+        outbox.markSent(sms, now)
+                .ifFailure(throwable -> Log.errorf(throwable, "Can`t mark SMS %d as sent.", sms.id()));
+    }
+
+    private void send(SMS sms) {
+        Span span = tracer.spanBuilder("twilio.send")
+                .setSpanKind(SpanKind.CLIENT)
+                .setNoParent()
+                .setAttribute("karto.sms.id", sms.id())
+                .setAttribute("karto.sms.attempt", sms.attempts() + 1)
+                .startSpan();
+        try {
+            Message.creator(new PhoneNumber(sms.phone()), new PhoneNumber(senderPhone), sms.message()).create();
+        } catch (RuntimeException e) {
+            span.setStatus(StatusCode.ERROR);
+            span.recordException(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private void retryOrFail(SMS sms, RuntimeException cause) {
+        if (sms.attempts() + 1 >= maxAttempts) {
+            failed.increment();
+            Log.errorf("SMS %d was not delivered after %d attempts: %s", sms.id(), maxAttempts, cause.getMessage());
+            outbox.markFailed(sms)
+                    .ifFailure(throwable -> Log.errorf(throwable, "Can`t mark SMS %d as failed.", sms.id()));
+            return;
+        }
+
+        retried.increment();
+        Log.warnf("SMS %d delivery failed, retrying: %s", sms.id(), cause.getMessage());
+        outbox.reschedule(sms, now().plus(backoff(sms.attempts())))
+                .ifFailure(throwable -> Log.errorf(throwable, "Can`t reschedule SMS %d.", sms.id()));
+    }
+
+    /**
+     * Exponential backoff capped at {@code maxBackoff}, with up to 20% of jitter so that
+     * messages failed together during a provider outage are not retried in lockstep.
+     */
+    Duration backoff(int attempts) {
+        long base = initialBackoff.toMillis() << Math.min(attempts, 20);
+        long capped = Math.min(base, maxBackoff.toMillis());
+        long jitter = ThreadLocalRandom.current().nextLong(capped / 5 + 1);
+        return Duration.ofMillis(capped + jitter);
+    }
+
+    private static ThreadFactory senderThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "sms-sender-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /**
+     * Spaces sends evenly, the provider rejects bursts above the account throughput.
+     */
+    static final class RateLimiter {
+
+        private final long intervalNanos;
+
+        private long nextFree = System.nanoTime();
+
+        RateLimiter(int permitsPerSecond) {
+            if (permitsPerSecond <= 0)
+                throw new IllegalArgumentException("Rate limit must be positive");
+            this.intervalNanos = TimeUnit.SECONDS.toNanos(1) / permitsPerSecond;
+        }
+
+        void acquire() throws InterruptedException {
+            long wait;
+            synchronized (this) {
+                long now = System.nanoTime();
+                long slot = Math.max(nextFree, now);
+                nextFree = slot + intervalNanos;
+                wait = slot - now;
+            }
+            if (wait > 0)
+                TimeUnit.NANOSECONDS.sleep(wait);
+        }
+    }
+}
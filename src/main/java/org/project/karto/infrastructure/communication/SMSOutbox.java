@@ -0,0 +1,181 @@
+package org.project.karto.infrastructure.communication;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.project.karto.domain.common.containers.Result;
+import org.project.karto.infrastructure.jdbc.MeteredJet;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Persistent queue of outgoing SMS backed by the {@code sms_outbox} table.
+ * <p>
+ * A phone has at most one pending message: enqueueing again replaces the queued text and starts its retries over,
+ * so repeated resends collapse into a single, immediate delivery of the latest code. Messages are claimed by senders with
+ * {@code FOR UPDATE SKIP LOCKED} and a lease, a message whose sender died returns to the queue once the lease expires.
+ */
+@ApplicationScoped
+public class SMSOutbox {
+
+    private final MeteredJet jet;
+
+    static final String ENQUEUE = """
+            INSERT INTO sms_outbox (phone, message, status, attempts, next_attempt_at, created_at)
+            SELECT ?, ?, 'PENDING', 0, ?, ?
+            WHERE NOT EXISTS (
+                SELECT 1 FROM sms_outbox
+                WHERE phone = ? AND message = ? AND status = 'SENT' AND sent_at > ?
+            )
+            ON CONFLICT (phone) WHERE status = 'PENDING'
+            DO UPDATE SET
+                message = EXCLUDED.message,
+                created_at = EXCLUDED.created_at,
+                attempts = 0,
+                next_attempt_at = EXCLUDED.created_at
+            RETURNING (xmax = 0) AS inserted
+            """;
+
+    static final String CLAIM = """
+            UPDATE sms_outbox SET status = 'SENDING', next_attempt_at = ?
+            WHERE id IN (
+                SELECT id FROM sms_outbox
+                WHERE status = 'PENDING' AND next_attempt_at <= ?
+                ORDER BY next_attempt_at
+                LIMIT ?
+                FOR UPDATE SKIP LOCKED
+            )
+            RETURNING id, phone, message, attempts, created_at
+            """;
+
+    static final String MARK_SENT = """
+            UPDATE sms_outbox SET status = 'SENT', attempts = attempts + 1, sent_at = ?
+            WHERE id = ?
+            """;
+
+    /**
+     * A message goes back to the queue as a pending copy, the claimed row is closed. When a newer message for the
+     * same phone is already pending, {@code ON CONFLICT} drops the copy and the outdated text with it. Checking for
+     * the pending message first instead would race with a concurrent {@link #ENQUEUE} and break the unique index.
+     */
+    static final String RESCHEDULE = """
+            WITH retried AS (
+                UPDATE sms_outbox SET status = 'FAILED', attempts = ?
+                WHERE id = ?
+                RETURNING phone, message, attempts, created_at
+            )
+            INSERT INTO sms_outbox (phone, message, status, attempts, next_attempt_at, created_at)
+            SELECT phone, message, 'PENDING', attempts, ?, created_at FROM retried
+            ON CONFLICT (phone) WHERE status = 'PENDING' DO NOTHING
+            """;
+
+    static final String MARK_FAILED = """
+            UPDATE sms_outbox SET status = 'FAILED', attempts = ?
+            WHERE id = ?
+            """;
+
+    /**
+     * Re-queues messages of dead senders the same way as {@link #RESCHEDULE}. A phone may have several expired leases,
+     * a resend claimed while the first text was still sending, only the newest of them is queued again.
+     */
+    static final String RELEASE_EXPIRED_LEASES = """
+            WITH expired AS (
+                UPDATE sms_outbox SET status = 'FAILED'
+                WHERE id IN (
+                    SELECT id FROM sms_outbox
+                    WHERE status = 'SENDING' AND next_attempt_at < ?
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING id, phone, message, attempts, next_attempt_at, created_at
+            )
+            INSERT INTO sms_outbox (phone, message, status, attempts, next_attempt_at, created_at)
+            SELECT DISTINCT ON (phone) phone, message, 'PENDING', attempts, next_attempt_at, created_at
+            FROM expired
+            ORDER BY phone, id DESC
+            ON CONFLICT (phone) WHERE status = 'PENDING' DO NOTHING
+            """;
+
+    static final String PENDING_COUNT = """
+            SELECT COUNT(*) FROM sms_outbox WHERE status IN ('PENDING', 'SENDING')
+            """;
+
+    static final String REMOVE_PROCESSED = """
+            DELETE FROM sms_outbox WHERE id IN (
+                SELECT id FROM sms_outbox
+                WHERE status IN ('SENT', 'FAILED') AND created_at < ?
+                LIMIT ?
+            )
+            """;
+
+    SMSOutbox(MeterRegistry meterRegistry, Tracer tracer) {
+        this.jet = new MeteredJet(meterRegistry, tracer, SMSOutbox.class);
+    }
+
+    /**
+     * @return whether the message was queued as a new one, replaced the pending message of the phone, or was dropped
+     * because the same text was already delivered to this phone after {@code deduplicateSince}.
+     */
+    public Result<Enqueued, Throwable> enqueue(String phone, String message, LocalDateTime now,
+                                               LocalDateTime deduplicateSince) {
+        var result = jet.readListOf(ENQUEUE, rs -> rs.getBoolean("inserted"),
+                phone, message, now, now, phone, message, deduplicateSince);
+        if (!result.success())
+            return Result.failure(result.throwable());
+        if (result.value().isEmpty())
+            return Result.success(Enqueued.DEDUPLICATED);
+        return Result.success(result.value().getFirst() ? Enqueued.INSERTED : Enqueued.REPLACED);
+    }
+
+    public Result<List<SMS>, Throwable> claim(int batchSize, LocalDateTime now, LocalDateTime leaseUntil) {
+        var result = jet.readListOf(CLAIM, this::smsMapper, leaseUntil, now, batchSize);
+        return new Result<>(result.value(), result.throwable(), result.success());
+    }
+
+    public Result<Integer, Throwable> markSent(SMS sms, LocalDateTime now) {
+        return map(jet.write(MARK_SENT, now, sms.id()));
+    }
+
+    public Result<Integer, Throwable> reschedule(SMS sms, LocalDateTime nextAttempt) {
+        return map(jet.write(RESCHEDULE, sms.attempts() + 1, sms.id(), nextAttempt));
+    }
+
+    public Result<Integer, Throwable> markFailed(SMS sms) {
+        return map(jet.write(MARK_FAILED, sms.attempts() + 1, sms.id()));
+    }
+
+    public Result<Integer, Throwable> releaseExpiredLeases(LocalDateTime now) {
+        return map(jet.write(RELEASE_EXPIRED_LEASES, now));
+    }
+
+    public Result<Long, Throwable> depth() {
+        var result = jet.readObjectOf(PENDING_COUNT, Long.class);
+        return new Result<>(result.value(), result.throwable(), result.success());
+    }
+
+    public Result<Integer, Throwable> removeProcessed(LocalDateTime before, int batchSize) {
+        return map(jet.write(REMOVE_PROCESSED, before, batchSize));
+    }
+
+    private SMS smsMapper(ResultSet rs) throws SQLException {
+        return new SMS(
+                rs.getLong("id"),
+                rs.getString("phone"),
+                rs.getString("message"),
+                rs.getInt("attempts"),
+                rs.getObject("created_at", Timestamp.class).toLocalDateTime());
+    }
+
+    private static Result<Integer, Throwable> map(com.hadzhy.jetquerious.util.Result<Integer, Throwable> result) {
+        return new Result<>(result.value(), result.throwable(), result.success());
+    }
+
+    public record SMS(long id, String phone, String message, int attempts, LocalDateTime createdAt) {}
+
+    public enum Enqueued {
+        INSERTED, REPLACED, DEDUPLICATED
+    }
+}
@@ -14,7 +14,8 @@ public class EventConsumer {
         this.userRepository = userRepository;
     }
 
-    @ConsumeEvent("user.cashback")
+    // blocking: reads and writes the user, ordered: concurrent cashback of one user must not overwrite each other
+    @ConsumeEvent(value = "user.cashback", blocking = true, ordered = true)
     public void consume(CashbackEvent event) {
         User user = userRepository.findBy(event.ownerID().value())
                 .orElseThrow();
@@ -1,60 +1,89 @@
 package org.project.karto.infrastructure.exceptions_handler;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.hadzhy.jetquerious.exceptions.NotFoundException;
 import io.quarkus.logging.Log;
+import jakarta.ws.rs.WebApplicationException;
+import jakarta.ws.rs.core.HttpHeaders;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.Response.Status;
 import jakarta.ws.rs.ext.ExceptionMapper;
 import jakarta.ws.rs.ext.Provider;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.project.karto.application.dto.common.ErrorMessage;
 import org.project.karto.domain.common.exceptions.DomainException;
 import org.project.karto.domain.user.exceptions.BannedUserException;
 
+import java.time.Duration;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Expected errors (4xx and overload) are logged sampled and without stack trace,
+ * only unexpected ones are logged in full.
+ */
 @Provider
 public class ExceptionHandler implements ExceptionMapper<Throwable> {
 
-  static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+  static final int RETRY_AFTER_SECONDS = 1;
+
+  static final String UNEXPECTED_ERROR_BODY = ErrorMessage.json("Unexpected error occurred. Please contact support.");
+
+  private final SampledLog expectedErrors;
+
+  ExceptionHandler(
+      @ConfigProperty(name = "error-log.expected.interval", defaultValue = "1S") Duration samplingInterval) {
+    this.expectedErrors = new SampledLog(samplingInterval);
+  }
 
   @Override
   public Response toResponse(Throwable e) {
-    Log.error("Global error handler: ", e);
     if (e instanceof BannedUserException)
-      return Response
+      return expected(Response
           .status(Status.FORBIDDEN)
-          .entity(errorMessage(e.getMessage()))
+          .entity(ErrorMessage.json(e.getMessage()))
           .type(MediaType.APPLICATION_JSON)
-          .build();
+          .build(), e);
 
     if (e instanceof DomainException)
-      return Response
+      return expected(Response
           .status(Response.Status.BAD_REQUEST)
-          .entity(errorMessage(e.getMessage()))
+          .entity(ErrorMessage.json(e.getMessage()))
           .type(MediaType.APPLICATION_JSON)
-          .build();
+          .build(), e);
+
+    if (e instanceof RejectedExecutionException)
+      return expected(Response
+          .status(Status.SERVICE_UNAVAILABLE)
+          .header(HttpHeaders.RETRY_AFTER, RETRY_AFTER_SECONDS)
+          .entity(ErrorMessage.json(e.getMessage()))
+          .type(MediaType.APPLICATION_JSON)
+          .build(), e);
 
     if (e instanceof NotFoundException)
-      return Response
+      return expected(Response
           .status(Response.Status.NOT_FOUND)
           .type(MediaType.APPLICATION_JSON)
-          .build();
+          .build(), e);
+
+    if (e instanceof WebApplicationException webApplicationException) {
+      Response response = webApplicationException.getResponse();
+      if (response.getStatus() < 500)
+        return expected(response, e);
+
+      Log.error("Global error handler: ", e);
+      return response;
+    }
 
+    Log.error("Global error handler: ", e);
     return Response.status(Response.Status.INTERNAL_SERVER_ERROR)
-        .entity(errorMessage("Unexpected error occurred. Please contact support."))
+        .entity(UNEXPECTED_ERROR_BODY)
         .type(MediaType.APPLICATION_JSON)
         .build();
   }
 
-  private static String errorMessage(String message) {
-    try {
-      String result = OBJECT_MAPPER.writeValueAsString(new ErrorMessage(message));
-      return result;
-    } catch (JsonProcessingException e) {
-      Log.error("Unexpected error. Cannot process json in exception mapper. " + e.getMessage());
-      return null;
-    }
+  private Response expected(Response response, Throwable e) {
+    expectedErrors.warn(response.getStatus(), e);
+    return response;
   }
 }
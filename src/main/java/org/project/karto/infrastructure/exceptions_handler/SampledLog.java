@@ -0,0 +1,59 @@
+package org.project.karto.infrastructure.exceptions_handler;
+
+import io.quarkus.logging.Log;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Logs at most one expected error per exception type and interval, with the number of suppressed ones since.
+ * Client misuse repeats the same few errors, a line per request would only cost CPU and log volume.
+ */
+final class SampledLog {
+
+  private final long intervalNanos;
+
+  private final Map<Class<?>, Window> windows = new ConcurrentHashMap<>();
+
+  SampledLog(Duration interval) {
+    if (interval.isNegative())
+      throw new IllegalArgumentException("Sampling interval cannot be negative");
+
+    this.intervalNanos = interval.toNanos();
+  }
+
+  /**
+   * @return whether the error was logged
+   */
+  boolean warn(int status, Throwable e) {
+    long suppressed = windows
+        .computeIfAbsent(e.getClass(), type -> new Window(System.nanoTime()))
+        .tryAcquire(System.nanoTime(), intervalNanos);
+    if (suppressed < 0)
+      return false;
+
+    Log.warnf("%d %s: %s (%d similar suppressed)", status, e.getClass().getSimpleName(), e.getMessage(), suppressed);
+    return true;
+  }
+
+  private record Window(AtomicLong nextAt, AtomicLong suppressed) {
+
+    Window(long now) {
+      this(new AtomicLong(now), new AtomicLong());
+    }
+
+    /**
+     * @return errors suppressed since the previous logged one, or -1 if this one must be suppressed too
+     */
+    long tryAcquire(long now, long intervalNanos) {
+      long next = nextAt.get();
+      if (now - next < 0 || !nextAt.compareAndSet(next, now + intervalNanos)) {
+        suppressed.incrementAndGet();
+        return -1;
+      }
+      return suppressed.getAndSet(0);
+    }
+  }
+}
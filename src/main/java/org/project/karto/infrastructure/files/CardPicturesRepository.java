@@ -1,56 +1,315 @@
 package org.project.karto.infrastructure.files;
 
 import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
 import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.project.karto.domain.common.containers.Result;
 import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
 import org.project.karto.domain.companies.entities.Company;
 import org.project.karto.domain.companies.value_objects.PictureOfCards;
+import org.project.karto.infrastructure.files.PictureCache.CachedPicture;
 
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
 
+/**
+ * Stores card pictures as plain files under {@code pictures.storage.dir}.
+ * <p>
+ * Pictures are never read into the heap for serving: {@link #open(String)} resolves the file and its fingerprint,
+ * and hot pictures are additionally kept off-heap by {@link PictureCache}. Cold files are transferred by the HTTP
+ * layer with {@code sendfile}, cached ones straight from their direct buffer. The fingerprint holds a SHA-256
+ * content hash used as a strong ETag; it is computed once per file version and recomputed only when the file size
+ * or modification time change. Cached pictures are checked against the same size and modification time,
+ * so a picture replaced by another instance is not served from the cache.
+ */
 @ApplicationScoped
 public class CardPicturesRepository {
 
-  public void put(Company company) {
+  private final Path storageDir;
+
+  private final PictureRenditions renditions;
+
+  private final PictureCache cache;
+
+  private final Map<Path, Fingerprint> fingerprints = new ConcurrentHashMap<>();
+
+  private static final int COPY_BUFFER_SIZE = 8192;
+
+  @Inject
+  CardPicturesRepository(
+      @ConfigProperty(name = "pictures.storage.dir", defaultValue = "data/pictures") String storageDir,
+      PictureRenditions renditions,
+      PictureCache cache) {
+    this(Path.of(storageDir), renditions, cache);
+  }
+
+  public CardPicturesRepository(Path storageDir, PictureRenditions renditions, PictureCache cache) {
+    this.storageDir = storageDir.toAbsolutePath().normalize();
+    this.renditions = renditions;
+    this.cache = cache;
+  }
+
+  /**
+   * Streams an upload into a temporary file inside the storage directory.
+   * <p>
+   * The signature is checked on the first bytes before anything is written, and the size limit while copying,
+   * so a bogus or oversized upload is rejected after at most {@link PictureOfCards#MAX_SIZE} bytes and is never
+   * buffered in memory. The content hash is computed on the fly. The staged file must be either moved into place
+   * with {@link #put(Company, StoredPicture)} or removed with {@link #discard(StoredPicture)}.
+   */
+  public Result<StoredPicture, Throwable> upload(InputStream input) {
+    Path temporary = null;
+    try (input) {
+      byte[] header = input.readNBytes(PictureOfCards.SIGNATURE_LENGTH);
+      String imageType = PictureOfCards.imageTypeOf(header)
+          .orElseThrow(() -> new IllegalDomainArgumentException("Invalid profile picture type."));
+
+      Files.createDirectories(storageDir);
+      temporary = Files.createTempFile(storageDir, ".upload-", ".tmp");
+
+      MessageDigest digest = sha256();
+      long size = 0;
+      try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+        byte[] chunk = new byte[COPY_BUFFER_SIZE];
+        System.arraycopy(header, 0, chunk, 0, header.length);
+        int read = header.length;
+
+        do {
+          size += read;
+          if (size > PictureOfCards.MAX_SIZE)
+            throw new PictureTooLargeException("Picture is too large.");
+
+          digest.update(chunk, 0, read);
+          ByteBuffer buffer = ByteBuffer.wrap(chunk, 0, read);
+          while (buffer.hasRemaining())
+            channel.write(buffer);
+        } while ((read = input.read(chunk)) != -1);
+
+        channel.force(false);
+      }
+
+      return Result.success(new StoredPicture(temporary, size, imageType, HexFormat.of().formatHex(digest.digest()),
+          null));
+    } catch (IOException | RuntimeException e) {
+      deleteQuietly(temporary);
+      return Result.failure(e);
+    }
+  }
+
+  /**
+   * Renders the downscaled {@link PictureRendition}s of a staged upload and atomically replaces the company picture
+   * with it. Renditions are moved into place before the original, readers see either the old or the new file
+   * of each rendition.
+   */
+  public Result<StoredPicture, Throwable> put(Company company, StoredPicture staged) {
     final PictureOfCards picture = company.picture()
         .orElseThrow(() -> new IllegalDomainArgumentException(
             "Can`t get profile picture. User does`t contains profile picture."));
-    final String path = picture.path();
-    final byte[] pictureBytes = picture.profilePicture();
 
+    Map<PictureRendition, Path> rendered = Map.of();
     try {
-      final Path profilePicturePath = Paths.get(path);
-
+      final Path profilePicturePath = resolve(picture.path());
       Files.createDirectories(profilePicturePath.getParent());
-      Files.write(profilePicturePath, pictureBytes, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+
+      rendered = renditions.render(staged.file(), staged.imageType());
+      for (Map.Entry<PictureRendition, Path> rendition : rendered.entrySet())
+        replace(rendition.getValue(), rendition(profilePicturePath, rendition.getKey()));
+      replace(staged.file(), profilePicturePath);
+      for (PictureRendition rendition : PictureRendition.values())
+        cache.invalidate(rendition(profilePicturePath, rendition));
+
+      BasicFileAttributes attributes = Files.readAttributes(profilePicturePath, BasicFileAttributes.class);
+      fingerprints.put(profilePicturePath,
+          new Fingerprint(attributes.size(), attributes.lastModifiedTime(), staged.imageType(), staged.etag()));
+
       Log.info("Successfully write a/in file");
-    } catch (IOException e) {
+      return Result.success(new StoredPicture(profilePicturePath, attributes.size(), staged.imageType(), staged.etag(),
+          null));
+    } catch (InvalidPictureException | PictureTooLargeException e) {
+      return Result.failure(e);
+    } catch (IOException | IllegalArgumentException e) {
       Log.errorf("Something get wrong when attempting to put an image: %s", e.getMessage());
+      return Result.failure(e);
+    } finally {
+      rendered.values().forEach(CardPicturesRepository::deleteQuietly);
     }
   }
 
-  public Optional<PictureOfCards> load(String path) {
+  public void discard(StoredPicture staged) {
+    deleteQuietly(staged.file());
+  }
+
+  public Optional<StoredPicture> open(String path) {
+    return open(path, PictureRendition.FULL);
+  }
+
+  /**
+   * Pictures uploaded before renditions existed only have the original, it is served for every rendition.
+   */
+  public Optional<StoredPicture> open(String path, PictureRendition rendition) {
     try {
-      final Path profilePicturePath = Paths.get(path);
+      final Path profilePicturePath = rendition(resolve(path), rendition);
+      CachedPicture cached = cache.get(profilePicturePath);
+      if (cached != null) {
+        if (isCurrent(profilePicturePath, cached))
+          return Optional.of(new StoredPicture(profilePicturePath, cached.content().remaining(), cached.imageType(),
+              cached.etag(), cached.content()));
+        cache.invalidate(profilePicturePath);
+      }
 
-      final boolean isFileExists = Files.exists(profilePicturePath);
-      if (isFileExists) {
-        byte[] bytes = Files.readAllBytes(profilePicturePath);
+      final long generation = cache.generation();
+      if (rendition != PictureRendition.FULL && !Files.isRegularFile(profilePicturePath))
+        return open(path, PictureRendition.FULL);
 
-        Log.info("Successfully loaded profile picture");
-        return Optional.of(PictureOfCards.fromRepository(path, bytes));
+      if (!Files.isRegularFile(profilePicturePath)) {
+        Log.info("Do not found picture");
+        return Optional.empty();
       }
-    } catch (IOException e) {
+
+      BasicFileAttributes attributes = Files.readAttributes(profilePicturePath, BasicFileAttributes.class);
+      Fingerprint fingerprint = fingerprints.get(profilePicturePath);
+      if (fingerprint == null || !fingerprint.matches(attributes)) {
+        fingerprint = fingerprint(profilePicturePath, attributes);
+        fingerprints.put(profilePicturePath, fingerprint);
+      }
+
+      ByteBuffer content = cache.admits(fingerprint.size()) ? load(profilePicturePath, fingerprint.size()) : null;
+      if (content != null)
+        cache.admit(profilePicturePath, new CachedPicture(content, fingerprint.imageType(), fingerprint.etag()),
+            generation);
+
+      return Optional.of(new StoredPicture(profilePicturePath, fingerprint.size(), fingerprint.imageType(),
+          fingerprint.etag(), content));
+    } catch (IOException | IllegalArgumentException e) {
       Log.errorf("Can`t load a picture: %s", e.getMessage());
+      return Optional.empty();
     }
+  }
+
+  /**
+   * The storage directory may be shared by several instances, and only the instance that stored a picture
+   * invalidates its cache entry. A hit is served only while the file still has the size and modification time
+   * it was cached with, which costs one {@code stat} instead of reading the file.
+   */
+  private boolean isCurrent(Path file, CachedPicture cached) throws IOException {
+    Fingerprint fingerprint = fingerprints.get(file);
+    if (fingerprint == null || !fingerprint.etag().equals(cached.etag()))
+      return false;
 
-    Log.info("Do not found picture");
-    return Optional.empty();
+    try {
+      return fingerprint.matches(Files.readAttributes(file, BasicFileAttributes.class));
+    } catch (NoSuchFileException e) {
+      return false;
+    }
+  }
+
+  /**
+   * Keys come from the domain, still they are never allowed to escape the storage directory.
+   */
+  private Path resolve(String path) {
+    Path resolved = storageDir.resolve(path).normalize();
+    if (!resolved.startsWith(storageDir))
+      throw new IllegalArgumentException("Picture path is outside of the storage directory.");
+    return resolved;
+  }
+
+  /**
+   * @return off-heap copy of the file, {@code null} if it changed size while being read.
+   */
+  private static ByteBuffer load(Path file, long size) throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocateDirect((int) size);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (buffer.hasRemaining()) {
+        if (channel.read(buffer) == -1)
+          return null;
+      }
+    }
+    return buffer.flip().asReadOnlyBuffer();
+  }
+
+  private static Path rendition(Path original, PictureRendition rendition) {
+    return original.resolveSibling(original.getFileName() + rendition.suffix());
+  }
+
+  private static void replace(Path source, Path target) throws IOException {
+    try {
+      Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    } catch (AtomicMoveNotSupportedException e) {
+      Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+  }
+
+  private static void deleteQuietly(Path file) {
+    if (file == null)
+      return;
+    try {
+      Files.deleteIfExists(file);
+    } catch (IOException e) {
+      Log.errorf("Can`t remove temporary picture %s: %s", file, e.getMessage());
+    }
+  }
+
+  /**
+   * Streams the file through a fixed size buffer, memory use doesn't depend on the picture size.
+   */
+  private static Fingerprint fingerprint(Path file, BasicFileAttributes attributes) throws IOException {
+    MessageDigest digest = sha256();
+    ByteBuffer buffer = ByteBuffer.allocate(COPY_BUFFER_SIZE);
+    String imageType = null;
+
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      while (channel.read(buffer) != -1) {
+        buffer.flip();
+        if (imageType == null)
+          imageType = imageType(buffer);
+        digest.update(buffer);
+        buffer.clear();
+      }
+    }
+
+    if (imageType == null)
+      throw new IllegalArgumentException("Invalid profile picture type.");
+    return new Fingerprint(attributes.size(), attributes.lastModifiedTime(), imageType,
+        HexFormat.of().formatHex(digest.digest()));
+  }
+
+  private static String imageType(ByteBuffer buffer) {
+    byte[] header = new byte[Math.min(buffer.remaining(), PictureOfCards.SIGNATURE_LENGTH)];
+    buffer.get(buffer.position(), header);
+    return PictureOfCards.imageTypeOf(header)
+        .orElseThrow(() -> new IllegalArgumentException("Invalid profile picture type."));
+  }
+
+  private static MessageDigest sha256() {
+    try {
+      return MessageDigest.getInstance("SHA-256");
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  private record Fingerprint(long size, FileTime modified, String imageType, String etag) {
+
+    boolean matches(BasicFileAttributes attributes) {
+      return size == attributes.size() && modified.equals(attributes.lastModifiedTime());
+    }
   }
 }
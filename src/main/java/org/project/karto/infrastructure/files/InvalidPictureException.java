@@ -0,0 +1,7 @@
+package org.project.karto.infrastructure.files;
+
+public class InvalidPictureException extends RuntimeException {
+  public InvalidPictureException(String msg) {
+    super(msg);
+  }
+}
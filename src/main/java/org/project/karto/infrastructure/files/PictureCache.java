@@ -0,0 +1,140 @@
+package org.project.karto.infrastructure.files;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * LRU cache of hot picture files held in direct {@link ByteBuffer}s, bounded by the total number of resident bytes.
+ * <p>
+ * Picture bytes live off-heap, a hit only allocates a buffer view. Pictures larger than an eighth of the budget
+ * are never admitted, so a single large file can't flush the whole catalog.
+ * <p>
+ * Any invalidation bumps a generation; a miss that started loading before it is not admitted,
+ * so a reader racing with an upload can't put the replaced file back.
+ */
+@ApplicationScoped
+public class PictureCache {
+
+  private final long maxBytes;
+
+  private final long maxEntryBytes;
+
+  private final Map<Path, CachedPicture> pictures = new LinkedHashMap<>(64, 0.75f, true);
+
+  private long residentBytes;
+
+  private long generation;
+
+  private final Counter hits;
+
+  private final Counter misses;
+
+  public PictureCache(
+      MeterRegistry meterRegistry,
+      @ConfigProperty(name = "pictures.cache.max-bytes", defaultValue = "67108864") long maxBytes) {
+
+    if (maxBytes < 0)
+      throw new IllegalArgumentException("Max bytes must not be negative");
+
+    this.maxBytes = maxBytes;
+    this.maxEntryBytes = maxBytes / 8;
+
+    this.hits = Counter.builder("karto.picture.cache").tag("result", "hit").register(meterRegistry);
+    this.misses = Counter.builder("karto.picture.cache").tag("result", "miss").register(meterRegistry);
+    Gauge.builder("karto.picture.cache.resident.bytes", this, PictureCache::residentBytes)
+        .description("Picture bytes held off-heap by the cache")
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("karto.picture.cache.size", this, PictureCache::size)
+        .register(meterRegistry);
+    Gauge.builder("karto.picture.cache.hit.ratio", this, PictureCache::hitRatio)
+        .description("Share of picture reads served from the cache")
+        .register(meterRegistry);
+  }
+
+  /**
+   * @return the cached picture with its own read-only view of the content, or {@code null}.
+   */
+  public CachedPicture get(Path file) {
+    CachedPicture cached;
+    synchronized (this) {
+      cached = pictures.get(file);
+    }
+
+    if (cached == null) {
+      misses.increment();
+      return null;
+    }
+
+    hits.increment();
+    return cached.view();
+  }
+
+  /**
+   * To be taken before a miss starts reading the file, and passed to {@link #admit(Path, CachedPicture, long)}.
+   */
+  public synchronized long generation() {
+    return generation;
+  }
+
+  public boolean admits(long size) {
+    return size > 0 && size <= maxEntryBytes;
+  }
+
+  public synchronized void admit(Path file, CachedPicture picture, long generation) {
+    long size = picture.content().remaining();
+    if (generation != this.generation || !admits(size))
+      return;
+
+    CachedPicture previous = pictures.put(file, picture.view());
+    if (previous != null)
+      residentBytes -= previous.content().remaining();
+    residentBytes += size;
+
+    Iterator<CachedPicture> eldest = pictures.values().iterator();
+    while (residentBytes > maxBytes && eldest.hasNext()) {
+      residentBytes -= eldest.next().content().remaining();
+      eldest.remove();
+    }
+  }
+
+  public synchronized void invalidate(Path file) {
+    generation++;
+    CachedPicture removed = pictures.remove(file);
+    if (removed != null)
+      residentBytes -= removed.content().remaining();
+  }
+
+  private synchronized long residentBytes() {
+    return residentBytes;
+  }
+
+  private synchronized int size() {
+    return pictures.size();
+  }
+
+  private double hitRatio() {
+    double total = hits.count() + misses.count();
+    return total == 0 ? 0 : hits.count() / total;
+  }
+
+  /**
+   * {@code content} is a read-only view positioned at the start of the picture.
+   */
+  public record CachedPicture(ByteBuffer content, String imageType, String etag) {
+
+    CachedPicture view() {
+      return new CachedPicture(content.asReadOnlyBuffer(), imageType, etag);
+    }
+  }
+}
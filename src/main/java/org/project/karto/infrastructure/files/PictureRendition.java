@@ -0,0 +1,43 @@
+package org.project.karto.infrastructure.files;
+
+import java.util.Optional;
+
+/**
+ * Fixed set of sizes a card picture is stored in. {@code maxSide} bounds the longest side in pixels,
+ * {@link #FULL} is the original upload.
+ */
+public enum PictureRendition {
+
+  THUMBNAIL("thumbnail", 160),
+  LIST("list", 640),
+  FULL("full", 0);
+
+  private final String value;
+
+  private final int maxSide;
+
+  PictureRendition(String value, int maxSide) {
+    this.value = value;
+    this.maxSide = maxSide;
+  }
+
+  public static Optional<PictureRendition> of(String value) {
+    for (PictureRendition rendition : values()) {
+      if (rendition.value.equalsIgnoreCase(value))
+        return Optional.of(rendition);
+    }
+    return Optional.empty();
+  }
+
+  public String value() {
+    return value;
+  }
+
+  public int maxSide() {
+    return maxSide;
+  }
+
+  String suffix() {
+    return this == FULL ? "" : "." + value;
+  }
+}
@@ -0,0 +1,310 @@
+package org.project.karto.infrastructure.files;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOException;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import boofcv.abst.distort.FDistort;
+import boofcv.alg.filter.misc.AverageDownSampleOps;
+import boofcv.struct.image.GrayU8;
+import boofcv.struct.image.Planar;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Generates the downscaled {@link PictureRendition}s of an uploaded picture.
+ * <p>
+ * The original is decoded once into a BoofCV planar image. Every rendition is then scaled from it in parallel on
+ * a bounded pool: an integer box filter brings it close to the target size, and a bilinear pass finishes the
+ * fractional rest. This keeps large downscales free of aliasing. A saturated pool fails fast with
+ * {@link RejectedExecutionException}.
+ * <p>
+ * A decoded original takes up to {@value #MAX_PIXELS} pixels of four bytes each, so no more pictures are decoded
+ * and held at once than the pool has threads; callers beyond that wait for their turn up to the timeout.
+ */
+@ApplicationScoped
+public class PictureRenditions {
+
+  private final Duration timeout;
+
+  private final ThreadPoolExecutor executor;
+
+  private final Semaphore decoding;
+
+  private final MeterRegistry meterRegistry;
+
+  private final Counter rejected;
+
+  private static final long MAX_PIXELS = 40_000_000;
+
+  /**
+   * A non-positive {@code poolSize} means one thread per available core.
+   */
+  public PictureRenditions(
+      MeterRegistry meterRegistry,
+      @ConfigProperty(name = "pictures.renditions.pool-size", defaultValue = "0") int poolSize,
+      @ConfigProperty(name = "pictures.renditions.queue-capacity", defaultValue = "16") int queueCapacity,
+      @ConfigProperty(name = "pictures.renditions.timeout", defaultValue = "10S") Duration timeout) {
+
+    if (queueCapacity <= 0)
+      throw new IllegalArgumentException("Queue capacity must be positive");
+
+    int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+    this.timeout = timeout;
+    this.meterRegistry = meterRegistry;
+    this.executor = new ThreadPoolExecutor(
+        threads,
+        threads,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        renditionThreads(),
+        new ThreadPoolExecutor.AbortPolicy());
+    this.decoding = new Semaphore(threads);
+
+    this.rejected = Counter.builder("karto.picture.rendition.rejected")
+        .description("Picture renditions rejected because the rendition pool is saturated")
+        .register(meterRegistry);
+  }
+
+  /**
+   * Writes every rendition except {@link PictureRendition#FULL} next to {@code source}.
+   * On failure no rendition file is left behind.
+   *
+   * @return staged rendition files, to be moved into place by the caller.
+   * @throws InvalidPictureException if the picture can't be decoded.
+   * @throws PictureTooLargeException if the picture resolution is too high.
+   */
+  public Map<PictureRendition, Path> render(Path source, String imageType) throws IOException {
+    long deadline = System.nanoTime() + timeout.toNanos();
+    acquireDecoding(deadline);
+    try {
+      return render(decode(source), imageType, source.getParent(), deadline);
+    } finally {
+      decoding.release();
+    }
+  }
+
+  private Map<PictureRendition, Path> render(Planar<GrayU8> original, String imageType, Path directory,
+      long deadline) throws IOException {
+
+    List<PictureRendition> renditions = new ArrayList<>();
+    List<Future<Path>> futures = new ArrayList<>();
+    try {
+      for (PictureRendition rendition : PictureRendition.values()) {
+        if (rendition == PictureRendition.FULL)
+          continue;
+
+        renditions.add(rendition);
+        futures.add(executor.submit(() -> timer(rendition)
+            .recordCallable(() -> write(scale(original, rendition.maxSide()), imageType, directory))));
+      }
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      cancel(futures);
+      throw new RejectedExecutionException("Picture processing is overloaded. Please try again later.");
+    }
+
+    Map<PictureRendition, Path> rendered = new EnumMap<>(PictureRendition.class);
+    try {
+      for (int i = 0; i < futures.size(); i++)
+        rendered.put(renditions.get(i), futures.get(i).get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS));
+      return rendered;
+    } catch (TimeoutException e) {
+      rejected.increment();
+      throw new RejectedExecutionException("Picture processing is overloaded. Please try again later.");
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while rendering picture.", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException ioException)
+        throw ioException;
+      throw new IOException(e.getCause());
+    } finally {
+      if (rendered.size() != futures.size()) {
+        cancel(futures);
+        for (Future<Path> future : futures)
+          deleteQuietly(future);
+      }
+    }
+  }
+
+  private void acquireDecoding(long deadline) throws IOException {
+    try {
+      if (!decoding.tryAcquire(deadline - System.nanoTime(), TimeUnit.NANOSECONDS)) {
+        rejected.increment();
+        throw new RejectedExecutionException("Picture processing is overloaded. Please try again later.");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while rendering picture.", e);
+    }
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  /**
+   * Only the longest side is bounded, aspect ratio is kept. Pictures already smaller are not upscaled.
+   */
+  static Planar<GrayU8> scale(Planar<GrayU8> source, int maxSide) {
+    int longest = Math.max(source.width, source.height);
+    if (longest <= maxSide)
+      return source;
+
+    double ratio = (double) maxSide / longest;
+    int width = Math.max(1, (int) Math.round(source.width * ratio));
+    int height = Math.max(1, (int) Math.round(source.height * ratio));
+
+    Planar<GrayU8> input = source;
+    int boxWidth = longest / maxSide;
+    if (boxWidth >= 2) {
+      input = new Planar<>(GrayU8.class,
+          AverageDownSampleOps.downSampleSize(source.width, boxWidth),
+          AverageDownSampleOps.downSampleSize(source.height, boxWidth),
+          source.getNumBands());
+      AverageDownSampleOps.down(source, boxWidth, input);
+    }
+
+    Planar<GrayU8> output = new Planar<>(GrayU8.class, width, height, source.getNumBands());
+    new FDistort(input, output).scaleExt().apply();
+    return output;
+  }
+
+  /**
+   * Checks dimensions from the image header first, a small compressed upload can declare a huge bitmap.
+   */
+  private static Planar<GrayU8> decode(Path source) throws IOException {
+    try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+      Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+      if (!readers.hasNext())
+        throw new InvalidPictureException("Unsupported image format.");
+
+      ImageReader reader = readers.next();
+      try {
+        reader.setInput(input, true, true);
+        if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS)
+          throw new PictureTooLargeException("Image resolution is too high.");
+        return toPlanar(reader.read(0));
+      } catch (IIOException e) {
+        throw new InvalidPictureException("Picture can`t be decoded.");
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  private static Planar<GrayU8> toPlanar(BufferedImage image) {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    int bands = image.getColorModel().hasAlpha() ? 4 : 3;
+
+    Planar<GrayU8> planar = new Planar<>(GrayU8.class, width, height, bands);
+    int[] row = new int[width];
+    for (int y = 0; y < height; y++) {
+      image.getRGB(0, y, width, 1, row, 0, width);
+      int index = planar.startIndex + y * planar.stride;
+      for (int x = 0; x < width; x++, index++) {
+        int argb = row[x];
+        planar.getBand(0).data[index] = (byte) (argb >> 16);
+        planar.getBand(1).data[index] = (byte) (argb >> 8);
+        planar.getBand(2).data[index] = (byte) argb;
+        if (bands == 4)
+          planar.getBand(3).data[index] = (byte) (argb >>> 24);
+      }
+    }
+    return planar;
+  }
+
+  private static BufferedImage toBufferedImage(Planar<GrayU8> planar) {
+    boolean alpha = planar.getNumBands() == 4;
+    BufferedImage image = new BufferedImage(planar.width, planar.height,
+        alpha ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB);
+
+    int[] row = new int[planar.width];
+    for (int y = 0; y < planar.height; y++) {
+      int index = planar.startIndex + y * planar.stride;
+      for (int x = 0; x < planar.width; x++, index++) {
+        int a = alpha ? planar.getBand(3).data[index] & 0xFF : 0xFF;
+        row[x] = a << 24
+            | (planar.getBand(0).data[index] & 0xFF) << 16
+            | (planar.getBand(1).data[index] & 0xFF) << 8
+            | planar.getBand(2).data[index] & 0xFF;
+      }
+      image.setRGB(0, y, planar.width, 1, row, 0, planar.width);
+    }
+    return image;
+  }
+
+  private static Path write(Planar<GrayU8> planar, String format, Path directory) throws IOException {
+    Path file = Files.createTempFile(directory, ".rendition-", ".tmp");
+    try {
+      if (!ImageIO.write(toBufferedImage(planar), format, file.toFile()))
+        throw new IOException("No image writer for %s.".formatted(format));
+      return file;
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+  }
+
+  private Timer timer(PictureRendition rendition) {
+    return Timer.builder("karto.picture.rendition.duration")
+        .description("Time spent scaling and encoding a picture rendition")
+        .tag("rendition", rendition.value())
+        .register(meterRegistry);
+  }
+
+  private static void cancel(List<Future<Path>> futures) {
+    for (Future<Path> future : futures)
+      future.cancel(true);
+  }
+
+  private static void deleteQuietly(Future<Path> future) {
+    if (!future.isDone() || future.isCancelled())
+      return;
+    try {
+      Files.deleteIfExists(future.get());
+    } catch (ExecutionException | InterruptedException | IOException ignored) {
+      // failed renditions leave nothing behind, see write
+    }
+  }
+
+  private static ThreadFactory renditionThreads() {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, "picture-renditions-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+}
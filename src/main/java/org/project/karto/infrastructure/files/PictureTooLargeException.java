@@ -0,0 +1,7 @@
+package org.project.karto.infrastructure.files;
+
+public class PictureTooLargeException extends RuntimeException {
+  public PictureTooLargeException(String msg) {
+    super(msg);
+  }
+}
@@ -0,0 +1,13 @@
+package org.project.karto.infrastructure.files;
+
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+
+import org.project.karto.domain.common.annotations.Nullable;
+
+/**
+ * A picture on disk. {@code etag} is the hex SHA-256 of the file content.
+ * {@code content} is its read-only off-heap copy when the picture is cached.
+ */
+public record StoredPicture(Path file, long size, String imageType, String etag, @Nullable ByteBuffer content) {
+}
@@ -0,0 +1,359 @@
+package org.project.karto.infrastructure.jdbc;
+
+import com.hadzhy.jetquerious.exceptions.NotFoundException;
+import com.hadzhy.jetquerious.jdbc.JetQuerious;
+import com.hadzhy.jetquerious.util.Result;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanKind;
+import io.opentelemetry.api.trace.StatusCode;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+
+import javax.sql.DataSource;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * {@link JetQuerious} as seen by one repository or other table-backed store, with every statement traced and timed,
+ * its rows counted and its failures counted by cause.
+ * <p>
+ * Statements are named after the {@code static final String} constant of the class holding their SQL, so
+ * {@code FIND_BY_BUYER_ID} of {@code JDBCCheckRepository} is reported as
+ * {@code repository=JDBCCheckRepository, statement=FIND_BY_BUYER_ID}. SQL that is not a constant is reported as
+ * {@code statement=unnamed}, which keeps the tag count bounded.
+ * <p>
+ * Meters:
+ * <ul>
+ *   <li>{@code karto.repository.statement} timer with percentile histogram, tagged by {@code outcome}:
+ *   {@code success}, {@code not_found} when a single row read found nothing, or {@code error}</li>
+ *   <li>{@code karto.repository.statement.rows} rows read or written by successful statements</li>
+ *   <li>{@code karto.repository.statement.errors} failed statements, tagged by exception {@code cause}</li>
+ * </ul>
+ * Every statement is also a client span named {@code repository.statement}, a child of the calling service span,
+ * carrying the SQL text and, once done, the rows returned.
+ * <p>
+ * Work that must see and change rows atomically runs in {@link #transaction}, on a connection of its own; its
+ * statements are measured the same way, under a {@code repository.transaction} span.
+ */
+public final class MeteredJet {
+
+    static final String UNNAMED = "unnamed";
+
+    private static final AttributeKey<String> DB_SYSTEM = AttributeKey.stringKey("db.system");
+
+    private static final AttributeKey<String> DB_OPERATION = AttributeKey.stringKey("db.operation.name");
+
+    private static final AttributeKey<String> DB_QUERY = AttributeKey.stringKey("db.query.text");
+
+    private static final AttributeKey<Long> DB_ROWS = AttributeKey.longKey("db.response.returned_rows");
+
+    private static final AttributeKey<String> REPOSITORY = AttributeKey.stringKey("karto.repository");
+
+    private static final AttributeKey<String> STATEMENT = AttributeKey.stringKey("karto.statement");
+
+    private final JetQuerious jet;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Tracer tracer;
+
+    private final String repository;
+
+    private final Map<String, String> names;
+
+    private final Map<String, Statement> statements = new ConcurrentHashMap<>();
+
+    public MeteredJet(MeterRegistry meterRegistry, Tracer tracer, Class<?> repository) {
+        this(JetQuerious.instance(), meterRegistry, tracer, repository);
+    }
+
+    public MeteredJet(JetQuerious jet, MeterRegistry meterRegistry, Tracer tracer, Class<?> repository) {
+        this.jet = jet;
+        this.meterRegistry = meterRegistry;
+        this.tracer = tracer;
+        this.repository = repository.getSimpleName();
+        this.names = statementNames(repository);
+    }
+
+    public <T> Result<T, Throwable> read(String sql, RowMapper<T> mapper, Object... params) {
+        return execute(sql, () -> jet.read(sql, mapper::map, params), value -> 1);
+    }
+
+    public <T> Result<List<T>, Throwable> readListOf(String sql, RowMapper<T> mapper, Object... params) {
+        return execute(sql, () -> jet.readListOf(sql, mapper::map, params), List::size);
+    }
+
+    public <T> Result<T, Throwable> readObjectOf(String sql, Class<T> type, Object... params) {
+        return execute(sql, () -> jet.readObjectOf(sql, type, params), value -> 1);
+    }
+
+    public Result<Integer, Throwable> write(String sql, Object... params) {
+        return execute(sql, () -> jet.write(sql, params), Integer::longValue);
+    }
+
+    /**
+     * Runs {@code work} in one transaction on a connection taken from {@code dataSource}, committed when
+     * {@code work} returns and rolled back when it throws. Row locks taken by the work are held until then.
+     */
+    public <T> T transaction(DataSource dataSource, TransactionWork<T> work) throws SQLException {
+        Span span = tracer.spanBuilder(repository + ".transaction")
+                .setAttribute(DB_SYSTEM, "postgresql")
+                .setAttribute(REPOSITORY, repository)
+                .startSpan();
+
+        try (Scope ignored = span.makeCurrent(); Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                T value = work.run(new Transaction(connection));
+                connection.commit();
+                return value;
+            } catch (SQLException | RuntimeException e) {
+                try {
+                    connection.rollback();
+                } catch (SQLException rollback) {
+                    e.addSuppressed(rollback);
+                }
+                throw e;
+            }
+        } catch (SQLException | RuntimeException e) {
+            span.setStatus(StatusCode.ERROR);
+            span.recordException(e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private <T> Result<T, Throwable> execute(String sql, Supplier<Result<T, Throwable>> call, ToLongFunction<T> rows) {
+        Statement statement = statements.computeIfAbsent(sql, this::statement);
+        Span span = startSpan(statement);
+
+        long start = System.nanoTime();
+        try (Scope ignored = span.makeCurrent()) {
+            Result<T, Throwable> result = call.get();
+            long elapsed = System.nanoTime() - start;
+
+            if (result.success())
+                succeeded(statement, span, elapsed, result.value() == null ? 0 : rows.applyAsLong(result.value()));
+            else if (result.throwable() instanceof NotFoundException)
+                notFound(statement, span, elapsed);
+            else
+                failed(statement, span, elapsed, result.throwable());
+            return result;
+        } catch (RuntimeException e) {
+            failed(statement, span, System.nanoTime() - start, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private <T> T run(String sql, SqlCall<T> call, ToLongFunction<T> rows) throws SQLException {
+        Statement statement = statements.computeIfAbsent(sql, this::statement);
+        Span span = startSpan(statement);
+
+        long start = System.nanoTime();
+        try (Scope ignored = span.makeCurrent()) {
+            T value = call.call();
+            long elapsed = System.nanoTime() - start;
+
+            if (value instanceof Optional<?> optional && optional.isEmpty())
+                notFound(statement, span, elapsed);
+            else
+                succeeded(statement, span, elapsed, rows.applyAsLong(value));
+            return value;
+        } catch (SQLException | RuntimeException e) {
+            failed(statement, span, System.nanoTime() - start, e);
+            throw e;
+        } finally {
+            span.end();
+        }
+    }
+
+    private Span startSpan(Statement statement) {
+        return tracer.spanBuilder(statement.spanName)
+                .setSpanKind(SpanKind.CLIENT)
+                .setAllAttributes(statement.attributes)
+                .startSpan();
+    }
+
+    private static void succeeded(Statement statement, Span span, long elapsed, long rows) {
+        statement.success.record(elapsed, TimeUnit.NANOSECONDS);
+        statement.rows.record(rows);
+        span.setAttribute(DB_ROWS, rows);
+    }
+
+    private static void notFound(Statement statement, Span span, long elapsed) {
+        statement.notFound.record(elapsed, TimeUnit.NANOSECONDS);
+        statement.rows.record(0);
+        span.setAttribute(DB_ROWS, 0L);
+    }
+
+    private void failed(Statement statement, Span span, long elapsed, Throwable cause) {
+        statement.error.record(elapsed, TimeUnit.NANOSECONDS);
+        errors(statement.name, cause).increment();
+        span.setStatus(StatusCode.ERROR);
+        if (cause != null)
+            span.recordException(cause);
+    }
+
+    private Statement statement(String sql) {
+        String name = names.getOrDefault(sql, UNNAMED);
+        return new Statement(
+                name,
+                repository + "." + name,
+                Attributes.of(
+                        DB_SYSTEM, "postgresql",
+                        DB_OPERATION, operation(sql),
+                        DB_QUERY, sql,
+                        REPOSITORY, repository,
+                        STATEMENT, name),
+                timer(name, "success"),
+                timer(name, "not_found"),
+                timer(name, "error"),
+                DistributionSummary.builder("karto.repository.statement.rows")
+                        .description("Rows read or written by a repository statement")
+                        .tag("repository", repository)
+                        .tag("statement", name)
+                        .register(meterRegistry));
+    }
+
+    private Timer timer(String name, String outcome) {
+        return Timer.builder("karto.repository.statement")
+                .description("Time spent executing a repository statement, mapping included")
+                .tag("repository", repository)
+                .tag("statement", name)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofMillis(1))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(meterRegistry);
+    }
+
+    private Counter errors(String name, Throwable cause) {
+        return Counter.builder("karto.repository.statement.errors")
+                .description("Repository statements that failed, by exception type")
+                .tag("repository", repository)
+                .tag("statement", name)
+                .tag("cause", cause == null ? "unknown" : cause.getClass().getSimpleName())
+                .register(meterRegistry);
+    }
+
+    private static String operation(String sql) {
+        String trimmed = sql.stripLeading();
+        int end = 0;
+        while (end < trimmed.length() && Character.isLetter(trimmed.charAt(end)))
+            end++;
+        return trimmed.substring(0, end).toUpperCase(Locale.ROOT);
+    }
+
+    private static Map<String, String> statementNames(Class<?> repository) {
+        Map<String, String> names = new HashMap<>();
+        for (Field field : repository.getDeclaredFields()) {
+            int modifiers = field.getModifiers();
+            if (field.getType() != String.class || !Modifier.isStatic(modifiers) || !Modifier.isFinal(modifiers))
+                continue;
+
+            try {
+                field.setAccessible(true);
+                Object sql = field.get(null);
+                if (sql != null)
+                    names.putIfAbsent((String) sql, field.getName());
+            } catch (IllegalAccessException e) {
+                throw new IllegalStateException("Can`t read statement " + field.getName(), e);
+            }
+        }
+        return Map.copyOf(names);
+    }
+
+    @FunctionalInterface
+    public interface RowMapper<T> {
+        T map(ResultSet rs) throws SQLException;
+    }
+
+    @FunctionalInterface
+    public interface TransactionWork<T> {
+        T run(Transaction transaction) throws SQLException;
+    }
+
+    @FunctionalInterface
+    private interface SqlCall<T> {
+        T call() throws SQLException;
+    }
+
+    /**
+     * Statements of one open transaction. Parameters are bound as plain JDBC values: ids and enums as their text,
+     * timestamps as {@link Timestamp}, the rest as they are.
+     */
+    public final class Transaction {
+
+        private final Connection connection;
+
+        private Transaction(Connection connection) {
+            this.connection = connection;
+        }
+
+        public <T> Optional<T> read(String sql, RowMapper<T> mapper, Object... params) throws SQLException {
+            return run(sql, () -> {
+                try (PreparedStatement statement = prepare(sql, params); ResultSet rs = statement.executeQuery()) {
+                    return rs.next() ? Optional.of(mapper.map(rs)) : Optional.<T>empty();
+                }
+            }, value -> 1);
+        }
+
+        public int write(String sql, Object... params) throws SQLException {
+            return run(sql, () -> {
+                try (PreparedStatement statement = prepare(sql, params)) {
+                    return statement.executeUpdate();
+                }
+            }, Integer::longValue);
+        }
+
+        private PreparedStatement prepare(String sql, Object... params) throws SQLException {
+            PreparedStatement statement = connection.prepareStatement(sql);
+            try {
+                for (int i = 0; i < params.length; i++) {
+                    Object param = params[i];
+                    if (param instanceof UUID)
+                        statement.setString(i + 1, param.toString());
+                    else if (param instanceof Enum<?> constant)
+                        statement.setString(i + 1, constant.name());
+                    else if (param instanceof LocalDateTime time)
+                        statement.setTimestamp(i + 1, Timestamp.valueOf(time));
+                    else
+                        statement.setObject(i + 1, param);
+                }
+                return statement;
+            } catch (SQLException e) {
+                statement.close();
+                throw e;
+            }
+        }
+    }
+
+    private record Statement(String name, String spanName, Attributes attributes,
+                             Timer success, Timer notFound, Timer error, DistributionSummary rows) {}
+}
@@ -0,0 +1,105 @@
+package org.project.karto.infrastructure.qr;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.project.karto.application.dto.gift_card.PaymentQRDTO;
+import org.project.karto.domain.common.containers.Result;
+
+import java.math.BigDecimal;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * LRU cache of rendered payment QR codes keyed by (partner, amount).
+ * A partner usually shows the same few amounts at the till, so most requests skip both encoding and PNG compression.
+ */
+@ApplicationScoped
+public class QRCache {
+
+  private final int moduleScale;
+
+  private final Map<Key, RenderedQR> images;
+
+  private final Counter hits;
+
+  private final Counter misses;
+
+  public QRCache(
+      MeterRegistry meterRegistry,
+      @ConfigProperty(name = "qr.module-scale", defaultValue = "8") int moduleScale,
+      @ConfigProperty(name = "qr.cache.max-entries", defaultValue = "1024") int maxEntries) {
+
+    if (moduleScale <= 0)
+      throw new IllegalArgumentException("QR module scale must be positive");
+
+    this.moduleScale = moduleScale;
+    this.images = new LinkedHashMap<>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Key, RenderedQR> eldest) {
+        return size() > maxEntries;
+      }
+    };
+
+    this.hits = Counter.builder("karto.qr.cache").tag("result", "hit").register(meterRegistry);
+    this.misses = Counter.builder("karto.qr.cache").tag("result", "miss").register(meterRegistry);
+    Gauge.builder("karto.qr.cache.size", this, QRCache::size).register(meterRegistry);
+  }
+
+  /**
+   * The returned image is shared between callers and must not be modified.
+   * Amounts equal in value share one image, which encodes the amount without trailing zeros.
+   */
+  public Result<RenderedQR, Throwable> png(PaymentQRDTO dto) {
+    PaymentQRDTO normalized = new PaymentQRDTO(dto.partnerName(), normalize(dto.amount()));
+    Key key = new Key(normalized.partnerName(), normalized.amount());
+    RenderedQR cached;
+    synchronized (images) {
+      cached = images.get(key);
+    }
+    if (cached != null) {
+      hits.increment();
+      return Result.success(cached);
+    }
+
+    misses.increment();
+    Result<byte[], Throwable> png = QRGenerator.generatePNG(normalized, moduleScale);
+    if (!png.success())
+      return Result.failure(png.throwable());
+
+    RenderedQR rendered = new RenderedQR(png.value(), etag(png.value()));
+    synchronized (images) {
+      images.putIfAbsent(key, rendered);
+    }
+    return Result.success(rendered);
+  }
+
+  private int size() {
+    synchronized (images) {
+      return images.size();
+    }
+  }
+
+  private static BigDecimal normalize(BigDecimal amount) {
+    BigDecimal stripped = amount.stripTrailingZeros();
+    return stripped.scale() < 0 ? stripped.setScale(0) : stripped;
+  }
+
+  private static String etag(byte[] png) {
+    try {
+      byte[] digest = MessageDigest.getInstance("SHA-256").digest(png);
+      return Base64.getUrlEncoder().withoutPadding().encodeToString(digest).substring(0, 22);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+  public record RenderedQR(byte[] png, String etag) {}
+
+  private record Key(String partnerName, BigDecimal amount) {}
+}
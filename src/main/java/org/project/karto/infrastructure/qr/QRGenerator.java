@@ -8,30 +8,44 @@ import org.project.karto.application.dto.common.QR;
 import org.project.karto.application.dto.gift_card.PaymentQRDTO;
 import org.project.karto.domain.common.containers.Result;
 
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.Base64;
 
-import static java.nio.charset.StandardCharsets.UTF_8;
-
 public class QRGenerator {
 
+  public static final int DEFAULT_MODULE_SCALE = 8;
+
   private QRGenerator() {}
 
   public static Result<QR, Throwable> generate(PaymentQRDTO dto) {
+    Result<byte[], Throwable> png = generatePNG(dto, DEFAULT_MODULE_SCALE);
+    if (!png.success())
+      return Result.failure(png.throwable());
+
+    return Result.success(new QR(Base64.getEncoder().encodeToString(png.value())));
+  }
+
+  /**
+   * Renders the QR code as a 1-bit PNG, {@code moduleScale} pixels per QR module.
+   * A black and white image compresses to a few hundred bytes, against width * height bytes of a raw gray map.
+   */
+  public static Result<byte[], Throwable> generatePNG(PaymentQRDTO dto, int moduleScale) {
     try {
       QrCode qr = new QrCodeEncoder()
               .setError(QrCode.ErrorLevel.M)
               .addAutomatic(dto.toJson())
               .fixate();
 
-      QrCodeGeneratorImage render = new QrCodeGeneratorImage(20);
-      GrayU8 gray = render.render(qr).getGray();
+      GrayU8 gray = new QrCodeGeneratorImage(moduleScale).render(qr).getGray();
 
-      try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-        writePGM(gray, baos);
-        String base64 = Base64.getEncoder().encodeToString(baos.toByteArray());
-        return Result.success(new QR(base64));
+      try (ByteArrayOutputStream baos = new ByteArrayOutputStream(1024)) {
+        if (!ImageIO.write(toBinaryImage(gray), "png", baos))
+          throw new IOException("No PNG writer available");
+        return Result.success(baos.toByteArray());
       }
 
     } catch (Throwable e) {
@@ -39,9 +53,20 @@ public class QRGenerator {
     }
   }
 
-  private static void writePGM(GrayU8 gray, ByteArrayOutputStream baos) throws IOException {
-    String header = String.format("P5\n%d %d\n255\n", gray.width, gray.height);
-    baos.write(header.getBytes(UTF_8));
-    baos.write(gray.data);
+  private static BufferedImage toBinaryImage(GrayU8 gray) {
+    BufferedImage image = new BufferedImage(gray.width, gray.height, BufferedImage.TYPE_BYTE_BINARY);
+    byte[] packed = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+    int rowBytes = (gray.width + 7) >> 3;
+
+    for (int y = 0; y < gray.height; y++) {
+      int source = gray.startIndex + y * gray.stride;
+      int target = y * rowBytes;
+      for (int x = 0; x < gray.width; x++) {
+        // white pixels are set bits, most significant bit is the leftmost pixel
+        if ((gray.data[source + x] & 0xFF) >= 128)
+          packed[target + (x >> 3)] |= (byte) (0x80 >>> (x & 7));
+      }
+    }
+    return image;
   }
 }
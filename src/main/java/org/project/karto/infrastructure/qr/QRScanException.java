@@ -0,0 +1,7 @@
+package org.project.karto.infrastructure.qr;
+
+public class QRScanException extends RuntimeException {
+  public QRScanException(String msg) {
+    super(msg);
+  }
+}
@@ -0,0 +1,208 @@
+package org.project.karto.infrastructure.qr;
+
+import boofcv.abst.fiducial.QrCodeDetector;
+import boofcv.alg.fiducial.qrcode.QrCode;
+import boofcv.factory.fiducial.FactoryFiducial;
+import boofcv.struct.image.GrayU8;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.project.karto.domain.common.containers.Result;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Decodes QR codes from uploaded camera images.
+ * <p>
+ * Detection is CPU bound and allocates large intermediate images, so it runs on a bounded pool, one thread per core
+ * by default. Each pool thread keeps its own BoofCV detector and gray image buffer, which are not thread-safe
+ * but expensive to create. A saturated pool fails fast with {@link RejectedExecutionException}.
+ */
+@ApplicationScoped
+public class QRScanner {
+
+  private final Duration timeout;
+
+  private final ThreadPoolExecutor executor;
+
+  private final ThreadLocal<Decoder> decoders = ThreadLocal.withInitial(Decoder::new);
+
+  private final Timer decodeTimer;
+
+  private final Counter rejected;
+
+  /**
+   * A non-positive {@code poolSize} means one thread per available core.
+   */
+  public QRScanner(
+      MeterRegistry meterRegistry,
+      @ConfigProperty(name = "qr.scan.pool-size", defaultValue = "0") int poolSize,
+      @ConfigProperty(name = "qr.scan.queue-capacity", defaultValue = "32") int queueCapacity,
+      @ConfigProperty(name = "qr.scan.timeout", defaultValue = "5S") Duration timeout) {
+
+    if (queueCapacity <= 0)
+      throw new IllegalArgumentException("Queue capacity must be positive");
+
+    int threads = poolSize > 0 ? poolSize : Runtime.getRuntime().availableProcessors();
+    this.timeout = timeout;
+    this.executor = new ThreadPoolExecutor(
+        threads,
+        threads,
+        0L,
+        TimeUnit.MILLISECONDS,
+        new ArrayBlockingQueue<>(queueCapacity),
+        scannerThreads(),
+        new ThreadPoolExecutor.AbortPolicy());
+
+    this.decodeTimer = Timer.builder("karto.qr.scan.duration")
+        .description("Time spent detecting and decoding QR codes in uploaded images")
+        .publishPercentileHistogram()
+        .register(meterRegistry);
+    this.rejected = Counter.builder("karto.qr.scan.rejected")
+        .description("QR scans rejected because the scanning pool is saturated")
+        .register(meterRegistry);
+  }
+
+  /**
+   * @return messages of every QR code found in the image, empty if there is none.
+   */
+  public Result<List<String>, Throwable> scan(byte[] image) {
+    if (image == null || image.length == 0)
+      return Result.failure(new QRScanException("Image is empty."));
+
+    Future<List<String>> future;
+    try {
+      future = executor.submit(() -> decodeTimer.recordCallable(() -> decoders.get().decode(image)));
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      throw new RejectedExecutionException("QR scanning is overloaded. Please try again later.");
+    }
+
+    try {
+      return Result.success(future.get(timeout.toMillis(), TimeUnit.MILLISECONDS));
+    } catch (TimeoutException e) {
+      future.cancel(true);
+      rejected.increment();
+      throw new RejectedExecutionException("QR scanning is overloaded. Please try again later.");
+    } catch (InterruptedException e) {
+      future.cancel(true);
+      Thread.currentThread().interrupt();
+      return Result.failure(e);
+    } catch (ExecutionException e) {
+      return Result.failure(e.getCause());
+    }
+  }
+
+  /**
+   * Decodes on the calling thread, bypassing the pool. Meant for benchmarks.
+   */
+  public List<String> scanInPlace(byte[] image) throws IOException {
+    return decoders.get().decode(image);
+  }
+
+  @PreDestroy
+  void shutdown() {
+    executor.shutdown();
+  }
+
+  private static ThreadFactory scannerThreads() {
+    AtomicInteger counter = new AtomicInteger();
+    return runnable -> {
+      Thread thread = new Thread(runnable, "qr-scanner-" + counter.incrementAndGet());
+      thread.setDaemon(true);
+      return thread;
+    };
+  }
+
+  private static final class Decoder {
+
+    private static final long MAX_PIXELS = 16_000_000;
+
+    private final QrCodeDetector<GrayU8> detector = FactoryFiducial.qrcode(null, GrayU8.class);
+
+    private final GrayU8 gray = new GrayU8(1, 1);
+
+    private int[] row = new int[0];
+
+    List<String> decode(byte[] image) throws IOException {
+      toGray(read(image));
+      detector.process(gray);
+
+      List<QrCode> detections = detector.getDetections();
+      List<String> messages = new ArrayList<>(detections.size());
+      for (QrCode qr : detections)
+        messages.add(qr.message);
+      return messages;
+    }
+
+    /**
+     * Checks dimensions from the image header first, a small compressed upload can declare a huge bitmap.
+     */
+    private static BufferedImage read(byte[] image) throws IOException {
+      try (ImageInputStream input = ImageIO.createImageInputStream(new ByteArrayInputStream(image))) {
+        Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+        if (!readers.hasNext())
+          throw new QRScanException("Unsupported image format.");
+
+        ImageReader reader = readers.next();
+        try {
+          reader.setInput(input, true, true);
+          if ((long) reader.getWidth(0) * reader.getHeight(0) > MAX_PIXELS)
+            throw new QRScanException("Image resolution is too high.");
+          return reader.read(0);
+        } finally {
+          reader.dispose();
+        }
+      }
+    }
+
+    private void toGray(BufferedImage image) {
+      int width = image.getWidth();
+      int height = image.getHeight();
+      gray.reshape(width, height);
+
+      if (image.getType() == BufferedImage.TYPE_BYTE_GRAY) {
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        for (int y = 0; y < height; y++)
+          System.arraycopy(pixels, y * width, gray.data, gray.startIndex + y * gray.stride, width);
+        return;
+      }
+
+      if (row.length < width)
+        row = new int[width];
+
+      for (int y = 0; y < height; y++) {
+        image.getRGB(0, y, width, 1, row, 0, width);
+        int target = gray.startIndex + y * gray.stride;
+        for (int x = 0; x < width; x++) {
+          int rgb = row[x];
+          // integer approximation of ITU-R BT.601 luma
+          int luma = (77 * ((rgb >> 16) & 0xFF) + 150 * ((rgb >> 8) & 0xFF) + 29 * (rgb & 0xFF)) >> 8;
+          gray.data[target + x] = (byte) luma;
+        }
+      }
+    }
+  }
+}
@@ -0,0 +1,124 @@
+package org.project.karto.infrastructure.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.project.karto.domain.common.containers.Result;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * In-process cache of gift card catalog pages, keyed by the catalog version.
+ * <p>
+ * A partner registering or changing its card limitations through {@link JDBCCompanyRepository} bumps the version
+ * at once. Pages cached under an older version are dropped.
+ * <p>
+ * The version is also bumped when it is older than {@code catalog.cache.ttl}. That bounds how stale a page can be
+ * after changes this instance doesn't see: writes on other instances, and card purchases, which reorder
+ * the catalog by popularity.
+ * The version starts from the startup time, so entity tags issued before a restart never match afterwards.
+ */
+@ApplicationScoped
+public class CatalogCache {
+
+    private final int maxPages;
+
+    private final long ttl;
+
+    private final Map<String, Object> pages;
+
+    private final Counter hits;
+
+    private final Counter misses;
+
+    private long version;
+
+    private long expiresAt;
+
+    public CatalogCache(
+            MeterRegistry meterRegistry,
+            @ConfigProperty(name = "catalog.cache.max-pages", defaultValue = "256") int maxPages,
+            @ConfigProperty(name = "catalog.cache.ttl", defaultValue = "30S") Duration ttl) {
+
+        if (maxPages < 0)
+            throw new IllegalArgumentException("Max cached catalog pages cannot be negative");
+        if (ttl.isNegative() || ttl.isZero())
+            throw new IllegalArgumentException("Catalog cache TTL must be positive");
+
+        this.maxPages = maxPages;
+        this.ttl = ttl.toNanos();
+        this.version = System.currentTimeMillis();
+        this.expiresAt = System.nanoTime() + this.ttl;
+        this.pages = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Object> eldest) {
+                return size() > CatalogCache.this.maxPages;
+            }
+        };
+
+        this.hits = Counter.builder("karto.catalog.cache").tag("result", "hit").register(meterRegistry);
+        this.misses = Counter.builder("karto.catalog.cache").tag("result", "miss").register(meterRegistry);
+        Gauge.builder("karto.catalog.cache.size", this, CatalogCache::size).register(meterRegistry);
+    }
+
+    public long version() {
+        return version(System.nanoTime());
+    }
+
+    public synchronized long version(long nowNanos) {
+        if (nowNanos - expiresAt >= 0)
+            bump(nowNanos);
+        return version;
+    }
+
+    public static String etag(long version) {
+        return Long.toHexString(version);
+    }
+
+    public synchronized void invalidate() {
+        bump(System.nanoTime());
+    }
+
+    private void bump(long nowNanos) {
+        version++;
+        expiresAt = nowNanos + ttl;
+        pages.clear();
+    }
+
+    /**
+     * Returns the page cached under {@code page} for the given version or loads it.
+     * The version must be read before the page is loaded, so a page loaded concurrently with a catalog write
+     * is cached under the outdated version and never served after the write. Failures are not cached.
+     * Cached pages are shared between callers and must not be modified.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> Result<T, Throwable> page(long version, String page, Supplier<Result<T, Throwable>> loader) {
+        synchronized (this) {
+            Object cached = this.version == version ? pages.get(page) : null;
+            if (cached != null) {
+                hits.increment();
+                return Result.success((T) cached);
+            }
+        }
+
+        misses.increment();
+        Result<T, Throwable> loaded = loader.get();
+        if (!loaded.success() || loaded.value() == null)
+            return loaded;
+
+        synchronized (this) {
+            if (this.version == version)
+                pages.putIfAbsent(page, loaded.value());
+        }
+        return loaded;
+    }
+
+    private synchronized int size() {
+        return pages.size();
+    }
+}
@@ -1,6 +1,7 @@
 package org.project.karto.infrastructure.repository;
 
-import com.hadzhy.jetquerious.jdbc.JetQuerious;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
 import com.hadzhy.jetquerious.sql.QueryForge;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.project.karto.domain.card.entities.CardPurchaseIntent;
@@ -11,6 +12,7 @@ import org.project.karto.domain.card.value_objects.Fee;
 import org.project.karto.domain.card.value_objects.StoreID;
 import org.project.karto.domain.common.containers.Result;
 import org.project.karto.domain.common.value_objects.Amount;
+import org.project.karto.infrastructure.jdbc.MeteredJet;
 
 import java.math.BigDecimal;
 import java.sql.ResultSet;
@@ -25,7 +27,7 @@ import static org.project.karto.infrastructure.repository.JDBCCompanyRepository.
 @ApplicationScoped
 public class JDBCCardPurchaseIntentRepository implements CardPurchaseIntentRepository {
 
-    private final JetQuerious jet;
+    private final MeteredJet jet;
 
     static final String SAVE_CARD_PURCHASE_INTENT = insert()
             .into("card_purchase_intent")
@@ -73,8 +75,8 @@ public class JDBCCardPurchaseIntentRepository implements CardPurchaseIntentRepos
             .build()
             .sql();
 
-    JDBCCardPurchaseIntentRepository() {
-        this.jet = JetQuerious.instance();
+    JDBCCardPurchaseIntentRepository(MeterRegistry meterRegistry, Tracer tracer) {
+        this.jet = new MeteredJet(meterRegistry, tracer, JDBCCardPurchaseIntentRepository.class);
     }
 
     @Override
@@ -88,7 +90,7 @@ public class JDBCCardPurchaseIntentRepository implements CardPurchaseIntentRepos
                 purchaseIntent.creationDate(),
                 purchaseIntent.resultDate().orElse(null),
                 purchaseIntent.status(),
-                purchaseIntent.removedFee().orElse(null)));
+                purchaseIntent.removedFee().map(Fee::rate).orElse(null)));
     }
 
     @Override
@@ -96,7 +98,7 @@ public class JDBCCardPurchaseIntentRepository implements CardPurchaseIntentRepos
         return mapTransactionResult(jet.write(UPDATE_PURCHASE_INTENT,
                 purchaseIntent.resultDate().orElse(null),
                 purchaseIntent.status(),
-                purchaseIntent.removedFee().orElse(null),
+                purchaseIntent.removedFee().map(Fee::rate).orElse(null),
                 purchaseIntent.id()));
     }
 
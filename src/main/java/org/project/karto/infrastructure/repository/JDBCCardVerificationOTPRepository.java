@@ -1,6 +1,7 @@
 package org.project.karto.infrastructure.repository;
 
-import com.hadzhy.jetquerious.jdbc.JetQuerious;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
 import com.hadzhy.jetquerious.sql.QueryForge;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.project.karto.domain.card.entities.CardVerificationOTP;
@@ -8,6 +9,7 @@ import org.project.karto.domain.card.repositories.CardVerificationOTPRepository;
 import org.project.karto.domain.card.value_objects.CardID;
 import org.project.karto.domain.card.value_objects.OwnerID;
 import org.project.karto.domain.common.containers.Result;
+import org.project.karto.infrastructure.jdbc.MeteredJet;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -19,7 +21,7 @@ import static com.hadzhy.jetquerious.sql.QueryForge.*;
 @ApplicationScoped
 public class JDBCCardVerificationOTPRepository implements CardVerificationOTPRepository {
 
-    private final JetQuerious jet;
+    private final MeteredJet jet;
 
     static final String SAVE_OTP = insert()
             .into("gift_card_otp")
@@ -62,8 +64,8 @@ public class JDBCCardVerificationOTPRepository implements CardVerificationOTPRep
             .build()
             .sql();
 
-    JDBCCardVerificationOTPRepository() {
-        this.jet = JetQuerious.instance();
+    JDBCCardVerificationOTPRepository(MeterRegistry meterRegistry, Tracer tracer) {
+        this.jet = new MeteredJet(meterRegistry, tracer, JDBCCardVerificationOTPRepository.class);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package org.project.karto.infrastructure.repository;
 
-import com.hadzhy.jetquerious.jdbc.JetQuerious;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.project.karto.domain.card.entities.Check;
 import org.project.karto.domain.card.enumerations.CheckType;
@@ -9,6 +10,7 @@ import org.project.karto.domain.card.repositories.CheckRepository;
 import org.project.karto.domain.card.value_objects.*;
 import org.project.karto.domain.common.containers.Result;
 import org.project.karto.domain.common.value_objects.Amount;
+import org.project.karto.infrastructure.jdbc.MeteredJet;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -22,7 +24,7 @@ import static org.project.karto.infrastructure.repository.JDBCCompanyRepository.
 @ApplicationScoped
 public class JDBCCheckRepository implements CheckRepository {
 
-    private final JetQuerious jet;
+    private final MeteredJet jet;
 
     static final String SAVE_CHECK = insert().into("chck")
             .columns("id",
@@ -65,8 +67,8 @@ public class JDBCCheckRepository implements CheckRepository {
             .build()
             .sql();
 
-    JDBCCheckRepository() {
-        this.jet = JetQuerious.instance();
+    JDBCCheckRepository(MeterRegistry meterRegistry, Tracer tracer) {
+        this.jet = new MeteredJet(meterRegistry, tracer, JDBCCheckRepository.class);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package org.project.karto.infrastructure.repository;
 
-import com.hadzhy.jetquerious.jdbc.JetQuerious;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.project.karto.domain.common.containers.Result;
@@ -10,6 +11,7 @@ import org.project.karto.domain.companies.enumerations.CompanyStatus;
 import org.project.karto.domain.companies.repository.CompanyRepository;
 import org.project.karto.domain.companies.value_objects.CompanyName;
 import org.project.karto.domain.companies.value_objects.RegistrationNumber;
+import org.project.karto.infrastructure.jdbc.MeteredJet;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -20,7 +22,9 @@ import static com.hadzhy.jetquerious.sql.QueryForge.*;
 @ApplicationScoped
 public class JDBCCompanyRepository implements CompanyRepository {
 
-    private final JetQuerious jet;
+    private final MeteredJet jet;
+
+    private final CatalogCache catalogCache;
 
     static final String SAVE_COMPANY = insert()
             .into("companies")
@@ -58,6 +62,13 @@ public class JDBCCompanyRepository implements CompanyRepository {
             .build()
             .sql();
 
+    static final String REHASH_PASSWORD = update("companies")
+            .set("password = ?")
+            .where("id = ?")
+            .and("password = ?")
+            .build()
+            .sql();
+
     static final String UPDATE_COUNTER = update("companies")
             .set("counter = ?, last_updated = ?")
             .where("id = ?")
@@ -133,13 +144,14 @@ public class JDBCCompanyRepository implements CompanyRepository {
             .build()
             .sql();
 
-    JDBCCompanyRepository() {
-        jet = JetQuerious.instance();
+    JDBCCompanyRepository(MeterRegistry meterRegistry, Tracer tracer, CatalogCache catalogCache) {
+        jet = new MeteredJet(meterRegistry, tracer, JDBCCompanyRepository.class);
+        this.catalogCache = catalogCache;
     }
 
     @Override
     public Result<Integer, Throwable> save(Company company) {
-        return mapTransactionResult(
+        return catalogChanged(
                 jet.write(SAVE_COMPANY, company.id(), company.registrationNumber().countryCode(), company.registrationNumber().value(),
                         company.companyName(), company.email(), company.phone(), company.password(), company.keyAndCounter().key(),
                         company.keyAndCounter().counter(), company.companyStatus(), company.cardUsageLimitation().expirationDays(),
@@ -150,7 +162,7 @@ public class JDBCCompanyRepository implements CompanyRepository {
     public Result<Integer, Throwable> updateCardUsageLimitations(Company company) {
         CardUsageLimitations cardUsageLimitations = company.cardUsageLimitation();
 
-        return mapTransactionResult(jet.write(UPDATE_COMPANY, cardUsageLimitations.expirationDays(),
+        return catalogChanged(jet.write(UPDATE_COMPANY, cardUsageLimitations.expirationDays(),
                         cardUsageLimitations.maxUsageCount(), company.lastUpdated(), company.id()));
     }
 
@@ -159,6 +171,11 @@ public class JDBCCompanyRepository implements CompanyRepository {
         return mapTransactionResult(jet.write(UPDATE_PASSWORD, company.password(), company.lastUpdated(), company.id()));
     }
 
+    @Override
+    public Result<Integer, Throwable> rehashPassword(UUID companyID, String verifiedPassword, String rehashedPassword) {
+        return mapTransactionResult(jet.write(REHASH_PASSWORD, rehashedPassword, companyID.toString(), verifiedPassword));
+    }
+
     @Override
     public Result<Integer, Throwable> updateCounter(Company company) {
         return mapTransactionResult(jet.write(UPDATE_COUNTER, company.keyAndCounter().counter(), company.lastUpdated(), company.id()));
@@ -255,6 +272,13 @@ public class JDBCCompanyRepository implements CompanyRepository {
         );
     }
 
+    private Result<Integer, Throwable> catalogChanged(com.hadzhy.jetquerious.util.Result<Integer, Throwable> write) {
+        Result<Integer, Throwable> result = mapTransactionResult(write);
+        if (result.success())
+            catalogCache.invalidate();
+        return result;
+    }
+
     private static Result<Company, Throwable> mapResult(com.hadzhy.jetquerious.util.Result<Company, Throwable> read) {
         return new Result<>(read.value(), read.throwable(), read.success());
     }
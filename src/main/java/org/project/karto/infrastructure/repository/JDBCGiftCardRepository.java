@@ -2,20 +2,34 @@ package org.project.karto.infrastructure.repository;
 
 import org.project.karto.application.dto.gift_card.CardDTO;
 import org.project.karto.domain.common.interfaces.Pageable;
-import com.hadzhy.jetquerious.jdbc.JetQuerious;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
 import com.hadzhy.jetquerious.sql.QueryForge;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.project.karto.domain.card.entities.Check;
 import org.project.karto.domain.card.entities.GiftCard;
+import org.project.karto.domain.card.entities.PaymentIntent;
 import org.project.karto.domain.card.enumerations.GiftCardStatus;
+import org.project.karto.domain.card.exceptions.CardBusyException;
 import org.project.karto.domain.card.repositories.GiftCardRepository;
 import org.project.karto.domain.card.value_objects.*;
 import org.project.karto.domain.common.containers.Result;
+import org.project.karto.domain.common.containers.Slice;
+import org.project.karto.domain.common.exceptions.IllegalDomainStateException;
+import org.project.karto.domain.common.interfaces.CursorPageable;
+import org.project.karto.domain.common.tuples.Pair;
 import org.project.karto.domain.common.value_objects.KeyAndCounter;
+import org.project.karto.infrastructure.jdbc.MeteredJet;
 
+import javax.sql.DataSource;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.time.Duration;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.function.Function;
 
 import static com.hadzhy.jetquerious.sql.QueryForge.insert;
 import static com.hadzhy.jetquerious.sql.QueryForge.select;
@@ -24,7 +38,13 @@ import static org.project.karto.infrastructure.repository.JDBCCompanyRepository.
 @ApplicationScoped
 public class JDBCGiftCardRepository implements GiftCardRepository {
 
-    private final JetQuerious jet;
+    private final MeteredJet jet;
+
+    private final DataSource dataSource;
+
+    private final Duration lockTimeout;
+
+    private static final String LOCK_NOT_AVAILABLE = "55P03";
 
     static final String SAVE_GIFT_CARD = insert()
         .into("gift_card")
@@ -67,6 +87,20 @@ public class JDBCGiftCardRepository implements GiftCardRepository {
         .build()
         .sql();
 
+    static final String SET_LOCK_TIMEOUT = "SELECT set_config('lock_timeout', ?, true)";
+
+    static final String LOCK_BY_CARD_ID = """
+            SELECT * FROM gift_card WHERE id = ? FOR UPDATE
+            """;
+
+    static final String LOCK_BY_CARD_ID_NOWAIT = """
+            SELECT * FROM gift_card WHERE id = ? FOR UPDATE NOWAIT
+            """;
+
+    static final String SAVE_SPEND_INTENT = JDBCPaymentIntentRepository.SAVE_PAYMENT_INTENT;
+
+    static final String SAVE_SPEND_CHECK = JDBCCheckRepository.SAVE_CHECK;
+
     static final String FIND_BY_BUYER_ID = select()
         .all()
         .from("gift_card")
@@ -96,12 +130,44 @@ public class JDBCGiftCardRepository implements GiftCardRepository {
         .from("companies c")
         .leftJoin("gift_card gc", "gc.store_id = c.id")
         .groupBy("c.id, c.expiration_period_days, c.max_usage_count")
-        .orderBy("gift_card_count DESC")
+        .orderBy("gift_card_count DESC, c.id DESC")
         .limitAndOffset()
         .sql();
 
-    JDBCGiftCardRepository() {
-        this.jet = JetQuerious.instance();
+    /**
+     * Cursor pages of the catalog are ordered by partner id: a stable key that seeks the primary key of
+     * {@code companies}. The popularity order of {@link #FIND_ALL_AVAILABLE_CARDS} changes with every purchase
+     * and is an aggregate over all partners, so it can't be paged by keyset.
+     */
+    static final String FIRST_AVAILABLE_CARDS = """
+            SELECT c.id AS id, c.expiration_period_days AS expiration_period_days,
+                   c.max_usage_count AS max_usage_count
+            FROM companies c
+            ORDER BY c.id
+            LIMIT ?
+            """;
+
+    static final String NEXT_AVAILABLE_CARDS = """
+            SELECT c.id AS id, c.expiration_period_days AS expiration_period_days,
+                   c.max_usage_count AS max_usage_count
+            FROM companies c
+            WHERE c.id > ?
+            ORDER BY c.id
+            LIMIT ?
+            """;
+
+    JDBCGiftCardRepository(
+            MeterRegistry meterRegistry,
+            Tracer tracer,
+            DataSource dataSource,
+            @ConfigProperty(name = "gift-card.spend.lock-timeout", defaultValue = "2S") Duration lockTimeout) {
+
+        if (lockTimeout.isNegative())
+            throw new IllegalArgumentException("Spend lock timeout cannot be negative");
+
+        this.jet = new MeteredJet(meterRegistry, tracer, JDBCGiftCardRepository.class);
+        this.dataSource = dataSource;
+        this.lockTimeout = lockTimeout;
     }
 
     @Override
@@ -142,6 +208,44 @@ public class JDBCGiftCardRepository implements GiftCardRepository {
         return new Result<>(result.value(), result.throwable(), result.success());
     }
 
+    /**
+     * The card row stays locked with {@code FOR UPDATE} until commit. A zero lock timeout fails at once with
+     * {@code NOWAIT}, otherwise the wait is bounded by a transaction local {@code lock_timeout}.
+     */
+    @Override
+    public Result<Pair<PaymentIntent, Check>, Throwable> spend(CardID cardID,
+                                                               Function<GiftCard, Pair<PaymentIntent, Check>> spending) {
+        try {
+            return Result.success(jet.transaction(dataSource, transaction -> {
+                GiftCard card = lock(transaction, cardID)
+                        .orElseThrow(() -> new IllegalDomainStateException("Card not found."));
+                long lockedVersion = card.version();
+
+                Pair<PaymentIntent, Check> spent = spending.apply(card);
+                if (transaction.write(UPDATE_GIFT_CARD,
+                        card.giftCardStatus(),
+                        card.balance().value(),
+                        card.countOfUses(),
+                        card.keyAndCounter().counter(),
+                        card.lastUsage(),
+                        card.version(),
+                        card.id().value(),
+                        lockedVersion) != 1)
+                    throw new IllegalDomainStateException("Card was changed by another payment.");
+
+                saveIntent(transaction, spent.getFirst());
+                saveCheck(transaction, spent.getSecond());
+                return spent;
+            }));
+        } catch (SQLException e) {
+            if (LOCK_NOT_AVAILABLE.equals(e.getSQLState()))
+                return Result.failure(new CardBusyException("Card is used by another payment, try again."));
+            return Result.failure(e);
+        } catch (RuntimeException e) {
+            return Result.failure(e);
+        }
+    }
+
     @Override
     public Result<List<GiftCard>, Throwable> findBy(BuyerID buyerID) {
         var result = jet.readListOf(FIND_BY_BUYER_ID, this::mapGiftCard, buyerID.value().toString());
@@ -166,6 +270,62 @@ public class JDBCGiftCardRepository implements GiftCardRepository {
         return new Result<>(result.value(), result.throwable(), result.success());
     }
 
+    @Override
+    public Result<Slice<CardDTO>, Throwable> availableGiftCards(CursorPageable page) {
+        int fetch = page.limit() + 1;
+        var result = page.isFirstPage()
+                ? jet.readListOf(FIRST_AVAILABLE_CARDS, this::mapKeyedCardDTO, fetch)
+                : jet.readListOf(NEXT_AVAILABLE_CARDS, this::mapKeyedCardDTO, page.afterID(), fetch);
+
+        if (!result.success())
+            return Result.failure(result.throwable());
+        return Result.success(Slice.of(result.value(), page.limit(), KeyedRow::item, KeyedRow::key, KeyedRow::id));
+    }
+
+    private Optional<GiftCard> lock(MeteredJet.Transaction transaction, CardID cardID) throws SQLException {
+        String id = cardID.value().toString();
+        if (lockTimeout.isZero())
+            return transaction.read(LOCK_BY_CARD_ID_NOWAIT, this::mapGiftCard, id);
+
+        transaction.read(SET_LOCK_TIMEOUT, rs -> rs.getString(1), lockTimeout.toMillis() + "ms");
+        return transaction.read(LOCK_BY_CARD_ID, this::mapGiftCard, id);
+    }
+
+    private static void saveIntent(MeteredJet.Transaction transaction, PaymentIntent intent) throws SQLException {
+        transaction.write(SAVE_SPEND_INTENT,
+                intent.id(),
+                intent.buyerID().value(),
+                intent.cardID().value(),
+                intent.storeID().value(),
+                intent.orderID(),
+                intent.totalAmount().value(),
+                intent.creationDate(),
+                intent.resultDate().orElse(null),
+                intent.status(),
+                intent.isConfirmed(),
+                intent.paymentDescription() == null ? null : intent.paymentDescription().value(),
+                intent.feeAmount().value());
+    }
+
+    private static void saveCheck(MeteredJet.Transaction transaction, Check check) throws SQLException {
+        transaction.write(SAVE_SPEND_CHECK,
+                check.id(),
+                check.orderID(),
+                check.buyerID().value(),
+                check.storeID().map(StoreID::value).orElse(null),
+                check.cardID().map(CardID::value).orElse(null),
+                check.totalAmount().value(),
+                check.currency().code(),
+                check.paymentType(),
+                check.internalFee().value(),
+                check.externalFee().value(),
+                check.paymentSystem().value(),
+                check.description().value(),
+                check.bankName().value(),
+                check.creationDate(),
+                check.checkType());
+    }
+
     private GiftCard mapGiftCard(ResultSet rs) throws SQLException {
         String ownerId = rs.getString("owner_id");
         String storeId = rs.getString("store_id");
@@ -191,4 +351,8 @@ public class JDBCGiftCardRepository implements GiftCardRepository {
         return new CardDTO(UUID.fromString(rs.getString("id")),
                     rs.getInt("expiration_period_days"), rs.getInt("max_usage_count"));
     }
+
+    private KeyedRow<CardDTO> mapKeyedCardDTO(ResultSet rs) throws SQLException {
+        return new KeyedRow<>(mapCardDTO(rs), rs.getString("id"), rs.getString("id"));
+    }
 }
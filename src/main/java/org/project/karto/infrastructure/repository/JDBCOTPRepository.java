@@ -1,11 +1,13 @@
 package org.project.karto.infrastructure.repository;
 
-import com.hadzhy.jetquerious.jdbc.JetQuerious;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.project.karto.domain.common.containers.Result;
 import org.project.karto.domain.user.entities.OTP;
 import org.project.karto.domain.user.repository.OTPRepository;
+import org.project.karto.infrastructure.jdbc.MeteredJet;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -18,7 +20,7 @@ import static org.project.karto.infrastructure.repository.JDBCCompanyRepository.
 @ApplicationScoped
 public class JDBCOTPRepository implements OTPRepository {
 
-    private final JetQuerious jet;
+    private final MeteredJet jet;
 
     static final String SAVE_OTP = insert()
             .into("otp")
@@ -64,8 +66,8 @@ public class JDBCOTPRepository implements OTPRepository {
             .build()
             .sql();
 
-    public JDBCOTPRepository() {
-        jet = JetQuerious.instance();
+    public JDBCOTPRepository(MeterRegistry meterRegistry, Tracer tracer) {
+        jet = new MeteredJet(meterRegistry, tracer, JDBCOTPRepository.class);
     }
 
     @Override
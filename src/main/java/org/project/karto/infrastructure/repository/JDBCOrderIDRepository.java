@@ -1,19 +1,21 @@
 package org.project.karto.infrastructure.repository;
 
-import com.hadzhy.jetquerious.jdbc.JetQuerious;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.project.karto.domain.card.repositories.OrderIDRepository;
 import org.project.karto.domain.common.containers.Result;
+import org.project.karto.infrastructure.jdbc.MeteredJet;
 
 @ApplicationScoped
 public class JDBCOrderIDRepository implements OrderIDRepository {
 
-    private final JetQuerious jet;
+    private final MeteredJet jet;
 
     static final String NEXT = "SELECT nextval('card_purchase_intent_order_id_seq')";
 
-    JDBCOrderIDRepository() {
-        jet = JetQuerious.instance();
+    JDBCOrderIDRepository(MeterRegistry meterRegistry, Tracer tracer) {
+        jet = new MeteredJet(meterRegistry, tracer, JDBCOrderIDRepository.class);
     }
 
     @Override
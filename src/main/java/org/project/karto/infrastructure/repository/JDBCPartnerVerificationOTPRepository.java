@@ -1,11 +1,13 @@
 package org.project.karto.infrastructure.repository;
 
-import com.hadzhy.jetquerious.jdbc.JetQuerious;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
 import com.hadzhy.jetquerious.sql.QueryForge;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.project.karto.domain.common.containers.Result;
 import org.project.karto.domain.companies.entities.PartnerVerificationOTP;
 import org.project.karto.domain.companies.repository.PartnerVerificationOTPRepository;
+import org.project.karto.infrastructure.jdbc.MeteredJet;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -18,7 +20,7 @@ import static org.project.karto.infrastructure.repository.JDBCCompanyRepository.
 @ApplicationScoped
 public class JDBCPartnerVerificationOTPRepository implements PartnerVerificationOTPRepository {
 
-    private final JetQuerious jet;
+    private final MeteredJet jet;
 
     static final String SAVE_PARTNER_OTP = insert()
             .into("companies_otp")
@@ -63,8 +65,8 @@ public class JDBCPartnerVerificationOTPRepository implements PartnerVerification
             .build()
             .sql();
 
-    JDBCPartnerVerificationOTPRepository() {
-        this.jet = JetQuerious.instance();
+    JDBCPartnerVerificationOTPRepository(MeterRegistry meterRegistry, Tracer tracer) {
+        this.jet = new MeteredJet(meterRegistry, tracer, JDBCPartnerVerificationOTPRepository.class);
     }
 
     @Override
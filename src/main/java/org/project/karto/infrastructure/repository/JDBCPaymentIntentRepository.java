@@ -1,6 +1,7 @@
 package org.project.karto.infrastructure.repository;
 
-import com.hadzhy.jetquerious.jdbc.JetQuerious;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
 import com.hadzhy.jetquerious.sql.QueryForge;
 import jakarta.enterprise.context.ApplicationScoped;
 import org.project.karto.domain.card.entities.PaymentIntent;
@@ -9,6 +10,7 @@ import org.project.karto.domain.card.repositories.PaymentIntentRepository;
 import org.project.karto.domain.card.value_objects.*;
 import org.project.karto.domain.common.containers.Result;
 import org.project.karto.domain.common.value_objects.Amount;
+import org.project.karto.infrastructure.jdbc.MeteredJet;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
@@ -22,7 +24,7 @@ import static org.project.karto.infrastructure.repository.JDBCCompanyRepository.
 @ApplicationScoped
 public class JDBCPaymentIntentRepository implements PaymentIntentRepository {
 
-    private final JetQuerious jet;
+    private final MeteredJet jet;
 
     static final String SAVE_PAYMENT_INTENT = insert()
             .into("payment_intent")
@@ -72,8 +74,8 @@ public class JDBCPaymentIntentRepository implements PaymentIntentRepository {
             .build()
             .sql();
 
-    JDBCPaymentIntentRepository() {
-        this.jet = JetQuerious.instance();
+    JDBCPaymentIntentRepository(MeterRegistry meterRegistry, Tracer tracer) {
+        this.jet = new MeteredJet(meterRegistry, tracer, JDBCPaymentIntentRepository.class);
     }
 
     @Override
@@ -1,6 +1,7 @@
 package org.project.karto.infrastructure.repository;
 
-import com.hadzhy.jetquerious.jdbc.JetQuerious;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
 import io.quarkus.logging.Log;
 import jakarta.enterprise.context.ApplicationScoped;
 
@@ -8,6 +9,9 @@ import org.project.karto.application.dto.gift_card.GiftCardDTO;
 import org.project.karto.application.pagination.PageRequest;
 import org.project.karto.domain.card.enumerations.GiftCardStatus;
 import org.project.karto.domain.common.containers.Result;
+import org.project.karto.domain.common.containers.Slice;
+import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
+import org.project.karto.domain.common.interfaces.CursorPageable;
 import org.project.karto.domain.common.interfaces.Pageable;
 import org.project.karto.domain.common.value_objects.Email;
 import org.project.karto.domain.common.value_objects.KeyAndCounter;
@@ -17,10 +21,14 @@ import org.project.karto.domain.user.repository.UserRepository;
 import org.project.karto.domain.user.values_objects.CashbackStorage;
 import org.project.karto.domain.user.values_objects.PersonalData;
 import org.project.karto.domain.user.values_objects.RefreshToken;
+import org.project.karto.infrastructure.jdbc.MeteredJet;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.time.ZoneOffset;
 import java.util.List;
 import java.util.UUID;
 
@@ -30,7 +38,7 @@ import static org.project.karto.infrastructure.repository.JDBCCompanyRepository.
 @ApplicationScoped
 public class JDBCUserRepository implements UserRepository {
 
-        private final JetQuerious jet;
+        private final MeteredJet jet;
 
         static final String SAVE_USER = insert()
                         .into("user_account")
@@ -54,14 +62,13 @@ public class JDBCUserRepository implements UserRepository {
                         .build()
                         .sql();
 
-        static final String SAVE_REFRESH_TOKEN = insert()
-                        .into("refresh_token")
-                        .columns("user_id", "token")
-                        .values()
-                        .onConflict("user_id")
-                        .doUpdateSet("token = ?")
-                        .build()
-                        .sql();
+        static final String SAVE_REFRESH_TOKEN = """
+                        INSERT INTO refresh_token (user_id, token_hash, expires_at)
+                        VALUES (?, sha256(convert_to(?, 'UTF8')), ?)
+                        ON CONFLICT (user_id) DO UPDATE SET
+                        token_hash = EXCLUDED.token_hash,
+                        expires_at = EXCLUDED.expires_at
+                        """;
 
         static final String UPDATE_PHONE = update("user_account")
                         .set("phone = ?")
@@ -69,6 +76,13 @@ public class JDBCUserRepository implements UserRepository {
                         .build()
                         .sql();
 
+        static final String REHASH_PASSWORD = update("user_account")
+                        .set("password = ?")
+                        .where("id = ?")
+                        .and("password = ?")
+                        .build()
+                        .sql();
+
         static final String UPDATE_COUNTER = update("user_account")
                         .set("counter = ?")
                         .where("id = ?")
@@ -138,9 +152,16 @@ public class JDBCUserRepository implements UserRepository {
                         .sql();
 
         static final String REFRESH_TOKEN = select()
-                        .all()
+                        .column("user_id")
+                        .column("expires_at")
+                        .from("refresh_token")
+                        .where("token_hash = sha256(convert_to(?, 'UTF8'))")
+                        .build()
+                        .sql();
+
+        static final String REMOVE_EXPIRED_REFRESH_TOKENS = delete()
                         .from("refresh_token")
-                        .where("token = ?")
+                        .where("ctid IN (SELECT ctid FROM refresh_token WHERE expires_at < ? LIMIT ?)")
                         .build()
                         .sql();
 
@@ -158,11 +179,37 @@ public class JDBCUserRepository implements UserRepository {
                         .leftJoin("gift_card gc", "gc.owner_id = u.id")
                         .leftJoin("companies c", "c.id = gc.store_id")
                         .where("u.email = ?")
+                        .orderBy("gc.expiration_date, gc.id")
                         .limitAndOffset()
                         .sql();
 
-        public JDBCUserRepository() {
-                jet = JetQuerious.instance();
+        static final String FIRST_USER_CARDS = """
+                        SELECT gc.id AS gift_card_id, gc.store_id AS store_id, c.company_name AS company_name,
+                               gc.max_count_of_uses AS max_count_of_uses, gc.count_of_uses AS count_of_uses,
+                               gc.gift_card_status AS status, gc.balance AS balance, gc.expiration_date AS expiration_date
+                        FROM user_account u
+                        JOIN gift_card gc ON gc.owner_id = u.id
+                        LEFT JOIN companies c ON c.id = gc.store_id
+                        WHERE u.email = ?
+                        ORDER BY gc.expiration_date, gc.id
+                        LIMIT ?
+                        """;
+
+        static final String NEXT_USER_CARDS = """
+                        SELECT gc.id AS gift_card_id, gc.store_id AS store_id, c.company_name AS company_name,
+                               gc.max_count_of_uses AS max_count_of_uses, gc.count_of_uses AS count_of_uses,
+                               gc.gift_card_status AS status, gc.balance AS balance, gc.expiration_date AS expiration_date
+                        FROM user_account u
+                        JOIN gift_card gc ON gc.owner_id = u.id
+                        LEFT JOIN companies c ON c.id = gc.store_id
+                        WHERE u.email = ?
+                        AND (gc.expiration_date, gc.id) > (?, ?)
+                        ORDER BY gc.expiration_date, gc.id
+                        LIMIT ?
+                        """;
+
+        public JDBCUserRepository(MeterRegistry meterRegistry, Tracer tracer) {
+                jet = new MeteredJet(meterRegistry, tracer, JDBCUserRepository.class);
         }
 
         @Override
@@ -192,7 +239,7 @@ public class JDBCUserRepository implements UserRepository {
                 return mapTransactionResult(jet.write(SAVE_REFRESH_TOKEN,
                                 refreshToken.userID().toString(),
                                 refreshToken.refreshToken(),
-                                refreshToken.refreshToken()));
+                                refreshToken.expirationDate()));
         }
 
         @Override
@@ -202,6 +249,13 @@ public class JDBCUserRepository implements UserRepository {
                                                 user.id().toString()));
         }
 
+        @Override
+        public Result<Integer, Throwable> rehashPassword(UUID userID, String verifiedPassword,
+                        String rehashedPassword) {
+                return mapTransactionResult(
+                                jet.write(REHASH_PASSWORD, rehashedPassword, userID.toString(), verifiedPassword));
+        }
+
         @Override
         public Result<Integer, Throwable> updateCounter(User user) {
                 return mapTransactionResult(
@@ -271,18 +325,51 @@ public class JDBCUserRepository implements UserRepository {
 
         @Override
         public Result<RefreshToken, Throwable> findRefreshToken(String refreshToken) {
-                var result = jet.read(REFRESH_TOKEN, this::refreshTokenMapper, refreshToken);
+                var result = jet.read(REFRESH_TOKEN, rs -> refreshTokenMapper(rs, refreshToken), refreshToken);
                 return new Result<>(result.value(), result.throwable(), result.success());
         }
 
+        @Override
+        public Result<Integer, Throwable> removeExpiredRefreshTokens(int batchSize) {
+                return mapTransactionResult(jet.write(REMOVE_EXPIRED_REFRESH_TOKENS,
+                                LocalDateTime.now(ZoneOffset.UTC),
+                                batchSize));
+        }
+
         @Override
         public Result<List<GiftCardDTO>, Throwable> userCards(Pageable page, Email email) {
                 var result = jet.readListOf(USER_CARDS, this::giftCardMapper, email, page.limit(), page.offset());
                 return new Result<>(result.value(), result.throwable(), result.success());
         }
 
-        private RefreshToken refreshTokenMapper(ResultSet rs) throws SQLException {
-                return new RefreshToken(UUID.fromString(rs.getString("user_id")), rs.getString("token"));
+        @Override
+        public Result<Slice<GiftCardDTO>, Throwable> userCards(CursorPageable page, Email email) {
+                int fetch = page.limit() + 1;
+                com.hadzhy.jetquerious.util.Result<List<KeyedRow<GiftCardDTO>>, Throwable> result;
+                if (page.isFirstPage()) {
+                        result = jet.readListOf(FIRST_USER_CARDS, this::keyedGiftCardMapper, email, fetch);
+                } else {
+                        LocalDateTime afterExpiration;
+                        try {
+                                afterExpiration = LocalDateTime.parse(page.afterKey());
+                        } catch (DateTimeParseException e) {
+                                return Result.failure(new IllegalDomainArgumentException("Invalid cursor."));
+                        }
+                        result = jet.readListOf(NEXT_USER_CARDS, this::keyedGiftCardMapper,
+                                        email, afterExpiration, page.afterID(), fetch);
+                }
+
+                if (!result.success())
+                        return Result.failure(result.throwable());
+                return Result.success(Slice.of(result.value(), page.limit(),
+                                KeyedRow::item, KeyedRow::key, KeyedRow::id));
+        }
+
+        private RefreshToken refreshTokenMapper(ResultSet rs, String refreshToken) throws SQLException {
+                return new RefreshToken(
+                                UUID.fromString(rs.getString("user_id")),
+                                refreshToken,
+                                rs.getTimestamp("expires_at").toLocalDateTime());
         }
 
         private GiftCardDTO giftCardMapper(ResultSet rs) throws SQLException {
@@ -297,6 +384,11 @@ public class JDBCUserRepository implements UserRepository {
                                 rs.getTimestamp("expiration_date").toLocalDateTime());
         }
 
+        private KeyedRow<GiftCardDTO> keyedGiftCardMapper(ResultSet rs) throws SQLException {
+                GiftCardDTO card = giftCardMapper(rs);
+                return new KeyedRow<>(card, card.expirationDate().toString(), card.giftCardID());
+        }
+
         private String getNullableString(ResultSet rs, String columnName) throws SQLException {
                 String value = rs.getString(columnName);
                 return value == null ? null : value;
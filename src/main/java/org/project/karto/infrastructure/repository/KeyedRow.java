@@ -0,0 +1,6 @@
+package org.project.karto.infrastructure.repository;
+
+/**
+ * Mapped row together with its keyset position: the sort key and the id used as tie-breaker.
+ */
+record KeyedRow<T>(T item, String key, String id) {}
@@ -0,0 +1,69 @@
+package org.project.karto.infrastructure.security;
+
+import de.mkammerer.argon2.Argon2;
+
+import java.time.Duration;
+
+/**
+ * Argon2 cost parameters. They are encoded into every hash in the PHC string format
+ * ({@code $argon2i$v=19$m=65536,t=2,p=4$salt$hash}), which allows to detect hashes made with outdated parameters.
+ */
+public record Argon2Parameters(int iterations, int memoryKiB, int parallelism) {
+
+    private static final char[] CALIBRATION_PASSWORD = "calibration-password".toCharArray();
+
+    public Argon2Parameters {
+        if (iterations < 1)
+            throw new IllegalArgumentException("Argon2 iterations must be positive");
+        if (memoryKiB < 8 * parallelism)
+            throw new IllegalArgumentException("Argon2 memory must be at least 8 KiB per lane");
+        if (parallelism < 1)
+            throw new IllegalArgumentException("Argon2 parallelism must be positive");
+    }
+
+    public boolean matches(String hash) {
+        if (hash == null)
+            return false;
+
+        String[] parts = hash.split("\\$");
+        if (parts.length != 6)
+            return false;
+
+        String encoded = "m=%d,t=%d,p=%d".formatted(memoryKiB, iterations, parallelism);
+        return encoded.equals(parts[3]);
+    }
+
+    /**
+     * Picks the parameters closest to {@code targetTime} on the current hardware.
+     * <p>
+     * Memory starts at {@code maxMemoryKiB} and iterations are derived from the measured cost of a single pass.
+     * If even one pass at that memory is slower than the target, memory is halved until {@code minMemoryKiB}.
+     */
+    public static Argon2Parameters calibrate(Argon2 argon2, Duration targetTime,
+                                             int maxMemoryKiB, int minMemoryKiB, int parallelism) {
+        long targetNanos = targetTime.toNanos();
+        int memoryKiB = maxMemoryKiB;
+
+        while (true) {
+            long singlePass = measure(argon2, new Argon2Parameters(1, memoryKiB, parallelism));
+            boolean canHalveMemory = memoryKiB / 2 >= minMemoryKiB;
+
+            if (singlePass > targetNanos && canHalveMemory) {
+                memoryKiB /= 2;
+                continue;
+            }
+
+            int iterations = (int) Math.max(1, targetNanos / Math.max(1, singlePass));
+            return new Argon2Parameters(iterations, memoryKiB, parallelism);
+        }
+    }
+
+    private static long measure(Argon2 argon2, Argon2Parameters parameters) {
+        // first run warms up native memory allocation and is not representative
+        argon2.hash(parameters.iterations(), parameters.memoryKiB(), parameters.parallelism(), CALIBRATION_PASSWORD);
+
+        long start = System.nanoTime();
+        argon2.hash(parameters.iterations(), parameters.memoryKiB(), parameters.parallelism(), CALIBRATION_PASSWORD);
+        return System.nanoTime() - start;
+    }
+}
@@ -1,8 +1,9 @@
 package org.project.karto.infrastructure.security;
 
 import javax.crypto.Mac;
+import javax.crypto.ShortBufferException;
 import javax.crypto.spec.SecretKeySpec;
-import java.nio.ByteBuffer;
+import java.security.InvalidKeyException;
 import java.security.NoSuchAlgorithmException;
 import java.security.SecureRandom;
 import java.util.Base64;
@@ -19,14 +20,21 @@ import java.util.Base64;
  * <p>
  * This class supports generating numeric HOTP codes (usually 6-8 digits) using HMAC algorithms
  * like HmacSHA1, HmacSHA256, or HmacSHA512.
+ * <p>
+ * Instances are thread-safe and meant to be shared. {@link Mac} is not thread-safe, so every thread gets
+ * its own {@code Mac} together with reusable counter and hash buffers. The {@code Mac} stays initialized with
+ * the last used key, so generating several codes for the same key does not allocate anything except the result.
  *
  * @author Hadzhyiev Hadzhy
  */
 public class HOTPGenerator {
-    private final Mac mac;
+    private final String algorithm;
     private final int passwordLength;
+    private final int modulus;
+    private final ThreadLocal<MacState> macState;
     public static final String DEFAULT_ALGORITHM = "HmacSHA256";
     public static final int DEFAULT_LENGTH = 6;
+    private static final int[] POWERS_OF_TEN = {1, 10, 100, 1_000, 10_000, 100_000, 1_000_000, 10_000_000, 100_000_000};
 
     /**
      * Creates a HOTPGenerator with default settings.
@@ -34,13 +42,7 @@ public class HOTPGenerator {
      * Uses HmacSHA256 as the hashing algorithm and produces 6-digit codes.
      */
     public HOTPGenerator() {
-        try {
-            this.mac = Mac.getInstance(DEFAULT_ALGORITHM);
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalArgumentException("Invalid algorithm: %s"
-                    .formatted(e.getLocalizedMessage()));
-        }
-        this.passwordLength = DEFAULT_LENGTH;
+        this(DEFAULT_ALGORITHM, DEFAULT_LENGTH);
     }
 
     /**
@@ -52,14 +54,7 @@ public class HOTPGenerator {
      *       </a>).
      */
     public HOTPGenerator(String algorithm) {
-        try {
-            this.mac = Mac.getInstance(algorithm);
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalArgumentException("Invalid algorithm: %s"
-                    .formatted(e.getLocalizedMessage()));
-        }
-
-        this.passwordLength = DEFAULT_LENGTH;
+        this(algorithm, DEFAULT_LENGTH);
     }
 
     /**
@@ -70,15 +65,21 @@ public class HOTPGenerator {
      * @throws IllegalArgumentException if the length is not 6–8 digits.
      */
     public HOTPGenerator(String algorithm, int passwordLength) {
-        try {
-            this.mac = Mac.getInstance(algorithm);
-        } catch (NoSuchAlgorithmException e) {
-            throw new IllegalArgumentException("Invalid algorithm: %s"
-                    .formatted(e.getLocalizedMessage()));
-        }
         if (passwordLength < 6 || passwordLength > 8)
             throw new IllegalArgumentException("Password length must be between 6 and 8 characters");
+
+        // Fail fast on unsupported algorithms instead of on the first generated code
+        MacState initial = new MacState(newMac(algorithm));
+
+        this.algorithm = algorithm;
         this.passwordLength = passwordLength;
+        this.modulus = POWERS_OF_TEN[passwordLength];
+        this.macState = ThreadLocal.withInitial(() -> new MacState(newMac(this.algorithm)));
+        this.macState.set(initial);
+    }
+
+    public int passwordLength() {
+        return passwordLength;
     }
 
     /**
@@ -96,25 +97,56 @@ public class HOTPGenerator {
      * @throws IllegalArgumentException if something goes wrong during the process (e.g., bad key format).
      */
     public String generateHOTP(String base64Key, long counter) {
+        char[] digits = new char[passwordLength];
+        generateHOTP(base64Key, counter, digits, 0);
+        return new String(digits);
+    }
+
+    /**
+     * Same as {@link #generateHOTP(String, long)}, but writes the zero-padded digits into a caller-supplied buffer
+     * instead of creating a String, which makes code generation allocation-free for an already used key.
+     *
+     * @param base64Key   The secret key encoded in Base64 format.
+     * @param counter     A number that increases with every new code request.
+     * @param destination Buffer receiving {@link #passwordLength()} digits.
+     * @param offset      Position in the buffer of the first digit.
+     * @return Number of written digits.
+     * @throws IllegalArgumentException if something goes wrong during the process (e.g., bad key format).
+     */
+    public int generateHOTP(String base64Key, long counter, char[] destination, int offset) {
+        if (destination == null || offset < 0 || destination.length - offset < passwordLength)
+            throw new IllegalArgumentException("Destination buffer is too small for %d digits".formatted(passwordLength));
+
+        int code = generateCode(base64Key, counter);
+
+        // Write the digits right to left, the leading positions are padded with zeros (e.g., "000123")
+        for (int i = offset + passwordLength - 1; i >= offset; i--) {
+            destination[i] = (char) ('0' + code % 10);
+            code /= 10;
+        }
+        return passwordLength;
+    }
+
+    private int generateCode(String base64Key, long counter) {
+        MacState state = macState.get();
         try {
-            // Decode the Base64 key back into raw bytes
-            byte[] keyBytes = Base64.getDecoder().decode(base64Key);
-            // Convert the counter number into an 8-byte array (standard requirement for HOTP)
-            byte[] counterBytes = ByteBuffer.allocate(Long.BYTES).putLong(counter).array();
+            state.initFor(base64Key);
 
-            // Prepare the key for use in the MAC (Message Authentication Code) algorithm
-            SecretKeySpec signKey = new SecretKeySpec(keyBytes, "RAW");
-            mac.init(signKey);
+            // Write the counter as an 8-byte big-endian array (standard requirement for HOTP)
+            byte[] counterBytes = state.counter;
+            for (int i = Long.BYTES - 1; i >= 0; i--) {
+                counterBytes[i] = (byte) counter;
+                counter >>>= 8;
+            }
 
             // Compute the HMAC hash of the counter using the secret key
-            byte[] hash = mac.doFinal(counterBytes);
+            state.mac.update(counterBytes);
+            state.mac.doFinal(state.hash, 0);
 
             // Extract the one-time code from the hash
-            long truncatedHash = getTruncatedHash(hash);
-
-            // Format the number to be zero-padded to the desired length (e.g., "000123" for a 6-digit code)
-            return String.format("%0" + passwordLength + "d", truncatedHash);
-        } catch (Exception e) {
+            return getTruncatedHash(state.hash, state.mac.getMacLength());
+        } catch (IllegalArgumentException | InvalidKeyException | ShortBufferException e) {
+            state.reset();
             throw new IllegalArgumentException("Can`t generate HOTP. %s".formatted(e.getLocalizedMessage()));
         }
     }
@@ -125,45 +157,33 @@ public class HOTPGenerator {
      * This process is called "dynamic truncation" and is defined in the official HOTP specification (RFC 4226).
      * It ensures the generated code is both secure and unpredictable.
      *
-     * @param hash A 20-byte HMAC result, generated from the counter and secret key.
+     * @param hash       HMAC result, generated from the counter and secret key.
+     * @param hashLength Number of meaningful bytes in {@code hash}.
      * @return A positive number (e.g., 6 digits) extracted from the hash and ready to be formatted.
      */
-    private long getTruncatedHash(byte[] hash) {
-        // Step 1: Create a mask (0xF = 00001111 in binary) to extract the last 4 bits
-        // This is used to calculate a safe offset within the hash array (0–15)
-        int mask = ~(~0 << 4); // Equivalent to 0xF (00001111)
-        byte lastByte = hash[hash.length - 1]; // Take the last byte of the HMAC result
-        int offset = lastByte & mask; // Extract last 4 bits of that byte
-        /* For example:
-            lastByte:    11011011  => (219)
-            mask:        00001111
-            result:      00001011  => (11)
-         */
-
-        // Step 2: Extract 4 bytes starting at the calculated offset
-        // These 4 bytes will be interpreted as an integer to generate the OTP
-        byte[] truncatedHashInBytes = {
-                hash[offset],
-                hash[offset + 1],
-                hash[offset + 2],
-                hash[offset + 3]
-        };
-
-        // Step 3: Convert the 4 bytes into a single 32-bit integer
-        // ByteBuffer helps interpret the byte array as a number
-        ByteBuffer byteBuffer = ByteBuffer.wrap(truncatedHashInBytes);
-        long truncatedHash = byteBuffer.getInt(); // Still may be negative
-
-        // Step 4: Clear the most significant (sign) bit
-        // Ensures the result is a non-negative number by applying a bitmask
-        truncatedHash &= 0x7FFFFFFF; // Equivalent to keeping only the lowest 31 bits
-
-        // Step 5: Reduce the number to a fixed-length decimal code
+    private int getTruncatedHash(byte[] hash, int hashLength) {
+        // Step 1: The last 4 bits of the last byte give a safe offset within the hash array (0–15)
+        int offset = hash[hashLength - 1] & 0xF;
+
+        // Step 2: Read 4 bytes starting at the offset as a big-endian 32-bit integer,
+        // clearing the most significant (sign) bit so the result is non-negative
+        int truncatedHash = (hash[offset] & 0x7F) << 24
+                | (hash[offset + 1] & 0xFF) << 16
+                | (hash[offset + 2] & 0xFF) << 8
+                | (hash[offset + 3] & 0xFF);
+
+        // Step 3: Reduce the number to a fixed-length decimal code
         // For example, if passwordLength = 6, result will be in range [000000, 999999]
-        truncatedHash %= (long) Math.pow(10, passwordLength);
+        return truncatedHash % modulus;
+    }
 
-        // Return the final truncated and formatted HOTP value
-        return truncatedHash;
+    private static Mac newMac(String algorithm) {
+        try {
+            return Mac.getInstance(algorithm);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalArgumentException("Invalid algorithm: %s"
+                    .formatted(e.getLocalizedMessage()));
+        }
     }
 
     /**
@@ -180,4 +200,35 @@ public class HOTPGenerator {
         new SecureRandom().nextBytes(buffer);
         return Base64.getEncoder().encodeToString(buffer);
     }
+
+    /**
+     * Per-thread Mac together with its reusable buffers and the key it is currently initialized with.
+     */
+    private static final class MacState {
+        private final Mac mac;
+        private final byte[] counter = new byte[Long.BYTES];
+        private final byte[] hash;
+        private String base64Key;
+
+        private MacState(Mac mac) {
+            this.mac = mac;
+            this.hash = new byte[mac.getMacLength()];
+        }
+
+        private void initFor(String base64Key) throws InvalidKeyException {
+            if (base64Key == null)
+                throw new IllegalArgumentException("Key is null");
+            if (base64Key.equals(this.base64Key))
+                return;
+
+            // Decode the Base64 key back into raw bytes and prepare it for use in the MAC algorithm
+            byte[] keyBytes = Base64.getDecoder().decode(base64Key);
+            mac.init(new SecretKeySpec(keyBytes, "RAW"));
+            this.base64Key = base64Key;
+        }
+
+        private void reset() {
+            this.base64Key = null;
+        }
+    }
 }
@@ -1,26 +1,18 @@
 package org.project.karto.infrastructure.security;
 
+import io.opentelemetry.instrumentation.annotations.WithSpan;
 import io.quarkus.logging.Log;
 import io.smallrye.jwt.auth.principal.JWTParser;
 import io.smallrye.jwt.auth.principal.ParseException;
 import io.smallrye.jwt.build.Jwt;
 import jakarta.inject.Singleton;
-import org.apache.commons.codec.binary.Base64;
 import org.eclipse.microprofile.jwt.JsonWebToken;
 import org.project.karto.domain.common.containers.Result;
 import org.project.karto.domain.common.enumerations.Role;
 import org.project.karto.domain.companies.entities.Company;
 import org.project.karto.domain.user.entities.User;
+import org.project.karto.domain.user.values_objects.RefreshToken;
 
-import java.io.IOException;
-import java.nio.charset.Charset;
-import java.nio.file.Files;
-import java.nio.file.Path;
-import java.security.KeyFactory;
-import java.security.NoSuchAlgorithmException;
-import java.security.interfaces.RSAPublicKey;
-import java.security.spec.InvalidKeySpecException;
-import java.security.spec.X509EncodedKeySpec;
 import java.time.Duration;
 
 @Singleton
@@ -28,12 +20,14 @@ public class JWTUtility {
 
     private final JWTParser jwtParser;
 
-    private static final RSAPublicKey keycloackPublicKey = readX509PublicKey();
+    private final OIDCKeyManager oidcKeyManager;
 
-    public JWTUtility(JWTParser jwtParser) {
+    public JWTUtility(JWTParser jwtParser, OIDCKeyManager oidcKeyManager) {
         this.jwtParser = jwtParser;
+        this.oidcKeyManager = oidcKeyManager;
     }
 
+    @WithSpan
     public String generateToken(User user) {
         Duration oneDayAndSecond = Duration.ofDays(1).plusSeconds(1);
 
@@ -47,6 +41,7 @@ public class JWTUtility {
                 .sign();
     }
 
+    @WithSpan
     public String generateAdministratorToken() {
         return Jwt.issuer("Karto")
                 .upn("admin")
@@ -55,6 +50,7 @@ public class JWTUtility {
                 .sign();
     }
 
+    @WithSpan
     public String generateToken(Company company) {
         Duration oneDayAndSecond = Duration.ofDays(1).plusSeconds(1);
 
@@ -65,13 +61,12 @@ public class JWTUtility {
                 .sign();
     }
 
+    @WithSpan
     public String generateRefreshToken(User user) {
-        Duration year = Duration.ofDays(365);
-
         return Jwt.issuer("Karto")
                 .upn(user.personalData().email())
                 .groups(user.role().name())
-                .expiresIn(year)
+                .expiresIn(RefreshToken.LIFETIME)
                 .sign();
     }
 
@@ -84,29 +79,8 @@ public class JWTUtility {
         }
     }
 
+    @WithSpan
     public Result<JsonWebToken, Throwable> verifyAndParse(String jwt) {
-        try {
-            JsonWebToken verified = jwtParser.verify(jwt, keycloackPublicKey);
-            return Result.success(verified);
-        } catch (Exception e) {
-            return Result.failure(e);
-        }
-    }
-
-    private static RSAPublicKey readX509PublicKey() {
-        try {
-            String key = Files.readString(Path.of("src/main/resources/keycloackPublicKey.pem"), Charset.defaultCharset())
-                    .replace("-----BEGIN PUBLIC KEY-----", "")
-                    .replaceAll(System.lineSeparator(), "")
-                    .replace("-----END PUBLIC KEY-----", "");
-
-            byte[] encoded = Base64.decodeBase64(key);
-
-            KeyFactory keyFactory = KeyFactory.getInstance("RSA");
-            X509EncodedKeySpec keySpec = new X509EncodedKeySpec(encoded);
-            return (RSAPublicKey) keyFactory.generatePublic(keySpec);
-        } catch (IOException | NoSuchAlgorithmException | InvalidKeySpecException e) {
-            throw new IllegalStateException(e);
-        }
+        return oidcKeyManager.verifyAndParse(jwt);
     }
-}
\ No newline at end of file
+}
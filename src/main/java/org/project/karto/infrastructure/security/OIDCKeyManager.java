@@ -0,0 +1,231 @@
+package org.project.karto.infrastructure.security;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.quarkus.logging.Log;
+import io.smallrye.jwt.auth.principal.JWTParser;
+import jakarta.inject.Inject;
+import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.project.karto.domain.common.containers.Result;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.time.Clock;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Resolves the public keys of the OIDC issuer (Keycloak) from its JWKS endpoint and verifies id tokens against them.
+ * <p>
+ * Keys are cached by {@code kid}. A token signed with an unknown {@code kid} triggers a JWKS refresh, which is
+ * rate limited by {@code minRefreshInterval} so that forged tokens can't turn into a request flood against the issuer.
+ * <p>
+ * Successfully verified tokens are cached by their SHA-256 digest until their own {@code exp},
+ * so repeated OIDC logins with the same id token skip signature verification.
+ */
+@Singleton
+public class OIDCKeyManager {
+
+    private final Clock clock;
+
+    private final URI jwksUri;
+
+    private final int maxCachedTokens;
+
+    private final JWTParser jwtParser;
+
+    private final HttpClient httpClient;
+
+    private final Duration minRefreshInterval;
+
+    private final AtomicLong lastRefresh = new AtomicLong(Long.MIN_VALUE);
+
+    private final Map<String, PublicKey> keys = new ConcurrentHashMap<>();
+
+    private final Map<String, VerifiedToken> verifiedTokens = new ConcurrentHashMap<>();
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private static final Duration HTTP_TIMEOUT = Duration.ofSeconds(5);
+
+    @Inject
+    OIDCKeyManager(
+            JWTParser jwtParser,
+            @ConfigProperty(name = "keycloack.jwks.url") String jwksUrl,
+            @ConfigProperty(name = "keycloack.jwks.min-refresh-interval", defaultValue = "30S") Duration minRefreshInterval,
+            @ConfigProperty(name = "keycloack.id-token.cache.max-size", defaultValue = "10000") int maxCachedTokens) {
+
+        this(jwtParser, URI.create(jwksUrl), minRefreshInterval, maxCachedTokens, Clock.systemUTC());
+    }
+
+    public OIDCKeyManager(JWTParser jwtParser, URI jwksUri, Duration minRefreshInterval,
+                          int maxCachedTokens, Clock clock) {
+        if (maxCachedTokens <= 0)
+            throw new IllegalArgumentException("Max cached tokens must be positive");
+
+        this.clock = clock;
+        this.jwksUri = jwksUri;
+        this.jwtParser = jwtParser;
+        this.maxCachedTokens = maxCachedTokens;
+        this.minRefreshInterval = minRefreshInterval;
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(HTTP_TIMEOUT)
+                .build();
+    }
+
+    public Result<JsonWebToken, Throwable> verifyAndParse(String jwt) {
+        if (jwt == null || jwt.isBlank())
+            return Result.failure(new IllegalArgumentException("Id token is blank"));
+
+        String digest = digest(jwt);
+        long now = clock.instant().getEpochSecond();
+
+        VerifiedToken cached = verifiedTokens.get(digest);
+        if (cached != null) {
+            if (cached.expiresAt() > now)
+                return Result.success(cached.token());
+            verifiedTokens.remove(digest, cached);
+        }
+
+        try {
+            String kid = keyID(jwt);
+            PublicKey publicKey = resolveKey(kid);
+            if (publicKey == null)
+                return Result.failure(new GeneralSecurityException("Unknown signing key: %s".formatted(kid)));
+
+            JsonWebToken verified = jwtParser.verify(jwt, publicKey);
+            remember(digest, verified, now);
+            return Result.success(verified);
+        } catch (Exception e) {
+            return Result.failure(e);
+        }
+    }
+
+    private PublicKey resolveKey(String kid) {
+        PublicKey key = keys.get(kid);
+        if (key != null)
+            return key;
+
+        if (tryAcquireRefresh())
+            refresh();
+
+        return keys.get(kid);
+    }
+
+    /**
+     * Only one caller per {@code minRefreshInterval} wins the right to hit the JWKS endpoint;
+     * the others keep using what is already cached.
+     */
+    private boolean tryAcquireRefresh() {
+        long now = clock.millis();
+        long previous = lastRefresh.get();
+        if (previous != Long.MIN_VALUE && now - previous < minRefreshInterval.toMillis())
+            return false;
+        return lastRefresh.compareAndSet(previous, now);
+    }
+
+    private synchronized void refresh() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(jwksUri)
+                    .timeout(HTTP_TIMEOUT)
+                    .GET()
+                    .build();
+
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200) {
+                Log.errorf("Can`t load JWKS, issuer responded with status %d", response.statusCode());
+                return;
+            }
+
+            Map<String, PublicKey> loaded = parseKeys(response.body());
+            if (loaded.isEmpty()) {
+                Log.error("Issuer JWKS do not contain any RSA signing key.");
+                return;
+            }
+
+            keys.putAll(loaded);
+            keys.keySet().retainAll(loaded.keySet());
+        } catch (IOException | GeneralSecurityException | IllegalArgumentException e) {
+            Log.errorf("Can`t load JWKS: %s", e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void remember(String digest, JsonWebToken token, long now) {
+        long expiresAt = token.getExpirationTime();
+        if (expiresAt <= now)
+            return;
+
+        if (verifiedTokens.size() >= maxCachedTokens) {
+            verifiedTokens.values().removeIf(cached -> cached.expiresAt() <= now);
+            if (verifiedTokens.size() >= maxCachedTokens)
+                return;
+        }
+
+        verifiedTokens.put(digest, new VerifiedToken(token, expiresAt));
+    }
+
+    private static Map<String, PublicKey> parseKeys(String jwks) throws IOException, GeneralSecurityException {
+        JsonNode keySet = OBJECT_MAPPER.readTree(jwks).path("keys");
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        Map<String, PublicKey> result = new HashMap<>();
+
+        for (JsonNode jwk : keySet) {
+            if (!"RSA".equals(jwk.path("kty").asText()))
+                continue;
+            if (jwk.hasNonNull("use") && !"sig".equals(jwk.get("use").asText()))
+                continue;
+
+            String kid = jwk.path("kid").asText(null);
+            if (kid == null)
+                continue;
+
+            BigInteger modulus = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("n").asText()));
+            BigInteger exponent = new BigInteger(1, Base64.getUrlDecoder().decode(jwk.path("e").asText()));
+            result.put(kid, keyFactory.generatePublic(new RSAPublicKeySpec(modulus, exponent)));
+        }
+
+        return result;
+    }
+
+    private static String keyID(String jwt) throws IOException {
+        int headerEnd = jwt.indexOf('.');
+        if (headerEnd <= 0)
+            throw new IllegalArgumentException("Malformed JWT");
+
+        byte[] header = Base64.getUrlDecoder().decode(jwt.substring(0, headerEnd));
+        JsonNode kid = OBJECT_MAPPER.readTree(header).get("kid");
+        if (kid == null || kid.isNull())
+            throw new IllegalArgumentException("JWT header do not contain kid");
+        return kid.asText();
+    }
+
+    private static String digest(String jwt) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(jwt.getBytes(StandardCharsets.US_ASCII));
+            return Base64.getEncoder().encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private record VerifiedToken(JsonWebToken token, long expiresAt) {}
+}
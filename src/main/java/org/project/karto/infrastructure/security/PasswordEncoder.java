@@ -2,27 +2,263 @@ package org.project.karto.infrastructure.security;
 
 import de.mkammerer.argon2.Argon2;
 import de.mkammerer.argon2.Argon2Factory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.instrumentation.annotations.WithSpan;
+import io.quarkus.logging.Log;
+import jakarta.annotation.PreDestroy;
+import jakarta.inject.Inject;
 import jakarta.inject.Singleton;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 
+import java.time.Duration;
 import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
+/**
+ * Argon2 password hashing on a dedicated, bounded pool.
+ * <p>
+ * Each hash holds {@link Argon2Parameters#memoryKiB()} of native memory, so the number of hashes
+ * in flight is capped by both available cores and a memory budget. Work beyond the pool waits in a bounded queue;
+ * once the queue is full, or a task waited longer than {@code queueTimeout}, the call fails fast with
+ * {@link RejectedExecutionException}, which is answered with 503 instead of letting a login storm starve every
+ * other endpoint.
+ * <p>
+ * Cost parameters are either configured or calibrated at startup to a target hash time. Hashes made with other
+ * parameters keep verifying and are transparently rehashed in the background after a successful login.
+ */
 @Singleton
 public class PasswordEncoder {
 
     private final Argon2 argon2;
 
-    public PasswordEncoder() {
+    private final Argon2Parameters parameters;
+
+    private final Duration queueTimeout;
+
+    private final ThreadPoolExecutor executor;
+
+    private final ExecutorService callbacks = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Timer encodeTimer;
+
+    private final Timer verifyTimer;
+
+    private final Counter rejected;
+
+    private final Counter skippedRehashes;
+
+    public static final Argon2Parameters DEFAULT_PARAMETERS = new Argon2Parameters(2, 65536, 4);
+
+    @Inject
+    PasswordEncoder(
+            MeterRegistry meterRegistry,
+            @ConfigProperty(name = "password.hashing.pool-size") Optional<Integer> poolSize,
+            @ConfigProperty(name = "password.hashing.queue-capacity", defaultValue = "64") int queueCapacity,
+            @ConfigProperty(name = "password.hashing.queue-timeout", defaultValue = "5S") Duration queueTimeout,
+            @ConfigProperty(name = "password.hashing.iterations", defaultValue = "2") int iterations,
+            @ConfigProperty(name = "password.hashing.memory-kib", defaultValue = "65536") int memoryKiB,
+            @ConfigProperty(name = "password.hashing.parallelism", defaultValue = "4") int parallelism,
+            @ConfigProperty(name = "password.hashing.calibration.enabled", defaultValue = "false") boolean calibrate,
+            @ConfigProperty(name = "password.hashing.calibration.target-time", defaultValue = "500MS") Duration targetTime,
+            @ConfigProperty(name = "password.hashing.calibration.min-memory-kib", defaultValue = "19456") int minMemoryKiB) {
+
+        this(meterRegistry,
+                parameters(calibrate, iterations, memoryKiB, parallelism, targetTime, minMemoryKiB),
+                poolSize,
+                queueCapacity,
+                queueTimeout);
+    }
+
+    private PasswordEncoder(MeterRegistry meterRegistry, Argon2Parameters parameters, Optional<Integer> poolSize,
+                            int queueCapacity, Duration queueTimeout) {
+        this(meterRegistry, parameters, poolSize.orElseGet(() -> defaultPoolSize(parameters.memoryKiB())),
+                queueCapacity, queueTimeout);
+    }
+
+    public PasswordEncoder(MeterRegistry meterRegistry, int poolSize, int queueCapacity, Duration queueTimeout) {
+        this(meterRegistry, DEFAULT_PARAMETERS, poolSize, queueCapacity, queueTimeout);
+    }
+
+    public PasswordEncoder(MeterRegistry meterRegistry, Argon2Parameters parameters, int poolSize,
+                           int queueCapacity, Duration queueTimeout) {
+        if (poolSize <= 0)
+            throw new IllegalArgumentException("Pool size must be positive");
+        if (queueCapacity <= 0)
+            throw new IllegalArgumentException("Queue capacity must be positive");
+
         this.argon2 = Argon2Factory.create();
+        this.parameters = Objects.requireNonNull(parameters);
+        this.queueTimeout = queueTimeout;
+        this.executor = new ThreadPoolExecutor(
+                poolSize,
+                poolSize,
+                0L,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                hashingThreads(),
+                new ThreadPoolExecutor.AbortPolicy());
+
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        this.verifyTimer = hashTimer(meterRegistry, "verify");
+        this.rejected = Counter.builder("karto.password.hashing.rejected")
+                .description("Password hashing requests rejected because the hashing pool is saturated")
+                .register(meterRegistry);
+        this.skippedRehashes = Counter.builder("karto.password.rehash.skipped")
+                .description("Outdated password hashes not upgraded because the hashing pool was saturated")
+                .register(meterRegistry);
+
+        Gauge.builder("karto.password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing requests waiting for a hashing thread")
+                .register(meterRegistry);
+        Gauge.builder("karto.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashes currently being computed")
+                .register(meterRegistry);
     }
 
+    @WithSpan
     public String encode(String password) {
         Objects.requireNonNull(password);
-        return argon2.hash(2, 65536, 4, password.toCharArray());
+        return submit(encodeTimer, () -> hash(password));
     }
 
+    @WithSpan
     public boolean verify(String password, String hashed) {
         Objects.requireNonNull(password);
         Objects.requireNonNull(hashed);
-        return argon2.verify(hashed, password.toCharArray());
+        return submit(verifyTimer, () -> argon2.verify(hashed, password.toCharArray()));
+    }
+
+    public Argon2Parameters parameters() {
+        return parameters;
+    }
+
+    public boolean needsRehash(String hashed) {
+        return !parameters.matches(hashed);
+    }
+
+    /**
+     * Upgrades a hash made with outdated parameters without making the caller wait.
+     * Must be called only after {@link #verify(String, String)} succeeded for the same password.
+     * When the pool is saturated the upgrade is skipped, it will be retried on the next login.
+     * {@code onRehashed} runs on a virtual thread, so storing the new hash never holds a hashing thread.
+     */
+    public void rehashIfNeeded(String password, String hashed, Consumer<String> onRehashed) {
+        Objects.requireNonNull(password);
+        Objects.requireNonNull(onRehashed);
+        if (!needsRehash(hashed))
+            return;
+
+        try {
+            CompletableFuture.supplyAsync(() -> encodeTimer.record(() -> hash(password)), executor)
+                    .thenAcceptAsync(onRehashed, callbacks)
+                    .exceptionally(e -> {
+                        Log.error("Can`t upgrade outdated password hash.", e);
+                        return null;
+                    });
+        } catch (RejectedExecutionException e) {
+            skippedRehashes.increment();
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdown();
+        callbacks.shutdown();
+    }
+
+    /**
+     * One hashing thread per core, but never more concurrent hashes than a quarter of the max heap can back.
+     * Argon2 memory is native, the heap size is used as the container memory proxy.
+     */
+    static int defaultPoolSize(int memoryKiB) {
+        int cores = Runtime.getRuntime().availableProcessors();
+        long memoryBudget = Runtime.getRuntime().maxMemory() / 4;
+        long byMemory = memoryBudget / (memoryKiB * 1024L);
+        return (int) Math.max(1, Math.min(cores, byMemory));
+    }
+
+    private String hash(String password) {
+        return argon2.hash(parameters.iterations(), parameters.memoryKiB(), parameters.parallelism(),
+                password.toCharArray());
+    }
+
+    private static Argon2Parameters parameters(boolean calibrate, int iterations, int memoryKiB, int parallelism,
+                                               Duration targetTime, int minMemoryKiB) {
+        if (!calibrate)
+            return new Argon2Parameters(iterations, memoryKiB, parallelism);
+
+        Argon2Parameters calibrated = Argon2Parameters
+                .calibrate(Argon2Factory.create(), targetTime, memoryKiB, minMemoryKiB, parallelism);
+        Log.infof("Argon2 calibrated to %s for target hash time %s", calibrated, targetTime);
+        return calibrated;
+    }
+
+    /**
+     * The caller span gets a {@code hashing started} event once a hashing thread picked the task up, so the queue
+     * wait and the hash itself can be told apart.
+     */
+    private <T> T submit(Timer timer, Callable<T> hashing) {
+        Span span = Span.current();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                span.addEvent("hashing started");
+                return timer.recordCallable(hashing);
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new RejectedExecutionException("Password hashing is overloaded. Please try again later.");
+        }
+
+        try {
+            return future.get(queueTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            rejected.increment();
+            throw new RejectedExecutionException("Password hashing is overloaded. Please try again later.");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for password hashing.", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String operation) {
+        return Timer.builder("karto.password.hashing.duration")
+                .description("Time spent computing Argon2 hashes")
+                .tag("operation", operation)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    private static ThreadFactory hashingThreads() {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "argon2-hasher-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 }
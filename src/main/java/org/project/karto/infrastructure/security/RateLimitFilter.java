@@ -0,0 +1,156 @@
+package org.project.karto.infrastructure.security;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.logging.Log;
+import io.quarkus.scheduler.Scheduled;
+import io.vertx.core.http.HttpServerRequest;
+import jakarta.inject.Singleton;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.resteasy.reactive.server.ServerRequestFilter;
+import org.project.karto.application.dto.common.ErrorMessage;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throttles the endpoints that send SMS or check OTPs, before the request reaches any service, repository or Twilio.
+ * <p>
+ * Every request is charged to the client IP. OTP resends are additionally charged to the target phone,
+ * OTP checks to the OTP prefix, so that neither one phone nor one slice of the code space can be hammered
+ * from many addresses. With {@code rate-limit.shared.enabled} the limits are enforced across nodes through Postgres,
+ * the in-process buckets still cut off abusive clients without a database round trip.
+ */
+@Singleton
+public class RateLimitFilter {
+
+    private final RateLimiter byIP;
+
+    private final RateLimiter byPhone;
+
+    private final RateLimiter byOTPPrefix;
+
+    private final boolean shared;
+
+    private final SharedRateLimitStore sharedStore;
+
+    private final Counter rejected;
+
+    private static final int OTP_PREFIX_LENGTH = 3;
+
+    private static final Set<String> RESEND_PATHS = Set.of("/auth/resend-otp", "/partner/otp/resend");
+
+    private static final Set<String> VERIFICATION_PATHS = Set.of("/auth/verification", "/auth/2FA/verify",
+            "/partner/verification");
+
+    private static final String TOO_MANY_REQUESTS_BODY = ErrorMessage.json("Too many requests. Please try again later.");
+
+    RateLimitFilter(
+            SharedRateLimitStore sharedStore,
+            MeterRegistry meterRegistry,
+            @ConfigProperty(name = "rate-limit.ip.capacity", defaultValue = "30") int ipCapacity,
+            @ConfigProperty(name = "rate-limit.ip.period", defaultValue = "1M") Duration ipPeriod,
+            @ConfigProperty(name = "rate-limit.phone.capacity", defaultValue = "3") int phoneCapacity,
+            @ConfigProperty(name = "rate-limit.phone.period", defaultValue = "10M") Duration phonePeriod,
+            @ConfigProperty(name = "rate-limit.otp-prefix.capacity", defaultValue = "20") int otpPrefixCapacity,
+            @ConfigProperty(name = "rate-limit.otp-prefix.period", defaultValue = "1M") Duration otpPrefixPeriod,
+            @ConfigProperty(name = "rate-limit.shared.enabled", defaultValue = "false") boolean shared) {
+
+        this.sharedStore = sharedStore;
+        this.shared = shared;
+        this.byIP = new RateLimiter(ipCapacity, ipPeriod);
+        this.byPhone = new RateLimiter(phoneCapacity, phonePeriod);
+        this.byOTPPrefix = new RateLimiter(otpPrefixCapacity, otpPrefixPeriod);
+        this.rejected = Counter.builder("karto.rate-limit.rejected")
+                .description("Requests rejected by OTP and SMS rate limits")
+                .register(meterRegistry);
+    }
+
+    @ServerRequestFilter
+    public Response limit(ContainerRequestContext requestContext, HttpServerRequest request) {
+        String path = endpoint(requestContext.getUriInfo().getPath());
+        boolean resend = RESEND_PATHS.contains(path);
+        boolean verification = VERIFICATION_PATHS.contains(path);
+        if (!resend && !verification)
+            return null;
+
+        String ip = request.remoteAddress() == null ? "unknown" : request.remoteAddress().hostAddress();
+        long waitNanos = acquire(byIP, "ip:" + ip);
+
+        if (waitNanos == 0 && resend) {
+            String phone = phoneDigits(requestContext.getUriInfo().getQueryParameters().getFirst("phoneNumber"));
+            if (!phone.isEmpty())
+                waitNanos = acquire(byPhone, "phone:" + phone);
+        }
+
+        if (waitNanos == 0 && verification) {
+            String otp = requestContext.getUriInfo().getQueryParameters().getFirst("otp");
+            if (otp != null && otp.length() >= OTP_PREFIX_LENGTH)
+                waitNanos = acquire(byOTPPrefix, "otp:" + otp.substring(0, OTP_PREFIX_LENGTH));
+        }
+
+        if (waitNanos == 0)
+            return null;
+
+        rejected.increment();
+        return Response.status(Response.Status.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos)))
+                .entity(TOO_MANY_REQUESTS_BODY)
+                .type(MediaType.APPLICATION_JSON)
+                .build();
+    }
+
+    @Scheduled(every = "{rate-limit.eviction.interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void evictIdleBuckets() {
+        long now = System.nanoTime();
+        byIP.evictIdle(now);
+        byPhone.evictIdle(now);
+        byOTPPrefix.evictIdle(now);
+
+        if (shared)
+            sharedStore.removeIdle(System.currentTimeMillis())
+                    .ifFailure(throwable -> Log.error("Can`t remove idle rate limit buckets.", throwable));
+    }
+
+    private long acquire(RateLimiter limiter, String key) {
+        long waitNanos = limiter.tryAcquire(key);
+        if (waitNanos > 0 || !shared)
+            return waitNanos;
+
+        boolean acquired = sharedStore.tryAcquire(key, limiter.emissionInterval(), limiter.period(),
+                        System.currentTimeMillis())
+                .orElseGet(() -> {
+                    // the local bucket already passed the request, don't turn a database outage into a lockout
+                    Log.error("Can`t check shared rate limit.");
+                    return true;
+                });
+        return acquired ? 0 : limiter.emissionInterval().toNanos();
+    }
+
+    /**
+     * Keeps only the digits of the phone, so that one number written with different separators,
+     * parentheses or spaces is charged to the same bucket.
+     */
+    static String phoneDigits(String phone) {
+        if (phone == null)
+            return "";
+
+        StringBuilder digits = new StringBuilder(phone.length());
+        for (int i = 0; i < phone.length(); i++) {
+            char c = phone.charAt(i);
+            if (c >= '0' && c <= '9')
+                digits.append(c);
+        }
+        return digits.toString();
+    }
+
+    private static String endpoint(String applicationRelativePath) {
+        String path = applicationRelativePath.startsWith("/") ? applicationRelativePath : "/" + applicationRelativePath;
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+}
@@ -0,0 +1,87 @@
+package org.project.karto.infrastructure.security;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token buckets keyed by an arbitrary string (phone, IP, OTP prefix).
+ * <p>
+ * Every bucket is a single {@link AtomicLong} holding its theoretical arrival time (GCRA), which is equivalent to a
+ * token bucket of {@code capacity} tokens refilled evenly over {@code period}, but is updated with one CAS and needs
+ * no refill bookkeeping. Buckets are spread across stripes so idle eviction never sweeps one huge map.
+ * A bucket whose arrival time is in the past is full again and carries no state, so it is dropped by {@link #evictIdle(long)}.
+ */
+public class RateLimiter {
+
+    private final long emissionInterval;
+
+    private final long period;
+
+    private final ConcurrentHashMap<String, AtomicLong>[] stripes;
+
+    private static final int STRIPES = 16;
+
+    @SuppressWarnings("unchecked")
+    public RateLimiter(int capacity, Duration period) {
+        if (capacity <= 0)
+            throw new IllegalArgumentException("Capacity must be positive");
+        if (period.isNegative() || period.isZero())
+            throw new IllegalArgumentException("Period must be positive");
+
+        this.period = period.toNanos();
+        this.emissionInterval = this.period / capacity;
+        this.stripes = new ConcurrentHashMap[STRIPES];
+        for (int i = 0; i < STRIPES; i++)
+            stripes[i] = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Takes one token from the bucket of {@code key}.
+     *
+     * @return 0 if the token was taken, otherwise nanos until the next token is available.
+     */
+    public long tryAcquire(String key, long nowNanos) {
+        AtomicLong bucket = stripe(key).computeIfAbsent(key, k -> new AtomicLong(nowNanos));
+
+        while (true) {
+            long tat = bucket.get();
+            long next = Math.max(tat, nowNanos) + emissionInterval;
+            long excess = next - nowNanos - period;
+            if (excess > 0)
+                return excess;
+
+            if (bucket.compareAndSet(tat, next))
+                return 0;
+        }
+    }
+
+    public long tryAcquire(String key) {
+        return tryAcquire(key, System.nanoTime());
+    }
+
+    public void evictIdle(long nowNanos) {
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes)
+            stripe.values().removeIf(bucket -> bucket.get() - nowNanos <= 0);
+    }
+
+    public int size() {
+        int size = 0;
+        for (ConcurrentHashMap<String, AtomicLong> stripe : stripes)
+            size += stripe.size();
+        return size;
+    }
+
+    public Duration emissionInterval() {
+        return Duration.ofNanos(emissionInterval);
+    }
+
+    public Duration period() {
+        return Duration.ofNanos(period);
+    }
+
+    private ConcurrentHashMap<String, AtomicLong> stripe(String key) {
+        int hash = key.hashCode();
+        return stripes[(hash ^ (hash >>> 16)) & (STRIPES - 1)];
+    }
+}
@@ -0,0 +1,51 @@
+package org.project.karto.infrastructure.security;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.opentelemetry.api.trace.Tracer;
+import jakarta.enterprise.context.ApplicationScoped;
+import org.project.karto.domain.common.containers.Result;
+import org.project.karto.infrastructure.jdbc.MeteredJet;
+
+import java.time.Duration;
+
+/**
+ * Cross-node counterpart of {@link RateLimiter}: the same GCRA state kept in the {@code rate_limit_bucket} table.
+ * The check and the update are one conditional upsert, so concurrent nodes can't both take the last token.
+ */
+@ApplicationScoped
+public class SharedRateLimitStore {
+
+    private final MeteredJet jet;
+
+    static final String TRY_ACQUIRE = """
+            INSERT INTO rate_limit_bucket (bucket_key, tat) VALUES (?, ?)
+            ON CONFLICT (bucket_key) DO UPDATE
+            SET tat = GREATEST(rate_limit_bucket.tat, ?) + ?
+            WHERE GREATEST(rate_limit_bucket.tat, ?) + ? - ? <= ?
+            """;
+
+    static final String REMOVE_IDLE = """
+            DELETE FROM rate_limit_bucket WHERE tat < ?
+            """;
+
+    SharedRateLimitStore(MeterRegistry meterRegistry, Tracer tracer) {
+        this.jet = new MeteredJet(meterRegistry, tracer, SharedRateLimitStore.class);
+    }
+
+    /**
+     * @return true if a token was taken.
+     */
+    public Result<Boolean, Throwable> tryAcquire(String key, Duration emissionInterval, Duration period, long nowMillis) {
+        long interval = emissionInterval.toMillis();
+        long window = period.toMillis();
+        var result = jet.write(TRY_ACQUIRE, key, nowMillis + interval,
+                nowMillis, interval,
+                nowMillis, interval, nowMillis, window);
+        return new Result<>(result.success() ? result.value() == 1 : null, result.throwable(), result.success());
+    }
+
+    public Result<Integer, Throwable> removeIdle(long nowMillis) {
+        var result = jet.write(REMOVE_IDLE, nowMillis);
+        return new Result<>(result.value(), result.throwable(), result.success());
+    }
+}
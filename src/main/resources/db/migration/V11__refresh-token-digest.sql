@@ -0,0 +1,25 @@
+ALTER TABLE refresh_token ADD COLUMN token_hash BYTEA;
+ALTER TABLE refresh_token ADD COLUMN expires_at TIMESTAMP;
+
+UPDATE refresh_token
+SET token_hash = sha256(convert_to(token, 'UTF8')),
+    expires_at = to_timestamp((
+        convert_from(
+            decode(
+                rpad(
+                    translate(split_part(token, '.', 2), '-_', '+/'),
+                    ((length(split_part(token, '.', 2)) + 3) / 4) * 4,
+                    '='),
+                'base64'),
+            'UTF8')::json ->> 'exp')::BIGINT) AT TIME ZONE 'UTC';
+
+DROP INDEX idx_refresh_token;
+ALTER TABLE refresh_token DROP COLUMN token;
+
+ALTER TABLE refresh_token ALTER COLUMN token_hash SET NOT NULL;
+ALTER TABLE refresh_token ALTER COLUMN expires_at SET NOT NULL;
+ALTER TABLE refresh_token ADD CONSTRAINT refresh_token_hash_size CHECK (octet_length(token_hash) = 32);
+
+CREATE UNIQUE INDEX idx_refresh_token_hash ON refresh_token(token_hash);
+
+CREATE INDEX idx_refresh_token_expiration ON refresh_token(expires_at);
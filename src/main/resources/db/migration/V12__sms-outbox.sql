@@ -0,0 +1,19 @@
+CREATE TABLE sms_outbox (
+    id BIGSERIAL NOT NULL,
+    phone VARCHAR(32) NOT NULL,
+    message TEXT NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    sent_at TIMESTAMP,
+    PRIMARY KEY (id),
+    CONSTRAINT sms_outbox_status CHECK (status IN ('PENDING', 'SENDING', 'SENT', 'FAILED'))
+);
+
+-- at most one undelivered message per phone, a resend replaces the queued text
+CREATE UNIQUE INDEX idx_sms_outbox_pending_phone ON sms_outbox(phone) WHERE status = 'PENDING';
+
+CREATE INDEX idx_sms_outbox_due ON sms_outbox(next_attempt_at) WHERE status IN ('PENDING', 'SENDING');
+
+CREATE INDEX idx_sms_outbox_sent ON sms_outbox(phone, sent_at) WHERE status = 'SENT';
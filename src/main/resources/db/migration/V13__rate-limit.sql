@@ -0,0 +1,7 @@
+CREATE UNLOGGED TABLE rate_limit_bucket (
+    bucket_key VARCHAR(128) NOT NULL,
+    tat BIGINT NOT NULL,
+    PRIMARY KEY (bucket_key)
+);
+
+CREATE INDEX idx_rate_limit_bucket_tat ON rate_limit_bucket(tat);
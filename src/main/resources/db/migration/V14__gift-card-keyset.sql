@@ -0,0 +1,3 @@
+CREATE INDEX gift_card_owner_expiration_index ON gift_card (owner_id, expiration_date, id);
+
+DROP INDEX gift_card_owner_index;
@@ -0,0 +1,17 @@
+-- Money is kept in cents on the application side, amounts are stored with exactly two fraction digits.
+-- Values written before with more digits, e.g. unrounded internal fees, are rounded half up.
+ALTER TABLE user_account ALTER COLUMN cashback_storage TYPE NUMERIC(19, 2);
+
+ALTER TABLE gift_card ALTER COLUMN balance TYPE NUMERIC(19, 2);
+
+ALTER TABLE card_purchase_intent ALTER COLUMN total_payed_amount TYPE NUMERIC(19, 2);
+
+-- fee rate, not an amount
+ALTER TABLE card_purchase_intent ALTER COLUMN removed_fee TYPE NUMERIC(19, 18);
+
+ALTER TABLE payment_intent ALTER COLUMN total_amount TYPE NUMERIC(19, 2),
+    ALTER COLUMN fee TYPE NUMERIC(19, 2);
+
+ALTER TABLE chck ALTER COLUMN total_amount TYPE NUMERIC(19, 2),
+    ALTER COLUMN internal_fee TYPE NUMERIC(19, 2),
+    ALTER COLUMN external_fee TYPE NUMERIC(19, 2);
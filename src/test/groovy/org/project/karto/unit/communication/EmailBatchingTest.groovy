@@ -0,0 +1,72 @@
+package org.project.karto.unit.communication
+
+import io.opentelemetry.api.trace.SpanContext
+import io.opentelemetry.api.trace.TraceFlags
+import io.opentelemetry.api.trace.TraceState
+import io.opentelemetry.sdk.trace.IdGenerator
+import org.project.karto.infrastructure.communication.EmailInteractionService
+import org.project.karto.infrastructure.communication.EmailTemplate
+import spock.lang.Specification
+
+class EmailBatchingTest extends Specification {
+
+    void "emails to the same domain are batched into one mail"() {
+        given:
+        def batch = (1..5).collect { queued("user$it@karto.local") } + queued("user@other.local")
+
+        when:
+        def mails = EmailInteractionService.group(batch, 50)
+
+        then:
+        mails.size() == 2
+        mails[0].mail().bcc.size() == 5
+        mails[0].mail().to.isEmpty()
+        mails[1].mail().to == ["user@other.local"]
+    }
+
+    void "batch is split at the recipient limit"() {
+        given:
+        def batch = (1..5).collect { queued("user$it@karto.local") }
+
+        when:
+        def mails = EmailInteractionService.group(batch, 2)
+
+        then:
+        mails*.mail()*.bcc == [["user1@karto.local", "user2@karto.local"],
+                               ["user3@karto.local", "user4@karto.local"],
+                               ["user5@karto.local"]]
+    }
+
+    void "different templates to one domain are not batched together"() {
+        given:
+        def other = new EmailTemplate("Other subject", "Other text")
+        def batch = [queued("first@karto.local"), queued("second@karto.local", other)]
+
+        when:
+        def mails = EmailInteractionService.group(batch, 50)
+
+        then:
+        mails*.mail()*.to == [["first@karto.local"], ["second@karto.local"]]
+        mails*.mail()*.subject == [EmailTemplate.SOFT_VERIFICATION.subject(), "Other subject"]
+    }
+
+    void "batched mail is linked to the span of every queued email"() {
+        given:
+        def origins = (1..3).collect { SpanContext.create(IdGenerator.random().generateTraceId(),
+                IdGenerator.random().generateSpanId(), TraceFlags.sampled, TraceState.default) }
+        def batch = origins.withIndex().collect { origin, i ->
+            new EmailInteractionService.QueuedEmail("user$i@karto.local", EmailTemplate.SOFT_VERIFICATION, origin)
+        }
+
+        when:
+        def mails = EmailInteractionService.group(batch, 2)
+
+        then:
+        mails*.origins() == [origins[0..1], [origins[2]]]
+    }
+
+    private static EmailInteractionService.QueuedEmail queued(String address,
+                                                              EmailTemplate template = EmailTemplate.SOFT_VERIFICATION) {
+        new EmailInteractionService.QueuedEmail(address, template, SpanContext.invalid)
+    }
+}
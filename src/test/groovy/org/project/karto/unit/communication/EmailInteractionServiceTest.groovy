@@ -0,0 +1,80 @@
+package org.project.karto.unit.communication
+
+import com.aingrace.test.spock.QuarkusSpockTest
+import com.fasterxml.jackson.databind.ObjectMapper
+import io.quarkus.test.common.QuarkusTestResource
+import jakarta.enterprise.context.Dependent
+import jakarta.inject.Inject
+import org.eclipse.microprofile.config.inject.ConfigProperty
+import org.project.karto.domain.common.value_objects.Email
+import org.project.karto.infrastructure.communication.EmailInteractionService
+import org.project.karto.infrastructure.communication.EmailTemplate
+import org.project.karto.util.MailpitTestResource
+import org.project.karto.util.PostgresTestResource
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import java.net.http.HttpClient
+import java.net.http.HttpRequest
+import java.net.http.HttpResponse
+
+@Dependent
+@QuarkusSpockTest
+@QuarkusTestResource(value = PostgresTestResource.class)
+@QuarkusTestResource(value = MailpitTestResource.class)
+class EmailInteractionServiceTest extends Specification {
+
+    @Inject
+    EmailInteractionService emailService
+
+    @ConfigProperty(name = "mailpit-url")
+    String mailpitURL
+
+    ObjectMapper objectMapper = new ObjectMapper()
+
+    HttpClient httpClient = HttpClient.newHttpClient()
+
+    PollingConditions conditions = new PollingConditions(timeout: 10)
+
+    void "soft verification is delivered without blocking the caller"() {
+        given:
+        def recipient = "${UUID.randomUUID()}@delivery.karto.local"
+
+        when:
+        emailService.sendSoftVerificationMessage(new Email(recipient))
+
+        then:
+        conditions.eventually {
+            assert deliveredTo(recipient).size() == 1
+            assert deliveredTo(recipient)[0].Subject == EmailTemplate.SOFT_VERIFICATION.subject()
+        }
+    }
+
+    void "batched emails are delivered to every recipient"() {
+        given:
+        def domain = "${UUID.randomUUID()}.karto.local"
+        def recipients = (1..5).collect { "user$it@$domain" }
+
+        when:
+        recipients.each { emailService.sendSoftVerificationMessage(new Email(it)) }
+
+        then:
+        conditions.eventually {
+            assert recipients.every { deliveredTo(it).size() == 1 }
+        }
+    }
+
+    private List<Map> deliveredTo(String address) {
+        messages().findAll { recipientsOf(it).contains(address) }
+    }
+
+    private static List<String> recipientsOf(Map message) {
+        ((message.To ?: []) + (message.Bcc ?: [])).collect { it.Address as String }
+    }
+
+    private List<Map> messages() {
+        def request = HttpRequest.newBuilder(URI.create("$mailpitURL/api/v1/messages?limit=1000")).GET().build()
+        def response = httpClient.send(request, HttpResponse.BodyHandlers.ofString())
+        objectMapper.readValue(response.body(), Map).messages as List<Map>
+    }
+}
@@ -0,0 +1,140 @@
+package org.project.karto.unit.communication
+
+import com.aingrace.test.spock.QuarkusSpockTest
+import io.quarkus.test.common.QuarkusTestResource
+import jakarta.enterprise.context.Dependent
+import jakarta.inject.Inject
+import org.project.karto.infrastructure.communication.SMSOutbox
+import org.project.karto.util.PostgresTestResource
+import org.project.karto.util.TestDataGenerator
+import spock.lang.Specification
+
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+
+@Dependent
+@QuarkusSpockTest
+@QuarkusTestResource(value = PostgresTestResource.class)
+class SMSOutboxTest extends Specification {
+
+    @Inject
+    SMSOutbox outbox
+
+    LocalDateTime now = LocalDateTime.now(ZoneOffset.UTC)
+
+    void "resend to the same phone replaces pending message"() {
+        given:
+        def phone = TestDataGenerator.generatePhone().phoneNumber()
+
+        when:
+        def first = outbox.enqueue(phone, "111111", now, now.minusSeconds(30))
+        def second = outbox.enqueue(phone, "222222", now, now.minusSeconds(30))
+        def claimed = outbox.claim(1000, now, now.plusMinutes(1)).orElseThrow().findAll { it.phone() == phone }
+
+        then:
+        first.value() == SMSOutbox.Enqueued.INSERTED
+        second.value() == SMSOutbox.Enqueued.REPLACED
+        claimed.size() == 1
+        claimed[0].message() == "222222"
+    }
+
+    void "replacing a pending message starts its retries over"() {
+        given:
+        def phone = TestDataGenerator.generatePhone().phoneNumber()
+        outbox.enqueue(phone, "777777", now, now.minusSeconds(30))
+        def sms = outbox.claim(1000, now, now.plusMinutes(1)).orElseThrow().find { it.phone() == phone }
+        outbox.reschedule(sms, now.plusMinutes(30))
+
+        when:
+        def replaced = outbox.enqueue(phone, "888888", now.plusSeconds(1), now.minusSeconds(29))
+        def claimed = outbox.claim(1000, now.plusSeconds(1), now.plusMinutes(1)).orElseThrow()
+                .find { it.phone() == phone }
+
+        then:
+        replaced.value() == SMSOutbox.Enqueued.REPLACED
+        claimed.message() == "888888"
+        claimed.attempts() == 0
+    }
+
+    void "same text delivered within window is not queued again"() {
+        given:
+        def phone = TestDataGenerator.generatePhone().phoneNumber()
+        outbox.enqueue(phone, "333333", now, now.minusSeconds(30))
+        def sms = outbox.claim(1000, now, now.plusMinutes(1)).orElseThrow().find { it.phone() == phone }
+        outbox.markSent(sms, now)
+
+        when:
+        def duplicate = outbox.enqueue(phone, "333333", now.plusSeconds(5), now.minusSeconds(25))
+        def other = outbox.enqueue(phone, "444444", now.plusSeconds(5), now.minusSeconds(25))
+
+        then:
+        duplicate.value() == SMSOutbox.Enqueued.DEDUPLICATED
+        other.value() == SMSOutbox.Enqueued.INSERTED
+    }
+
+    void "claimed message is not claimed twice and returns after failed attempt"() {
+        given:
+        def phone = TestDataGenerator.generatePhone().phoneNumber()
+        outbox.enqueue(phone, "555555", now, now.minusSeconds(30))
+        def sms = outbox.claim(1000, now, now.plusMinutes(1)).orElseThrow().find { it.phone() == phone }
+
+        expect:
+        sms != null
+        outbox.claim(1000, now, now.plusMinutes(1)).orElseThrow().every { it.phone() != phone }
+
+        when:
+        outbox.reschedule(sms, now.plusSeconds(2))
+
+        then:
+        outbox.claim(1000, now, now.plusMinutes(1)).orElseThrow().every { it.phone() != phone }
+        def retried = outbox.claim(1000, now.plusSeconds(3), now.plusMinutes(2)).orElseThrow().find { it.phone() == phone }
+        retried.attempts() == 1
+    }
+
+    void "message of a dead sender returns to queue after lease expired"() {
+        given:
+        def phone = TestDataGenerator.generatePhone().phoneNumber()
+        outbox.enqueue(phone, "666666", now, now.minusSeconds(30))
+        outbox.claim(1000, now, now.plusMinutes(1)).orElseThrow()
+
+        when:
+        outbox.releaseExpiredLeases(now.plusMinutes(2))
+
+        then:
+        outbox.claim(1000, now.plusMinutes(2), now.plusMinutes(3)).orElseThrow().any { it.phone() == phone }
+    }
+
+    void "only the newest of several expired leases of one phone returns to queue"() {
+        given:
+        def phone = TestDataGenerator.generatePhone().phoneNumber()
+        outbox.enqueue(phone, "121212", now, now.minusSeconds(30))
+        outbox.claim(1000, now, now.plusMinutes(1)).orElseThrow()
+        outbox.enqueue(phone, "343434", now, now.minusSeconds(30))
+        outbox.claim(1000, now, now.plusMinutes(1)).orElseThrow()
+
+        when:
+        def released = outbox.releaseExpiredLeases(now.plusMinutes(2))
+        def claimed = outbox.claim(1000, now.plusMinutes(2), now.plusMinutes(3)).orElseThrow()
+                .findAll { it.phone() == phone }
+
+        then:
+        released.success()
+        claimed*.message() == ["343434"]
+    }
+
+    void "rescheduled message yields to a newer one of the same phone"() {
+        given:
+        def phone = TestDataGenerator.generatePhone().phoneNumber()
+        outbox.enqueue(phone, "565656", now, now.minusSeconds(30))
+        def sms = outbox.claim(1000, now, now.plusMinutes(1)).orElseThrow().find { it.phone() == phone }
+        outbox.enqueue(phone, "787878", now, now.minusSeconds(30))
+
+        when:
+        def rescheduled = outbox.reschedule(sms, now)
+        def claimed = outbox.claim(1000, now, now.plusMinutes(1)).orElseThrow().findAll { it.phone() == phone }
+
+        then:
+        rescheduled.success()
+        claimed*.message() == ["787878"]
+    }
+}
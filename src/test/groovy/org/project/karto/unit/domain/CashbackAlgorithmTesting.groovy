@@ -35,6 +35,38 @@ class CashbackAlgorithmTesting extends Specification {
         giftCard << (1..25).collect({generateSelfBougthGiftCard(new Balance(BigDecimal.valueOf(2200L)))})
     }
 
+    def "fee is rounded up and cashback down to the cent"() {
+        given:
+        def giftCard = generateSelfBougthGiftCard(new Balance(new BigDecimal("2200.00")))
+        giftCard.activate()
+        def snapshot = new UserActivitySnapshot(giftCard.ownerID().get().value(), decaySpent, 3,
+                LocalDateTime.now(), activeDays, reachedMaxRate)
+
+        when:
+        def intent = giftCard.initializeTransaction(new Amount(new BigDecimal("123.45")),
+                TestDataGenerator.orderID(), storeID(giftCard))
+        intent.markAsSuccess(new PayeeDescription("desc"))
+        giftCard.applyTransaction(intent, snapshot, Currency.getInstance("USD"), PaymentType.KARTO_PAYMENT,
+                new PaymentSystem("UP"), new BankName("BANK"))
+        def event = giftCard.pullEvents().getFirst() as CashbackEvent
+
+        then: "2% of 123.45 is 2.469"
+        intent.feeAmount().value() == 2.47
+        intent.totalAmount().value() == 125.92
+        giftCard.balance().value() == 2074.08
+
+        and:
+        event.amount().toBigDecimal() == cashback
+        event.reachMaxCashbackRate() == reachesMaxRate
+
+        where:
+        decaySpent | activeDays | reachedMaxRate || cashback | reachesMaxRate
+        0.00       | 0          | false          || 1.25     | false // 1% of 125.92 is 1.2592
+        100.00     | 0          | false          || 1.88     | false // 1.5% is 1.8888
+        2000.00    | 14         | false          || 4.40     | true  // 4.9% capped to 3.5% is 4.4072
+        2000.00    | 14         | true           || 1.25     | false // after the cap, back to 1% of the spend
+    }
+
     static CashbackEvent transaction(GiftCard giftCard, Amount amount, UserActivitySnapshot activitySnapshot) {
         def paymentIntent = giftCard.initializeTransaction(amount, TestDataGenerator.orderID(), storeID(giftCard))
         paymentIntent.markAsSuccess(new PayeeDescription("desc"))
@@ -0,0 +1,145 @@
+package org.project.karto.unit.domain
+
+import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException
+import org.project.karto.domain.common.value_objects.Email
+import org.project.karto.domain.common.value_objects.Phone
+import org.project.karto.util.LegacyValidators
+import spock.lang.Specification
+
+/**
+ * Property based: random and mutated inputs must be accepted or rejected exactly as the former regexes did.
+ */
+class ContactValidationTest extends Specification {
+
+    static final long SEED = 20261019L
+
+    static final int SAMPLES = 200_000
+
+    static final String EMAIL_ALPHABET = "az09.@\"\\[]:- \t\n\r!#~{}()+,;<>\u0001\u007fZ\u00e9"
+
+    static final List<String> EMAIL_SEEDS = [
+            "john.doe@example.com", "user+tag@sub.domain.org", "x@a-b.c", '"a\\ b"@x.io', '""@ab.c',
+            "a@[1.2.3.4]", "a@[255.0.99.249]", "a@[1.2.3.tag:x\\ y]", "a@[01.2.3.ab-c:\\\t]"]
+
+    static final String PHONE_ALPHABET = "0123456789+() -.x"
+
+    static final List<String> PHONE_SEEDS = [
+            "+1 (555) 123-4567", "+380 67 123 4567", "555.123.4567", "1234567890", "+12345678901", "(12)1234 5678"]
+
+    def "email validation is equivalent to the former regex"() {
+        given:
+        def random = new Random(SEED)
+        def mismatches = []
+
+        when:
+        SAMPLES.times {
+            String email = sample(random, EMAIL_ALPHABET, EMAIL_SEEDS, 20)
+            String expected = LegacyValidators.emailError(email)
+            String actual = emailError(email)
+            if (expected != actual && mismatches.size() < 10)
+                mismatches << "${email.inspect()}: expected ${expected}, got ${actual}"
+        }
+
+        then:
+        mismatches.isEmpty()
+    }
+
+    def "phone validation is equivalent to the former regex"() {
+        given:
+        def random = new Random(SEED)
+        def mismatches = []
+
+        when:
+        SAMPLES.times {
+            String phone = sample(random, PHONE_ALPHABET, PHONE_SEEDS, 24)
+            if (LegacyValidators.isPhone(phone) != isPhone(phone) && mismatches.size() < 10)
+                mismatches << phone.inspect()
+        }
+
+        then:
+        mismatches.isEmpty()
+    }
+
+    def "valid emails are accepted"() {
+        expect:
+        emailError(email) == null
+
+        where:
+        email << EMAIL_SEEDS + ["a@" + "b".repeat(62) + ".c" + ".d".repeat(90)]
+    }
+
+    def "invalid emails are rejected"() {
+        expect:
+        emailError(email) == message
+
+        where:
+        email                           | message
+        "John@example.com"              | "Email format error"
+        "a..b@example.com"              | "Email format error"
+        "a@example"                     | "Email format error"
+        "a@-example.com"                | "Email format error"
+        "a@example.com@"                | "Email format error"
+        "a@[256.1.1.1]"                 | "Email format error"
+        "a@[1.2.3.tag: x]"              | "Email format error"
+        '"a"b"@example.com'             | "Email format error"
+        "a@b@example.com"               | "Invalid email format."
+        "@example.com"                  | "Invalid email format."
+        "a@b"                           | "Invalid email format."
+        "a".repeat(65) + "@example.com" | "Invalid email format."
+        "   "                           | "Email can`t be blank"
+    }
+
+    def "phones are validated by the format groups"() {
+        expect:
+        isPhone(phone) == valid
+
+        where:
+        phone                | valid
+        "+1 (555) 123-4567"  | true
+        "+3806712345678"     | true
+        "(555)1234567"       | true
+        "123.456.7890"       | true
+        "+1234 555 123 4567" | false
+        "(5555) 123 4567"    | false
+        "555--123-4567"      | false
+        "555 123 456"        | false
+    }
+
+    private static String sample(Random random, String alphabet, List<String> seeds, int maxLength) {
+        if (random.nextBoolean()) {
+            def builder = new StringBuilder()
+            random.nextInt(maxLength).times { builder.append(alphabet.charAt(random.nextInt(alphabet.length()))) }
+            return builder.toString()
+        }
+
+        def builder = new StringBuilder(seeds[random.nextInt(seeds.size())])
+        (1 + random.nextInt(3)).times {
+            int position = builder.length() == 0 ? 0 : random.nextInt(builder.length())
+            char c = alphabet.charAt(random.nextInt(alphabet.length()))
+            switch (random.nextInt(3)) {
+                case 0: builder.insert(position, c); break
+                case 1: if (builder.length() > 0) builder.deleteCharAt(position); break
+                default: if (builder.length() > 0) builder.setCharAt(position, c)
+            }
+        }
+        builder.toString()
+    }
+
+    private static String emailError(String email) {
+        try {
+            Email.validate(email)
+            return null
+        } catch (IllegalDomainArgumentException e) {
+            return e.message
+        }
+    }
+
+    private static boolean isPhone(String phone) {
+        try {
+            Phone.validate(phone)
+            return true
+        } catch (IllegalDomainArgumentException ignored) {
+            return false
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package org.project.karto.unit.domain
+
+import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException
+import org.project.karto.domain.common.value_objects.Money
+import org.project.karto.domain.common.value_objects.Rate
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.math.RoundingMode
+
+class MoneyTest extends Specification {
+
+    static final long SEED = 20261019L
+
+    static final int SAMPLES = 200_000
+
+    def "should convert from BigDecimal exactly"() {
+        expect:
+        Money.of(new BigDecimal(value)).minorUnits() == minorUnits
+        Money.of(new BigDecimal(value)).toBigDecimal() == new BigDecimal(value)
+
+        where:
+        value     || minorUnits
+        "0"       || 0
+        "12.5"    || 1250
+        "12.50"   || 1250
+        "12.5000" || 1250
+        "-0.01"   || -1
+        "1E+3"    || 100000
+    }
+
+    def "should reject values with sub-cent precision"() {
+        when:
+        Money.of(new BigDecimal("10.005"))
+
+        then:
+        IllegalDomainArgumentException e = thrown()
+        e.message == "Money can`t have more than 2 decimal places"
+    }
+
+    def "should reject values out of range"() {
+        when:
+        Money.of(new BigDecimal(Long.MAX_VALUE).add(BigDecimal.ONE))
+
+        then:
+        IllegalDomainArgumentException e = thrown()
+        e.message == "Money value is out of range"
+    }
+
+    def "should fail on overflowing addition instead of wrapping"() {
+        when:
+        new Money(Long.MAX_VALUE).plus(new Money(1))
+
+        then:
+        thrown(IllegalDomainArgumentException)
+    }
+
+    @Unroll
+    def "should multiply #amount by #rate rounding #rounding"() {
+        expect:
+        Money.of(new BigDecimal(amount)).times(Rate.of(new BigDecimal(rate)), rounding).toBigDecimal() == new BigDecimal(expected)
+
+        where:
+        amount   | rate    | rounding              || expected
+        "123.45" | "0.05"  | RoundingMode.UP       || "6.18"
+        "123.45" | "0.05"  | RoundingMode.DOWN     || "6.17"
+        "123.45" | "0.05"  | RoundingMode.HALF_UP  || "6.17"
+        "0.50"   | "0.01"  | RoundingMode.HALF_UP  || "0.01"
+        "0.50"   | "0.01"  | RoundingMode.HALF_EVEN || "0.00"
+        "-0.50"  | "0.01"  | RoundingMode.FLOOR    || "-0.01"
+        "2200"   | "0.035" | RoundingMode.DOWN     || "77.00"
+    }
+
+    def "multiplication and division by a rate round exactly as BigDecimal does"() {
+        given:
+        def random = new Random(SEED)
+        def modes = RoundingMode.values().findAll { it != RoundingMode.UNNECESSARY }
+        def mismatches = []
+
+        when:
+        SAMPLES.times {
+            def money = new Money(random.nextBoolean() ? random.nextInt(2_000_000) - 1_000_000 : random.nextLong())
+            def rate = new Rate(Math.abs(random.nextLong() % (random.nextBoolean() ? 1000 : Long.MAX_VALUE)), random.nextInt(Rate.MAX_SCALE + 1))
+            def rounding = modes[random.nextInt(modes.size())]
+
+            def product = money.toBigDecimal().multiply(rate.toBigDecimal()).setScale(Money.SCALE, rounding)
+            if (fitsInLong(product) && money.times(rate, rounding).toBigDecimal() != product && mismatches.size() < 10)
+                mismatches << "$money * $rate $rounding"
+
+            if (rate.unscaled() != 0) {
+                def quotient = money.toBigDecimal().divide(rate.toBigDecimal(), Money.SCALE, rounding)
+                if (fitsInLong(quotient) && money.dividedBy(rate, rounding).toBigDecimal() != quotient && mismatches.size() < 10)
+                    mismatches << "$money / $rate $rounding"
+            }
+        }
+
+        then:
+        mismatches.isEmpty()
+    }
+
+    def "rates are normalized and comparable"() {
+        expect:
+        Rate.of(new BigDecimal("0.0100")) == Rate.of(BigDecimal.valueOf(0.01))
+        Rate.of(BigDecimal.valueOf(0.01)).plus(Rate.of(BigDecimal.valueOf(0.025))) == Rate.of(new BigDecimal("0.035"))
+        Rate.of(BigDecimal.valueOf(0.001)).times(14).compareTo(Rate.of(BigDecimal.valueOf(0.0135))) > 0
+        Rate.of(new BigDecimal("0.075")).complement() == Rate.of(new BigDecimal("0.925"))
+    }
+
+    def "should reject negative and too precise rates"() {
+        when:
+        Rate.of(new BigDecimal(value))
+
+        then:
+        thrown(IllegalDomainArgumentException)
+
+        where:
+        value << ["-0.01", "0.0000000000000000001"]
+    }
+
+    private static boolean fitsInLong(BigDecimal value) {
+        value.unscaledValue().bitLength() < 64
+    }
+}
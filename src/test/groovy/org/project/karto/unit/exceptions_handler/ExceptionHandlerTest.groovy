@@ -0,0 +1,57 @@
+package org.project.karto.unit.exceptions_handler
+
+import org.project.karto.application.dto.common.ErrorMessage
+import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException
+import org.project.karto.domain.common.exceptions.IllegalDomainStateException
+import org.project.karto.infrastructure.exceptions_handler.ExceptionHandler
+import org.project.karto.infrastructure.exceptions_handler.SampledLog
+import spock.lang.Specification
+
+import java.time.Duration
+
+class ExceptionHandlerTest extends Specification {
+
+    def "domain exceptions are stackless"() {
+        expect:
+        exception.stackTrace.length == 0
+
+        where:
+        exception << [new IllegalDomainArgumentException("Invalid"), new IllegalDomainStateException("Invalid", new IOException())]
+    }
+
+    def "domain exception is answered with pre-serialized body"() {
+        given:
+        def handler = new ExceptionHandler(Duration.ofSeconds(1))
+
+        when:
+        def first = handler.toResponse(new IllegalDomainArgumentException("Email is invalid"))
+        def second = handler.toResponse(new IllegalDomainArgumentException("Email is invalid"))
+
+        then:
+        first.status == 400
+        first.entity == '{"errorMessage":"Email is invalid"}'
+        first.entity.is(second.entity)
+        ErrorMessage.json("Email is invalid").is(first.entity)
+    }
+
+    def "repeated expected errors are logged once per interval"() {
+        given:
+        def log = new SampledLog(Duration.ofMinutes(1))
+
+        when:
+        def logged = (1..100).collect { log.warn(400, new IllegalDomainArgumentException("Invalid")) }
+
+        then:
+        logged.count { it } == 1
+        log.warn(400, new IllegalDomainStateException("Invalid"))
+    }
+
+    def "unexpected error hides its message"() {
+        when:
+        def response = new ExceptionHandler(Duration.ofSeconds(1)).toResponse(new IllegalStateException("secret"))
+
+        then:
+        response.status == 500
+        !response.entity.contains("secret")
+    }
+}
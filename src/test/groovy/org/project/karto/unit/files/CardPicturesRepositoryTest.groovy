@@ -0,0 +1,338 @@
+package org.project.karto.unit.files
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException
+import org.project.karto.domain.companies.entities.Company
+import org.project.karto.domain.companies.value_objects.PictureOfCards
+import org.project.karto.infrastructure.files.CardPicturesRepository
+import org.project.karto.infrastructure.files.InvalidPictureException
+import org.project.karto.infrastructure.files.PictureCache
+import org.project.karto.infrastructure.files.PictureRendition
+import org.project.karto.infrastructure.files.PictureRenditions
+import org.project.karto.infrastructure.files.PictureTooLargeException
+import org.project.karto.util.TestDataGenerator
+import spock.lang.Specification
+import spock.lang.TempDir
+
+import javax.imageio.ImageIO
+import java.awt.Color
+import java.awt.GradientPaint
+import java.awt.image.BufferedImage
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.nio.file.Path
+import java.security.MessageDigest
+import java.time.Duration
+import java.util.zip.CRC32
+
+class CardPicturesRepositoryTest extends Specification {
+
+    @TempDir
+    Path storageDir
+
+    CardPicturesRepository repository
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    PictureRenditions renditions = new PictureRenditions(meterRegistry, 2, 4, Duration.ofSeconds(30))
+
+    def setup() {
+        repository = new CardPicturesRepository(storageDir, renditions, new PictureCache(meterRegistry, 1 << 20))
+    }
+
+    def "stored picture is opened with its content hash as etag"() {
+        given:
+        byte[] png = image("png", 300, 200)
+
+        when:
+        Company company = store(png)
+        def picture = repository.open(PictureOfCards.profilePicturePath(company.id().toString())).orElseThrow()
+
+        then:
+        picture.file().startsWith(storageDir)
+        Files.readAllBytes(picture.file()) == png
+        picture.size() == png.length
+        picture.imageType() == "png"
+        picture.etag() == sha256(png)
+    }
+
+    def "etag is recomputed when an uncached file changes outside of the repository"() {
+        given:
+        repository = new CardPicturesRepository(storageDir, renditions, new PictureCache(meterRegistry, 0))
+        Company company = store(image("png", 64, 64))
+        String path = PictureOfCards.profilePicturePath(company.id().toString())
+        String before = repository.open(path).orElseThrow().etag()
+
+        when:
+        byte[] replaced = png(128)
+        Files.write(repository.open(path).orElseThrow().file(), replaced)
+        def picture = repository.open(path).orElseThrow()
+
+        then:
+        picture.etag() != before
+        picture.etag() == sha256(replaced)
+    }
+
+    def "etag of a picture found on disk is computed by streaming it"() {
+        given:
+        byte[] jpeg = new byte[100_000]
+        jpeg[0] = (byte) 0xFF
+        jpeg[1] = (byte) 0xD8
+        Path file = storageDir.resolve("profile/photos/existing")
+        Files.createDirectories(file.parent)
+        Files.write(file, jpeg)
+
+        when:
+        def picture = repository.open("profile/photos/existing").orElseThrow()
+
+        then:
+        picture.imageType() == "jpeg"
+        picture.etag() == sha256(jpeg)
+    }
+
+    def "upload is streamed to a staged file with its size and hash"() {
+        given:
+        byte[] png = png(PictureOfCards.MAX_SIZE)
+
+        when:
+        def staged = repository.upload(new ByteArrayInputStream(png)).orElseThrow()
+
+        then:
+        staged.file().parent == storageDir
+        staged.size() == png.length
+        staged.imageType() == "png"
+        staged.etag() == sha256(png)
+        Files.readAllBytes(staged.file()) == png
+    }
+
+    def "oversized upload is rejected and its staged file removed"() {
+        given:
+        byte[] png = png(PictureOfCards.MAX_SIZE + 1)
+
+        when:
+        def result = repository.upload(new ByteArrayInputStream(png))
+
+        then:
+        !result.success()
+        result.throwable() instanceof PictureTooLargeException
+        Files.list(storageDir).withCloseable { it.count() } == 0
+    }
+
+    def "upload with unknown signature is rejected before anything is written"() {
+        given:
+        def input = new ByteArrayInputStream("GIF89a....".bytes)
+
+        when:
+        def result = repository.upload(input)
+
+        then:
+        !result.success()
+        result.throwable() instanceof IllegalDomainArgumentException
+        !Files.exists(storageDir) || Files.list(storageDir).withCloseable { it.count() } == 0
+    }
+
+    def "staged upload replaces the previous picture"() {
+        given:
+        Company company = store(image("png", 64, 64))
+        byte[] replacement = image("png", 256, 256)
+        def staged = repository.upload(new ByteArrayInputStream(replacement)).orElseThrow()
+
+        when:
+        company.changePicture(PictureOfCards.of(company, staged.imageType(), staged.size()))
+        def stored = repository.put(company, staged).orElseThrow()
+
+        then:
+        Files.readAllBytes(stored.file()) == replacement
+        !Files.exists(staged.file())
+        repository.open(company.picture().get().path()).orElseThrow().etag() == sha256(replacement)
+    }
+
+    def "downscaled renditions are generated on upload"() {
+        given:
+        byte[] jpeg = image("jpeg", 2000, 1000)
+
+        when:
+        Company company = store(jpeg)
+        String path = company.picture().get().path()
+        def thumbnail = repository.open(path, PictureRendition.THUMBNAIL).orElseThrow()
+        def list = repository.open(path, PictureRendition.LIST).orElseThrow()
+        def full = repository.open(path, PictureRendition.FULL).orElseThrow()
+
+        then:
+        dimensions(thumbnail.file()) == [160, 80]
+        dimensions(list.file()) == [640, 320]
+        dimensions(full.file()) == [2000, 1000]
+        thumbnail.imageType() == "jpeg"
+        thumbnail.size() < list.size()
+        [thumbnail.etag(), list.etag(), full.etag()].toSet().size() == 3
+    }
+
+    def "picture smaller than a rendition is not upscaled"() {
+        when:
+        Company company = store(image("png", 100, 50))
+        String path = company.picture().get().path()
+
+        then:
+        dimensions(repository.open(path, PictureRendition.THUMBNAIL).orElseThrow().file()) == [100, 50]
+        dimensions(repository.open(path, PictureRendition.LIST).orElseThrow().file()) == [100, 50]
+    }
+
+    def "picture without renditions is served in full for every rendition"() {
+        given:
+        Path file = storageDir.resolve("profile/photos/legacy")
+        Files.createDirectories(file.parent)
+        Files.write(file, image("png", 800, 800))
+
+        expect:
+        repository.open("profile/photos/legacy", PictureRendition.THUMBNAIL).orElseThrow().file() == file
+    }
+
+    def "undecodable picture is not stored"() {
+        given:
+        Company company = TestDataGenerator.generateCompany()
+        company.incrementCounter()
+        company.enable()
+        def staged = repository.upload(new ByteArrayInputStream(png(1024))).orElseThrow()
+        company.changePicture(PictureOfCards.of(company, staged.imageType(), staged.size()))
+
+        when:
+        def result = repository.put(company, staged)
+
+        then:
+        !result.success()
+        result.throwable() instanceof InvalidPictureException
+        repository.open(company.picture().get().path()).isEmpty()
+        Files.list(storageDir).withCloseable { files -> files.noneMatch { it.fileName.toString().startsWith(".rendition-") } }
+    }
+
+    def "picture declaring a too high resolution is rejected before decoding"() {
+        given:
+        Company company = TestDataGenerator.generateCompany()
+        company.incrementCounter()
+        company.enable()
+        def staged = repository.upload(new ByteArrayInputStream(resized(image("png", 10, 10), 8000, 8000))).orElseThrow()
+        company.changePicture(PictureOfCards.of(company, staged.imageType(), staged.size()))
+
+        when:
+        def result = repository.put(company, staged)
+
+        then:
+        !result.success()
+        result.throwable() instanceof PictureTooLargeException
+        repository.open(company.picture().get().path()).isEmpty()
+    }
+
+    def "hot picture is served off-heap and invalidated by put"() {
+        given:
+        Company company = store(image("png", 300, 300))
+        String path = company.picture().get().path()
+        byte[] original = Files.readAllBytes(repository.open(path).orElseThrow().file())
+
+        when:
+        def first = repository.open(path).orElseThrow()
+        def second = repository.open(path).orElseThrow()
+
+        then:
+        second.content().isDirect()
+        second.content().isReadOnly()
+        bytes(second.content()) == original
+        second.etag() == first.etag()
+        meterRegistry.get("karto.picture.cache").tag("result", "hit").counter().count() >= 1
+
+        when:
+        byte[] replacement = image("png", 400, 400)
+        def staged = repository.upload(new ByteArrayInputStream(replacement)).orElseThrow()
+        company.changePicture(PictureOfCards.of(company, staged.imageType(), staged.size()))
+        repository.put(company, staged).orElseThrow()
+        def replaced = repository.open(path).orElseThrow()
+
+        then:
+        replaced.etag() == sha256(replacement)
+        bytes(repository.open(path).orElseThrow().content()) == replacement
+    }
+
+    def "hot picture replaced by another instance is not served from cache"() {
+        given:
+        Company company = store(image("png", 300, 300))
+        String path = company.picture().get().path()
+        (1..2).each { repository.open(path).orElseThrow() }
+        def otherInstance = new CardPicturesRepository(storageDir, renditions, new PictureCache(meterRegistry, 1 << 20))
+
+        when:
+        byte[] replacement = image("png", 400, 400)
+        def staged = otherInstance.upload(new ByteArrayInputStream(replacement)).orElseThrow()
+        company.changePicture(PictureOfCards.of(company, staged.imageType(), staged.size()))
+        otherInstance.put(company, staged).orElseThrow()
+        def replaced = repository.open(path).orElseThrow()
+
+        then:
+        replaced.etag() == sha256(replacement)
+        bytes(repository.open(path).orElseThrow().content()) == replacement
+    }
+
+    def "missing picture or path outside of storage is not opened"() {
+        expect:
+        repository.open(path).isEmpty()
+
+        where:
+        path << ["profile/photos/missing", "../outside", "profile/../../outside"]
+    }
+
+    private Company store(byte[] picture) {
+        Company company = TestDataGenerator.generateCompany()
+        company.incrementCounter()
+        company.enable()
+
+        def staged = repository.upload(new ByteArrayInputStream(picture)).orElseThrow()
+        company.changePicture(PictureOfCards.of(company, staged.imageType(), staged.size()))
+        repository.put(company, staged).orElseThrow()
+        company
+    }
+
+    private static byte[] png(int size) {
+        byte[] png = new byte[size]
+        new Random().nextBytes(png)
+        png[0] = (byte) 0x89
+        png[1] = (byte) 0x50
+        png[2] = (byte) 0x4E
+        png[3] = (byte) 0x47
+        png
+    }
+
+    private static byte[] image(String format, int width, int height) {
+        def image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB)
+        def graphics = image.createGraphics()
+        graphics.paint = new GradientPaint(0, 0, Color.RED, width, height, Color.BLUE)
+        graphics.fillRect(0, 0, width, height)
+        graphics.dispose()
+
+        def output = new ByteArrayOutputStream()
+        ImageIO.write(image, format, output)
+        output.toByteArray()
+    }
+
+    private static byte[] resized(byte[] png, int width, int height) {
+        def header = ByteBuffer.wrap(png)
+        header.putInt(16, width)
+        header.putInt(20, height)
+        def crc = new CRC32()
+        crc.update(png, 12, 17)
+        header.putInt(29, (int) crc.value)
+        png
+    }
+
+    private static byte[] bytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()]
+        buffer.duplicate().get(bytes)
+        bytes
+    }
+
+    private static List<Integer> dimensions(Path file) {
+        def image = ImageIO.read(file.toFile())
+        [image.width, image.height]
+    }
+
+    private static String sha256(byte[] content) {
+        HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content))
+    }
+}
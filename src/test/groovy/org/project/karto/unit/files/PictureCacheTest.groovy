@@ -0,0 +1,92 @@
+package org.project.karto.unit.files
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.project.karto.infrastructure.files.PictureCache
+import org.project.karto.infrastructure.files.PictureCache.CachedPicture
+import spock.lang.Specification
+
+import java.nio.ByteBuffer
+import java.nio.file.Path
+
+class PictureCacheTest extends Specification {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    def "cached picture is returned as an independent read-only view"() {
+        given:
+        def cache = new PictureCache(meterRegistry, 8 * 1024)
+
+        when:
+        cache.admit(Path.of("a"), picture(100), cache.generation())
+        def first = cache.get(Path.of("a"))
+        first.content().position(50)
+        def second = cache.get(Path.of("a"))
+
+        then:
+        second.content().position() == 0
+        second.content().remaining() == 100
+        second.content().isReadOnly()
+        second.content().isDirect()
+    }
+
+    def "resident bytes stay within budget by evicting least recently used"() {
+        given:
+        def cache = new PictureCache(meterRegistry, 8 * 1024)
+
+        when:
+        (0..<10).each { cache.admit(Path.of("p$it"), picture(1000), cache.generation()) }
+        cache.get(Path.of("p2"))
+        cache.admit(Path.of("p10"), picture(1000), cache.generation())
+
+        then:
+        meterRegistry.get("karto.picture.cache.resident.bytes").gauge().value() <= 8 * 1024
+        cache.get(Path.of("p2")) != null
+        cache.get(Path.of("p0")) == null
+        cache.get(Path.of("p10")) != null
+    }
+
+    def "picture larger than an eighth of the budget is not admitted"() {
+        given:
+        def cache = new PictureCache(meterRegistry, 8 * 1024)
+
+        when:
+        cache.admit(Path.of("large"), picture(1025), cache.generation())
+
+        then:
+        !cache.admits(1025)
+        cache.get(Path.of("large")) == null
+        meterRegistry.get("karto.picture.cache.resident.bytes").gauge().value() == 0
+    }
+
+    def "load started before an invalidation is not admitted"() {
+        given:
+        def cache = new PictureCache(meterRegistry, 8 * 1024)
+        long generation = cache.generation()
+
+        when:
+        cache.invalidate(Path.of("a"))
+        cache.admit(Path.of("a"), picture(100), generation)
+
+        then:
+        cache.get(Path.of("a")) == null
+    }
+
+    def "hit ratio is exposed"() {
+        given:
+        def cache = new PictureCache(meterRegistry, 8 * 1024)
+        cache.admit(Path.of("a"), picture(100), cache.generation())
+
+        when:
+        3.times { cache.get(Path.of("a")) }
+        cache.get(Path.of("b"))
+
+        then:
+        meterRegistry.get("karto.picture.cache.hit.ratio").gauge().value() == 0.75d
+        meterRegistry.get("karto.picture.cache.size").gauge().value() == 1
+    }
+
+    private static CachedPicture picture(int size) {
+        ByteBuffer content = ByteBuffer.allocateDirect(size)
+        new CachedPicture(content.asReadOnlyBuffer(), "png", "etag-$size")
+    }
+}
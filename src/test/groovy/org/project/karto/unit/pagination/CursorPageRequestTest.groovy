@@ -0,0 +1,39 @@
+package org.project.karto.unit.pagination
+
+import org.project.karto.application.pagination.CursorPageRequest
+import org.project.karto.domain.common.containers.Slice
+import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException
+import spock.lang.Specification
+
+class CursorPageRequestTest extends Specification {
+
+    def "next cursor points past the last row of the page"() {
+        given:
+        def slice = Slice.of(["a", "b", "c"], 2, { it }, { "key-$it" as String }, { "id-$it" as String })
+
+        when:
+        def request = CursorPageRequest.of(2, CursorPageRequest.nextCursor(slice))
+
+        then:
+        request.afterKey() == "key-b"
+        request.afterID() == "id-b"
+        !request.isFirstPage()
+    }
+
+    def "last page has no next cursor"() {
+        expect:
+        CursorPageRequest.nextCursor(Slice.of(["a"], 2, { it }, { it }, { it })) == null
+        CursorPageRequest.of(2, null).isFirstPage()
+    }
+
+    def "malformed cursor is rejected"() {
+        when:
+        CursorPageRequest.of(3, cursor)
+
+        then:
+        thrown(IllegalDomainArgumentException)
+
+        where:
+        cursor << ["%%%", Base64.urlEncoder.encodeToString("no-separator".bytes), Base64.urlEncoder.encodeToString("key|".bytes)]
+    }
+}
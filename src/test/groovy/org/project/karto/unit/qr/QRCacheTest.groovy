@@ -0,0 +1,73 @@
+package org.project.karto.unit.qr
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.project.karto.application.dto.gift_card.PaymentQRDTO
+import org.project.karto.infrastructure.qr.QRCache
+import org.project.karto.infrastructure.qr.QRGenerator
+import spock.lang.Specification
+
+import javax.imageio.ImageIO
+
+class QRCacheTest extends Specification {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    def "payment QR is rendered as compact PNG with configured module scale"() {
+        given:
+        def dto = new PaymentQRDTO("Karto Coffee", new BigDecimal("150.00"))
+
+        when:
+        byte[] small = QRGenerator.generatePNG(dto, 4).orElseThrow()
+        byte[] large = QRGenerator.generatePNG(dto, 8).orElseThrow()
+        def image = ImageIO.read(new ByteArrayInputStream(large))
+
+        then:
+        small[0..3] == [0x89, 0x50, 0x4E, 0x47].collect { it as byte }
+        image.width == ImageIO.read(new ByteArrayInputStream(small)).width * 2
+        large.length < image.width * image.height / 8
+    }
+
+    def "same partner and amount are served from cache"() {
+        given:
+        def cache = new QRCache(meterRegistry, 8, 16)
+
+        when:
+        def first = cache.png(new PaymentQRDTO("Karto Coffee", new BigDecimal("150.00"))).orElseThrow()
+        def second = cache.png(new PaymentQRDTO("Karto Coffee", new BigDecimal("150"))).orElseThrow()
+        def other = cache.png(new PaymentQRDTO("Karto Coffee", new BigDecimal("151"))).orElseThrow()
+
+        then:
+        first.is(second)
+        !first.is(other)
+        first.etag() != other.etag()
+        meterRegistry.get("karto.qr.cache").tag("result", "hit").counter().count() == 1
+    }
+
+    def "cached QR encodes the normalized amount whatever the scale of the first request"() {
+        given:
+        def cache = new QRCache(meterRegistry, 8, 16)
+
+        when:
+        def first = cache.png(new PaymentQRDTO("Karto Coffee", new BigDecimal("150.00"))).orElseThrow()
+        def second = cache.png(new PaymentQRDTO("Karto Coffee", new BigDecimal("150"))).orElseThrow()
+
+        then:
+        first.is(second)
+        first.png() == QRGenerator.generatePNG(new PaymentQRDTO("Karto Coffee", new BigDecimal("150")), 8).orElseThrow()
+    }
+
+    def "least recently used QR is evicted"() {
+        given:
+        def cache = new QRCache(meterRegistry, 4, 2)
+        def first = cache.png(new PaymentQRDTO("A", BigDecimal.ONE)).orElseThrow()
+        cache.png(new PaymentQRDTO("B", BigDecimal.ONE))
+        cache.png(new PaymentQRDTO("A", BigDecimal.ONE))
+
+        when:
+        cache.png(new PaymentQRDTO("C", BigDecimal.ONE))
+
+        then:
+        cache.png(new PaymentQRDTO("A", BigDecimal.ONE)).orElseThrow().is(first)
+        meterRegistry.get("karto.qr.cache.size").gauge().value() == 2
+    }
+}
@@ -0,0 +1,99 @@
+package org.project.karto.unit.qr
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.project.karto.application.dto.gift_card.PaymentQRDTO
+import org.project.karto.infrastructure.qr.QRGenerator
+import org.project.karto.infrastructure.qr.QRScanException
+import org.project.karto.infrastructure.qr.QRScanner
+import spock.lang.Specification
+
+import javax.imageio.ImageIO
+import java.awt.image.BufferedImage
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+
+class QRScannerTest extends Specification {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    def "message of rendered QR code is decoded"() {
+        given:
+        def scanner = new QRScanner(meterRegistry, 2, 4, Duration.ofSeconds(10))
+        def dto = new PaymentQRDTO("Karto Coffee", new BigDecimal("150.00"))
+        byte[] png = QRGenerator.generatePNG(dto, 4).orElseThrow()
+
+        when:
+        def result = scanner.scan(png)
+
+        then:
+        result.success()
+        result.value() == [dto.toJson()]
+        meterRegistry.get("karto.qr.scan.duration").timer().count() == 1
+    }
+
+    def "image without QR code yields no messages"() {
+        given:
+        def scanner = new QRScanner(meterRegistry, 1, 4, Duration.ofSeconds(10))
+
+        when:
+        def result = scanner.scan(blankPNG(200, 200))
+
+        then:
+        result.success()
+        result.value().isEmpty()
+    }
+
+    def "non image upload is rejected"() {
+        given:
+        def scanner = new QRScanner(meterRegistry, 1, 4, Duration.ofSeconds(10))
+
+        when:
+        def result = scanner.scan(image)
+
+        then:
+        !result.success()
+        result.throwable() instanceof QRScanException
+
+        where:
+        image << [null, new byte[0], "not an image".bytes]
+    }
+
+    def "saturated scanning pool rejects excess work fast"() {
+        given:
+        def scanner = new QRScanner(meterRegistry, 1, 1, Duration.ofSeconds(30))
+        byte[] image = blankPNG(2000, 2000)
+        def callers = Executors.newFixedThreadPool(8)
+
+        when:
+        def futures = (1..8).collect { callers.submit({ scanner.scan(image) } as Callable) }
+        def outcomes = futures.collect {
+            try {
+                it.get()
+            } catch (ExecutionException e) {
+                e.cause
+            }
+        }
+
+        then:
+        outcomes.count { it instanceof RejectedExecutionException } > 0
+        meterRegistry.get("karto.qr.scan.rejected").counter().count() > 0
+
+        cleanup:
+        callers.shutdownNow()
+    }
+
+    private static byte[] blankPNG(int width, int height) {
+        def image = new BufferedImage(width, height, BufferedImage.TYPE_BYTE_GRAY)
+        def graphics = image.createGraphics()
+        graphics.paint = java.awt.Color.WHITE
+        graphics.fillRect(0, 0, width, height)
+        graphics.dispose()
+
+        def output = new ByteArrayOutputStream()
+        ImageIO.write(image, "png", output)
+        output.toByteArray()
+    }
+}
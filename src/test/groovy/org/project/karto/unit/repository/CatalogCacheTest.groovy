@@ -0,0 +1,96 @@
+package org.project.karto.unit.repository
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.project.karto.domain.common.containers.Result
+import org.project.karto.infrastructure.repository.CatalogCache
+import spock.lang.Specification
+
+import java.time.Duration
+
+class CatalogCacheTest extends Specification {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    CatalogCache cache = new CatalogCache(meterRegistry, 16, Duration.ofSeconds(30))
+
+    def "page is served from memory until the catalog changes"() {
+        given:
+        int loads = 0
+        def loader = { Result.success(["page-${++loads}"]) }
+
+        when:
+        long version = cache.version()
+        def first = cache.page(version, "offset:10:0", loader).orElseThrow()
+        def second = cache.page(cache.version(), "offset:10:0", loader).orElseThrow()
+
+        then:
+        first.is(second)
+        loads == 1
+        meterRegistry.get("karto.catalog.cache").tag("result", "hit").counter().count() == 1
+
+        when:
+        cache.invalidate()
+        def reloaded = cache.page(cache.version(), "offset:10:0", loader).orElseThrow()
+
+        then:
+        cache.version() == version + 1
+        CatalogCache.etag(cache.version()) != CatalogCache.etag(version)
+        reloaded == ["page-2"]
+    }
+
+    def "page loaded under an outdated version is not cached"() {
+        given:
+        long outdated = cache.version()
+        cache.invalidate()
+        int loads = 0
+        def loader = { Result.success(["page-${++loads}"]) }
+
+        when:
+        cache.page(outdated, "offset:10:0", loader)
+        cache.page(cache.version(), "offset:10:0", loader)
+
+        then:
+        loads == 2
+    }
+
+    def "catalog expires after ttl even without local writes"() {
+        given:
+        long now = System.nanoTime()
+        long version = cache.version(now)
+        int loads = 0
+        def loader = { Result.success(["page-${++loads}"]) }
+        cache.page(version, "offset:10:0", loader)
+
+        expect:
+        cache.version(now + Duration.ofSeconds(29).toNanos()) == version
+
+        when:
+        long expired = cache.version(now + Duration.ofSeconds(31).toNanos())
+        def reloaded = cache.page(expired, "offset:10:0", loader).orElseThrow()
+
+        then:
+        expired == version + 1
+        reloaded == ["page-2"]
+    }
+
+    def "failures are not cached"() {
+        given:
+        int loads = 0
+        def loader = { ++loads; Result.failure(new IllegalStateException()) }
+
+        when:
+        def results = (1..2).collect { cache.page(cache.version(), "offset:10:0", loader) }
+
+        then:
+        results.every { !it.success() }
+        loads == 2
+    }
+
+    def "cache is bounded by page count"() {
+        when:
+        (1..20).each { n -> cache.page(cache.version(), "offset:10:$n", { Result.success([n]) }) }
+
+        then:
+        meterRegistry.get("karto.catalog.cache.size").gauge().value() == 16
+    }
+}
@@ -0,0 +1,148 @@
+package org.project.karto.unit.repository
+
+import com.aingrace.test.spock.QuarkusSpockTest
+import io.quarkus.test.common.QuarkusTestResource
+import jakarta.enterprise.context.Dependent
+import jakarta.inject.Inject
+import org.project.karto.infrastructure.repository.JDBCCardPurchaseIntentRepository
+import org.project.karto.infrastructure.repository.JDBCCheckRepository
+import org.project.karto.infrastructure.repository.JDBCGiftCardRepository
+import org.project.karto.infrastructure.repository.JDBCUserRepository
+import org.project.karto.seed.DatasetSeeder
+import org.project.karto.seed.Scale
+import org.project.karto.util.PostgresTestResource
+import spock.lang.Specification
+
+import javax.sql.DataSource
+
+@Dependent
+@QuarkusSpockTest
+@QuarkusTestResource(value = PostgresTestResource.class)
+class QueryPlanTest extends Specification {
+
+    static final Scale SCALE = new Scale(20_000, 50, 60_000, Scale.DEFAULT_BUYER_SKEW, Scale.DEFAULT_PARTNER_SKEW, 4)
+
+    static DataSource seededDataSource
+
+    static Map<String, Long> rows
+
+    @Inject
+    DataSource dataSource
+
+    def setup() {
+        if (rows == null) {
+            seededDataSource = dataSource
+            rows = new DatasetSeeder(dataSource, SCALE, DatasetSeeder.DEFAULT_SEED).seed()
+        }
+    }
+
+    def cleanupSpec() {
+        if (seededDataSource != null) DatasetSeeder.clear(seededDataSource)
+    }
+
+    def "dataset follows the requested scale and skew"() {
+        expect:
+        rows["user_account"] == SCALE.users()
+        rows["companies"] == SCALE.companies()
+        rows["gift_card"] == SCALE.giftCards()
+        rows["card_purchase_intent"] > SCALE.giftCards()
+        rows["payment_intent"] > 0
+        rows["chck"] > rows["payment_intent"]
+
+        when:
+        def cardsPerPartner = column("""
+                SELECT COUNT(*) FROM gift_card gc JOIN companies c ON c.id = gc.store_id
+                WHERE c.email LIKE '%@seed.karto.dev'
+                GROUP BY gc.store_id ORDER BY COUNT(*) DESC
+                """) as List<Long>
+
+        then:
+        cardsPerPartner.first() > 5 * cardsPerPartner[cardsPerPartner.size().intdiv(2)]
+    }
+
+    def "first page of user cards seeks the owner expiration index"() {
+        when:
+        def plan = plan(JDBCUserRepository.FIRST_USER_CARDS, DatasetSeeder.userEmail(0), 11)
+
+        then:
+        plan.contains("gift_card_owner_expiration_index")
+        !plan.contains("Seq Scan on gift_card")
+    }
+
+    def "next page of user cards seeks past the cursor"() {
+        given:
+        def email = DatasetSeeder.userEmail(0)
+        def cursor = lastRow(JDBCUserRepository.FIRST_USER_CARDS, email, 10)
+
+        when:
+        def plan = plan(JDBCUserRepository.NEXT_USER_CARDS, email, cursor.expiration_date, cursor.gift_card_id, 11)
+
+        then:
+        plan.contains("gift_card_owner_expiration_index")
+        !plan.contains("Seq Scan on gift_card")
+    }
+
+    def "next catalog page reads partners past the cursor only"() {
+        given:
+        def afterID = column(JDBCGiftCardRepository.FIRST_AVAILABLE_CARDS, 10).last()
+
+        when:
+        def plan = plan(JDBCGiftCardRepository.NEXT_AVAILABLE_CARDS, afterID, 11)
+
+        then: "with a few dozen partners the planner may still scan companies, but never the cards"
+        !plan.contains("gift_card")
+        !plan.contains("Aggregate")
+        !plan.contains("Join")
+    }
+
+    def "buyer history is read by index [#index]"() {
+        given:
+        def buyerID = column("SELECT id FROM user_account WHERE email = ?", DatasetSeeder.userEmail(1_000)).first()
+
+        when:
+        def plan = plan(sql, buyerID)
+
+        then:
+        plan.contains(index)
+        !plan.contains("Seq Scan")
+
+        where:
+        sql                                                | index
+        JDBCGiftCardRepository.FIND_BY_BUYER_ID            | "gift_card_buyer_index"
+        JDBCCardPurchaseIntentRepository.FIND_BY_BUYER_ID  | "purchase_buyer_index"
+        JDBCCheckRepository.FIND_BY_BUYER_ID               | "chck_buyer_index"
+    }
+
+    private String plan(String sql, Object... params) {
+        column("EXPLAIN " + sql, params).join("\n")
+    }
+
+    private List<Object> column(String sql, Object... params) {
+        def connection = dataSource.getConnection()
+        try {
+            def statement = connection.prepareStatement(sql)
+            params.eachWithIndex { param, i -> statement.setObject(i + 1, param) }
+            def rs = statement.executeQuery()
+            def values = []
+            while (rs.next()) values << rs.getObject(1)
+            return values
+        } finally {
+            connection.close()
+        }
+    }
+
+    private Map<String, Object> lastRow(String sql, Object... params) {
+        def connection = dataSource.getConnection()
+        try {
+            def statement = connection.prepareStatement(sql)
+            params.eachWithIndex { param, i -> statement.setObject(i + 1, param) }
+            def rs = statement.executeQuery()
+            Map<String, Object> row = null
+            while (rs.next())
+                row = [expiration_date: rs.getTimestamp("expiration_date"), gift_card_id: rs.getObject("gift_card_id")]
+            return row
+        } finally {
+            connection.close()
+        }
+    }
+}
@@ -0,0 +1,218 @@
+package org.project.karto.unit.repository
+
+import com.aingrace.test.spock.QuarkusSpockTest
+import io.quarkus.test.common.QuarkusTestResource
+import jakarta.enterprise.context.Dependent
+import jakarta.inject.Inject
+import jakarta.ws.rs.WebApplicationException
+import org.project.karto.application.dto.gift_card.SpendRequest
+import org.project.karto.application.service.GiftCardsService
+import org.project.karto.domain.card.entities.GiftCard
+import org.project.karto.domain.card.value_objects.Balance
+import org.project.karto.domain.card.value_objects.BuyerID
+import org.project.karto.domain.card.value_objects.StoreID
+import org.project.karto.domain.common.exceptions.DomainException
+import org.project.karto.domain.common.value_objects.CardUsageLimitations
+import org.project.karto.domain.common.value_objects.Email
+import org.project.karto.infrastructure.repository.JDBCGiftCardRepository
+import org.project.karto.infrastructure.repository.JDBCUserRepository
+import org.project.karto.util.PostgresTestResource
+import org.project.karto.util.TestDataGenerator
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+import javax.sql.DataSource
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
+import java.util.concurrent.atomic.AtomicInteger
+
+@Dependent
+@QuarkusSpockTest
+@QuarkusTestResource(value = PostgresTestResource.class)
+class SpendConcurrencyTest extends Specification {
+
+    static final int THREADS = 16
+
+    static final BigDecimal AMOUNT = new BigDecimal("10.00")
+
+    // the most a card can be used, see CardUsageLimitations
+    static final int MAX_USES = 10
+
+    @Inject
+    Util util
+
+    @Inject
+    GiftCardsService service
+
+    @Inject
+    JDBCGiftCardRepository giftCardRepo
+
+    @Inject
+    JDBCUserRepository userRepo
+
+    @Inject
+    DataSource dataSource
+
+    PollingConditions conditions = new PollingConditions(timeout: 10)
+
+    def "concurrent spends of one card are all applied and never overdraw it"() {
+        given:
+        def card = activeCard(new BigDecimal("500.00"), MAX_USES)
+        def attempts = 200
+
+        when:
+        def outcome = spendConcurrently((0..<attempts).collect { card })
+
+        then:
+        outcome.busy == 0
+        outcome.succeeded + outcome.rejected == attempts
+        outcome.succeeded == MAX_USES
+        outcome.rejected > 0
+
+        and:
+        def stored = giftCardRepo.findBy(card.id()).orElseThrow()
+        def spent = spentFrom(card)
+        stored.balance().value() >= 0
+        stored.balance().value() + spent.total == 500.00
+        stored.countOfUses() == outcome.succeeded
+        spent.intents == outcome.succeeded
+        spent.checks == outcome.succeeded
+
+        and: "1% of 10.20 for every applied spend, none lost to a concurrent one"
+        conditions.eventually {
+            assert cashbackOf(card) == outcome.succeeded * 0.10
+        }
+    }
+
+    def "committed spend credits cashback to the card owner"() {
+        given:
+        def card = activeCard(new BigDecimal("500.00"), MAX_USES)
+        def before = cashbackOf(card)
+
+        when:
+        def outcome = spendConcurrently([card])
+
+        then:
+        outcome.succeeded == 1
+        conditions.eventually {
+            assert cashbackOf(card) == before + 0.10
+        }
+    }
+
+    def "concurrent spends of many cards are all applied"() {
+        given:
+        def cards = (1..THREADS).collect { activeCard(new BigDecimal("1000.00"), MAX_USES) }
+
+        when:
+        def outcome = spendConcurrently(spread(cards))
+
+        then:
+        outcome.busy == 0
+        outcome.rejected == 0
+        outcome.succeeded == cards.size() * MAX_USES
+
+        and:
+        cards.every { card ->
+            def stored = giftCardRepo.findBy(card.id()).orElseThrow()
+            def spent = spentFrom(card)
+            stored.countOfUses() == MAX_USES && spent.intents == MAX_USES &&
+                    stored.balance().value() + spent.total == 1000.00
+        }
+    }
+
+    def "spends of different cards do not queue behind each other"() {
+        given:
+        def concurrentCards = (1..THREADS).collect { activeCard(new BigDecimal("1000.00"), MAX_USES) }
+        def sequentialCards = (1..THREADS).collect { activeCard(new BigDecimal("1000.00"), MAX_USES) }
+
+        when: "the concurrent run goes first, so it also pays for any warm-up"
+        def concurrent = spendConcurrently(spread(concurrentCards))
+        def sequential = spendConcurrently(spread(sequentialCards), 1)
+
+        then:
+        concurrent.succeeded == sequential.succeeded
+        concurrent.succeeded == THREADS * MAX_USES
+
+        and: "a lock shared by all cards would make both runs take about as long"
+        concurrent.elapsed < sequential.elapsed / 2
+    }
+
+    private static List<GiftCard> spread(List<GiftCard> cards) {
+        (0..<cards.size() * MAX_USES).collect { cards[it % cards.size()] }
+    }
+
+    private Map spendConcurrently(List<GiftCard> cards) {
+        spendConcurrently(cards, THREADS)
+    }
+
+    private Map spendConcurrently(List<GiftCard> cards, int threads) {
+        def owners = cards.unique(false) { it.id() }.collectEntries { card ->
+            def user = userRepo.findBy(card.ownerID().get().value()).orElseThrow()
+            [(card.id()): new Email(user.personalData().email())]
+        }
+
+        def succeeded = new AtomicInteger()
+        def rejected = new AtomicInteger()
+        def busy = new AtomicInteger()
+
+        def executor = Executors.newFixedThreadPool(threads)
+        long start = System.nanoTime()
+        try {
+            def tasks = cards.collect { card ->
+                def request = new SpendRequest(card.storeID().get().value(), card.id().value(), AMOUNT, "en")
+                ({ ->
+                    try {
+                        service.spend(request, owners[card.id()] as Email)
+                        succeeded.incrementAndGet()
+                    } catch (DomainException ignored) {
+                        rejected.incrementAndGet()
+                    } catch (WebApplicationException e) {
+                        if (e.response.status != 409) throw e
+                        busy.incrementAndGet()
+                    }
+                    null
+                } as Callable<Void>)
+            }
+            executor.invokeAll(tasks).each { it.get() }
+        } finally {
+            executor.shutdown()
+        }
+
+        [succeeded: succeeded.get(), rejected: rejected.get(), busy: busy.get(), elapsed: System.nanoTime() - start]
+    }
+
+    private GiftCard activeCard(BigDecimal balance, int maxUses) {
+        def card = GiftCard.selfBoughtCard(
+                new BuyerID(util.generateActivateAndSaveUser()),
+                new Balance(balance),
+                new StoreID(util.generateActivateAndSaveCompany()),
+                TestDataGenerator.generateSecretKey(),
+                CardUsageLimitations.of(CardUsageLimitations.MIN_DAYS, maxUses))
+        giftCardRepo.save(card)
+        card.activate()
+        giftCardRepo.update(card)
+        card
+    }
+
+    private BigDecimal cashbackOf(GiftCard card) {
+        userRepo.findBy(card.ownerID().get().value()).orElseThrow().cashbackStorage().amount()
+    }
+
+    private Map spentFrom(GiftCard card) {
+        def connection = dataSource.getConnection()
+        try {
+            def statement = connection.prepareStatement("""
+                    SELECT COUNT(*), COALESCE(SUM(total_amount), 0),
+                           (SELECT COUNT(*) FROM chck WHERE card_id = ?)
+                    FROM payment_intent WHERE card_id = ?
+                    """)
+            statement.setString(1, card.id().value().toString())
+            statement.setString(2, card.id().value().toString())
+            def rs = statement.executeQuery()
+            rs.next()
+            [intents: rs.getInt(1), total: rs.getBigDecimal(2), checks: rs.getInt(3)]
+        } finally {
+            connection.close()
+        }
+    }
+}
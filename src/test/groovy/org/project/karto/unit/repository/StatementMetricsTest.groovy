@@ -0,0 +1,76 @@
+package org.project.karto.unit.repository
+
+import com.aingrace.test.spock.QuarkusSpockTest
+import io.micrometer.core.instrument.MeterRegistry
+import io.quarkus.test.common.QuarkusTestResource
+import jakarta.enterprise.context.Dependent
+import jakarta.inject.Inject
+import org.project.karto.domain.card.value_objects.BuyerID
+import org.project.karto.infrastructure.repository.JDBCCheckRepository
+import org.project.karto.infrastructure.repository.JDBCOrderIDRepository
+import org.project.karto.util.PostgresTestResource
+import spock.lang.Specification
+
+@Dependent
+@QuarkusSpockTest
+@QuarkusTestResource(value = PostgresTestResource.class)
+class StatementMetricsTest extends Specification {
+
+    @Inject
+    MeterRegistry meterRegistry
+
+    @Inject
+    JDBCOrderIDRepository orderIDRepository
+
+    @Inject
+    JDBCCheckRepository checkRepository
+
+    def "statement is timed under its constant name"() {
+        given:
+        def before = count("JDBCOrderIDRepository", "NEXT", "success")
+
+        when:
+        def result = orderIDRepository.next()
+
+        then:
+        result.success()
+        count("JDBCOrderIDRepository", "NEXT", "success") == before + 1
+        meterRegistry.get("karto.repository.statement.rows")
+                .tags("repository", "JDBCOrderIDRepository", "statement", "NEXT")
+                .summary().totalAmount() >= 1
+    }
+
+    def "missing row is timed apart from successes"() {
+        given:
+        def before = count("JDBCCheckRepository", "FIND_BY_CHECK_ID", "not_found")
+
+        when:
+        def result = checkRepository.findBy(UUID.randomUUID())
+
+        then:
+        !result.success()
+        count("JDBCCheckRepository", "FIND_BY_CHECK_ID", "not_found") == before + 1
+    }
+
+    def "list read of an unknown buyer records no rows"() {
+        given:
+        def rows = meterRegistry.summary("karto.repository.statement.rows",
+                "repository", "JDBCCheckRepository", "statement", "FIND_BY_BUYER_ID")
+        def reads = rows.count()
+        def total = rows.totalAmount()
+
+        when:
+        checkRepository.findBy(new BuyerID(UUID.randomUUID()))
+
+        then:
+        rows.count() == reads + 1
+        rows.totalAmount() == total
+    }
+
+    private long count(String repository, String statement, String outcome) {
+        def timer = meterRegistry.find("karto.repository.statement")
+                .tags("repository", repository, "statement", statement, "outcome", outcome)
+                .timer()
+        timer == null ? 0 : timer.count()
+    }
+}
@@ -6,6 +6,7 @@ import jakarta.enterprise.context.Dependent
 import jakarta.inject.Inject
 import org.project.karto.domain.common.containers.Result
 import org.project.karto.domain.common.value_objects.Amount
+import org.project.karto.application.pagination.CursorPageRequest
 import org.project.karto.application.pagination.PageRequest
 import org.project.karto.domain.card.entities.GiftCard
 import org.project.karto.domain.common.value_objects.Email
@@ -20,6 +21,9 @@ import org.project.karto.util.PostgresTestResource
 import org.project.karto.util.TestDataGenerator
 import spock.lang.Specification
 
+import java.time.LocalDateTime
+import java.time.ZoneOffset
+
 @Dependent
 @QuarkusSpockTest
 @QuarkusTestResource(value = PostgresTestResource.class)
@@ -51,7 +55,7 @@ class UserRepoTest extends Specification{
 
     void "successfully save refresh token"() {
         given:
-        def token = new RefreshToken(user.id(), jwtUtility.generateRefreshToken(user))
+        def token = RefreshToken.of(user.id(), jwtUtility.generateRefreshToken(user))
 
         when:
         def userSaveResult = userRepo.save(user)
@@ -71,6 +75,44 @@ class UserRepoTest extends Specification{
         user << (1..10).collect({ TestDataGenerator.generateUser()})
     }
 
+    void "successfully find refresh token by digest"() {
+        given:
+        def token = RefreshToken.of(user.id(), jwtUtility.generateRefreshToken(user))
+
+        when:
+        userRepo.save(user).orElseThrow()
+        userRepo.saveRefreshToken(token).orElseThrow()
+        def findResult = userRepo.findRefreshToken(token.refreshToken())
+
+        then:
+        findResult.success()
+        findResult.value().userID() == user.id()
+        findResult.value().refreshToken() == token.refreshToken()
+        !findResult.value().isExpired()
+
+        where:
+        user << (1..10).collect({ TestDataGenerator.generateUser()})
+    }
+
+    void "successfully remove expired refresh tokens in batches"() {
+        given:
+        def expired = new RefreshToken(user.id(), jwtUtility.generateRefreshToken(user),
+                LocalDateTime.now(ZoneOffset.UTC).minusDays(1))
+
+        when:
+        userRepo.save(user).orElseThrow()
+        userRepo.saveRefreshToken(expired).orElseThrow()
+        def removeResult = userRepo.removeExpiredRefreshTokens(1000)
+
+        then:
+        removeResult.success()
+        removeResult.value() >= 1
+        !userRepo.findRefreshToken(expired.refreshToken()).success()
+
+        where:
+        user << (1..3).collect({ TestDataGenerator.generateUser()})
+    }
+
     void "successfully update phone number"() {
         when:
         def result = userRepo.save(user)
@@ -93,6 +135,29 @@ class UserRepoTest extends Specification{
         phone << (1..10).collect({TestDataGenerator.generatePhone()})
     }
 
+    void "rehashed password is stored only over the verified hash"() {
+        given:
+        def user = TestDataGenerator.generateUser()
+        userRepo.save(user)
+        def verified = user.personalData().password().orElseThrow()
+
+        when:
+        def stale = userRepo.rehashPassword(user.id(), "changed-meanwhile", "rehashed")
+
+        then:
+        stale.success()
+        stale.value() == 0
+        userRepo.findBy(user.id()).orElseThrow().personalData().password().orElseThrow() == verified
+
+        when:
+        def current = userRepo.rehashPassword(user.id(), verified, "rehashed")
+
+        then:
+        current.success()
+        current.value() == 1
+        userRepo.findBy(user.id()).orElseThrow().personalData().password().orElseThrow() == "rehashed"
+    }
+
     void "successfully update counter"() {
         when:
         def result = userRepo.save(user)
@@ -366,4 +431,33 @@ class UserRepoTest extends Specification{
         user << (1..10).collect({ TestDataGenerator.generateUser()})
         company << (1..10).collect({TestDataGenerator.generateCompany()})
     }
+
+    void "user's cards are keyset paged without gaps or duplicates"() {
+        given:
+        def user = TestDataGenerator.generateUser()
+        def company = TestDataGenerator.generateCompany()
+        List<GiftCard> cards = (1..7).collect({TestDataGenerator.generateSelfBougthGiftCard(user.id(), company.id())})
+        userRepo.save(user).orElseThrow()
+        companyRepo.save(company).orElseThrow()
+        cards.each { giftCardRepo.save(it).orElseThrow() }
+        def email = new Email(user.personalData().email())
+
+        when:
+        def pages = []
+        def page = userRepo.userCards(CursorPageRequest.of(3, null), email).orElseThrow()
+        pages << page
+        while (page.hasNext()) {
+            String cursor = CursorPageRequest.nextCursor(page)
+            page = userRepo.userCards(CursorPageRequest.of(3, cursor), email).orElseThrow()
+            pages << page
+        }
+        def ids = pages.collectMany { it.items()*.giftCardID() }
+
+        then:
+        pages*.items()*.size() == [3, 3, 1]
+        ids.size() == ids.toSet().size()
+        ids.toSet() == cards*.id()*.value()*.toString().toSet()
+        ids == pages.collectMany { it.items() }
+                .sort { a, b -> a.expirationDate() <=> b.expirationDate() ?: a.giftCardID() <=> b.giftCardID() }*.giftCardID()
+    }
 }
@@ -0,0 +1,93 @@
+package org.project.karto.unit.security
+
+import de.mkammerer.argon2.Argon2Factory
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.project.karto.infrastructure.security.Argon2Parameters
+import org.project.karto.infrastructure.security.PasswordEncoder
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.TimeUnit
+
+class Argon2ParametersTest extends Specification {
+
+    static final Argon2Parameters OUTDATED = new Argon2Parameters(1, 1024, 1)
+
+    static final Argon2Parameters CURRENT = new Argon2Parameters(2, 2048, 1)
+
+    def "parameters match only hashes made with them"() {
+        given:
+        String hash = Argon2Factory.create().hash(1, 1024, 1, "Password-123".toCharArray())
+
+        expect:
+        OUTDATED.matches(hash)
+        !CURRENT.matches(hash)
+        !CURRENT.matches(value)
+
+        where:
+        value << [null, "", "plain-text", '$argon2i$v=19$m=2048']
+    }
+
+    def "invalid parameters are rejected"() {
+        when:
+        new Argon2Parameters(iterations, memoryKiB, parallelism)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        iterations | memoryKiB | parallelism
+        0          | 1024      | 1
+        1          | 4         | 1
+        1          | 1024      | 0
+    }
+
+    def "outdated hash is rehashed in background after login"() {
+        given:
+        def encoder = new PasswordEncoder(new SimpleMeterRegistry(), CURRENT, 1, 4, Duration.ofSeconds(10))
+        def oldEncoder = new PasswordEncoder(new SimpleMeterRegistry(), OUTDATED, 1, 4, Duration.ofSeconds(10))
+        String outdated = oldEncoder.encode("Password-123")
+        def latch = new CountDownLatch(1)
+        String rehashed = null
+        boolean onVirtualThread = false
+
+        when:
+        encoder.rehashIfNeeded("Password-123", outdated) {
+            rehashed = it
+            onVirtualThread = Thread.currentThread().isVirtual()
+            latch.countDown()
+        }
+
+        then:
+        encoder.needsRehash(outdated)
+        latch.await(10, TimeUnit.SECONDS)
+        onVirtualThread
+        !encoder.needsRehash(rehashed)
+        encoder.verify("Password-123", rehashed)
+    }
+
+    def "up to date hash is not rehashed"() {
+        given:
+        def encoder = new PasswordEncoder(new SimpleMeterRegistry(), CURRENT, 1, 4, Duration.ofSeconds(10))
+        String current = encoder.encode("Password-123")
+        boolean called = false
+
+        when:
+        encoder.rehashIfNeeded("Password-123", current) { called = true }
+
+        then:
+        !encoder.needsRehash(current)
+        !called
+    }
+
+    def "calibration stays within memory bounds"() {
+        when:
+        def parameters = Argon2Parameters.calibrate(Argon2Factory.create(), Duration.ofMillis(50), 4096, 1024, 1)
+
+        then:
+        parameters.iterations() >= 1
+        parameters.memoryKiB() in [1024, 2048, 4096]
+        parameters.parallelism() == 1
+    }
+}
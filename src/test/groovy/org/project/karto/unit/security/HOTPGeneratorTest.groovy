@@ -2,7 +2,11 @@ package org.project.karto.unit.security
 
 import org.project.karto.infrastructure.security.HOTPGenerator
 import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
 import java.util.Base64
+import java.util.concurrent.Callable
+import java.util.concurrent.Executors
 
 class HOTPGeneratorTest extends Specification {
 
@@ -103,4 +107,84 @@ class HOTPGeneratorTest extends Specification {
         then:
         code1 != code2
     }
+
+    def "generateHOTP should match RFC 4226 test vectors"() {
+        given:
+        def generator = new HOTPGenerator("HmacSHA1", 6)
+        def key = Base64.encoder.encodeToString("12345678901234567890".getBytes(StandardCharsets.US_ASCII))
+
+        expect:
+        generator.generateHOTP(key, counter) == expected
+
+        where:
+        counter | expected
+        0L      | "755224"
+        1L      | "287082"
+        2L      | "359152"
+        3L      | "969429"
+        4L      | "338314"
+        5L      | "254676"
+        6L      | "287922"
+        7L      | "162583"
+        8L      | "399871"
+        9L      | "520489"
+    }
+
+    def "generateHOTP should write digits into supplied buffer"() {
+        given:
+        def generator = new HOTPGenerator()
+        def key = HOTPGenerator.generateSecretKey()
+        char[] buffer = new char[10]
+        Arrays.fill(buffer, '-' as char)
+
+        when:
+        int written = generator.generateHOTP(key, 42L, buffer, 2)
+
+        then:
+        written == 6
+        new String(buffer, 2, 6) == generator.generateHOTP(key, 42L)
+        buffer[0] == '-' as char
+        buffer[9] == '-' as char
+    }
+
+    def "generateHOTP should reject too small buffer"() {
+        when:
+        new HOTPGenerator().generateHOTP(HOTPGenerator.generateSecretKey(), 1L, new char[8], 3)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+
+    def "generateHOTP should stay consistent when shared between threads"() {
+        given:
+        def generator = new HOTPGenerator()
+        def keys = (1..16).collect { HOTPGenerator.generateSecretKey() }
+        def expected = keys.collectEntries { key -> [key, (0L..<50L).collect { generator.generateHOTP(key, it) }] }
+        def pool = Executors.newFixedThreadPool(8)
+
+        when:
+        def futures = keys.collect { key ->
+            pool.submit({ (0L..<50L).collect { generator.generateHOTP(key, it) } } as Callable<List<String>>)
+        }
+
+        then:
+        keys.indices.every { futures[it].get() == expected[keys[it]] }
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    def "generateHOTP should recover after invalid key"() {
+        given:
+        def generator = new HOTPGenerator()
+        def key = HOTPGenerator.generateSecretKey()
+        def code = generator.generateHOTP(key, 7L)
+
+        when:
+        generator.generateHOTP("this_is_not_base64", 7L)
+
+        then:
+        thrown(IllegalArgumentException)
+        generator.generateHOTP(key, 7L) == code
+    }
 }
@@ -0,0 +1,161 @@
+package org.project.karto.unit.security
+
+import com.sun.net.httpserver.HttpServer
+import io.smallrye.jwt.auth.principal.DefaultJWTParser
+import io.smallrye.jwt.build.Jwt
+import org.project.karto.infrastructure.security.OIDCKeyManager
+import spock.lang.Specification
+
+import java.nio.charset.StandardCharsets
+import java.security.KeyPair
+import java.security.KeyPairGenerator
+import java.security.interfaces.RSAPublicKey
+import java.time.Clock
+import java.time.Duration
+import java.util.concurrent.atomic.AtomicInteger
+
+class OIDCKeyManagerTest extends Specification {
+
+    HttpServer keycloak
+
+    AtomicInteger jwksRequests = new AtomicInteger()
+
+    Map<String, KeyPair> publishedKeys = [:]
+
+    OIDCKeyManager keyManager
+
+    def setup() {
+        keycloak = HttpServer.create(new InetSocketAddress("localhost", 0), 0)
+        keycloak.createContext("/realms/karto-realm/protocol/openid-connect/certs") { exchange ->
+            jwksRequests.incrementAndGet()
+            byte[] body = jwks().getBytes(StandardCharsets.UTF_8)
+            exchange.responseHeaders.add("Content-Type", "application/json")
+            exchange.sendResponseHeaders(200, body.length)
+            exchange.responseBody.withCloseable { it.write(body) }
+        }
+        keycloak.start()
+
+        keyManager = keyManager(Duration.ofMinutes(1))
+    }
+
+    def cleanup() {
+        keycloak.stop(0)
+    }
+
+    def "verifies id token signed with published key"() {
+        given:
+        publishedKeys["k1"] = rsaKeyPair()
+        String idToken = idToken("k1", "alice@keycloak.org")
+
+        when:
+        def result = keyManager.verifyAndParse(idToken)
+
+        then:
+        result.success()
+        result.value().getClaim("email") == "alice@keycloak.org"
+        jwksRequests.get() == 1
+    }
+
+    def "repeated id token is served from verification cache"() {
+        given:
+        publishedKeys["k1"] = rsaKeyPair()
+        String idToken = idToken("k1", "alice@keycloak.org")
+
+        when:
+        def results = (1..5).collect { keyManager.verifyAndParse(idToken) }
+
+        then:
+        results.every { it.success() }
+        jwksRequests.get() == 1
+    }
+
+    def "unknown kid after key rotation refreshes JWKS"() {
+        given:
+        keyManager = keyManager(Duration.ZERO)
+        publishedKeys["k1"] = rsaKeyPair()
+        keyManager.verifyAndParse(idToken("k1", "alice@keycloak.org")).orElseThrow()
+
+        when:
+        publishedKeys.remove("k1")
+        publishedKeys["k2"] = rsaKeyPair()
+        def result = keyManager.verifyAndParse(idToken("k2", "bob@keycloak.org"))
+
+        then:
+        result.success()
+        result.value().getClaim("email") == "bob@keycloak.org"
+        jwksRequests.get() == 2
+    }
+
+    def "refresh on unknown kid is rate limited"() {
+        given:
+        publishedKeys["k1"] = rsaKeyPair()
+        keyManager.verifyAndParse(idToken("k1", "alice@keycloak.org")).orElseThrow()
+        KeyPair forged = rsaKeyPair()
+
+        when:
+        def results = (1..10).collect { keyManager.verifyAndParse(signedWith(forged, "unknown-$it", "eve@keycloak.org")) }
+
+        then:
+        results.every { !it.success() }
+        jwksRequests.get() == 1
+    }
+
+    def "token signed with foreign key under known kid is rejected"() {
+        given:
+        publishedKeys["k1"] = rsaKeyPair()
+
+        when:
+        def result = keyManager.verifyAndParse(signedWith(rsaKeyPair(), "k1", "eve@keycloak.org"))
+
+        then:
+        !result.success()
+    }
+
+    def "blank or malformed id token is rejected"() {
+        expect:
+        !keyManager.verifyAndParse(token).success()
+
+        where:
+        token << [null, "", "   ", "not-a-jwt"]
+    }
+
+    private OIDCKeyManager keyManager(Duration minRefreshInterval) {
+        URI jwksUri = URI.create("http://localhost:${keycloak.address.port}/realms/karto-realm/protocol/openid-connect/certs")
+        new OIDCKeyManager(new DefaultJWTParser(), jwksUri, minRefreshInterval, 100, Clock.systemUTC())
+    }
+
+    private String idToken(String kid, String email) {
+        signedWith(publishedKeys[kid], kid, email)
+    }
+
+    private static String signedWith(KeyPair keyPair, String kid, String email) {
+        Jwt.issuer("http://localhost/realms/karto-realm")
+                .subject(UUID.randomUUID().toString())
+                .claim("email", email)
+                .expiresIn(Duration.ofMinutes(5))
+                .jws()
+                .keyId(kid)
+                .sign(keyPair.private)
+    }
+
+    private String jwks() {
+        def keys = publishedKeys.collect { kid, keyPair ->
+            RSAPublicKey publicKey = (RSAPublicKey) keyPair.public
+            """{"kid":"$kid","kty":"RSA","alg":"RS256","use":"sig","n":"${base64Url(publicKey.modulus)}","e":"${base64Url(publicKey.publicExponent)}"}"""
+        }
+        """{"keys":[${keys.join(",")}]}"""
+    }
+
+    private static String base64Url(BigInteger value) {
+        byte[] bytes = value.toByteArray()
+        if (bytes[0] == 0)
+            bytes = Arrays.copyOfRange(bytes, 1, bytes.length)
+        Base64.urlEncoder.withoutPadding().encodeToString(bytes)
+    }
+
+    private static KeyPair rsaKeyPair() {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA")
+        generator.initialize(2048)
+        generator.generateKeyPair()
+    }
+}
@@ -0,0 +1,76 @@
+package org.project.karto.unit.security
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry
+import org.project.karto.infrastructure.security.PasswordEncoder
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.ExecutionException
+import java.util.concurrent.Executors
+import java.util.concurrent.RejectedExecutionException
+
+class PasswordEncoderTest extends Specification {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry()
+
+    def "encoded password is verified"() {
+        given:
+        def encoder = new PasswordEncoder(meterRegistry, 2, 8, Duration.ofSeconds(10))
+
+        when:
+        String hash = encoder.encode("Password-123")
+
+        then:
+        hash.startsWith('$argon2')
+        encoder.verify("Password-123", hash)
+        !encoder.verify("Password-124", hash)
+        meterRegistry.get("karto.password.hashing.duration").tag("operation", "encode").timer().count() == 1
+        meterRegistry.get("karto.password.hashing.duration").tag("operation", "verify").timer().count() == 2
+    }
+
+    def "saturated hashing pool rejects excess work fast"() {
+        given:
+        def encoder = new PasswordEncoder(meterRegistry, 1, 1, Duration.ofSeconds(30))
+        def callers = Executors.newFixedThreadPool(8)
+
+        when:
+        def futures = (1..8).collect { callers.submit({ encoder.encode("Password-123") } as Callable<String>) }
+        def outcomes = futures.collect {
+            try {
+                it.get()
+            } catch (ExecutionException e) {
+                e.cause
+            }
+        }
+
+        then:
+        outcomes.count { it instanceof RejectedExecutionException } > 0
+        outcomes.count { it instanceof String } >= 1
+        meterRegistry.get("karto.password.hashing.rejected").counter().count() > 0
+
+        cleanup:
+        callers.shutdownNow()
+    }
+
+    def "queue depth gauge is exposed"() {
+        given:
+        new PasswordEncoder(meterRegistry, 1, 4, Duration.ofSeconds(5))
+
+        expect:
+        meterRegistry.get("karto.password.hashing.queue.depth").gauge().value() == 0
+    }
+
+    def "invalid pool configuration is rejected"() {
+        when:
+        new PasswordEncoder(meterRegistry, poolSize, queueCapacity, Duration.ofSeconds(1))
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        poolSize | queueCapacity
+        0        | 1
+        1        | 0
+    }
+}
@@ -0,0 +1,107 @@
+package org.project.karto.unit.security
+
+import org.project.karto.infrastructure.security.RateLimitFilter
+import org.project.karto.infrastructure.security.RateLimiter
+import spock.lang.Specification
+
+import java.time.Duration
+import java.util.concurrent.Callable
+import java.util.concurrent.CountDownLatch
+import java.util.concurrent.Executors
+import java.util.concurrent.TimeUnit
+
+class RateLimiterTest extends Specification {
+
+    static final long SECOND = TimeUnit.SECONDS.toNanos(1)
+
+    def "bucket allows burst up to capacity and then rejects"() {
+        given:
+        def limiter = new RateLimiter(3, Duration.ofSeconds(30))
+        long now = 0
+
+        expect:
+        (1..3).every { limiter.tryAcquire("phone:+1", now) == 0 }
+        limiter.tryAcquire("phone:+1", now) > 0
+        limiter.tryAcquire("phone:+2", now) == 0
+    }
+
+    def "tokens are refilled evenly over period"() {
+        given:
+        def limiter = new RateLimiter(3, Duration.ofSeconds(30))
+        (1..3).each { limiter.tryAcquire("ip:127.0.0.1", 0) }
+
+        expect:
+        limiter.tryAcquire("ip:127.0.0.1", 5 * SECOND) == 5 * SECOND
+        limiter.tryAcquire("ip:127.0.0.1", 10 * SECOND) == 0
+        limiter.tryAcquire("ip:127.0.0.1", 10 * SECOND) > 0
+    }
+
+    def "idle buckets are evicted"() {
+        given:
+        def limiter = new RateLimiter(3, Duration.ofSeconds(30))
+        limiter.tryAcquire("otp:123", 0)
+        limiter.tryAcquire("otp:456", 20 * SECOND)
+
+        when:
+        limiter.evictIdle(25 * SECOND)
+
+        then:
+        limiter.size() == 1
+    }
+
+    def "concurrent callers never exceed capacity"() {
+        given:
+        def limiter = new RateLimiter(100, Duration.ofHours(1))
+        def pool = Executors.newFixedThreadPool(8)
+        def start = new CountDownLatch(1)
+        long now = System.nanoTime()
+
+        when:
+        def futures = (1..8).collect {
+            pool.submit({
+                start.await()
+                (1..100).count { limiter.tryAcquire("ip:10.0.0.1", now) == 0 }
+            } as Callable<Integer>)
+        }
+        start.countDown()
+
+        then:
+        futures.sum { it.get() } == 100
+
+        cleanup:
+        pool.shutdownNow()
+    }
+
+    def "invalid limits are rejected"() {
+        when:
+        new RateLimiter(capacity, period)
+
+        then:
+        thrown(IllegalArgumentException)
+
+        where:
+        capacity | period
+        0        | Duration.ofSeconds(1)
+        1        | Duration.ZERO
+    }
+
+    def "one phone written differently is charged to one bucket"() {
+        given:
+        def limiter = new RateLimiter(3, Duration.ofSeconds(30))
+
+        expect:
+        ["+1 (555) 123-4567", "+1 555-123-4567", "1 555.123.4567"].every {
+            limiter.tryAcquire("phone:" + RateLimitFilter.phoneDigits(it), 0) == 0
+        }
+        limiter.tryAcquire("phone:" + RateLimitFilter.phoneDigits("+15551234567"), 0) > 0
+        limiter.size() == 1
+    }
+
+    def "phone without digits has no bucket key"() {
+        expect:
+        RateLimitFilter.phoneDigits(phone) == ""
+
+        where:
+        phone << [null, "", " ", "+()-."]
+    }
+}
@@ -0,0 +1,84 @@
+package org.project.karto.unit.tracing
+
+import com.aingrace.test.spock.QuarkusSpockTest
+import io.opentelemetry.api.common.AttributeKey
+import io.opentelemetry.api.trace.SpanKind
+import io.opentelemetry.api.trace.StatusCode
+import io.opentelemetry.sdk.testing.exporter.InMemorySpanExporter
+import io.opentelemetry.sdk.trace.data.SpanData
+import io.quarkus.test.common.QuarkusTestResource
+import jakarta.enterprise.context.Dependent
+import jakarta.inject.Inject
+import org.project.karto.infrastructure.repository.JDBCCheckRepository
+import org.project.karto.infrastructure.repository.JDBCOrderIDRepository
+import org.project.karto.infrastructure.security.PasswordEncoder
+import org.project.karto.util.PostgresTestResource
+import spock.lang.Specification
+import spock.util.concurrent.PollingConditions
+
+@Dependent
+@QuarkusSpockTest
+@QuarkusTestResource(value = PostgresTestResource.class)
+class TracingTest extends Specification {
+
+    @Inject
+    InMemorySpanExporter exporter
+
+    @Inject
+    JDBCOrderIDRepository orderIDRepository
+
+    @Inject
+    JDBCCheckRepository checkRepository
+
+    @Inject
+    PasswordEncoder passwordEncoder
+
+    PollingConditions conditions = new PollingConditions(timeout: 5)
+
+    def setup() {
+        exporter.reset()
+    }
+
+    def "statement is a client span named after its constant"() {
+        when:
+        orderIDRepository.next()
+
+        then:
+        conditions.eventually {
+            def span = finished("JDBCOrderIDRepository.NEXT")
+            assert span.kind == SpanKind.CLIENT
+            assert span.attributes.get(AttributeKey.stringKey("karto.statement")) == "NEXT"
+            assert span.attributes.get(AttributeKey.stringKey("db.operation.name")) == "SELECT"
+            assert span.attributes.get(AttributeKey.longKey("db.response.returned_rows")) == 1L
+        }
+    }
+
+    def "missing row is not an error"() {
+        when:
+        checkRepository.findBy(UUID.randomUUID())
+
+        then:
+        conditions.eventually {
+            def span = finished("JDBCCheckRepository.FIND_BY_CHECK_ID")
+            assert span.status.statusCode != StatusCode.ERROR
+            assert span.attributes.get(AttributeKey.longKey("db.response.returned_rows")) == 0L
+        }
+    }
+
+    def "password hashing span tells queue wait from hashing"() {
+        when:
+        passwordEncoder.encode("Password-123")
+
+        then:
+        conditions.eventually {
+            def span = finished("PasswordEncoder.encode")
+            assert span.events*.name == ["hashing started"]
+        }
+    }
+
+    private SpanData finished(String name) {
+        def span = exporter.finishedSpanItems.find { it.name == name }
+        assert span != null
+        span
+    }
+}
@@ -0,0 +1,105 @@
+package org.project.karto.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Compares two JSON results written by {@link Benchmarks}, typically from two commits on the same machine:
+ * {@code mvn -Pbenchmarks test -Djmh.main=org.project.karto.benchmark.BenchmarkComparison
+ * -Djmh.args="target/jmh/before.json target/jmh/after.json"}.
+ * <p>
+ * A benchmark is reported as a regression when it got worse by more than the sum of both score errors, or when
+ * it allocates more per operation. Exits with status 1 if there is any, so it can guard a local script.
+ */
+public final class BenchmarkComparison {
+
+    private static final String ALLOCATION = "gc.alloc.rate.norm";
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private BenchmarkComparison() {}
+
+    record Score(String mode, double score, double error, String unit, double allocated) {
+
+        boolean lowerIsBetter() {
+            return !mode.equals("thrpt");
+        }
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 2) {
+            System.err.println("Usage: BenchmarkComparison <baseline.json> <candidate.json>");
+            System.exit(2);
+        }
+
+        Map<String, Score> baseline = read(Path.of(args[0]));
+        Map<String, Score> candidate = read(Path.of(args[1]));
+
+        int regressions = 0;
+        System.out.printf("%-72s %14s %14s %9s %12s %12s%n",
+                "Benchmark", "Baseline", "Candidate", "Change", "B/op before", "B/op after");
+        for (Map.Entry<String, Score> entry : new TreeMap<>(candidate).entrySet()) {
+            Score before = baseline.get(entry.getKey());
+            Score after = entry.getValue();
+            if (before == null) {
+                System.out.printf("%-72s %14s %14.3f %9s%n", entry.getKey(), "-", after.score(), "new");
+                continue;
+            }
+
+            boolean regression = isRegression(before, after);
+            if (regression) regressions++;
+            System.out.printf("%-72s %14.3f %14.3f %+8.1f%% %12.1f %12.1f %s%s%n",
+                    entry.getKey(), before.score(), after.score(), change(before.score(), after.score()),
+                    before.allocated(), after.allocated(), after.unit(), regression ? "  REGRESSION" : "");
+        }
+
+        if (regressions > 0) {
+            System.out.printf("%d regression(s)%n", regressions);
+            System.exit(1);
+        }
+    }
+
+    static boolean isRegression(Score before, Score after) {
+        double worsening = before.lowerIsBetter() ? after.score() - before.score() : before.score() - after.score();
+        boolean slower = worsening > before.error() + after.error();
+
+        // allocation is deterministic up to a few bytes of profiler noise
+        boolean allocatesMore = after.allocated() - before.allocated() > 1.0;
+        return slower || allocatesMore;
+    }
+
+    private static double change(double before, double after) {
+        return before == 0 ? 0 : (after - before) / before * 100;
+    }
+
+    static Map<String, Score> read(Path path) throws IOException {
+        Map<String, Score> scores = new LinkedHashMap<>();
+        for (JsonNode run : MAPPER.readTree(path.toFile())) {
+            JsonNode primary = run.path("primaryMetric");
+            JsonNode allocation = run.path("secondaryMetrics").path(ALLOCATION);
+
+            double error = primary.path("scoreError").asDouble(0);
+            scores.put(key(run), new Score(
+                    run.path("mode").asText(),
+                    primary.path("score").asDouble(),
+                    Double.isNaN(error) ? 0 : error,
+                    primary.path("scoreUnit").asText(),
+                    allocation.path("score").asDouble(0)));
+        }
+        return scores;
+    }
+
+    private static String key(JsonNode run) {
+        StringBuilder key = new StringBuilder(run.path("benchmark").asText()
+                .replace(Benchmarks.class.getPackageName() + ".", ""));
+        run.path("params").fields().forEachRemaining(param ->
+                key.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+        return key.toString();
+    }
+}
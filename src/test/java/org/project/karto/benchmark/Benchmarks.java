@@ -0,0 +1,54 @@
+package org.project.karto.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.ProfilerConfig;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Runs the benchmarks of this package with the GC profiler and writes the results as JSON, so runs made on
+ * different commits can be compared with {@link BenchmarkComparison}.
+ * <p>
+ * {@code mvn -Pbenchmarks test} runs all of them into {@code target/jmh/<timestamp>.json}. Any JMH command line
+ * option is passed through {@code jmh.args}, e.g. {@code -Djmh.args="Fee|Spend -rff target/jmh/before.json"}.
+ */
+public final class Benchmarks {
+
+    private static final Path RESULTS = Path.of("target", "jmh");
+
+    private Benchmarks() {}
+
+    public static void main(String[] args) throws CommandLineOptionException, RunnerException, IOException {
+        CommandLineOptions commandLine = new CommandLineOptions(args);
+        ChainedOptionsBuilder options = new OptionsBuilder().parent(commandLine);
+
+        if (commandLine.getIncludes().isEmpty())
+            options.include(Benchmarks.class.getPackageName() + ".*");
+        if (commandLine.getProfilers().stream().noneMatch(Benchmarks::isGCProfiler))
+            options.addProfiler(GCProfiler.class);
+        if (!commandLine.getResultFormat().hasValue())
+            options.resultFormat(ResultFormatType.JSON);
+        if (!commandLine.getResult().hasValue()) {
+            Files.createDirectories(RESULTS);
+            String timestamp = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            options.result(RESULTS.resolve(timestamp + ".json").toString());
+        }
+
+        new Runner(options.build()).run();
+    }
+
+    private static boolean isGCProfiler(ProfilerConfig profiler) {
+        return profiler.getKlass().equals("gc") || profiler.getKlass().equals(GCProfiler.class.getName());
+    }
+}
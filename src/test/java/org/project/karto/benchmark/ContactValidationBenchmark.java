@@ -0,0 +1,100 @@
+package org.project.karto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.project.karto.domain.common.exceptions.IllegalDomainArgumentException;
+import org.project.karto.domain.common.value_objects.Email;
+import org.project.karto.domain.common.value_objects.Phone;
+import org.project.karto.util.LegacyValidators;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Single-pass validators against the former regexes. {@code typical} inputs show the everyday cost,
+ * {@code adversarial} ones grow a run of backslashes in an address literal, each can start an escape, up to
+ * the given length: regex time grows faster than the input as it backtracks over the run, single-pass time
+ * stays linear.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class ContactValidationBenchmark {
+
+    @Param({"typical", "adversarial"})
+    String input;
+
+    @Param({"16", "64", "200"})
+    int length;
+
+    private String email;
+
+    private String phone;
+
+    @Setup
+    public void setup() {
+        if (input.equals("typical")) {
+            email = "j".repeat(Math.max(1, length - 12)) + "@example.com";
+            phone = "+380 67 123 4567";
+        } else {
+            email = "a@[1.2.3.tag:" + "\\".repeat(length) + "\u0000]";
+            phone = "+" + "1".repeat(21);
+        }
+    }
+
+    @Benchmark
+    public boolean email() {
+        try {
+            Email.validate(email);
+            return true;
+        } catch (IllegalDomainArgumentException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean emailRegex() {
+        return LegacyValidators.emailError(email) == null;
+    }
+
+    @Benchmark
+    public boolean phone() {
+        try {
+            Phone.validate(phone);
+            return true;
+        } catch (IllegalDomainArgumentException e) {
+            return false;
+        }
+    }
+
+    @Benchmark
+    public boolean phoneRegex() {
+        return LegacyValidators.isPhone(phone);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(ContactValidationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
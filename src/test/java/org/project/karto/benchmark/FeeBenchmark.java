@@ -0,0 +1,67 @@
+package org.project.karto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.project.karto.domain.card.value_objects.Fee;
+import org.project.karto.domain.common.value_objects.Amount;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fee taken from a card purchase and the gross amount needed for a net one. The long rate shows the cost of
+ * a rate stored with full double precision, as partner rates loaded from the database may be.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FeeBenchmark {
+
+    @Param({"0.075", "0.0123456789012345"})
+    String rate;
+
+    private Fee fee;
+
+    private Amount amount;
+
+    @Setup
+    public void setup() {
+        fee = new Fee(new BigDecimal(rate));
+        amount = new Amount(new BigDecimal("123.45"));
+    }
+
+    @Benchmark
+    public Amount calculateFee() {
+        return fee.calculateFee(amount);
+    }
+
+    @Benchmark
+    public Amount grossAmountForNet() {
+        return fee.grossAmountForNet(amount);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(FeeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
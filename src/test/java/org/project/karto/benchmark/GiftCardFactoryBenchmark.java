@@ -0,0 +1,89 @@
+package org.project.karto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.project.karto.domain.card.entities.CardPurchaseIntent;
+import org.project.karto.domain.card.entities.GiftCard;
+import org.project.karto.domain.card.enumerations.GiftCardRecipientType;
+import org.project.karto.domain.card.enumerations.PurchaseStatus;
+import org.project.karto.domain.card.factories.GiftCardFactory;
+import org.project.karto.domain.card.value_objects.BuyerID;
+import org.project.karto.domain.card.value_objects.Fee;
+import org.project.karto.domain.card.value_objects.StoreID;
+import org.project.karto.domain.common.value_objects.Amount;
+import org.project.karto.domain.common.value_objects.CardUsageLimitations;
+import org.project.karto.infrastructure.security.HOTPGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Gift card creation from a successful purchase: net amount after the removed fee and the creation strategy
+ * picked by recipient and store. The secret key is generated once, its cost is covered by {@link HOTPGeneratorBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GiftCardFactoryBenchmark {
+
+    @Param({"SELF", "OTHER"})
+    GiftCardRecipientType recipientType;
+
+    @Param({"true", "false"})
+    boolean storeSpecific;
+
+    private CardPurchaseIntent purchaseIntent;
+
+    private String secretKey;
+
+    private CardUsageLimitations limitations;
+
+    @Setup
+    public void setup() {
+        LocalDateTime now = LocalDateTime.now();
+        purchaseIntent = CardPurchaseIntent.fromRepository(
+                UUID.randomUUID(),
+                new BuyerID(UUID.randomUUID()),
+                storeSpecific ? new StoreID(UUID.randomUUID()) : null,
+                1,
+                new Amount(new BigDecimal("250.00")),
+                now,
+                now,
+                PurchaseStatus.SUCCESS,
+                new Fee(new BigDecimal("0.03")));
+        secretKey = HOTPGenerator.generateSecretKey();
+        limitations = CardUsageLimitations.of(30, 5);
+    }
+
+    @Benchmark
+    public GiftCard createFromPurchaseIntent() {
+        return GiftCardFactory.createFromPurchaseIntent(purchaseIntent, recipientType, secretKey, limitations);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(GiftCardFactoryBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
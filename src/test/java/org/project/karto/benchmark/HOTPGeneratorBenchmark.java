@@ -0,0 +1,71 @@
+package org.project.karto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.project.karto.infrastructure.security.HOTPGenerator;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares String and buffer based OTP generation. Run with the GC profiler,
+ * {@code gc.alloc.rate.norm} shows bytes allocated per generated code.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@Threads(4)
+public class HOTPGeneratorBenchmark {
+
+    private HOTPGenerator generator;
+
+    private String key;
+
+    @Setup
+    public void setup() {
+        generator = new HOTPGenerator();
+        key = HOTPGenerator.generateSecretKey();
+    }
+
+    @State(Scope.Thread)
+    public static class Digits {
+        final char[] buffer = new char[HOTPGenerator.DEFAULT_LENGTH];
+        long counter;
+    }
+
+    @Benchmark
+    public String generateString(Digits digits) {
+        return generator.generateHOTP(key, digits.counter++);
+    }
+
+    @Benchmark
+    public void generateIntoBuffer(Digits digits, Blackhole blackhole) {
+        generator.generateHOTP(key, digits.counter++, digits.buffer, 0);
+        blackhole.consume(digits.buffer);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(HOTPGeneratorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
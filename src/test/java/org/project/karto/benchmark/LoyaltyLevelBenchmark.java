@@ -0,0 +1,62 @@
+package org.project.karto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.project.karto.domain.card.enumerations.LoyaltyLevel;
+import org.project.karto.domain.card.value_objects.UserActivitySnapshot;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loyalty level lookup, walked from the highest level down. {@code decaySpent} picks how many levels are passed
+ * before the match: none for a diamond member, all of them for a beginner.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LoyaltyLevelBenchmark {
+
+    @Param({"0.00", "740.10", "2500.00"})
+    String decaySpent;
+
+    private UserActivitySnapshot snapshot;
+
+    @Setup
+    public void setup() {
+        snapshot = new UserActivitySnapshot(UUID.randomUUID(), new BigDecimal(decaySpent), 12,
+                LocalDateTime.now(), 9, false);
+    }
+
+    @Benchmark
+    public LoyaltyLevel determineLevel() {
+        return LoyaltyLevel.determineLevel(snapshot);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(LoyaltyLevelBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,76 @@
+package org.project.karto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.project.karto.application.pagination.CursorPageRequest;
+import org.project.karto.application.pagination.PageRequest;
+import org.project.karto.domain.common.containers.Slice;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Page requests built for every list endpoint call: offset pages, and keyset cursors decoded from the request
+ * and encoded for the response.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PaginationBenchmark {
+
+    private int limit;
+
+    private int pageNumber;
+
+    private String cursor;
+
+    private Slice<String> slice;
+
+    @Setup
+    public void setup() {
+        limit = 20;
+        pageNumber = 7;
+        slice = new Slice<>(List.of("card"), "2026-10-19T12:00", UUID.randomUUID().toString());
+        cursor = CursorPageRequest.nextCursor(slice);
+    }
+
+    @Benchmark
+    public PageRequest pageRequest() {
+        return new PageRequest(limit, pageNumber);
+    }
+
+    @Benchmark
+    public CursorPageRequest decodeCursor() {
+        return CursorPageRequest.of(limit, cursor);
+    }
+
+    @Benchmark
+    public String encodeCursor() {
+        return CursorPageRequest.nextCursor(slice);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(PaginationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
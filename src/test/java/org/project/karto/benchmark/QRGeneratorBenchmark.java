@@ -0,0 +1,98 @@
+package org.project.karto.benchmark;
+
+import boofcv.alg.fiducial.qrcode.QrCode;
+import boofcv.alg.fiducial.qrcode.QrCodeEncoder;
+import boofcv.alg.fiducial.qrcode.QrCodeGeneratorImage;
+import boofcv.struct.image.GrayU8;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.project.karto.application.dto.gift_card.PaymentQRDTO;
+import org.project.karto.domain.common.containers.Result;
+import org.project.karto.infrastructure.qr.QRCache;
+import org.project.karto.infrastructure.qr.QRCache.RenderedQR;
+import org.project.karto.infrastructure.qr.QRGenerator;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Render time of the payment QR: the former base64 PGM against PNG, and a cache hit.
+ * Payload sizes of both formats are printed once per trial.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QRGeneratorBenchmark {
+
+    @Param({"8", "20"})
+    int moduleScale;
+
+    private PaymentQRDTO dto;
+
+    private QRCache cache;
+
+    @Setup
+    public void setup() {
+        dto = new PaymentQRDTO("Karto Coffee", new BigDecimal("150.00"));
+        cache = new QRCache(new SimpleMeterRegistry(), moduleScale, 1024);
+
+        System.out.printf("%nPayload bytes at scale %d: base64 PGM = %d, PNG = %d, base64 PNG = %d%n",
+                moduleScale,
+                base64PGM().length(),
+                png().length,
+                Base64.getEncoder().encodeToString(png()).length());
+    }
+
+    @Benchmark
+    public String base64PGM() {
+        QrCode qr = new QrCodeEncoder()
+                .setError(QrCode.ErrorLevel.M)
+                .addAutomatic(dto.toJson())
+                .fixate();
+        GrayU8 gray = new QrCodeGeneratorImage(moduleScale).render(qr).getGray();
+
+        byte[] header = "P5\n%d %d\n255\n".formatted(gray.width, gray.height).getBytes(StandardCharsets.UTF_8);
+        byte[] pgm = new byte[header.length + gray.data.length];
+        System.arraycopy(header, 0, pgm, 0, header.length);
+        System.arraycopy(gray.data, 0, pgm, header.length, gray.data.length);
+        return Base64.getEncoder().encodeToString(pgm);
+    }
+
+    @Benchmark
+    public byte[] png() {
+        return QRGenerator.generatePNG(dto, moduleScale).orElseThrow();
+    }
+
+    @Benchmark
+    public Result<RenderedQR, Throwable> cachedPNG() {
+        return cache.png(dto);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(QRGeneratorBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,70 @@
+package org.project.karto.benchmark;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.project.karto.application.dto.gift_card.PaymentQRDTO;
+import org.project.karto.infrastructure.qr.QRGenerator;
+import org.project.karto.infrastructure.qr.QRScanner;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Decodes per second of a single core. Runs on the calling thread, so the score is the per-core capacity
+ * to size {@code qr.scan.pool-size} against; multiply by the pool size for the node throughput.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(1)
+@Fork(1)
+public class QRScannerBenchmark {
+
+    @Param({"4", "12"})
+    int moduleScale;
+
+    private byte[] image;
+
+    private QRScanner scanner;
+
+    @Setup
+    public void setup() {
+        image = QRGenerator.generatePNG(new PaymentQRDTO("Karto Coffee", new BigDecimal("150.00")), moduleScale)
+                .orElseThrow();
+        scanner = new QRScanner(new SimpleMeterRegistry(), 1, 1, Duration.ofSeconds(5));
+    }
+
+    @Benchmark
+    public List<String> decode() throws IOException {
+        return scanner.scanInPlace(image);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(QRScannerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
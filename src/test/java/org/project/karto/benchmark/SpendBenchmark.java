@@ -0,0 +1,97 @@
+package org.project.karto.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.project.karto.domain.card.entities.Check;
+import org.project.karto.domain.card.entities.GiftCard;
+import org.project.karto.domain.card.entities.PaymentIntent;
+import org.project.karto.domain.card.enumerations.GiftCardStatus;
+import org.project.karto.domain.card.enumerations.PaymentType;
+import org.project.karto.domain.card.value_objects.*;
+import org.project.karto.domain.card.value_objects.Currency;
+import org.project.karto.domain.common.value_objects.Amount;
+import org.project.karto.domain.common.value_objects.KeyAndCounter;
+import org.project.karto.infrastructure.security.HOTPGenerator;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full spend on a store specific gift card as a request performs it: the card is loaded,
+ * {@code initializeTransaction} calculates the internal fee and checks the balance, {@code applyTransaction}
+ * updates the balance and calculates loyalty level and cashback. Run with the GC profiler,
+ * {@code gc.alloc.rate.norm} shows bytes allocated per spend.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SpendBenchmark {
+
+    private final CardID cardID = new CardID(UUID.randomUUID());
+
+    private final BuyerID buyerID = new BuyerID(UUID.randomUUID());
+
+    private final OwnerID ownerID = new OwnerID(buyerID.value());
+
+    private final Balance balance = new Balance(new BigDecimal("2200.00"));
+
+    private final KeyAndCounter keyAndCounter = new KeyAndCounter(HOTPGenerator.generateSecretKey(), 1);
+
+    private final Amount amount = new Amount(new BigDecimal("123.45"));
+
+    private final UserActivitySnapshot snapshot = new UserActivitySnapshot(ownerID.value(), new BigDecimal("740.10"),
+            12, LocalDateTime.now(), 9, false);
+
+    private final Currency currency = Currency.getInstance("USD");
+
+    private final PaymentSystem paymentSystem = new PaymentSystem("UP");
+
+    private final BankName bankName = new BankName("BANK");
+
+    private final PayeeDescription description = new PayeeDescription("benchmark");
+
+    private final StoreID storeID = new StoreID(UUID.randomUUID());
+
+    private final LocalDateTime creationDate = LocalDateTime.now();
+
+    @State(Scope.Thread)
+    public static class Orders {
+        long orderID;
+    }
+
+    @Benchmark
+    public Check spend(Orders orders) {
+        GiftCard giftCard = GiftCard.fromRepository(cardID, buyerID, ownerID, storeID, GiftCardStatus.ACTIVE,
+                balance, 0, 10, keyAndCounter, creationDate, creationDate.plusDays(30), creationDate, 2);
+
+        PaymentIntent intent = giftCard.initializeTransaction(amount, ++orders.orderID, storeID);
+        intent.markAsSuccess(description);
+        return giftCard.applyTransaction(intent, snapshot, currency, PaymentType.KARTO_PAYMENT, paymentSystem,
+                bankName);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(SpendBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -12,6 +12,7 @@ import org.junit.jupiter.api.Test;
 import org.project.karto.application.dto.auth.RegistrationForm;
 import org.project.karto.domain.companies.entities.Company;
 import org.project.karto.domain.companies.repository.CompanyRepository;
+import org.project.karto.domain.companies.value_objects.PictureOfCards;
 import org.project.karto.infrastructure.security.JWTUtility;
 import org.project.karto.util.DBManagementUtils;
 import org.project.karto.util.PostgresTestResource;
@@ -112,6 +113,36 @@ class AdminResourceTest {
                 .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
     }
 
+    @Test
+    void addPicture_shouldRejectOversizedOrBogusUploads() {
+        Company company = generateEnableAndSaveCompany();
+        String adminToken = jwtUtility.generateAdministratorToken();
+
+        byte[] oversized = new byte[PictureOfCards.MAX_SIZE + 1];
+        oversized[0] = (byte) 0xFF;
+        oversized[1] = (byte) 0xD8;
+
+        given()
+                .contentType(ContentType.BINARY)
+                .header("Authorization", "Bearer " + adminToken)
+                .queryParam("companyName", company.companyName().companyName())
+                .body(oversized)
+                .when()
+                .patch(ADD_IMAGE)
+                .then()
+                .statusCode(Response.Status.REQUEST_ENTITY_TOO_LARGE.getStatusCode());
+
+        given()
+                .contentType(ContentType.BINARY)
+                .header("Authorization", "Bearer " + adminToken)
+                .queryParam("companyName", company.companyName().companyName())
+                .body("GIF89a not a supported picture".getBytes())
+                .when()
+                .patch(ADD_IMAGE)
+                .then()
+                .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
     @Test
     void loadPicture_shouldReturnOkWithPictureData() throws IOException {
         Company company = generateEnableAndSaveCompany();
@@ -137,6 +168,104 @@ class AdminResourceTest {
                 .statusCode(Response.Status.OK.getStatusCode());
     }
 
+    @Test
+    void loadPicture_shouldBeRevalidatedByETagAndServedImmutableByVersion() throws IOException {
+        Company company = generateEnableAndSaveCompany();
+        String adminToken = jwtUtility.generateAdministratorToken();
+        String companyName = company.companyName().companyName();
+
+        byte[] imageData = getImageBytes();
+        given()
+                .contentType(ContentType.BINARY)
+                .header("Authorization", "Bearer " + adminToken)
+                .queryParam("companyName", companyName)
+                .body(imageData)
+                .patch(ADD_IMAGE)
+                .then()
+                .statusCode(Response.Status.ACCEPTED.getStatusCode());
+
+        var response = given()
+                .header("Authorization", "Bearer " + adminToken)
+                .queryParam("companyName", companyName)
+                .when()
+                .get(GET_IMAGE)
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .contentType("image/png")
+                .extract()
+                .response();
+
+        String etag = response.header("ETag");
+        assertThat(response.asByteArray(), equalTo(imageData));
+        assertThat(response.header("Cache-Control").contains("no-cache"), equalTo(true));
+
+        given()
+                .header("Authorization", "Bearer " + adminToken)
+                .header("If-None-Match", etag)
+                .queryParam("companyName", companyName)
+                .when()
+                .get(GET_IMAGE)
+                .then()
+                .statusCode(Response.Status.NOT_MODIFIED.getStatusCode());
+
+        String version = etag.replace("\"", "");
+        given()
+                .header("Authorization", "Bearer " + adminToken)
+                .queryParam("companyName", companyName)
+                .when()
+                .get(GET_IMAGE + "/" + version)
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .header("Cache-Control", equalTo("private, max-age=31536000, immutable"));
+
+        given()
+                .header("Authorization", "Bearer " + adminToken)
+                .queryParam("companyName", companyName)
+                .when()
+                .get(GET_IMAGE + "/" + "0".repeat(64))
+                .then()
+                .statusCode(Response.Status.NOT_FOUND.getStatusCode());
+    }
+
+    @Test
+    void loadPicture_shouldServeRequestedRendition() throws IOException {
+        Company company = generateEnableAndSaveCompany();
+        String adminToken = jwtUtility.generateAdministratorToken();
+        String companyName = company.companyName().companyName();
+
+        byte[] imageData = getImageBytes();
+        given()
+                .contentType(ContentType.BINARY)
+                .header("Authorization", "Bearer " + adminToken)
+                .queryParam("companyName", companyName)
+                .body(imageData)
+                .patch(ADD_IMAGE)
+                .then()
+                .statusCode(Response.Status.ACCEPTED.getStatusCode());
+
+        byte[] thumbnail = given()
+                .header("Authorization", "Bearer " + adminToken)
+                .queryParam("companyName", companyName)
+                .queryParam("size", "thumbnail")
+                .when()
+                .get(GET_IMAGE)
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .extract()
+                .asByteArray();
+
+        assertThat(thumbnail.length <= imageData.length, equalTo(true));
+
+        given()
+                .header("Authorization", "Bearer " + adminToken)
+                .queryParam("companyName", companyName)
+                .queryParam("size", "huge")
+                .when()
+                .get(GET_IMAGE)
+                .then()
+                .statusCode(Response.Status.BAD_REQUEST.getStatusCode());
+    }
+
     @Test
     void loadPicture_shouldReturnNotFoundWhenNoPictureFound() {
         String adminToken = jwtUtility.generateAdministratorToken();
@@ -22,6 +22,8 @@ import org.project.karto.util.PostgresTestResource;
 import org.project.karto.util.TestDataGenerator;
 
 import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.notNullValue;
 
 @QuarkusTest
 @QuarkusTestResource(value = PostgresTestResource.class)
@@ -53,6 +55,29 @@ class PartnerResourceTest {
                 .statusCode(Response.Status.OK.getStatusCode());
     }
 
+    @Test
+    void resendOTPIsRateLimitedByPhone() throws JsonProcessingException {
+        CompanyRegistrationForm form = saveCompany();
+
+        for (int i = 0; i < 3; i++)
+            given()
+                    .param("phoneNumber", form.phone())
+                    .when()
+                    .get(OTP_RESEND)
+                    .then()
+                    .assertThat()
+                    .statusCode(Response.Status.OK.getStatusCode());
+
+        given()
+                .param("phoneNumber", form.phone())
+                .when()
+                .get(OTP_RESEND)
+                .then()
+                .assertThat()
+                .statusCode(Response.Status.TOO_MANY_REQUESTS.getStatusCode())
+                .header("Retry-After", notNullValue());
+    }
+
     @Test
     void verification() throws JsonProcessingException {
         CompanyRegistrationForm form = saveCompany();
@@ -97,6 +122,36 @@ class PartnerResourceTest {
                 .statusCode(Response.Status.ACCEPTED.getStatusCode());
     }
 
+    @Test
+    void paymentQRIsServedAsCacheablePNG() throws JsonProcessingException {
+        String token = login();
+
+        io.restassured.response.Response response = given()
+                .queryParam("amount", "150.00")
+                .header("Authorization", "Bearer " + token)
+                .when()
+                .get("/karto/partner/payment-qr")
+                .then()
+                .statusCode(Response.Status.OK.getStatusCode())
+                .contentType("image/png")
+                .header("Cache-Control", containsString("private"))
+                .extract()
+                .response();
+
+        byte[] png = response.asByteArray();
+        Assertions.assertEquals((byte) 0x89, png[0]);
+        Assertions.assertEquals('P', png[1]);
+
+        given()
+                .queryParam("amount", "150")
+                .header("Authorization", "Bearer " + token)
+                .header("If-None-Match", response.header("ETag"))
+                .when()
+                .get("/karto/partner/payment-qr")
+                .then()
+                .statusCode(Response.Status.NOT_MODIFIED.getStatusCode());
+    }
+
     private CompanyRegistrationForm saveCompany() throws JsonProcessingException {
         String adminToken = jwtUtility.generateAdministratorToken();
         CompanyRegistrationForm companyRegistrationForm = TestDataGenerator.generateCompanyRegistrationForm();
@@ -0,0 +1,154 @@
+package org.project.karto.load;
+
+import org.project.karto.application.dto.auth.CompanyRegistrationForm;
+import org.project.karto.application.dto.auth.LoginForm;
+import org.project.karto.application.dto.auth.RegistrationForm;
+import org.project.karto.util.TestDataGenerator;
+
+import java.math.BigDecimal;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The user journeys replayed by {@link LoadDriver}, each one the sequence of calls the mobile and partner apps
+ * make for it. Every journey works with fresh accounts, except the partner one, which needs accounts registered
+ * through the admin API beforehand.
+ */
+final class Journeys {
+
+    private static final int PAGE_SIZE = 10;
+
+    private final KartoClient client;
+
+    private final SmsInbox inbox;
+
+    Journeys(KartoClient client, SmsInbox inbox) {
+        this.client = client;
+        this.inbox = inbox;
+    }
+
+    /**
+     * Registration, OTP verification and login, then the screens opened right after: profile, own cards,
+     * the catalog twice (the second time revalidated by its entity tag) and finally a token refresh.
+     */
+    void customer() {
+        RegistrationForm form = TestDataGenerator.generateRegistrationForm();
+        register(form);
+
+        String step = "POST /auth/login";
+        KartoClient.Reply login = client.send(step,
+                client.json("POST", "/auth/login", new LoginForm(form.phone(), form.password())), 200);
+
+        String token = login.text("token");
+        if (token == null) throw unexpectedBody(step);
+
+        browse(token);
+
+        client.send("PATCH /auth/refresh-token", client.request("/auth/refresh-token")
+                .header("Refresh-Token", login.text("refreshToken"))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody()), 200);
+    }
+
+    /**
+     * Registration, enabling two-factor authentication, and a later login that has to be confirmed by SMS.
+     */
+    void twoFactorCustomer() {
+        RegistrationForm form = TestDataGenerator.generateRegistrationForm();
+        register(form);
+
+        LoginForm loginForm = new LoginForm(form.phone(), form.password());
+        client.send("POST /auth/2FA/enable", client.json("POST", "/auth/2FA/enable", loginForm), 200);
+        verify2FA(otp(form.phone()));
+
+        String step = "POST /auth/login (2FA)";
+        KartoClient.Reply login = client.send(step, client.json("POST", "/auth/login", loginForm), 200);
+        if (login.text("message") == null) throw unexpectedBody(step);
+
+        browse(verify2FA(otp(form.phone())));
+    }
+
+    /**
+     * Partner login followed by a payment QR for an arbitrary amount, as a till does before every payment.
+     */
+    void partner(List<LoginForm> partners) {
+        LoginForm partner = partners.get(ThreadLocalRandom.current().nextInt(partners.size()));
+
+        String step = "POST /partner/login";
+        String token = client.send(step, client.json("POST", "/partner/login", partner), 200).text("token");
+        if (token == null) throw unexpectedBody(step);
+
+        BigDecimal amount = BigDecimal.valueOf(ThreadLocalRandom.current().nextInt(100, 50_000), 2);
+        client.send("GET /partner/payment-qr", client.request("/partner/payment-qr?amount=" + amount)
+                .setHeader("Accept", "image/png")
+                .header("Authorization", "Bearer " + token)
+                .GET(), 200);
+    }
+
+    /**
+     * Registers and verifies a partner, run once per partner account before the load starts.
+     */
+    LoginForm registerPartner(String adminToken) {
+        CompanyRegistrationForm form = TestDataGenerator.generateCompanyRegistrationForm();
+        client.send("POST /admin/register/partner", client.json("POST", "/admin/register/partner", form)
+                .header("Authorization", "Bearer " + adminToken), 200);
+
+        client.send("PATCH /partner/verification", client.request("/partner/verification?otp=" +
+                encode(otp(form.phone()))).method("PATCH", HttpRequest.BodyPublishers.noBody()), 202);
+        return new LoginForm(form.phone(), form.rawPassword());
+    }
+
+    String adminToken(String verificationKey) {
+        String step = "POST /admin/auth/login";
+        String token = client.send(step, client.request("/admin/auth/login")
+                .header("X-VERIFICATION-KEY", verificationKey)
+                .POST(HttpRequest.BodyPublishers.noBody()), 200).text("token");
+        if (token == null) throw unexpectedBody(step);
+        return token;
+    }
+
+    private void register(RegistrationForm form) {
+        client.send("POST /auth/registration", client.json("POST", "/auth/registration", form), 202);
+        client.send("PATCH /auth/verification", client.request("/auth/verification?otp=" +
+                encode(otp(form.phone()))).method("PATCH", HttpRequest.BodyPublishers.noBody()), 202);
+    }
+
+    private String verify2FA(String otp) {
+        String step = "PATCH /auth/2FA/verify";
+        String token = client.send(step, client.request("/auth/2FA/verify?otp=" + encode(otp))
+                .method("PATCH", HttpRequest.BodyPublishers.noBody()), 200).text("token");
+        if (token == null) throw unexpectedBody(step);
+        return token;
+    }
+
+    private void browse(String token) {
+        String bearer = "Bearer " + token;
+        client.send("GET /user/profile", client.request("/user/profile").header("Authorization", bearer).GET(), 200);
+        client.send("GET /user/profile/gift_cards", client.request("/user/profile/gift_cards?pageSize=" + PAGE_SIZE)
+                .header("Authorization", bearer).GET(), 200);
+
+        String catalog = "/gift-card/available/gift_cards?limit=" + PAGE_SIZE;
+        String etag = client.send("GET /gift-card/available/gift_cards", client.request(catalog)
+                .header("Authorization", bearer).GET(), 200).header("ETag");
+        if (etag != null)
+            client.send("GET /gift-card/available/gift_cards (revalidate)", client.request(catalog)
+                    .header("Authorization", bearer)
+                    .header("If-None-Match", etag)
+                    .GET(), 304, 200);
+    }
+
+    private String otp(String phone) {
+        return inbox.awaitOTP(phone, client.stats(SmsInbox.STEP));
+    }
+
+    private KartoClient.StepFailure unexpectedBody(String step) {
+        client.stats(step).failure("unexpected body");
+        return new KartoClient.StepFailure(step);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
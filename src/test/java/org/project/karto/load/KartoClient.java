@@ -0,0 +1,130 @@
+package org.project.karto.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpHeaders;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+
+/**
+ * HTTP client of the Karto API that times every call under a step name, usually {@code METHOD /path}, and
+ * counts unexpected statuses and I/O failures per step. A failed call throws {@link StepFailure}, which ends the
+ * journey it belongs to.
+ */
+final class KartoClient {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper()
+            .findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    private final HttpClient http;
+
+    private final String baseUri;
+
+    private final Duration requestTimeout;
+
+    private final ConcurrentMap<String, StepStats> steps = new ConcurrentHashMap<>();
+
+    KartoClient(URI baseUri, Duration requestTimeout) {
+        this.baseUri = baseUri.toString();
+        this.requestTimeout = requestTimeout;
+        this.http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(requestTimeout)
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+    }
+
+    Collection<StepStats> steps() {
+        return steps.values();
+    }
+
+    StepStats stats(String step) {
+        return steps.computeIfAbsent(step, StepStats::new);
+    }
+
+    HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(URI.create(baseUri + path))
+                .timeout(requestTimeout)
+                .header("Accept", "application/json");
+    }
+
+    HttpRequest.Builder json(String method, String path, Object body) {
+        try {
+            return request(path)
+                    .header("Content-Type", "application/json")
+                    .method(method, HttpRequest.BodyPublishers.ofByteArray(MAPPER.writeValueAsBytes(body)));
+        } catch (JsonProcessingException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    Reply send(String step, HttpRequest.Builder request, int... expectedStatuses) {
+        StepStats stats = stats(step);
+
+        long start = System.nanoTime();
+        HttpResponse<byte[]> response;
+        try {
+            response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+        } catch (IOException e) {
+            stats.failure(System.nanoTime() - start, e.getClass().getSimpleName());
+            throw new StepFailure(step);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StepFailure(step);
+        }
+        long elapsed = System.nanoTime() - start;
+
+        for (int expected : expectedStatuses) {
+            if (response.statusCode() == expected) {
+                stats.success(elapsed);
+                return new Reply(response.statusCode(), response.headers(), response.body());
+            }
+        }
+
+        stats.failure(elapsed, "HTTP " + response.statusCode());
+        throw new StepFailure(step);
+    }
+
+    record Reply(int status, HttpHeaders headers, byte[] body) {
+
+        JsonNode json() {
+            try {
+                return MAPPER.readTree(body);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        String text(String field) {
+            JsonNode value = json().get(field);
+            return value == null || value.isNull() ? null : value.asText();
+        }
+
+        String header(String name) {
+            return headers.firstValue(name).orElse(null);
+        }
+    }
+
+    /**
+     * Thrown once the failure is already counted, so it carries no stack trace.
+     */
+    static final class StepFailure extends RuntimeException {
+
+        StepFailure(String step) {
+            super(step, null, false, false);
+        }
+    }
+}
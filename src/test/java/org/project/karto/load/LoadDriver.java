@@ -0,0 +1,187 @@
+package org.project.karto.load;
+
+import org.project.karto.application.dto.auth.LoginForm;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Replays {@link Journeys} against a running application at fixed arrival rates and reports latency percentiles
+ * and errors per journey and per endpoint.
+ * <p>
+ * The load model is open: journeys arrive as a Poisson process regardless of how fast earlier ones complete, each
+ * on its own virtual thread, and a journey is timed from when it was scheduled to start rather than from when it
+ * actually started. A slow application therefore shows up as growing latency and in-flight journeys instead of
+ * quietly lowering the offered load. Arrivals beyond {@code --max-in-flight} are dropped and reported as errors.
+ * <p>
+ * The application is expected in the {@code load} profile, which disables SMS delivery and lifts the rate limits:
+ * {@code mvn quarkus:dev -Dquarkus.profile=load}, then {@code mvn -Pload test -Dload.args="--duration=5m"}.
+ * See {@link LoadOptions#USAGE} for the options.
+ */
+public final class LoadDriver {
+
+    private static final int INBOX_CONNECTIONS = 8;
+
+    private static final Duration SMS_TIMEOUT = Duration.ofSeconds(10);
+
+    private static final Duration DRAIN_TIMEOUT = Duration.ofMinutes(1);
+
+    private LoadDriver() {}
+
+    public static void main(String[] args) throws SQLException, IOException, InterruptedException {
+        LoadOptions options;
+        try {
+            options = LoadOptions.parse(args);
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            System.err.println(e.getMessage());
+            System.err.println(LoadOptions.USAGE);
+            System.exit(2);
+            return;
+        }
+
+        try (SmsInbox inbox = new SmsInbox(options.jdbcUrl(), options.jdbcUser(), options.jdbcPassword(),
+                INBOX_CONNECTIONS, SMS_TIMEOUT)) {
+            List<LoginForm> partners = options.partnerRate() > 0 ? registerPartners(options, inbox) : List.of();
+
+            KartoClient client = new KartoClient(options.baseUri(), options.requestTimeout());
+            Journeys journeys = new Journeys(client, inbox);
+
+            List<Arrivals> arrivals = new ArrayList<>();
+            if (options.customerRate() > 0)
+                arrivals.add(new Arrivals("customer", options.customerRate(), journeys::customer));
+            if (options.twoFactorCustomerRate() > 0)
+                arrivals.add(new Arrivals("customer with 2FA", options.twoFactorCustomerRate(), journeys::twoFactorCustomer));
+            if (options.partnerRate() > 0)
+                arrivals.add(new Arrivals("partner payment", options.partnerRate(), () -> journeys.partner(partners)));
+
+            LoadReport report = run(options, client, arrivals);
+            report.print(System.out);
+
+            String name = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss"));
+            report.write(options.reportDirectory(), name);
+            System.out.println();
+            System.out.println("Report written to " + options.reportDirectory().resolve(name + ".txt"));
+        }
+    }
+
+    private static LoadReport run(LoadOptions options, KartoClient client, List<Arrivals> arrivals)
+            throws InterruptedException {
+        Semaphore inFlight = new Semaphore(options.maxInFlight());
+        long start = System.nanoTime();
+        long measureFrom = start + options.warmup().toNanos();
+        long end = measureFrom + options.duration().toNanos();
+
+        List<Thread> schedulers = new ArrayList<>();
+        ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+        try {
+            for (Arrivals journey : arrivals)
+                schedulers.add(Thread.ofPlatform()
+                        .name("arrivals-" + journey.name)
+                        .start(() -> journey.schedule(start, end, inFlight, options.maxInFlight(), executor)));
+
+            System.out.printf("Warming up for %ds%n", options.warmup().toSeconds());
+            sleepUntil(measureFrom);
+            arrivals.forEach(journey -> journey.stats.interval());
+            client.steps().forEach(StepStats::interval);
+
+            System.out.printf("Measuring for %ds%n", options.duration().toSeconds());
+            for (Thread scheduler : schedulers)
+                scheduler.join();
+
+            executor.shutdown();
+            if (!executor.awaitTermination(DRAIN_TIMEOUT.toSeconds(), TimeUnit.SECONDS))
+                System.err.println("Journeys still running after " + DRAIN_TIMEOUT.toSeconds() + "s are not reported");
+
+            return new LoadReport(
+                    arrivals.stream().map(journey -> journey.stats.interval()).toList(),
+                    client.steps().stream().map(StepStats::interval).toList(),
+                    options.duration());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Partners are created through the admin API on a client of their own, so setup calls stay out of the report.
+     */
+    private static List<LoginForm> registerPartners(LoadOptions options, SmsInbox inbox) {
+        Journeys setup = new Journeys(new KartoClient(options.baseUri(), options.requestTimeout()), inbox);
+        String adminToken = setup.adminToken(options.adminKey());
+
+        List<LoginForm> partners = new ArrayList<>(options.partners());
+        for (int i = 0; i < options.partners(); i++)
+            partners.add(setup.registerPartner(adminToken));
+
+        System.out.printf("Registered %d partners%n", partners.size());
+        return partners;
+    }
+
+    private static void sleepUntil(long deadline) {
+        long remaining;
+        while ((remaining = deadline - System.nanoTime()) > 0)
+            LockSupport.parkNanos(remaining);
+    }
+
+    private static final class Arrivals {
+
+        private final String name;
+
+        private final double perSecond;
+
+        private final Runnable journey;
+
+        private final StepStats stats;
+
+        Arrivals(String name, double perSecond, Runnable journey) {
+            this.name = name;
+            this.perSecond = perSecond;
+            this.journey = journey;
+            this.stats = new StepStats("journey: " + name);
+        }
+
+        void schedule(long start, long end, Semaphore inFlight, int maxInFlight, ExecutorService executor) {
+            long scheduled = start;
+            while (true) {
+                scheduled += interArrivalNanos();
+                if (scheduled >= end) return;
+                sleepUntil(scheduled);
+
+                if (!inFlight.tryAcquire()) {
+                    stats.failure("dropped, " + maxInFlight + " journeys in flight");
+                    continue;
+                }
+
+                long intendedStart = scheduled;
+                executor.execute(() -> {
+                    try {
+                        journey.run();
+                        stats.success(System.nanoTime() - intendedStart);
+                    } catch (KartoClient.StepFailure e) {
+                        stats.failure(System.nanoTime() - intendedStart, "failed at " + e.getMessage());
+                    } catch (RuntimeException e) {
+                        stats.failure(System.nanoTime() - intendedStart, e.getClass().getSimpleName());
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+
+        private long interArrivalNanos() {
+            double seconds = -Math.log(1.0 - ThreadLocalRandom.current().nextDouble()) / perSecond;
+            return (long) (seconds * TimeUnit.SECONDS.toNanos(1));
+        }
+    }
+}
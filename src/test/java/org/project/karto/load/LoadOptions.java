@@ -0,0 +1,97 @@
+package org.project.karto.load;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Command line of {@link LoadDriver}, every option is {@code --name=value} and optional.
+ * Rates are journey arrivals per second, durations are written as {@code 90s}, {@code 5m} or {@code 1h}.
+ */
+record LoadOptions(
+        URI baseUri,
+        Duration warmup,
+        Duration duration,
+        double customerRate,
+        double twoFactorCustomerRate,
+        double partnerRate,
+        int partners,
+        int maxInFlight,
+        Duration requestTimeout,
+        String adminKey,
+        String jdbcUrl,
+        String jdbcUser,
+        String jdbcPassword,
+        Path reportDirectory) {
+
+    static final String USAGE = """
+            --base-url=http://localhost:10000/karto   application under load
+            --warmup=10s                              run before measuring, excluded from the report
+            --duration=60s                            measured run
+            --customers=2                             customer journeys started per second
+            --2fa-customers=0.5                       two-factor customer journeys started per second
+            --partner-sessions=5                      partner journeys started per second
+            --partners=10                             partner accounts registered before the run
+            --max-in-flight=5000                      journeys running at once before arrivals are dropped
+            --request-timeout=10s
+            --admin-key=<dev admin.verification.key>
+            --jdbc-url=jdbc:postgresql://localhost:5432/karto   database the SMS outbox is read from
+            --jdbc-user=root
+            --jdbc-password=password
+            --report-dir=target/load
+            """;
+
+    private static final String DEV_ADMIN_KEY = "0b9cca3da058607dd62a593aee114e220f642e2b4b2d6da07562286ee6de6f18";
+
+    private static final Set<String> KNOWN = Set.of(
+            "base-url", "warmup", "duration", "customers", "2fa-customers", "partner-sessions", "partners",
+            "max-in-flight", "request-timeout", "admin-key", "jdbc-url", "jdbc-user", "jdbc-password", "report-dir"
+    );
+
+    static LoadOptions parse(String[] args) {
+        Map<String, String> values = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0)
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            values.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        LoadOptions options = new LoadOptions(
+                URI.create(stripTrailingSlash(values.getOrDefault("base-url", "http://localhost:10000/karto"))),
+                duration(values.getOrDefault("warmup", "10s")),
+                duration(values.getOrDefault("duration", "60s")),
+                Double.parseDouble(values.getOrDefault("customers", "2")),
+                Double.parseDouble(values.getOrDefault("2fa-customers", "0.5")),
+                Double.parseDouble(values.getOrDefault("partner-sessions", "5")),
+                Integer.parseInt(values.getOrDefault("partners", "10")),
+                Integer.parseInt(values.getOrDefault("max-in-flight", "5000")),
+                duration(values.getOrDefault("request-timeout", "10s")),
+                values.getOrDefault("admin-key", DEV_ADMIN_KEY),
+                values.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/karto"),
+                values.getOrDefault("jdbc-user", "root"),
+                values.getOrDefault("jdbc-password", "password"),
+                Path.of(values.getOrDefault("report-dir", "target/load"))
+        );
+
+        values.keySet().removeAll(KNOWN);
+        if (!values.isEmpty())
+            throw new IllegalArgumentException("Unknown options: " + values.keySet());
+        if (options.partnerRate > 0 && options.partners < 1)
+            throw new IllegalArgumentException("Partner journeys need at least one partner account");
+
+        return options;
+    }
+
+    private static Duration duration(String value) {
+        return Duration.parse("PT" + value.toUpperCase(Locale.ROOT));
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url.endsWith("/") ? url.substring(0, url.length() - 1) : url;
+    }
+}
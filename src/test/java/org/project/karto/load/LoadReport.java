@@ -0,0 +1,115 @@
+package org.project.karto.load;
+
+import org.HdrHistogram.Histogram;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.stream.Stream;
+
+/**
+ * Percentiles, throughput and errors per journey and per step of a measured run.
+ * <p>
+ * Next to the summary the full latency distribution of every step is written in the HdrHistogram percentile
+ * format ({@code .hgrm}, milliseconds), which the HdrHistogram plotter reads as is.
+ */
+final class LoadReport {
+
+    private static final String ROW = "%-52s %9s %7s %9s %9s %9s %9s %9s %9s%n";
+
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final List<StepStats.Interval> journeys;
+
+    private final List<StepStats.Interval> steps;
+
+    private final Duration measured;
+
+    LoadReport(List<StepStats.Interval> journeys, List<StepStats.Interval> steps, Duration measured) {
+        Comparator<StepStats.Interval> byName = Comparator.comparing(StepStats.Interval::name);
+        this.journeys = journeys.stream().sorted(byName).toList();
+        this.steps = steps.stream().sorted(byName).toList();
+        this.measured = measured;
+    }
+
+    void print(PrintStream out) {
+        out.printf(Locale.ROOT, "Measured %ds, latencies in ms. Journeys are timed from their scheduled start.%n%n",
+                measured.toSeconds());
+
+        header(out, "journey");
+        journeys.forEach(journey -> row(out, journey));
+        out.println();
+        header(out, "step");
+        steps.forEach(step -> row(out, step));
+
+        if (journeys.stream().allMatch(journey -> journey.errors().isEmpty())
+                && steps.stream().allMatch(step -> step.errors().isEmpty()))
+            return;
+
+        out.printf("%nErrors%n");
+        for (StepStats.Interval interval : concat())
+            interval.errors().forEach((reason, count) ->
+                    out.printf(Locale.ROOT, "%-52s %9d  %s%n", interval.name(), count, reason));
+    }
+
+    /**
+     * Writes the summary to {@code <directory>/<name>.txt} and the distributions to {@code <directory>/<name>/}.
+     */
+    void write(Path directory, String name) throws IOException {
+        Path distributions = Files.createDirectories(directory.resolve(name));
+        try (PrintStream out = new PrintStream(Files.newOutputStream(directory.resolve(name + ".txt")),
+                false, StandardCharsets.UTF_8)) {
+            print(out);
+        }
+
+        for (StepStats.Interval interval : concat()) {
+            if (interval.latencies().getTotalCount() == 0) continue;
+
+            Path file = distributions.resolve(fileName(interval.name()) + ".hgrm");
+            try (PrintStream out = new PrintStream(Files.newOutputStream(file), false, StandardCharsets.UTF_8)) {
+                interval.latencies().outputPercentileDistribution(out, MICROS_PER_MILLI);
+            }
+        }
+    }
+
+    private List<StepStats.Interval> concat() {
+        return Stream.concat(journeys.stream(), steps.stream()).toList();
+    }
+
+    private static void header(PrintStream out, String kind) {
+        out.printf(ROW, kind, "count", "errors", "per sec", "p50", "p90", "p99", "p99.9", "max");
+    }
+
+    private void row(PrintStream out, StepStats.Interval interval) {
+        Histogram latencies = interval.latencies();
+        long count = latencies.getTotalCount();
+        out.printf(ROW, interval.name(),
+                count,
+                interval.errorCount(),
+                format(count * 1000.0 / measured.toMillis()),
+                millis(latencies, 50.0),
+                millis(latencies, 90.0),
+                millis(latencies, 99.0),
+                millis(latencies, 99.9),
+                latencies.getTotalCount() == 0 ? "-" : format(latencies.getMaxValue() / MICROS_PER_MILLI));
+    }
+
+    private static String millis(Histogram latencies, double percentile) {
+        if (latencies.getTotalCount() == 0) return "-";
+        return format(latencies.getValueAtPercentile(percentile) / MICROS_PER_MILLI);
+    }
+
+    private static String format(double value) {
+        return String.format(Locale.ROOT, "%.1f", value);
+    }
+
+    private static String fileName(String step) {
+        return step.replaceAll("[^A-Za-z0-9.-]+", "_").replaceAll("^_|_$", "");
+    }
+}
@@ -0,0 +1,88 @@
+package org.project.karto.load;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * Stand-in for the SMS provider. The application under load runs with the SMS dispatcher off, so every OTP stays
+ * in {@code sms_outbox}; the inbox takes the pending message of a phone and marks it sent, the way the dispatcher
+ * does after the provider accepted it.
+ * <p>
+ * The outbox row is written before the endpoint responds, so the first poll normally finds it. The time spent
+ * waiting is recorded under its own step to make a lagging outbox visible in the report.
+ */
+final class SmsInbox implements AutoCloseable {
+
+    static final String STEP = "SMS outbox";
+
+    private static final String RECEIVE = """
+            UPDATE sms_outbox SET status = 'SENT', attempts = attempts + 1, sent_at = ?
+            WHERE phone = ? AND status = 'PENDING'
+            RETURNING message
+            """;
+
+    private static final Duration POLL_INTERVAL = Duration.ofMillis(20);
+
+    private final BlockingQueue<Connection> connections;
+
+    private final Duration timeout;
+
+    SmsInbox(String jdbcUrl, String user, String password, int poolSize, Duration timeout) throws SQLException {
+        this.connections = new ArrayBlockingQueue<>(poolSize);
+        for (int i = 0; i < poolSize; i++)
+            connections.add(DriverManager.getConnection(jdbcUrl, user, password));
+        this.timeout = timeout;
+    }
+
+    String awaitOTP(String phone, StepStats stats) {
+        long start = System.nanoTime();
+        long deadline = start + timeout.toNanos();
+        try {
+            while (true) {
+                String message = receive(phone);
+                if (message != null) {
+                    stats.success(System.nanoTime() - start);
+                    return message;
+                }
+                if (System.nanoTime() >= deadline) {
+                    stats.failure(System.nanoTime() - start, "no SMS within " + timeout.toSeconds() + "s");
+                    throw new KartoClient.StepFailure(STEP);
+                }
+                Thread.sleep(POLL_INTERVAL);
+            }
+        } catch (SQLException e) {
+            stats.failure(System.nanoTime() - start, e.getClass().getSimpleName());
+            throw new KartoClient.StepFailure(STEP);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new KartoClient.StepFailure(STEP);
+        }
+    }
+
+    private String receive(String phone) throws SQLException, InterruptedException {
+        Connection connection = connections.take();
+        try (PreparedStatement statement = connection.prepareStatement(RECEIVE)) {
+            statement.setTimestamp(1, Timestamp.valueOf(LocalDateTime.now()));
+            statement.setString(2, phone);
+            try (ResultSet rs = statement.executeQuery()) {
+                return rs.next() ? rs.getString("message") : null;
+            }
+        } finally {
+            connections.put(connection);
+        }
+    }
+
+    @Override
+    public void close() throws SQLException {
+        for (Connection connection : connections)
+            connection.close();
+    }
+}
@@ -0,0 +1,66 @@
+package org.project.karto.load;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Latency and errors of one step, an endpoint call or a whole journey, recorded in microseconds.
+ * <p>
+ * Recording is safe from any number of threads. {@link #interval()} hands out everything recorded since the
+ * previous call and starts over, which is how the warmup is dropped from the report.
+ */
+final class StepStats {
+
+    private final String name;
+
+    private final Recorder latencies = new Recorder(3);
+
+    private final Map<String, LongAdder> errors = new ConcurrentHashMap<>();
+
+    StepStats(String name) {
+        this.name = name;
+    }
+
+    String name() {
+        return name;
+    }
+
+    void success(long nanos) {
+        latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+    }
+
+    /**
+     * Failed calls are still timed, a timeout or a slow 5xx is part of what the client experienced.
+     */
+    void failure(long nanos, String reason) {
+        latencies.recordValue(TimeUnit.NANOSECONDS.toMicros(nanos));
+        errors.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    void failure(String reason) {
+        errors.computeIfAbsent(reason, key -> new LongAdder()).increment();
+    }
+
+    Interval interval() {
+        Histogram histogram = latencies.getIntervalHistogram();
+        Map<String, Long> errorCounts = new TreeMap<>();
+        errors.forEach((reason, count) -> {
+            long sum = count.sumThenReset();
+            if (sum > 0) errorCounts.put(reason, sum);
+        });
+        return new Interval(name, histogram, errorCounts);
+    }
+
+    record Interval(String name, Histogram latencies, Map<String, Long> errors) {
+
+        long errorCount() {
+            return errors.values().stream().mapToLong(Long::longValue).sum();
+        }
+    }
+}
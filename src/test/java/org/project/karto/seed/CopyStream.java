@@ -0,0 +1,113 @@
+package org.project.karto.seed;
+
+import org.postgresql.PGConnection;
+import org.postgresql.copy.PGCopyOutputStream;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Rows streamed into one table with {@code COPY ... FROM STDIN} in the text format: tab separated columns,
+ * {@code \N} for null. Rows go out in 64 KiB chunks, nothing is kept beyond the current chunk.
+ */
+final class CopyStream implements AutoCloseable {
+
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    private final Writer out;
+
+    private boolean firstColumn = true;
+
+    private long rows;
+
+    CopyStream(Connection connection, String table, String... columns) throws SQLException {
+        String sql = "COPY " + table + " (" + String.join(", ", columns) + ") FROM STDIN (FORMAT text)";
+        PGCopyOutputStream copy = new PGCopyOutputStream(connection.unwrap(PGConnection.class), sql, BUFFER_SIZE);
+        this.out = new BufferedWriter(new OutputStreamWriter(copy, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    CopyStream text(String value) throws IOException {
+        separate();
+        if (value == null) {
+            out.write("\\N");
+            return this;
+        }
+
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> out.write("\\\\");
+                case '\t' -> out.write("\\t");
+                case '\n' -> out.write("\\n");
+                case '\r' -> out.write("\\r");
+                default -> out.write(c);
+            }
+        }
+        return this;
+    }
+
+    CopyStream id(UUID value) throws IOException {
+        return text(value == null ? null : value.toString());
+    }
+
+    CopyStream number(long value) throws IOException {
+        separate();
+        out.write(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Minor units written as a decimal with two fraction digits, e.g. {@code -1205} as {@code -12.05}.
+     */
+    CopyStream money(long minorUnits) throws IOException {
+        separate();
+        if (minorUnits < 0) out.write('-');
+        long abs = Math.abs(minorUnits);
+        out.write(Long.toString(abs / 100));
+        out.write('.');
+        long cents = abs % 100;
+        if (cents < 10) out.write('0');
+        out.write(Long.toString(cents));
+        return this;
+    }
+
+    CopyStream bool(boolean value) throws IOException {
+        separate();
+        out.write(value ? 't' : 'f');
+        return this;
+    }
+
+    CopyStream timestamp(LocalDateTime value) throws IOException {
+        return text(value == null ? null : value.toString());
+    }
+
+    void endRow() throws IOException {
+        out.write('\n');
+        firstColumn = true;
+        rows++;
+    }
+
+    long rows() {
+        return rows;
+    }
+
+    /**
+     * Finishes the {@code COPY}, the rows become visible once the surrounding transaction commits.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+
+    private void separate() throws IOException {
+        if (!firstColumn) out.write('\t');
+        firstColumn = false;
+    }
+}
@@ -0,0 +1,436 @@
+package org.project.karto.seed;
+
+import org.project.karto.domain.card.entities.GiftCard;
+import org.project.karto.domain.common.value_objects.Money;
+import org.project.karto.domain.common.value_objects.Rate;
+import org.project.karto.util.TestDataGenerator;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.Locale;
+import java.util.SplittableRandom;
+import java.util.UUID;
+
+/**
+ * Deterministic rows of a seeded dataset. Every row is derived from its index and the seed alone, so tables can be
+ * written in any order and split over any number of streams: a payment intent recomputes the gift card it belongs
+ * to instead of looking it up.
+ * <p>
+ * Distributions: cards are spread over customers and store-specific cards over partners by {@link Skew}; card
+ * status is 55% active, 25% expired, 15% used up and 5% pending; one purchase in ten is preceded by a cancelled
+ * or failed attempt; every use of a card is a payment intent with its check. Customers without phone and password
+ * (OIDC sign-ups), unverified, banned and 2FA accounts are mixed in at low rates.
+ */
+final class Dataset {
+
+    static final String EMAIL_DOMAIN = "seed.karto.dev";
+
+    static final String[] USER_COLUMNS = {"id", "firstname", "surname", "phone", "email", "password", "birth_date",
+            "is_verified", "is_2fa_enabled", "is_banned", "secret_key", "counter", "cashback_storage",
+            "reached_max_cashback_rate", "creation_date", "last_updated"};
+
+    static final String[] COMPANY_COLUMNS = {"id", "state_code", "registration_number", "company_name", "email",
+            "phone", "password", "secret_key", "counter", "status", "expiration_period_days", "max_usage_count",
+            "creation_date", "last_updated"};
+
+    static final String[] GIFT_CARD_COLUMNS = {"id", "buyer_id", "owner_id", "store_id", "gift_card_status",
+            "balance", "count_of_uses", "max_count_of_uses", "secret_key", "counter", "creation_date",
+            "expiration_date", "last_usage", "version"};
+
+    static final String[] PURCHASE_INTENT_COLUMNS = {"id", "buyer_id", "store_id", "order_id", "total_payed_amount",
+            "creation_date", "result_date", "status", "removed_fee"};
+
+    static final String[] PAYMENT_INTENT_COLUMNS = {"id", "buyer_id", "card_id", "store_id", "order_id",
+            "total_amount", "creation_date", "result_date", "status", "is_confirmed", "description", "fee"};
+
+    static final String[] CHECK_COLUMNS = {"id", "order_id", "buyer_id", "store_id", "card_id", "total_amount",
+            "currency", "payment_type", "internal_fee", "external_fee", "payment_system", "description",
+            "bank_name", "creation_date", "check_type"};
+
+    private static final long USER = 1;
+    private static final long COMPANY = 2;
+    private static final long CARD = 3;
+    private static final long CARD_KEY = 4;
+    private static final long PURCHASE = 5;
+    private static final long PAYMENT = 6;
+    private static final long PURCHASE_CHECK = 7;
+    private static final long PAYMENT_CHECK = 8;
+    private static final long EXPIRATION_PERIOD = 9;
+    private static final long USAGE_LIMIT = 10;
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+
+    private static final int MAX_USES = 10;
+
+    private static final int PURCHASE_SLOTS = 2;
+
+    private static final int NAME_POOL_SIZE = 512;
+
+    private static final String[] STATE_CODES = Locale.getISOCountries();
+
+    private static final Rate[] PROCESSOR_FEES = {
+            Rate.of(new BigDecimal("0.015")), Rate.of(new BigDecimal("0.0275")), Rate.of(new BigDecimal("0.029"))
+    };
+
+    private static final String[] EXTERNAL_PAYMENT_TYPES = {"GOOGLE_PAY", "APPLE_PAY", "NATIVE_BANK", "FOREIGN_BANK"};
+
+    private static final String[] PAYMENT_SYSTEMS = {"VISA", "MASTERCARD", "AMEX"};
+
+    private static final String[] BANKS = {"PrivatBank", "Monobank", "Raiffeisen Bank", "Oschadbank", "PUMB"};
+
+    private final Scale scale;
+
+    private final long seed;
+
+    private final LocalDateTime now;
+
+    private final String passwordHash;
+
+    private final Skew buyers;
+
+    private final Skew partners;
+
+    private final String[] firstnames = new String[NAME_POOL_SIZE];
+
+    private final String[] surnames = new String[NAME_POOL_SIZE];
+
+    private final String[] companyNames = new String[NAME_POOL_SIZE];
+
+    Dataset(Scale scale, long seed, LocalDateTime now, String passwordHash) {
+        this.scale = scale;
+        this.seed = seed;
+        this.now = now;
+        this.passwordHash = passwordHash;
+        this.buyers = new Skew(scale.users(), scale.buyerSkew());
+        this.partners = new Skew(scale.companies(), scale.partnerSkew());
+
+        for (int i = 0; i < NAME_POOL_SIZE; i++) {
+            firstnames[i] = TestDataGenerator.generateFirstname().firstname();
+            surnames[i] = TestDataGenerator.generateSurname().surname();
+            companyNames[i] = TestDataGenerator.generateCompanyName().companyName();
+        }
+    }
+
+    /**
+     * Highest order ID in the dataset, the order sequence has to continue after it.
+     */
+    long lastOrderID() {
+        return paymentOrderID(scale.giftCards() - 1, MAX_USES - 1);
+    }
+
+    void users(CopyStream out, long from, long to) throws IOException {
+        for (long u = from; u < to; u++) {
+            SplittableRandom random = random(USER, u);
+            boolean oidc = random.nextInt(20) == 0;
+            LocalDateTime created = pastWithin(random, 3 * 365);
+
+            out.id(id(USER, u))
+                    .text(firstnames[random.nextInt(NAME_POOL_SIZE)])
+                    .text(surnames[random.nextInt(NAME_POOL_SIZE)])
+                    .text(oidc ? null : phone("+0", u))
+                    .text(userEmail(u))
+                    .text(oidc ? null : passwordHash)
+                    .timestamp(now.minusYears(18 + random.nextInt(60)).minusDays(random.nextInt(365)))
+                    .bool(oidc || random.nextInt(100) < 97)
+                    .bool(!oidc && random.nextInt(10) == 0)
+                    .bool(random.nextInt(200) == 0)
+                    .text(secretKey(random))
+                    .number(1 + random.nextInt(20))
+                    .money(random.nextInt(5) < 3 ? 0 : 1 + random.nextInt(20_000))
+                    .bool(random.nextInt(50) == 0)
+                    .timestamp(created)
+                    .timestamp(between(random, created, now))
+                    .endRow();
+        }
+    }
+
+    void companies(CopyStream out, long from, long to) throws IOException {
+        for (long c = from; c < to; c++) {
+            SplittableRandom random = random(COMPANY, c);
+            LocalDateTime created = pastWithin(random, 3 * 365);
+
+            out.id(id(COMPANY, c))
+                    .text(STATE_CODES[random.nextInt(STATE_CODES.length)])
+                    .text(String.format(Locale.ROOT, "SEED-%012d", c))
+                    .text(companyNames[random.nextInt(NAME_POOL_SIZE)] + " " + c)
+                    .text("partner" + c + "@" + EMAIL_DOMAIN)
+                    .text(phone("+00", c))
+                    .text(passwordHash)
+                    .text(secretKey(random))
+                    .number(1 + random.nextInt(20))
+                    .text(random.nextInt(20) == 0 ? "PENDING" : "ACTIVE")
+                    .number(expirationDays(c))
+                    .number(maxUsageCount(c))
+                    .timestamp(created)
+                    .timestamp(between(random, created, now))
+                    .endRow();
+        }
+    }
+
+    void giftCards(CopyStream out, long from, long to) throws IOException {
+        for (long g = from; g < to; g++) {
+            Card card = card(g);
+            SplittableRandom random = random(CARD_KEY, g);
+
+            out.id(id(CARD, g))
+                    .id(id(USER, card.buyer))
+                    .id(id(USER, card.owner))
+                    .id(card.isCommon() ? null : id(COMPANY, card.store))
+                    .text(card.status)
+                    .money(card.balance)
+                    .number(card.uses)
+                    .number(card.maxUses)
+                    .text(secretKey(random))
+                    .number(card.uses + random.nextInt(5))
+                    .timestamp(card.created)
+                    .timestamp(card.expiration)
+                    .timestamp(card.lastUsage)
+                    .number(card.uses)
+                    .endRow();
+        }
+    }
+
+    void purchaseIntents(CopyStream out, long from, long to) throws IOException {
+        for (long g = from; g < to; g++) {
+            Card card = card(g);
+            SplittableRandom random = random(PURCHASE, g);
+
+            if (random.nextInt(10) == 0) {
+                LocalDateTime attempted = card.created.minusMinutes(5 + random.nextInt(120));
+                purchaseIntent(out, card, 1, random.nextBoolean() ? "CANCEL" : "FAILURE",
+                        attempted, attempted.plusSeconds(random.nextInt(600)), null);
+            }
+
+            boolean pending = card.status.equals("PENDING");
+            purchaseIntent(out, card, 0, pending ? "PENDING" : "SUCCESS",
+                    card.created.minusSeconds(30 + random.nextInt(300)),
+                    pending ? null : card.created,
+                    pending ? null : card.processorFee);
+        }
+    }
+
+    void paymentIntents(CopyStream out, long from, long to) throws IOException {
+        for (long g = from; g < to; g++) {
+            Card card = card(g);
+            SplittableRandom random = random(PAYMENT, g);
+
+            for (int j = 0; j < card.uses; j++) {
+                long amount = card.paymentAmount(j);
+                LocalDateTime paid = card.paymentTime(j);
+
+                out.id(id(PAYMENT, g * MAX_USES + j))
+                        .id(id(USER, card.owner))
+                        .id(id(CARD, g))
+                        .id(id(COMPANY, card.paymentStore(j, this)))
+                        .number(paymentOrderID(g, j))
+                        .money(amount)
+                        .timestamp(paid.minusSeconds(5 + random.nextInt(60)))
+                        .timestamp(paid)
+                        .text("SUCCESS")
+                        .bool(true)
+                        .text("Payment #" + (j + 1))
+                        .money(card.internalFee(amount))
+                        .endRow();
+            }
+        }
+    }
+
+    void purchaseChecks(CopyStream out, long from, long to) throws IOException {
+        for (long g = from; g < to; g++) {
+            Card card = card(g);
+            if (card.status.equals("PENDING")) continue;
+
+            SplittableRandom random = random(PURCHASE_CHECK, g);
+            out.id(id(PURCHASE_CHECK, g))
+                    .number(purchaseOrderID(g, 0))
+                    .id(id(USER, card.buyer))
+                    .id(card.isCommon() ? null : id(COMPANY, card.store))
+                    .id(null)
+                    .money(card.totalPayed)
+                    .text("USD")
+                    .text(EXTERNAL_PAYMENT_TYPES[random.nextInt(EXTERNAL_PAYMENT_TYPES.length)])
+                    .money(0)
+                    .money(card.totalPayed - card.initial)
+                    .text(PAYMENT_SYSTEMS[random.nextInt(PAYMENT_SYSTEMS.length)])
+                    .text("Gift card purchase")
+                    .text(BANKS[random.nextInt(BANKS.length)])
+                    .timestamp(card.created)
+                    .text("CARD_PURCHASE")
+                    .endRow();
+        }
+    }
+
+    void paymentChecks(CopyStream out, long from, long to) throws IOException {
+        for (long g = from; g < to; g++) {
+            Card card = card(g);
+            for (int j = 0; j < card.uses; j++) {
+                long amount = card.paymentAmount(j);
+
+                out.id(id(PAYMENT_CHECK, g * MAX_USES + j))
+                        .number(paymentOrderID(g, j))
+                        .id(id(USER, card.owner))
+                        .id(id(COMPANY, card.paymentStore(j, this)))
+                        .id(id(CARD, g))
+                        .money(amount)
+                        .text("USD")
+                        .text("KARTO_PAYMENT")
+                        .money(card.internalFee(amount))
+                        .money(0)
+                        .text("Karto")
+                        .text("Payment #" + (j + 1))
+                        .text("Karto")
+                        .timestamp(card.paymentTime(j))
+                        .text("PAYMENT")
+                        .endRow();
+            }
+        }
+    }
+
+    static String userEmail(long u) {
+        return "user" + u + "@" + EMAIL_DOMAIN;
+    }
+
+    private Card card(long g) {
+        SplittableRandom random = random(CARD, g);
+
+        long buyer = buyers.sample(random);
+        long owner = random.nextInt(100) < 88 ? buyer : random.nextLong(scale.users());
+        long store = random.nextInt(10) < 7 ? partners.sample(random) : -1;
+
+        int status = random.nextInt(100);
+        String state = status < 55 ? "ACTIVE" : status < 80 ? "EXPIRED" : status < 95 ? "USED_UP" : "PENDING";
+
+        Rate processorFee = PROCESSOR_FEES[random.nextInt(PROCESSOR_FEES.length)];
+        long totalPayed = amount(random);
+        long initial = totalPayed - new Money(totalPayed).times(processorFee, RoundingMode.UP).minorUnits();
+
+        int maxUses = store >= 0 ? maxUsageCount(store) : 1 + random.nextInt(MAX_USES);
+        int uses = switch (state) {
+            case "USED_UP" -> maxUses;
+            case "PENDING" -> 0;
+            default -> random.nextInt(maxUses);
+        };
+        long spent = switch (state) {
+            case "USED_UP" -> initial;
+            case "PENDING" -> 0;
+            default -> uses == 0 ? 0 : Math.min(initial - 1, Math.max(uses, (long) (initial * random.nextDouble(0.05, 0.95))));
+        };
+
+        int validDays = store >= 0 ? expirationDays(store) : 30 + random.nextInt(63);
+        LocalDateTime created = state.equals("EXPIRED")
+                ? now.minusDays(validDays + 1 + random.nextInt(2 * 365)).minusSeconds(random.nextInt(86_400))
+                : now.minusDays(random.nextInt(validDays)).minusSeconds(random.nextInt(86_400));
+        LocalDateTime expiration = created.plusDays(validDays);
+        LocalDateTime lastUsage = uses == 0 ? created : between(random, created, expiration.isBefore(now) ? expiration : now);
+
+        return new Card(g, buyer, owner, store, state, processorFee, totalPayed, initial, initial - spent, uses, maxUses,
+                created, expiration, lastUsage, random.nextLong());
+    }
+
+    private void purchaseIntent(CopyStream out, Card card, int slot, String status,
+                                LocalDateTime created, LocalDateTime result, Rate removedFee) throws IOException {
+        out.id(id(PURCHASE, card.index * PURCHASE_SLOTS + slot))
+                .id(id(USER, card.buyer))
+                .id(card.isCommon() ? null : id(COMPANY, card.store))
+                .number(purchaseOrderID(card.index, slot))
+                .money(card.totalPayed)
+                .timestamp(created)
+                .timestamp(result)
+                .text(status)
+                .text(removedFee == null ? null : removedFee.toString())
+                .endRow();
+    }
+
+    private long purchaseOrderID(long g, int slot) {
+        return 1 + g * PURCHASE_SLOTS + slot;
+    }
+
+    private long paymentOrderID(long g, int use) {
+        return 1 + scale.giftCards() * PURCHASE_SLOTS + g * MAX_USES + use;
+    }
+
+    private int expirationDays(long c) {
+        return 30 + random(EXPIRATION_PERIOD, c).nextInt(63);
+    }
+
+    private int maxUsageCount(long c) {
+        return 1 + random(USAGE_LIMIT, c).nextInt(MAX_USES);
+    }
+
+    /**
+     * Mostly small amounts with a long tail, between 5.00 and 5000.00.
+     */
+    private static long amount(SplittableRandom random) {
+        double value = Math.exp(random.nextGaussian() * 0.8 + Math.log(60));
+        return Math.round(Math.clamp(value, 5.0, 5000.0) * 100);
+    }
+
+    private SplittableRandom random(long table, long index) {
+        return new SplittableRandom(seed ^ (table << 56) ^ (index * GOLDEN_GAMMA));
+    }
+
+    /**
+     * Version 4 shaped UUID carrying the table and row index, unique within a dataset and stable across runs.
+     */
+    private UUID id(long table, long index) {
+        long mostSigBits = ((seed & 0xFFFF_FFFF_FFFF_0FFFL) | 0x4000L);
+        long leastSigBits = 0x8000_0000_0000_0000L | (table << 48) | index;
+        return new UUID(mostSigBits, leastSigBits);
+    }
+
+    private static String phone(String countryCode, long index) {
+        return String.format(Locale.ROOT, "%s %03d-%03d-%04d",
+                countryCode, 200 + (index / 10_000_000) % 800, (index / 10_000) % 1000, index % 10_000);
+    }
+
+    private static String secretKey(SplittableRandom random) {
+        byte[] key = new byte[20];
+        random.nextBytes(key);
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    private LocalDateTime pastWithin(SplittableRandom random, int days) {
+        return now.minusDays(random.nextInt(days)).minusSeconds(random.nextInt(86_400));
+    }
+
+    private static LocalDateTime between(SplittableRandom random, LocalDateTime from, LocalDateTime to) {
+        long seconds = Duration.between(from, to).toSeconds();
+        return seconds <= 0 ? from : from.plusSeconds(random.nextLong(seconds + 1));
+    }
+
+    private record Card(long index, long buyer, long owner, long store, String status, Rate processorFee,
+                        long totalPayed, long initial, long balance, int uses, int maxUses,
+                        LocalDateTime created, LocalDateTime expiration, LocalDateTime lastUsage, long paymentSeed) {
+
+        boolean isCommon() {
+            return store < 0;
+        }
+
+        long paymentAmount(int use) {
+            long spent = initial - balance;
+            return spent / uses + (use < spent % uses ? 1 : 0);
+        }
+
+        LocalDateTime paymentTime(int use) {
+            long seconds = Duration.between(created, lastUsage).toSeconds();
+            return created.plusSeconds(seconds * (use + 1) / uses);
+        }
+
+        /**
+         * A common card is accepted by any partner, a store-specific one only by its store.
+         */
+        long paymentStore(int use, Dataset dataset) {
+            if (!isCommon()) return store;
+            return dataset.partners.sample(new SplittableRandom(paymentSeed + use));
+        }
+
+        long internalFee(long amount) {
+            if (!isCommon()) return 0;
+            return new Money(amount).times(GiftCard.KARTO_COMMON_CARD_FEE_RATE, RoundingMode.UP).minorUnits();
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package org.project.karto.seed;
+
+import de.mkammerer.argon2.Argon2Factory;
+import org.postgresql.ds.PGSimpleDataSource;
+import org.project.karto.infrastructure.security.Argon2Parameters;
+import org.project.karto.infrastructure.security.PasswordEncoder;
+
+import javax.sql.DataSource;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Fills a migrated database with a production sized {@link Dataset} of customers, partners, gift cards, purchase
+ * and payment intents and checks, for benchmarks and query plan tests.
+ * <p>
+ * Rows are generated on the fly and streamed with {@code COPY}, every table split into {@link Scale#threads()}
+ * ranges written in parallel, each on its own connection. Tables are written in foreign key order, then analyzed so
+ * the planner sees the real distribution, and the order sequence is moved past the seeded orders.
+ * <p>
+ * From the command line, against the dev database by default:
+ * {@code mvn -Pseed test -Dseed.args="--users=1000000 --threads=8"}.
+ */
+public final class DatasetSeeder {
+
+    /**
+     * Password of every seeded customer and partner, so seeded accounts can log in under load.
+     */
+    public static final String PASSWORD = "seeded-password";
+
+    public static final long DEFAULT_SEED = 20_240_601L;
+
+    private static final String[] TABLES = {
+            "user_account", "companies", "gift_card", "card_purchase_intent", "payment_intent", "chck"
+    };
+
+    private static final String CONTINUE_ORDER_SEQUENCE = """
+            SELECT setval('card_purchase_intent_order_id_seq',
+                          GREATEST(?, (SELECT last_value FROM card_purchase_intent_order_id_seq)))
+            """;
+
+    private final DataSource dataSource;
+
+    private final Scale scale;
+
+    private final long seed;
+
+    public DatasetSeeder(DataSource dataSource, Scale scale, long seed) {
+        this.dataSource = dataSource;
+        this.scale = scale;
+        this.seed = seed;
+    }
+
+    /**
+     * @return rows written per table
+     */
+    public Map<String, Long> seed() throws SQLException, IOException, InterruptedException {
+        Dataset dataset = new Dataset(scale, seed, LocalDateTime.now().withNano(0), hashPassword());
+        Map<String, Long> rows = new ConcurrentHashMap<>();
+
+        ExecutorService executor = Executors.newFixedThreadPool(scale.threads());
+        try {
+            phase(executor, rows,
+                    new Table("user_account", Dataset.USER_COLUMNS, scale.users(), dataset::users),
+                    new Table("companies", Dataset.COMPANY_COLUMNS, scale.companies(), dataset::companies));
+            phase(executor, rows,
+                    new Table("gift_card", Dataset.GIFT_CARD_COLUMNS, scale.giftCards(), dataset::giftCards));
+            phase(executor, rows,
+                    new Table("card_purchase_intent", Dataset.PURCHASE_INTENT_COLUMNS, scale.giftCards(),
+                            dataset::purchaseIntents),
+                    new Table("payment_intent", Dataset.PAYMENT_INTENT_COLUMNS, scale.giftCards(),
+                            dataset::paymentIntents),
+                    new Table("chck", Dataset.CHECK_COLUMNS, scale.giftCards(), dataset::purchaseChecks),
+                    new Table("chck", Dataset.CHECK_COLUMNS, scale.giftCards(), dataset::paymentChecks));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            try (PreparedStatement statement = connection.prepareStatement(CONTINUE_ORDER_SEQUENCE)) {
+                statement.setLong(1, Math.max(1, dataset.lastOrderID()));
+                statement.execute();
+            }
+            try (Statement statement = connection.createStatement()) {
+                statement.execute("ANALYZE " + String.join(", ", TABLES));
+            }
+        }
+
+        Map<String, Long> ordered = new LinkedHashMap<>();
+        for (String table : TABLES)
+            ordered.put(table, rows.getOrDefault(table, 0L));
+        return ordered;
+    }
+
+    /**
+     * Removes every seeded customer and partner, their cards, intents and checks go with them by cascade.
+     */
+    public static void clear(DataSource dataSource) throws SQLException {
+        String seeded = "%@" + Dataset.EMAIL_DOMAIN;
+        try (Connection connection = dataSource.getConnection()) {
+            for (String table : List.of("user_account", "companies")) {
+                try (PreparedStatement statement = connection.prepareStatement(
+                        "DELETE FROM " + table + " WHERE email LIKE ?")) {
+                    statement.setString(1, seeded);
+                    statement.executeUpdate();
+                }
+            }
+        }
+    }
+
+    /**
+     * Email of the seeded customer with the given index. Index 0 bought the most cards, popularity falls with
+     * the index.
+     */
+    public static String userEmail(long index) {
+        return Dataset.userEmail(index);
+    }
+
+    private void phase(ExecutorService executor, Map<String, Long> rows, Table... tables)
+            throws SQLException, IOException, InterruptedException {
+        long start = System.nanoTime();
+        List<Future<Long>> parts = new ArrayList<>();
+        List<String> names = new ArrayList<>();
+
+        for (Table table : tables) {
+            long chunk = Math.ceilDiv(table.size, scale.threads());
+            for (long from = 0; from < table.size; from += chunk) {
+                long rangeStart = from;
+                long rangeEnd = Math.min(table.size, from + chunk);
+                parts.add(executor.submit(() -> copy(table, rangeStart, rangeEnd)));
+                names.add(table.name);
+            }
+        }
+
+        for (int i = 0; i < parts.size(); i++) {
+            try {
+                rows.merge(names.get(i), parts.get(i).get(), Long::sum);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof SQLException sql) throw sql;
+                if (e.getCause() instanceof IOException io) throw io;
+                if (e.getCause() instanceof RuntimeException runtime) throw runtime;
+                throw new IllegalStateException(e.getCause());
+            }
+        }
+
+        for (String table : new LinkedHashSet<>(names))
+            System.out.printf(Locale.ROOT, "%-22s %,14d rows%n", table, rows.getOrDefault(table, 0L));
+        System.out.printf(Locale.ROOT, "%-22s %14.1fs%n", "", (System.nanoTime() - start) / 1e9);
+    }
+
+    private long copy(Table table, long from, long to) throws SQLException, IOException {
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            CopyStream out = new CopyStream(connection, table.name, table.columns);
+            try (out) {
+                table.rows.write(out, from, to);
+            }
+            connection.commit();
+            return out.rows();
+        }
+    }
+
+    private static String hashPassword() {
+        Argon2Parameters parameters = PasswordEncoder.DEFAULT_PARAMETERS;
+        return Argon2Factory.create().hash(parameters.iterations(), parameters.memoryKiB(), parameters.parallelism(),
+                PASSWORD.toCharArray());
+    }
+
+    @FunctionalInterface
+    private interface Rows {
+        void write(CopyStream out, long from, long to) throws IOException;
+    }
+
+    private record Table(String name, String[] columns, long size, Rows rows) {}
+
+    /**
+     * {@code --name=value} options: {@code jdbc-url}, {@code jdbc-user}, {@code jdbc-password}, {@code users},
+     * {@code companies}, {@code gift-cards}, {@code buyer-skew}, {@code partner-skew}, {@code threads}, {@code seed}.
+     * Companies and gift cards default to the ratios of {@link Scale#ofUsers(long, int)}.
+     */
+    public static void main(String[] args) throws SQLException, IOException, InterruptedException {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int separator = arg.indexOf('=');
+            if (!arg.startsWith("--") || separator < 0)
+                throw new IllegalArgumentException("Expected --name=value, got: " + arg);
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        long users = Long.parseLong(options.getOrDefault("users", "100000"));
+        int threads = Integer.parseInt(options.getOrDefault("threads",
+                String.valueOf(Runtime.getRuntime().availableProcessors())));
+        Scale defaults = Scale.ofUsers(users, threads);
+        Scale scale = new Scale(
+                users,
+                Long.parseLong(options.getOrDefault("companies", String.valueOf(defaults.companies()))),
+                Long.parseLong(options.getOrDefault("gift-cards", String.valueOf(defaults.giftCards()))),
+                Double.parseDouble(options.getOrDefault("buyer-skew", String.valueOf(defaults.buyerSkew()))),
+                Double.parseDouble(options.getOrDefault("partner-skew", String.valueOf(defaults.partnerSkew()))),
+                threads);
+
+        PGSimpleDataSource dataSource = new PGSimpleDataSource();
+        dataSource.setURL(options.getOrDefault("jdbc-url", "jdbc:postgresql://localhost:5432/karto"));
+        dataSource.setUser(options.getOrDefault("jdbc-user", "root"));
+        dataSource.setPassword(options.getOrDefault("jdbc-password", "password"));
+
+        long seed = Long.parseLong(options.getOrDefault("seed", String.valueOf(DEFAULT_SEED)));
+        new DatasetSeeder(dataSource, scale, seed).seed();
+    }
+}
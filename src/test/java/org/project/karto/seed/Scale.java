@@ -0,0 +1,33 @@
+package org.project.karto.seed;
+
+/**
+ * Size of a seeded dataset. Purchase intents, payment intents and checks follow from the gift cards: every card
+ * has its purchase, some an abandoned attempt before it, and one payment per use.
+ *
+ * @param users         customer accounts
+ * @param companies     partner accounts
+ * @param giftCards     cards over all customers
+ * @param buyerSkew     how unevenly cards are spread over customers, see {@link Skew}
+ * @param partnerSkew   how unevenly store-specific cards are spread over partners, see {@link Skew}
+ * @param threads       parallel {@code COPY} streams, each on its own connection
+ */
+public record Scale(long users, long companies, long giftCards, double buyerSkew, double partnerSkew, int threads) {
+
+    public static final double DEFAULT_BUYER_SKEW = 0.6;
+
+    public static final double DEFAULT_PARTNER_SKEW = 1.1;
+
+    public Scale {
+        if (users < 1) throw new IllegalArgumentException("At least one user is required");
+        if (companies < 1) throw new IllegalArgumentException("At least one company is required");
+        if (giftCards < 0) throw new IllegalArgumentException("Gift card count can`t be negative");
+        if (threads < 1) throw new IllegalArgumentException("At least one thread is required");
+    }
+
+    /**
+     * One partner per thousand customers and three cards per customer on average.
+     */
+    public static Scale ofUsers(long users, int threads) {
+        return new Scale(users, Math.max(10, users / 1000), users * 3, DEFAULT_BUYER_SKEW, DEFAULT_PARTNER_SKEW, threads);
+    }
+}
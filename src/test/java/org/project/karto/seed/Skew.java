@@ -0,0 +1,39 @@
+package org.project.karto.seed;
+
+import java.util.SplittableRandom;
+
+/**
+ * Picks an index in {@code [0, size)} with probability falling off as {@code 1 / (index + 1)^exponent}, a
+ * continuous approximation of the Zipf distribution sampled by inverting its CDF. Index 0 is the most popular one.
+ * <p>
+ * An exponent of 0 is uniform; around 1 a handful of partners take most of the sales, as in real marketplaces.
+ */
+final class Skew {
+
+    private final long size;
+
+    private final double oneMinusExponent;
+
+    private final double upper;
+
+    Skew(long size, double exponent) {
+        if (size < 1) throw new IllegalArgumentException("Skew needs at least one element");
+        if (exponent < 0) throw new IllegalArgumentException("Skew exponent can`t be negative");
+
+        this.size = size;
+        this.oneMinusExponent = 1.0 - exponent;
+        this.upper = isLogarithmic() ? Math.log(size + 1.0) : Math.pow(size + 1.0, oneMinusExponent) - 1.0;
+    }
+
+    long sample(SplittableRandom random) {
+        double u = random.nextDouble();
+        double x = isLogarithmic()
+                ? Math.exp(u * upper)
+                : Math.pow(u * upper + 1.0, 1.0 / oneMinusExponent);
+        return Math.min(size - 1, (long) x - 1);
+    }
+
+    private boolean isLogarithmic() {
+        return Math.abs(oneMinusExponent) < 1e-9;
+    }
+}
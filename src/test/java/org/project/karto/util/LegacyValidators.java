@@ -0,0 +1,37 @@
+package org.project.karto.util;
+
+import java.util.regex.Pattern;
+
+/**
+ * Regex based Email and Phone validation as it was before the single-pass validators.
+ * Kept as the reference the validators are proven equivalent to.
+ */
+public final class LegacyValidators {
+
+    public static final Pattern EMAIL = Pattern.compile("(?:[a-z0-9!#$%&'*+/=?^_`{|}~-]+(?:\\.[a-z0-9!#$%&'*+/=?^_`{|}~-]+)*|\"(?:[\\x01-\\x08\\x0b\\x0c\\x0e-\\x1f\\x21\\x23-\\x5b\\x5d-\\x7f]|\\\\[\\x01-\\x09\\x0b\\x0c\\x0e-\\x7f])*\")@(?:(?:[a-z0-9](?:[a-z0-9-]*[a-z0-9])?\\.)+[a-z0-9](?:[a-z0-9-]*[a-z0-9])?|\\[(?:(?:25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?)\\.){3}(?:25[0-5]|2[0-4][0-9]|[01]?[0-9][0-9]?|[a-z0-9-]*[a-z0-9]:(?:[\\x01-\\x08\\x0b\\x0c\\x0e-\\x1f\\x21-\\x5a\\x53-\\x7f]|\\\\[\\x01-\\x09\\x0b\\x0c\\x0e-\\x7f])+)\\])");
+
+    public static final Pattern PHONE = Pattern.compile("^(\\+\\d{1,3}( )?)?((\\(\\d{1,3}\\))|\\d{1,3})[- .]?\\d{3,4}[- .]?\\d{4}$");
+
+    private LegacyValidators() {}
+
+    /**
+     * @return the message the former validation failed with, or {@code null} if the email was accepted
+     */
+    public static String emailError(String email) {
+        if (email == null) return "Email can`t be null";
+        if (email.isBlank()) return "Email can`t be blank";
+        if (email.length() > 256) return "Email is too long";
+
+        String[] splitEmail = email.split("@");
+        if (splitEmail.length != 2) return "Invalid email format.";
+        if (splitEmail[0].isEmpty() || splitEmail[0].length() > 64) return "Invalid email format.";
+        if (splitEmail[1].isEmpty() || (splitEmail[1].length() < 3 || splitEmail[1].length() > 252))
+            return "Invalid email format.";
+
+        return EMAIL.matcher(email).matches() ? null : "Email format error";
+    }
+
+    public static boolean isPhone(String phone) {
+        return phone != null && !phone.isBlank() && phone.length() <= 22 && PHONE.matcher(phone).matches();
+    }
+}
@@ -0,0 +1,32 @@
+package org.project.karto.util;
+
+import io.quarkus.test.common.QuarkusTestResourceLifecycleManager;
+import org.testcontainers.containers.GenericContainer;
+
+import java.util.Map;
+
+public class MailpitTestResource implements QuarkusTestResourceLifecycleManager {
+
+    GenericContainer<?> mailpitContainer;
+
+    @Override
+    public Map<String, String> start() {
+        mailpitContainer = new GenericContainer<>("axllent/mailpit:latest")
+                .withExposedPorts(1025, 8025);
+
+        mailpitContainer.start();
+
+        String host = mailpitContainer.getHost();
+        String smtpPort = String.valueOf(mailpitContainer.getMappedPort(1025));
+        String mailpitURL = "http://%s:%s".formatted(host, mailpitContainer.getMappedPort(8025));
+        return Map.of("mailer-host", host, "mailer-port", smtpPort, "mailpit-url", mailpitURL);
+    }
+
+    @Override
+    public void stop() {
+        if (mailpitContainer != null) {
+            mailpitContainer.stop();
+            mailpitContainer = null;
+        }
+    }
+}